@@ -0,0 +1,161 @@
+package fr.mercury.exempli.gratia.asset;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.asset.loader.scene.BinarySceneFormat;
+import fr.mercury.nucleus.asset.loader.scene.BinarySceneLoader;
+import fr.mercury.nucleus.asset.loader.scene.BinarySceneWriter;
+import fr.mercury.nucleus.math.objects.Color;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.logic.state.DepthBufferState;
+import fr.mercury.nucleus.renderer.logic.state.DepthBufferState.DepthFunction;
+import fr.mercury.nucleus.renderer.logic.state.FaceCullingState;
+import fr.mercury.nucleus.renderer.logic.state.FaceCullingState.WindingOrder;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState.Face;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.queue.BucketType;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentMode;
+import fr.mercury.nucleus.scenegraph.environment.Fog;
+import fr.mercury.nucleus.utils.MercuryException;
+
+/**
+ * <code>TestBinaryScene</code> writes a small scene-graph with a {@link BinarySceneWriter} and reads it back with a
+ * {@link BinarySceneLoader}, checking that the hierarchy, transforms, render states, environment and vertex data
+ * survive the round-trip. It also checks that a corrupted string table is reported as a {@link MercuryException}.
+ * <p>
+ * The test doesn't require any graphical context nor asset manager, since the scene doesn't reference any material
+ * or texture.
+ *
+ * @author GnosticOccultist
+ */
+public class TestBinaryScene {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The tolerance used to compare the transforms.
+     */
+    private static final float TOLERANCE = 0.0001F;
+
+    /**
+     * The number of failed checks.
+     */
+    private int failures = 0;
+
+    /**
+     * Launch method for the <code>TestBinaryScene</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestBinaryScene().run();
+    }
+
+    private void run() {
+        var positions = new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 };
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, positions);
+
+        var scene = new NucleusMundi("scene");
+        scene.setEnvironmentMode(EnvironmentMode.ANCESTOR_PRIORITY);
+        scene.addEnvironmentElement(new Fog(new Color(0.5F, 0.6F, 0.7F, 1F), 0.05F));
+
+        var group = new NucleusMundi("group");
+        group.setBucket(BucketType.TRANSPARENT);
+        group.setRenderStates(new FaceCullingState().setFace(Face.BACK).setWindingOrder(WindingOrder.CLOCKWISE),
+                new DepthBufferState().setFunction(DepthFunction.GREATER_OR_EQUAL));
+
+        var triangle = new PhysicaMundi("triangle", mesh);
+        triangle.setTranslation(1, 2, 3);
+        triangle.setRotation(0, (float) Math.PI / 4, 0);
+        triangle.setScale(2, 2, 2);
+
+        group.attach(triangle);
+        scene.attach(group);
+
+        var buffer = new BinarySceneWriter().toByteBuffer(scene);
+        var root = new BinarySceneLoader().read(buffer.duplicate());
+
+        check(root instanceof NucleusMundi && ((NucleusMundi) root).size() == 1, "hierarchy of the scene");
+        check("scene".equals(root.getName()), "name of the scene");
+        check(root.getEnvironmentMode() == EnvironmentMode.ANCESTOR_PRIORITY, "environment mode of the scene");
+        var elements = 0;
+        Fog fog = null;
+        for (var element : root.getLocalEnvironmentElements()) {
+            elements++;
+            fog = element instanceof Fog ? (Fog) element : fog;
+        }
+        check(elements == 1 && fog != null && Math.abs(fog.getDensity() - 0.05F) <= TOLERANCE, "fog of the scene");
+
+        var readGroup = ((NucleusMundi) root).getChild(0);
+        check(readGroup.getBucket(false).equals(BucketType.TRANSPARENT), "bucket of the group");
+        var culling = readGroup.getRenderState(RenderState.Type.FACE_CULLING);
+        check(culling instanceof FaceCullingState && ((FaceCullingState) culling).face() == Face.BACK
+                && ((FaceCullingState) culling).windingOrder() == WindingOrder.CLOCKWISE, "face culling of the group");
+        var depth = readGroup.getRenderState(RenderState.Type.DEPTH_BUFFER);
+        check(depth instanceof DepthBufferState
+                && ((DepthBufferState) depth).function() == DepthFunction.GREATER_OR_EQUAL, "depth of the group");
+
+        var readTriangle = ((NucleusMundi) readGroup).getChild(0);
+        check(readTriangle instanceof PhysicaMundi, "kind of the triangle");
+        checkTransform(triangle, readTriangle);
+        var data = ((PhysicaMundi) readTriangle).getMesh().getBuffer(VertexBufferType.POSITION).getData();
+        check(FloatBuffer.wrap(positions).equals(data), "positions of the triangle");
+
+        checkCorruptedString(buffer.duplicate());
+
+        if (failures == 0) {
+            logger.info("The binary scene has been read back identically.");
+        }
+    }
+
+    private void checkTransform(AnimaMundi expected, AnimaMundi actual) {
+        var e = expected.getLocalTransform();
+        var a = actual.getLocalTransform();
+        check(equals(e.getTranslation(), a.getTranslation()) && equals(e.getScale(), a.getScale())
+                && e.getRotation().equals(a.getRotation()), "transform of the triangle");
+    }
+
+    /**
+     * Breaks the length of the first string of the provided binary scene, which
+     * must be rejected by the loader.
+     */
+    private void checkCorruptedString(ByteBuffer buffer) {
+        buffer.order(BinarySceneFormat.ORDER);
+        var entry = BinarySceneFormat.HEADER_SIZE + BinarySceneFormat.STRINGS * BinarySceneFormat.DIRECTORY_ENTRY_SIZE;
+        var record = buffer.getInt(entry);
+        buffer.putInt(record + Integer.BYTES, Integer.MAX_VALUE);
+
+        try {
+            new BinarySceneLoader().read(buffer);
+            failures++;
+            logger.error("The corrupted string hasn't been rejected!");
+        } catch (MercuryException ex) {
+            logger.info("The corrupted string has been rejected: " + ex.getMessage());
+        }
+    }
+
+    private void check(boolean condition, String what) {
+        if (!condition) {
+            failures++;
+            logger.error("The " + what + " differs after the round-trip!");
+        }
+    }
+
+    private static boolean equals(ReadableVector3f a, ReadableVector3f b) {
+        return Math.abs(a.x() - b.x()) <= TOLERANCE && Math.abs(a.y() - b.y()) <= TOLERANCE
+                && Math.abs(a.z() - b.z()) <= TOLERANCE;
+    }
+}
@@ -0,0 +1,158 @@
+package fr.mercury.exempli.gratia.renderer.command;
+
+import java.util.Random;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.command.CountingRenderBackend;
+import fr.mercury.nucleus.renderer.command.NullRenderBackend;
+import fr.mercury.nucleus.renderer.command.RenderCommandList;
+import fr.mercury.nucleus.renderer.command.RenderCommandRecorder;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderSource;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderSource.ShaderType;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.queue.RenderSnapshot;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.MaterialVariable.ValueType;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestRenderCommands</code> measures the cost of the renderer on the CPU side, by recording a
+ * {@link RenderSnapshot} into a {@link RenderCommandList} and replaying it with a {@link NullRenderBackend}, and
+ * reports the commands counted by a {@link CountingRenderBackend}.
+ * <p>
+ * The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestRenderCommands {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of objects in the snapshot.
+     */
+    private static final int OBJECT_COUNT = 10_000;
+    /**
+     * The number of distinct materials.
+     */
+    private static final int MATERIAL_COUNT = 16;
+    /**
+     * The number of distinct meshes.
+     */
+    private static final int MESH_COUNT = 4;
+    /**
+     * The number of measured frames.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The snapshot to record.
+     */
+    private final RenderSnapshot snapshot = new RenderSnapshot();
+    /**
+     * The camera used to extract the snapshot.
+     */
+    private final Camera camera = new Camera(1280, 720);
+    /**
+     * The random number generator, seeded to make the runs comparable.
+     */
+    private final Random random = new Random(42L);
+
+    /**
+     * Launch method for the <code>TestRenderCommands</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestRenderCommands().run();
+    }
+
+    private void run() {
+        populate();
+
+        var recorder = new RenderCommandRecorder();
+        var commands = new RenderCommandList();
+        var backend = new NullRenderBackend();
+
+        // Warm-up the recording and the replay first.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            commands.reset();
+            recorder.record(snapshot, commands);
+            commands.execute(backend);
+        }
+
+        var start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            commands.reset();
+            recorder.record(snapshot, commands);
+        }
+        var recordTime = millis(start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            commands.execute(backend);
+        }
+        var replayTime = millis(start) / ITERATIONS;
+
+        var counter = new CountingRenderBackend();
+        commands.execute(counter);
+
+        logger.info("Recorded " + snapshot.size() + " proxies into " + commands.size() + " commands in " + recordTime
+                + " ms, replayed in " + replayTime + " ms.");
+        logger.info(counter.toString());
+    }
+
+    /**
+     * Populates the snapshot with objects scattered in front of the camera, each
+     * using a random mesh and material.
+     */
+    private void populate() {
+        var meshes = new Mesh[MESH_COUNT];
+        for (int i = 0; i < MESH_COUNT; i++) {
+            meshes[i] = new Mesh();
+            meshes[i].setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW,
+                    new float[] { 0, 0, 0, 1, 0, 0, 0, 1, i });
+        }
+        var source = new ShaderSource(ShaderType.VERTEX,
+                "uniform mat4 viewProjectionModelMatrix; in vec3 position; "
+                        + "void main() { gl_Position = viewProjectionModelMatrix * vec4(position, 1.0); }");
+        var materials = new Material[MATERIAL_COUNT];
+        for (int i = 0; i < MATERIAL_COUNT; i++) {
+            materials[i] = new Material("Material " + i, "A material of the render commands test.");
+            materials[i].addShaderSource("Material " + i, source);
+            materials[i].addVariable("viewProjectionModelMatrix", null, ValueType.RENDERER_MATRIX);
+        }
+
+        var scene = new NucleusMundi("scene");
+        var physicas = new PhysicaMundi[OBJECT_COUNT];
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            var physica = new PhysicaMundi(meshes[random.nextInt(MESH_COUNT)]);
+            physica.setMaterial(materials[random.nextInt(MATERIAL_COUNT)]);
+            physica.setTranslation(random.nextFloat() * 200.0F - 100.0F, random.nextFloat() * 20.0F,
+                    -random.nextFloat() * 500.0F);
+            scene.attach(physica);
+            physicas[i] = physica;
+        }
+        scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+
+        camera.update();
+        snapshot.reset(camera);
+        for (var physica : physicas) {
+            snapshot.add(physica);
+        }
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -26,6 +26,9 @@ import fr.mercury.nucleus.utils.data.BufferUtils;
  * Instanced rendering allows to render multiple instances of the same mesh using only one draw call. But, there is 
  * also one drawback, which is that the user needs to create a vertex attribute (limited at a size of 4 per vertex
  * data) whenever he wants to change an instance instead of using uniforms.
+ * <p>
+ * Note that without an instance count, the renderer fills the "instanceMatrix" attribute itself with the world
+ * matrices of the consecutive physica-mundis sharing the same mesh and instancing material.
  * 
  * @author GnosticOccultist
  */
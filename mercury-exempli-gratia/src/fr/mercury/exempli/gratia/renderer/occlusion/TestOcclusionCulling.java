@@ -0,0 +1,225 @@
+package fr.mercury.exempli.gratia.renderer.occlusion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.occlusion.OcclusionCuller;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestOcclusionCulling</code> measures the cost and the efficiency of the {@link OcclusionCuller} on a city
+ * made of building blocks along a street, with small props scattered between them. Only the props in the street
+ * are visible, the others being hidden by the buildings used as occluders.
+ * <p>
+ * The test doesn't require any graphical context, the occluders are rasterized on the CPU, so it can run in a
+ * {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestOcclusionCulling {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of props scattered in the city.
+     */
+    private static final int PROP_COUNT = 50_000;
+    /**
+     * The number of building blocks on each side of the street.
+     */
+    private static final int BLOCK_COUNT = 20;
+    /**
+     * The size of a building block.
+     */
+    private static final float BLOCK_SIZE = 40.0F;
+    /**
+     * The half-width of the street.
+     */
+    private static final float STREET_WIDTH = 8.0F;
+    /**
+     * The number of culled frames measured.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The scene containing the city.
+     */
+    private final NucleusMundi scene = new NucleusMundi("city");
+    /**
+     * The props of the city, tested for visibility.
+     */
+    private final List<PhysicaMundi> props = new ArrayList<>();
+    /**
+     * The camera looking along the street.
+     */
+    private final Camera camera = new Camera(1280, 720);
+    /**
+     * The random number generator, seeded to make the runs comparable.
+     */
+    private final Random random = new Random(42L);
+
+    /**
+     * Launch method for the <code>TestOcclusionCulling</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestOcclusionCulling().run();
+    }
+
+    private void run() {
+        var culler = new OcclusionCuller();
+        populate(culler);
+        scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+
+        camera.setFrustumPerspective(60.0F, camera.getAspect(), 0.5F, 2_000.0F);
+        camera.setLocation(0.0F, 1.7F, 10.0F);
+        camera.lookAt(0.0F, 1.7F, -100.0F, Vector3f.UNIT_Y);
+        camera.update();
+
+        // Warm-up both methods first.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            cull(null);
+            culler.update(camera);
+            cull(culler);
+        }
+
+        var start = System.nanoTime();
+        var frustumVisible = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            frustumVisible = cull(null);
+        }
+        var frustumTime = millis(start) / ITERATIONS;
+
+        var buffer = culler.getBuffer();
+        var parallelTime = rasterize(culler, true);
+        var serialTime = rasterize(culler, false);
+        buffer.setParallel(true);
+
+        start = System.nanoTime();
+        var occlusionVisible = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            occlusionVisible = cull(culler);
+        }
+        var testTime = millis(start) / ITERATIONS;
+
+        logger.info("Rasterized " + buffer.getTriangleCount() + " occluder triangles into " + buffer.getWidth() + "x"
+                + buffer.getHeight() + " pixels in " + parallelTime + " ms (parallel), " + serialTime
+                + " ms (serial).");
+        logger.info("Frustum culling: " + frustumVisible + "/" + PROP_COUNT + " visible props in " + frustumTime
+                + " ms.");
+        logger.info("Occlusion culling: " + occlusionVisible + "/" + PROP_COUNT + " visible props in " + testTime
+                + " ms of tests, " + culler.getOccludedCount() + " occluded.");
+
+        checkStreet(culler);
+    }
+
+    /**
+     * Populates the city with building blocks added as occluders on each side of the
+     * street, and props scattered everywhere.
+     */
+    private void populate(OcclusionCuller culler) {
+        var cube = createCube();
+        var buildings = new NucleusMundi("buildings");
+        scene.attach(buildings);
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            for (int side = -1; side <= 1; side += 2) {
+                var building = new PhysicaMundi("building-" + i + "-" + side, cube);
+                var height = 15.0F + random.nextFloat() * 30.0F;
+                building.setScale(BLOCK_SIZE * 0.45F, height, BLOCK_SIZE * 0.45F);
+                building.setTranslation(side * (STREET_WIDTH + BLOCK_SIZE * 0.5F), height, -i * BLOCK_SIZE);
+                buildings.attach(building);
+                culler.addOccluder(building);
+            }
+        }
+
+        var propsNode = new NucleusMundi("props");
+        scene.attach(propsNode);
+        var extent = BLOCK_COUNT * BLOCK_SIZE;
+        for (int i = 0; i < PROP_COUNT; i++) {
+            var prop = new PhysicaMundi("prop-" + i, cube);
+            prop.setScale(0.5F, 0.5F, 0.5F);
+            prop.setTranslation((random.nextFloat() * 2.0F - 1.0F) * extent, 0.5F, -random.nextFloat() * extent);
+            propsNode.attach(prop);
+            props.add(prop);
+        }
+    }
+
+    /**
+     * Return the number of props passing the frustum test, and the occlusion test
+     * of the provided culler if any.
+     */
+    private int cull(OcclusionCuller culler) {
+        var frustum = camera.getFrustum();
+        var visible = 0;
+        for (var prop : props) {
+            if (frustum.intersects(prop.getWorldBoundingBox(), Frustum.ALL_PLANES) == Frustum.OUTSIDE) {
+                continue;
+            }
+            if (culler == null || !culler.isOccluded(prop)) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Measures the time needed to rasterize the occluders of the culler.
+     */
+    private double rasterize(OcclusionCuller culler, boolean parallel) {
+        culler.getBuffer().setParallel(parallel);
+        var start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            culler.update(camera);
+        }
+        return millis(start) / ITERATIONS;
+    }
+
+    /**
+     * Checks that the props in the middle of the street, in front of every
+     * building, are never occluded.
+     */
+    private void checkStreet(OcclusionCuller culler) {
+        for (var prop : props) {
+            var location = prop.getWorldTransform().getTranslation();
+            if (Math.abs(location.x()) < STREET_WIDTH * 0.25F && location.z() < 0.0F && culler.isOccluded(prop)) {
+                throw new IllegalStateException("The prop " + prop + " in the street shouldn't be occluded!");
+            }
+        }
+        logger.info("None of the props in the street were occluded.");
+    }
+
+    /**
+     * Creates an indexed cube mesh centered on the origin with an extent of 1.
+     */
+    private static Mesh createCube() {
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] {
+                -1, -1, -1, 1, -1, -1, 1, 1, -1, -1, 1, -1,
+                -1, -1, 1, 1, -1, 1, 1, 1, 1, -1, 1, 1 });
+        mesh.setupBuffer(VertexBufferType.INDEX, Usage.STATIC_DRAW, new int[] {
+                0, 2, 1, 0, 3, 2, 4, 5, 6, 4, 6, 7,
+                0, 1, 5, 0, 5, 4, 3, 6, 2, 3, 7, 6,
+                0, 4, 7, 0, 7, 3, 1, 2, 6, 1, 6, 5 });
+        return mesh;
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,173 @@
+package fr.mercury.exempli.gratia.renderer.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.queue.BucketType;
+import fr.mercury.nucleus.renderer.queue.RenderBucket;
+import fr.mercury.nucleus.renderer.queue.RenderListBuilder;
+import fr.mercury.nucleus.renderer.queue.RenderSortKey.DepthOrder;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.visitor.ParallelTraversal;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestRenderListBuilder</code> measures the time needed by a {@link RenderListBuilder} to cull a large scene
+ * and to fill and sort the {@link RenderBucket}, with a single worker and with one worker per processor.
+ * <p>
+ * The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestRenderListBuilder {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of groups in the scene.
+     */
+    private static final int GROUP_COUNT = 64;
+    /**
+     * The number of physica-mundis in each group.
+     */
+    private static final int GROUP_SIZE = 1_000;
+    /**
+     * The number of distinct materials.
+     */
+    private static final int MATERIAL_COUNT = 32;
+    /**
+     * The number of distinct meshes.
+     */
+    private static final int MESH_COUNT = 8;
+    /**
+     * The number of measured builds.
+     */
+    private static final int ITERATIONS = 100;
+
+    /**
+     * The scene to build the render list of.
+     */
+    private final NucleusMundi scene = new NucleusMundi("scene");
+    /**
+     * The camera used to cull the scene.
+     */
+    private final Camera camera = new Camera(1280, 720);
+    /**
+     * The buckets to fill, organized by their types.
+     */
+    private final Map<BucketType, RenderBucket> buckets = new HashMap<>();
+    /**
+     * The random number generator, seeded to make the runs comparable.
+     */
+    private final Random random = new Random(42L);
+
+    /**
+     * Launch method for the <code>TestRenderListBuilder</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestRenderListBuilder().run();
+    }
+
+    private void run() {
+        populate();
+
+        var opaque = new RenderBucket(camera);
+        opaque.setKeyOrder(DepthOrder.FRONT_TO_BACK);
+        buckets.put(BucketType.OPAQUE, opaque);
+        var transparent = new RenderBucket(camera);
+        transparent.setKeyOrder(DepthOrder.BACK_TO_FRONT);
+        buckets.put(BucketType.TRANSPARENT, transparent);
+
+        var serial = measure(1);
+        var visible = opaque.size() + transparent.size();
+        var processors = Runtime.getRuntime().availableProcessors();
+        var parallel = measure(processors);
+
+        logger.info("Built the render list of " + GROUP_COUNT * GROUP_SIZE + " objects (" + visible + " visible) in "
+                + serial + " ms with 1 worker, " + parallel + " ms with " + processors + " workers ("
+                + String.format("%.2f", serial / parallel) + "x).");
+    }
+
+    /**
+     * Return the average time in milliseconds to build the render list with the
+     * provided number of workers. The buckets are left filled.
+     */
+    private double measure(int parallelism) {
+        var pool = new ForkJoinPool(parallelism);
+        var builder = new RenderListBuilder(ParallelTraversal.DEFAULT_THRESHOLD, pool);
+
+        try {
+            // Warm-up the build first.
+            for (int i = 0; i < ITERATIONS / 10; i++) {
+                build(builder);
+            }
+
+            var start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                build(builder);
+            }
+            return millis(start) / ITERATIONS;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void build(RenderListBuilder builder) {
+        buckets.values().forEach(RenderBucket::flush);
+        builder.build(scene, camera, buckets, null, 1.0F);
+    }
+
+    /**
+     * Populates the scene with groups of objects scattered around the camera, each
+     * using a random mesh and material, a tenth of them being transparent.
+     */
+    private void populate() {
+        var meshes = new Mesh[MESH_COUNT];
+        for (int i = 0; i < MESH_COUNT; i++) {
+            meshes[i] = new Mesh();
+            meshes[i].setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW,
+                    new float[] { 0, 0, 0, 1, 0, 0, 0, 1, i });
+        }
+        var materials = new Material[MATERIAL_COUNT];
+        for (int i = 0; i < MATERIAL_COUNT; i++) {
+            materials[i] = new Material("Material " + i, "A material of the render list test.");
+        }
+
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            var group = new NucleusMundi();
+            for (int j = 0; j < GROUP_SIZE; j++) {
+                var physica = new PhysicaMundi(meshes[random.nextInt(MESH_COUNT)]);
+                physica.setMaterial(materials[random.nextInt(MATERIAL_COUNT)]);
+                physica.setTranslation(random.nextFloat() * 400.0F - 200.0F, random.nextFloat() * 20.0F,
+                        random.nextFloat() * 800.0F - 600.0F);
+                if (random.nextInt(10) == 0) {
+                    physica.setBucket(BucketType.TRANSPARENT);
+                }
+                group.attach(physica);
+            }
+            scene.attach(group);
+        }
+        scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+        camera.update();
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
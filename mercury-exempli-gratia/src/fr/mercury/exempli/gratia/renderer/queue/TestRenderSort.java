@@ -0,0 +1,172 @@
+package fr.mercury.exempli.gratia.renderer.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.queue.RenderBucket;
+import fr.mercury.nucleus.renderer.queue.RenderSortKey;
+import fr.mercury.nucleus.renderer.queue.RenderSortKey.DepthOrder;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestRenderSort</code> compares the cost of sorting a {@link RenderBucket} with a comparator and with the
+ * packed {@link RenderSortKey}, and counts the material and mesh changes of the resulting rendering order.
+ * <p>
+ * The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestRenderSort {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of objects submitted to the bucket.
+     */
+    private static final int OBJECT_COUNT = 20_000;
+    /**
+     * The number of distinct materials.
+     */
+    private static final int MATERIAL_COUNT = 32;
+    /**
+     * The number of distinct meshes.
+     */
+    private static final int MESH_COUNT = 8;
+    /**
+     * The number of measured sorts.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The objects submitted to the bucket, in traversal order.
+     */
+    private final List<PhysicaMundi> objects = new ArrayList<>();
+    /**
+     * The camera used to compute the distances.
+     */
+    private final Camera camera = new Camera(1280, 720);
+    /**
+     * The random number generator, seeded to make the runs comparable.
+     */
+    private final Random random = new Random(42L);
+
+    /**
+     * Launch method for the <code>TestRenderSort</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestRenderSort().run();
+    }
+
+    private void run() {
+        populate();
+
+        var comparatorBucket = new RenderBucket(camera);
+        comparatorBucket.setComparator(comparatorBucket.new StateComparator());
+        var keyBucket = new RenderBucket(camera);
+        keyBucket.setKeyOrder(DepthOrder.FRONT_TO_BACK);
+
+        var comparatorTime = measure(comparatorBucket);
+        var comparatorChanges = countChanges(comparatorBucket);
+        var keyTime = measure(keyBucket);
+        var keyChanges = countChanges(keyBucket);
+
+        logger.info("Sorted " + OBJECT_COUNT + " objects with a comparator in " + comparatorTime + " ms, "
+                + comparatorChanges + ".");
+        logger.info("Sorted " + OBJECT_COUNT + " objects with packed keys in " + keyTime + " ms, " + keyChanges
+                + ".");
+    }
+
+    /**
+     * Populates the scene with objects scattered in front of the camera, each
+     * using a random mesh and material.
+     */
+    private void populate() {
+        var meshes = new Mesh[MESH_COUNT];
+        for (int i = 0; i < MESH_COUNT; i++) {
+            meshes[i] = new Mesh();
+            meshes[i].setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW,
+                    new float[] { 0, 0, 0, 1, 0, 0, 0, 1, i });
+        }
+        var materials = new Material[MATERIAL_COUNT];
+        for (int i = 0; i < MATERIAL_COUNT; i++) {
+            materials[i] = new Material("Material " + i, "A material of the render sort test.");
+        }
+
+        var scene = new NucleusMundi("scene");
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            var physica = new PhysicaMundi(meshes[random.nextInt(MESH_COUNT)]);
+            physica.setMaterial(materials[random.nextInt(MATERIAL_COUNT)]);
+            physica.setTranslation(random.nextFloat() * 200.0F - 100.0F, random.nextFloat() * 20.0F,
+                    -random.nextFloat() * 500.0F);
+            scene.attach(physica);
+            objects.add(physica);
+        }
+        scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+    }
+
+    /**
+     * Return the average time in milliseconds to fill and sort the provided
+     * {@link RenderBucket}. The bucket is left filled and sorted.
+     */
+    private double measure(RenderBucket bucket) {
+        // Warm-up the sort first.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            fillAndSort(bucket);
+        }
+
+        var start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            fillAndSort(bucket);
+        }
+        return millis(start) / ITERATIONS;
+    }
+
+    private void fillAndSort(RenderBucket bucket) {
+        bucket.flush();
+        for (int i = 0; i < objects.size(); i++) {
+            bucket.add(objects.get(i));
+        }
+        bucket.sort();
+    }
+
+    /**
+     * Return a description of the material and mesh changes when rendering the
+     * provided sorted {@link RenderBucket}.
+     */
+    private String countChanges(RenderBucket bucket) {
+        var array = bucket.array();
+        var materialChanges = 0;
+        var meshChanges = 0;
+        for (int i = 1; i < bucket.size(); i++) {
+            var previous = (PhysicaMundi) array[i - 1];
+            var current = (PhysicaMundi) array[i];
+            if (previous.getMaterial() != current.getMaterial()) {
+                materialChanges++;
+            }
+            if (previous.getMesh() != current.getMesh()) {
+                meshChanges++;
+            }
+        }
+        return materialChanges + " material changes and " + meshChanges + " mesh changes";
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,257 @@
+package fr.mercury.exempli.gratia.scenegraph;
+
+import java.util.Random;
+
+import fr.alchemy.utilities.collections.array.Array;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.BoundingSphere;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Ray;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.BoundingVolumeHierarchy;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.visitor.SceneTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.VisitType;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestBVHQueries</code> compares the cost of spatial queries performed with a
+ * {@link BoundingVolumeHierarchy} against a full visit of the scene testing each
+ * {@link PhysicaMundi}, and the cost of refitting the hierarchy when a part of the scene
+ * is moving.
+ * <p>
+ * The test doesn't require any graphical context, the meshes are only used on the CPU side.
+ *
+ * @author GnosticOccultist
+ */
+public class TestBVHQueries {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of physica-mundis in the scene.
+     */
+    private static final int OBJECT_COUNT = 50_000;
+    /**
+     * The number of physica-mundis attached to each group of the scene.
+     */
+    private static final int GROUP_SIZE = 64;
+    /**
+     * The extent of the cube in which the physica-mundis are scattered.
+     */
+    private static final float WORLD_EXTENT = 1_000.0F;
+    /**
+     * The number of times each query is repeated.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The scene containing all the physica-mundis.
+     */
+    private final NucleusMundi scene = new NucleusMundi("scene");
+    /**
+     * The hierarchy of the scene.
+     */
+    private BoundingVolumeHierarchy bvh;
+    /**
+     * The results of the queries, reused between them.
+     */
+    private final Array<PhysicaMundi> results = Array.ofType(PhysicaMundi.class);
+    /**
+     * The random number generator, seeded to make the runs comparable.
+     */
+    private final Random random = new Random(42L);
+    /**
+     * The number of results found by a full visit of the scene.
+     */
+    private int count;
+
+    /**
+     * Launch method for the <code>TestBVHQueries</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestBVHQueries().run();
+    }
+
+    private void run() {
+        populate();
+
+        var timer = ReadableTimer.DUMMY_TIMER;
+        var start = System.nanoTime();
+        scene.updateGeometricState(timer);
+        logger.info("Updated geometric state of " + OBJECT_COUNT + " objects in " + millis(start) + " ms.");
+
+        start = System.nanoTime();
+        this.bvh = new BoundingVolumeHierarchy(scene);
+        logger.info("Built " + bvh + " in " + millis(start) + " ms.");
+
+        var viewProjection = new Matrix4f().view(new Vector3f(0, 0, WORLD_EXTENT), new Vector3f(-1, 0, 0),
+                new Vector3f(0, 1, 0), new Vector3f(0, 0, -1));
+        var projection = new Matrix4f().perspective(1.0F, WORLD_EXTENT, -0.2F, 0.2F, 0.2F, -0.2F);
+        viewProjection.mult(projection, viewProjection);
+        var frustum = new Frustum().set(viewProjection);
+
+        var box = new BoundingBox(new Vector3f(100, 0, -100), new Vector3f(150, 150, 150));
+        var sphere = new BoundingSphere(new Vector3f(-200, 50, 0), 150);
+        var ray = new Ray(new Vector3f(-WORLD_EXTENT, 0, 0), new Vector3f(1, 0.01F, 0.02F));
+
+        benchmark("frustum", () -> bvh.query(frustum, results), anima -> frustum
+                .intersects(anima.getWorldBoundingBox(), Frustum.ALL_PLANES) != Frustum.OUTSIDE);
+        benchmark("box", () -> bvh.query(box, results), anima -> box.intersects(anima.getWorldBoundingBox()));
+        benchmark("sphere", () -> bvh.query(sphere, results),
+                anima -> intersects(sphere, anima.getWorldBoundingBox()));
+        benchmark("ray", () -> bvh.query(ray, Float.POSITIVE_INFINITY, results),
+                anima -> ray.distance(anima.getWorldBoundingBox()) != Float.POSITIVE_INFINITY);
+
+        move(timer);
+    }
+
+    /**
+     * Populates the scene with the physica-mundis, sharing a single cube mesh and
+     * grouped under nucleus-mundis.
+     */
+    private void populate() {
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] {
+                -1, -1, -1, 1, -1, -1, 1, 1, -1, -1, 1, -1,
+                -1, -1, 1, 1, -1, 1, 1, 1, 1, -1, 1, 1 });
+
+        NucleusMundi group = null;
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            if (i % GROUP_SIZE == 0) {
+                group = new NucleusMundi("group-" + i / GROUP_SIZE);
+                scene.attach(group);
+            }
+
+            var physica = new PhysicaMundi("physica-" + i, mesh);
+            physica.setTranslation(randomCoordinate(), randomCoordinate(), randomCoordinate());
+            group.attach(physica);
+        }
+    }
+
+    /**
+     * Measures the provided hierarchy query against a full visit of the scene
+     * using the given test, and logs an error if they don't find the same number of
+     * results.
+     */
+    private void benchmark(String name, Runnable query, Test test) {
+        // Warm-up both methods first.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            results.clear();
+            query.run();
+            visitAll(test);
+        }
+
+        var start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            results.clear();
+            query.run();
+        }
+        var bvhTime = millis(start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            visitAll(test);
+        }
+        var visitTime = millis(start) / ITERATIONS;
+
+        logger.info(name + " query: " + results.size() + " results, BVH " + bvhTime + " ms, full visit " + visitTime
+                + " ms (" + count + " results), speedup x" + visitTime / bvhTime);
+        if (results.size() != count) {
+            logger.error(name + " query found " + results.size() + " results with the BVH, but " + count
+                    + " with a full visit!");
+        }
+    }
+
+    /**
+     * Visits the whole scene and counts the physica-mundis passing the provided test.
+     */
+    private void visitAll(Test test) {
+        this.count = 0;
+        SceneTraversal.local().traverse(scene, anima -> {
+            if (anima instanceof PhysicaMundi && test.accept(anima)) {
+                count++;
+            }
+        }, VisitType.PRE_ORDER);
+    }
+
+    /**
+     * Moves a tenth of the physica-mundis each frame, and measures the cost of
+     * updating the geometric state with and without the hierarchy.
+     */
+    private void move(ReadableTimer timer) {
+        var moving = new PhysicaMundi[OBJECT_COUNT / 10];
+        var index = 0;
+        for (var anima : scene) {
+            for (var child : (NucleusMundi) anima) {
+                if (index < moving.length && random.nextInt(10) == 0) {
+                    moving[index++] = (PhysicaMundi) child;
+                }
+            }
+        }
+
+        var withBVH = frames(moving, index, timer);
+        bvh.dispose();
+        var withoutBVH = frames(moving, index, timer);
+
+        logger.info("Moving " + index + " objects: " + withBVH + " ms per frame with BVH, " + withoutBVH
+                + " ms without.");
+    }
+
+    private double frames(PhysicaMundi[] moving, int count, ReadableTimer timer) {
+        var start = System.nanoTime();
+        for (int frame = 0; frame < ITERATIONS; frame++) {
+            for (int i = 0; i < count; i++) {
+                moving[i].translate(random.nextFloat() - 0.5F, random.nextFloat() - 0.5F,
+                        random.nextFloat() - 0.5F);
+            }
+            scene.updateGeometricState(timer);
+        }
+        return millis(start) / ITERATIONS;
+    }
+
+    private float randomCoordinate() {
+        return (random.nextFloat() * 2.0F - 1.0F) * WORLD_EXTENT;
+    }
+
+    /**
+     * Return whether the provided sphere intersects the given box, which is the
+     * test performed by the hierarchy on the world bounding box of each leaf.
+     */
+    private static boolean intersects(BoundingSphere sphere, BoundingBox box) {
+        var c = sphere.getCenter();
+        var bc = box.getCenter();
+        var be = box.getExtents();
+        var dx = Math.max(0, Math.abs(c.x() - bc.x()) - be.x());
+        var dy = Math.max(0, Math.abs(c.y() - bc.y()) - be.y());
+        var dz = Math.max(0, Math.abs(c.z() - bc.z()) - be.z());
+        return dx * dx + dy * dy + dz * dz <= sphere.getRadius() * sphere.getRadius();
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    /**
+     * <code>Test</code> is the test performed on each physica-mundi during a full
+     * visit of the scene.
+     */
+    @FunctionalInterface
+    private interface Test {
+
+        boolean accept(AnimaMundi anima);
+    }
+}
@@ -0,0 +1,98 @@
+package fr.mercury.exempli.gratia.scenegraph;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.ControllerSystem;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.control.BobbingController;
+import fr.mercury.nucleus.scenegraph.control.RotationController;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestControllers</code> measures the cost of updating rotating and bobbing objects with a
+ * {@link ControllerSystem}, on the calling thread only and in parallel.
+ * <p>
+ * The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestControllers {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of controlled objects.
+     */
+    private static final int OBJECT_COUNT = 10_000;
+    /**
+     * The number of measured frames.
+     */
+    private static final int ITERATIONS = 500;
+
+    /**
+     * The scene containing the controlled objects.
+     */
+    private final NucleusMundi scene = new NucleusMundi("scene");
+
+    /**
+     * Launch method for the <code>TestControllers</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestControllers().run();
+    }
+
+    private void run() {
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 });
+
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            var physica = new PhysicaMundi(mesh);
+            physica.setTranslation(i % 100, 0.0F, i / 100);
+            // Every other object both rotates and bobs.
+            physica.addController(new RotationController(0.0F, 1.0F + i % 7, 0.0F));
+            if (i % 2 == 0) {
+                physica.addController(new BobbingController(0.5F, 0.25F, i * 0.01F));
+            }
+            scene.attach(physica);
+        }
+        scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+
+        var system = new ControllerSystem();
+        system.setParallel(false);
+        var serial = measure(system);
+        system.setParallel(true);
+        var parallel = measure(system);
+
+        logger.info(system.getControllerCount() + " controllers in " + system.getPhaseCount() + " phases: " + serial
+                + " ms on the calling thread, " + parallel + " ms in parallel.");
+    }
+
+    /**
+     * Return the average time in milliseconds to update the controllers and the
+     * geometric state of the scene.
+     */
+    private double measure(ControllerSystem system) {
+        // Warm-up the update path first.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            system.update(scene, ReadableTimer.DUMMY_TIMER);
+            scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+        }
+
+        var start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            system.update(scene, ReadableTimer.DUMMY_TIMER);
+            scene.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,104 @@
+package fr.mercury.exempli.gratia.scenegraph;
+
+import java.util.function.Supplier;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.BoundingSphere;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestNodeFootprint</code> reports the heap footprint in bytes per node of a million {@link NucleusMundi} and
+ * a million {@link PhysicaMundi} sharing the same {@link Mesh}, once their geometric state has been updated.
+ * <p>
+ * The footprint of the {@link Transform} and world bounds each node always allocates is reported as a baseline, so
+ * the remainder is the cost of the node object itself, including the features it doesn't use.
+ * <p>
+ * The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment. The
+ * measures are more accurate with a large enough heap to avoid any collection while the nodes are created, for
+ * example <code>-Xmx2g</code>.
+ *
+ * @author GnosticOccultist
+ */
+public class TestNodeFootprint {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of nodes instantiated for each measure.
+     */
+    private static final int NODE_COUNT = 1_000_000;
+
+    /**
+     * The objects being measured, allocated before the measure.
+     */
+    private final Object[] objects = new Object[NODE_COUNT];
+
+    /**
+     * Launch method for the <code>TestNodeFootprint</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestNodeFootprint().run();
+    }
+
+    private void run() {
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 });
+
+        // Warm-up the allocation and update paths first.
+        measure(() -> update(new NucleusMundi()));
+        measure(() -> update(new PhysicaMundi(mesh)));
+
+        var baseline = 2 * measure(Transform::new) + measure(BoundingBox::new) + measure(BoundingSphere::new);
+        logger.info("Transforms and world bounds: " + baseline + " bytes per node.");
+
+        var nucleus = measure(() -> update(new NucleusMundi()));
+        logger.info("NucleusMundi: " + nucleus + " bytes per node, " + (nucleus - baseline) + " above the baseline.");
+        var physica = measure(() -> update(new PhysicaMundi(mesh)));
+        logger.info("PhysicaMundi: " + physica + " bytes per node, " + (physica - baseline) + " above the baseline.");
+    }
+
+    private static AnimaMundi update(AnimaMundi anima) {
+        anima.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+        return anima;
+    }
+
+    /**
+     * Return the average number of bytes retained by each object instantiated with
+     * the provided supplier.
+     */
+    private long measure(Supplier<?> supplier) {
+        var before = usedMemory();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            objects[i] = supplier.get();
+        }
+
+        var after = usedMemory();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            objects[i] = null;
+        }
+        return Math.round((double) (after - before) / NODE_COUNT);
+    }
+
+    private static long usedMemory() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
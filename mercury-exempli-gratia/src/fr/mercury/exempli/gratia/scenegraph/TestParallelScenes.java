@@ -0,0 +1,146 @@
+package fr.mercury.exempli.gratia.scenegraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.application.service.SceneUpdateService;
+import fr.mercury.nucleus.math.objects.Quaternion;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.SceneMutationQueue;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestParallelScenes</code> measures the throughput of a {@link SceneUpdateService} ticking many small
+ * independent scenes, in scenes updated per second, with a single worker and with one worker per processor.
+ * <p>
+ * Each tick, every scene rotates its groups through its mutation queue, so that their whole subtree has to be
+ * updated. The test doesn't require any graphical context, so it can run in a {@link Type#HEADLESS} environment.
+ *
+ * @author GnosticOccultist
+ */
+public class TestParallelScenes {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The number of independent scenes.
+     */
+    private static final int SCENE_COUNT = 512;
+    /**
+     * The number of groups in each scene.
+     */
+    private static final int GROUP_COUNT = 16;
+    /**
+     * The number of physica-mundis in each group.
+     */
+    private static final int GROUP_SIZE = 64;
+    /**
+     * The number of measured ticks.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The mesh shared by every physica-mundi.
+     */
+    private final Mesh mesh = new Mesh();
+    /**
+     * The rotation applied to the groups.
+     */
+    private final Quaternion rotation = new Quaternion();
+
+    /**
+     * Launch method for the <code>TestParallelScenes</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        new TestParallelScenes().run();
+    }
+
+    private void run() {
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 });
+
+        var serial = measure(1);
+        var processors = Runtime.getRuntime().availableProcessors();
+        var parallel = measure(processors);
+
+        logger.info(SCENE_COUNT + " scenes of " + (GROUP_COUNT * (GROUP_SIZE + 1) + 1) + " nodes: " + serial
+                + " scenes/s with 1 worker, " + parallel + " scenes/s with " + processors + " workers ("
+                + String.format("%.2f", (double) parallel / serial) + "x).");
+    }
+
+    /**
+     * Return the number of scenes ticked per second by a service with the provided
+     * number of workers.
+     */
+    private long measure(int parallelism) {
+        var service = new SceneUpdateService(parallelism);
+        var groups = new ArrayList<List<NucleusMundi>>();
+        var queues = new ArrayList<SceneMutationQueue>();
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            var scene = new NucleusMundi("scene-" + i);
+            groups.add(populate(scene));
+            queues.add(service.addScene(scene));
+        }
+
+        try {
+            // Warm-up the update path first.
+            for (int i = 0; i < ITERATIONS / 10; i++) {
+                tick(service, groups, queues, i);
+            }
+
+            var start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                tick(service, groups, queues, i);
+            }
+            var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return Math.round(SCENE_COUNT * ITERATIONS / seconds);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private void tick(SceneUpdateService service, List<List<NucleusMundi>> groups, List<SceneMutationQueue> queues,
+            int frame) {
+        rotation.fromAngles(0.0F, frame * 0.01F, 0.0F);
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            var queue = queues.get(i);
+            for (var group : groups.get(i)) {
+                queue.setRotation(group, rotation);
+            }
+        }
+
+        service.updateScenes(ReadableTimer.DUMMY_TIMER);
+    }
+
+    /**
+     * Populates the provided scene with groups of physica-mundis, and return the
+     * groups.
+     */
+    private List<NucleusMundi> populate(NucleusMundi scene) {
+        var groups = new ArrayList<NucleusMundi>(GROUP_COUNT);
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            var group = new NucleusMundi();
+            group.setTranslation(i * 10.0F, 0.0F, 0.0F);
+            for (int j = 0; j < GROUP_SIZE; j++) {
+                var physica = new PhysicaMundi(mesh);
+                physica.setTranslation(j % 8, 0.0F, j / 8);
+                group.attach(physica);
+            }
+
+            scene.attach(group);
+            groups.add(group);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,107 @@
+package fr.mercury.exempli.gratia.scenegraph;
+
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.StaticBatcher;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>TestStaticBatching</code> checks that the {@link StaticBatcher} bakes the right transform into the vertices of
+ * a {@link PhysicaMundi} nested under a rotated and scaled group, by comparing the world bounds of each batched piece
+ * with the ones of the physica-mundi before batching.
+ * <p>
+ * The test doesn't require any graphical context, the meshes are only used on the CPU side. The rotations are quarter
+ * turns, so the bounds of the pieces are exactly the transformed bounds of the mesh.
+ *
+ * @author GnosticOccultist
+ */
+public class TestStaticBatching {
+
+    /**
+     * The logger of the test.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.exempli");
+
+    /**
+     * The tolerance used to compare the bounds.
+     */
+    private static final float TOLERANCE = 0.0001F;
+
+    /**
+     * Launch method for the <code>TestStaticBatching</code>, no arguments required.
+     *
+     * @param args The arguments to pass to the application.
+     */
+    public static void main(String[] args) {
+        var mesh = new Mesh();
+        mesh.setupBuffer(VertexBufferType.POSITION, Usage.STATIC_DRAW, new float[] { 0, 0, 0, 1, 0, 0, 0, 2, 1 });
+        var material = new Material("Material", "A material of the static batching test.");
+
+        var root = new NucleusMundi("scene");
+        root.setTranslation(5, 0, -5);
+
+        // The nested piece is placed by a translated group, inside a rotated and scaled one.
+        var group = new NucleusMundi("group");
+        group.setRotation(0, (float) Math.PI / 2, 0);
+        group.setScale(2, 2, 2);
+        var offset = new NucleusMundi("offset");
+        offset.setTranslation(3, 1, 0);
+        offset.setRotation((float) Math.PI / 2, 0, 0);
+
+        var nested = new PhysicaMundi("nested", mesh);
+        nested.setMaterial(material);
+        nested.setTranslation(0, 0, 4);
+        var direct = new PhysicaMundi("direct", mesh);
+        direct.setMaterial(material);
+        direct.setTranslation(-2, 0, 0);
+
+        offset.attach(nested);
+        group.attach(offset);
+        root.attachAll(group, direct);
+        root.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+
+        var expectedNested = new BoundingBox().set(nested.getWorldBoundingBox());
+        var expectedDirect = new BoundingBox().set(direct.getWorldBoundingBox());
+
+        var batches = new StaticBatcher().batch(root);
+        if (batches.size() != 1) {
+            logger.error("Expected a single batch, but got " + batches.size() + "!");
+            return;
+        }
+
+        root.updateGeometricState(ReadableTimer.DUMMY_TIMER);
+        var batch = batches.get(0);
+        var failures = check(expectedNested, batch.getPieceBoundingBox(batch.indexOfPiece("nested")), "nested")
+                + check(expectedDirect, batch.getPieceBoundingBox(batch.indexOfPiece("direct")), "direct");
+
+        if (failures == 0) {
+            logger.info("The batched pieces are placed like the original physica-mundis.");
+        }
+    }
+
+    /**
+     * Return 1 and log an error if the provided bounds of a batched piece differ
+     * from the expected ones, 0 otherwise.
+     */
+    private static int check(BoundingBox expected, BoundingBox actual, String name) {
+        if (equals(expected.getCenter(), actual.getCenter()) && equals(expected.getExtents(), actual.getExtents())) {
+            return 0;
+        }
+
+        logger.error("The piece " + name + " is misplaced, expected " + expected + " but got " + actual + "!");
+        return 1;
+    }
+
+    private static boolean equals(ReadableVector3f a, ReadableVector3f b) {
+        return Math.abs(a.x() - b.x()) <= TOLERANCE && Math.abs(a.y() - b.y()) <= TOLERANCE
+                && Math.abs(a.z() - b.z()) <= TOLERANCE;
+    }
+}
@@ -2,19 +2,28 @@ package fr.mercury.nucleus.application;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import fr.alchemy.utilities.Instantiator;
 import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
 import fr.mercury.nucleus.application.service.ApplicationService;
+import fr.mercury.nucleus.application.service.SceneUpdateService;
 import fr.mercury.nucleus.asset.AssetManager;
 import fr.mercury.nucleus.input.InputProcessor;
 import fr.mercury.nucleus.renderer.Camera;
 import fr.mercury.nucleus.renderer.DefaultRenderer;
 import fr.mercury.nucleus.renderer.Renderer;
+import fr.mercury.nucleus.renderer.queue.RenderSnapshot;
 import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.Controller;
+import fr.mercury.nucleus.scenegraph.ControllerSystem;
 import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.SceneMutationQueue;
+import fr.mercury.nucleus.utils.MercuryException;
 import fr.mercury.nucleus.utils.OpenGLCall;
 import fr.mercury.nucleus.utils.ReadableTimer;
 import fr.mercury.nucleus.utils.SpeedableNanoTimer;
@@ -36,6 +45,18 @@ import fr.mercury.nucleus.utils.gc.NativeObjectCleaner;
  * An {@link AssetManager} and an {@link InputProcessor} are contained within
  * the application in order to handle asset loading and being notified about
  * inputs related events.
+ * <p>
+ * The scene must only be modified on the main thread, other threads can record
+ * their modifications in the {@link #getMutationQueue() mutation queue}, which
+ * is applied once per frame before the scene is updated. The {@link Controller}
+ * attached to the scene are then updated by a {@link ControllerSystem}, before
+ * the geometric state of the scene. Additional independent
+ * scenes can be ticked in parallel by linking a {@link SceneUpdateService}.
+ * <p>
+ * If {@link MercurySettings#isPipelinedRendering()} is enabled, the geometric
+ * state of the scene is updated and extracted into a {@link RenderSnapshot} on
+ * a separate update thread, while the snapshot of the previous frame is
+ * rendered on the <code>OpenGL</code> thread.
  * 
  * @see #getScene()
  * @see #getService(Class)
@@ -77,10 +98,31 @@ public abstract class MercuryApplication implements Application {
      * The root node for the scene or null if doesn't support rendering.
      */
     protected NucleusMundi scene = new NucleusMundi("root-nucleus");
+    /**
+     * The queue of scene mutations recorded by any thread, applied before updating the scene.
+     */
+    protected final SceneMutationQueue mutations = new SceneMutationQueue();
+    /**
+     * The system updating the controllers attached to the scene, before updating the scene.
+     */
+    protected final ControllerSystem controllers = new ControllerSystem();
     /**
      * The asset manager, will also be added to the services set.
      */
     protected AssetManager assetManager = new AssetManager();
+    /**
+     * The executor updating and extracting the scene when the rendering is
+     * pipelined, or null if not started.
+     */
+    private ExecutorService updateExecutor;
+    /**
+     * The snapshot rendered on the OpenGL thread when the rendering is pipelined.
+     */
+    private RenderSnapshot renderedSnapshot = new RenderSnapshot();
+    /**
+     * The snapshot extracted on the update thread when the rendering is pipelined.
+     */
+    private RenderSnapshot extractedSnapshot = new RenderSnapshot();
 
     /**
      * Starts the <code>MercuryApplication</code> and creates the
@@ -192,7 +234,15 @@ public abstract class MercuryApplication implements Application {
         // Update the implementation.
         update(timer);
 
-        if (renderer != null) {
+        // Apply the mutations recorded by other threads in a single batch, before the scene is updated.
+        mutations.apply();
+        // Update the controllers attached to the scene, which may have been changed by the mutations.
+        controllers.update(scene, timer);
+
+        if (renderer != null && settings.isPipelinedRendering()) {
+            updateAndRenderPipelined();
+
+        } else if (renderer != null) {
             // Update the geometric information of the scene and its hierarchy.
             scene.updateGeometricState(timer);
 
@@ -201,6 +251,46 @@ public abstract class MercuryApplication implements Application {
         }
     }
 
+    /**
+     * Updates the geometric state of the scene and extracts it into a
+     * {@link RenderSnapshot} on the update thread, while the snapshot extracted
+     * during the previous frame is rendered. The method returns once both are
+     * finished, so the scene can be safely modified until the next call.
+     */
+    @OpenGLCall
+    private void updateAndRenderPipelined() {
+        if (updateExecutor == null) {
+            updateExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                var thread = new Thread(runnable, "Mercury Update Thread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        var snapshot = extractedSnapshot;
+        var extraction = updateExecutor.submit(() -> {
+            // Update the geometric information of the scene and its hierarchy.
+            scene.updateGeometricState(timer);
+            renderer.extractScene(scene, snapshot);
+        });
+
+        // Perform rendering of the previous frame meanwhile.
+        renderer.renderSnapshot(renderedSnapshot);
+
+        try {
+            extraction.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MercuryException("Interrupted while waiting for the scene extraction!", ex);
+        } catch (ExecutionException ex) {
+            throw new MercuryException("Unable to update and extract the scene!", ex.getCause());
+        }
+
+        // The extracted snapshot will be rendered during the next frame.
+        this.extractedSnapshot = renderedSnapshot;
+        this.renderedSnapshot = snapshot;
+    }
+
     /**
      * Performs some actions with the <code>MercuryApplication</code> once the front
      * and back buffer have been swapped, meaning the rendered frame is visible on
@@ -247,6 +337,11 @@ public abstract class MercuryApplication implements Application {
     @OpenGLCall
     public void cleanup() {
 
+        if (updateExecutor != null) {
+            updateExecutor.shutdown();
+            updateExecutor = null;
+        }
+
         services.forEach(ApplicationService::cleanup);
         services.clear();
 
@@ -342,6 +437,18 @@ public abstract class MercuryApplication implements Application {
         return scene;
     }
 
+    /**
+     * Return the {@link SceneMutationQueue} of the <code>MercuryApplication</code>,
+     * used to modify the scene from any thread. The recorded mutations are applied
+     * once per frame on the main thread, after {@link #update(ReadableTimer)} and
+     * before the geometric state of the scene is updated.
+     * 
+     * @return The queue of scene mutations (not null).
+     */
+    public SceneMutationQueue getMutationQueue() {
+        return mutations;
+    }
+
     /**
      * Return the {@link MercuryContext} bound to the
      * <code>MercuryApplication</code>.
@@ -85,6 +85,8 @@ public final class MercurySettings extends HashMap<String, Object> {
         DEFAULT.put("RequiredExtensions", new String[0]);
         DEFAULT.put("GraphicsDebugOutput", false);
         DEFAULT.put("MemoryAllocationDebug", false);
+        DEFAULT.put("PipelinedRendering", false);
+        DEFAULT.put("LodBias", 1.0F);
     }
 
     /**
@@ -503,6 +505,52 @@ public final class MercurySettings extends HashMap<String, Object> {
         addBoolean("MemoryAllocationDebug", value);
     }
 
+    /**
+     * Return whether the scene of the next frame is updated and extracted on a
+     * separate thread, while the previous frame is rendered on the
+     * <code>OpenGL</code> thread.
+     * 
+     * @return Whether to pipeline the update and the rendering of frames.
+     */
+    public boolean isPipelinedRendering() {
+        return getBoolean("PipelinedRendering");
+    }
+
+    /**
+     * Set whether the scene of the next frame is updated and extracted on a
+     * separate thread, while the previous frame is rendered on the
+     * <code>OpenGL</code> thread. It adds one frame of latency to the rendering.
+     * 
+     * @param value Whether to pipeline the update and the rendering of frames
+     *              (default&rarr;false).
+     */
+    public void setPipelinedRendering(boolean value) {
+        addBoolean("PipelinedRendering", value);
+    }
+
+    /**
+     * Return the global bias applied to the projected size of the objects when
+     * selecting their level of detail. Greater values keep the detailed levels at
+     * greater distances.
+     * 
+     * @return The bias for the levels of detail (&gt;0).
+     */
+    public float getLodBias() {
+        return containsKey("LodBias") ? getFloat("LodBias") : 1.0F;
+    }
+
+    /**
+     * Set the global bias applied to the projected size of the objects when
+     * selecting their level of detail. Greater values keep the detailed levels at
+     * greater distances, while lower values favor the performances.
+     * 
+     * @param bias The bias for the levels of detail (&gt;0, default&rarr;1).
+     */
+    public void setLodBias(float bias) {
+        Validator.check(bias > 0, "The level of detail bias must be strictly positive!");
+        addFloat("LodBias", bias);
+    }
+
     /**
      * Return an integer value from the <code>MercurySettings</code>.
      * 
@@ -0,0 +1,262 @@
+package fr.mercury.nucleus.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.application.Application;
+import fr.mercury.nucleus.application.MercurySettings;
+import fr.mercury.nucleus.scenegraph.ControllerSystem;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.SceneMutationQueue;
+import fr.mercury.nucleus.utils.MercuryException;
+import fr.mercury.nucleus.utils.OpenGLCall;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>SceneUpdateService</code> is an implementation of {@link AbstractApplicationService} which ticks several
+ * independent root {@link NucleusMundi} in parallel on a {@link ForkJoinPool}, for example to host many small
+ * simulations in a single {@link Application}.
+ * <p>
+ * Each frame, every scene applies the mutations recorded in its own {@link SceneMutationQueue}, updates its
+ * controllers with its own {@link ControllerSystem} and updates its geometric state. A scene is ticked by a single
+ * worker at a time, and the update blocks until all the scenes have been ticked, so the scenes can be safely
+ * modified by the application thread between two updates.
+ * <p>
+ * The scenes must be independent, meaning that they must not share any anima-mundi, and that the meshes, materials
+ * and render states they share aren't modified while they are ticked.
+ *
+ * @author GnosticOccultist
+ */
+public class SceneUpdateService extends AbstractApplicationService {
+
+    /**
+     * The logger for the scene update service.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.app");
+
+    /**
+     * The number of workers ticking the scenes.
+     */
+    private final int parallelism;
+    /**
+     * The pool ticking the scenes, or null if the service has been cleaned up.
+     */
+    private ForkJoinPool pool;
+    /**
+     * The root nodes of the scenes to tick.
+     */
+    private final List<NucleusMundi> scenes = new ArrayList<>();
+    /**
+     * The mutation queue of each scene.
+     */
+    private final List<SceneMutationQueue> mutations = new ArrayList<>();
+    /**
+     * The task ticking each scene.
+     */
+    private final List<Callable<Void>> tasks = new ArrayList<>();
+    /**
+     * The timer used by the current update.
+     */
+    private ReadableTimer timer;
+
+    /**
+     * Instantiates a new <code>SceneUpdateService</code> with one worker for each
+     * available processor.
+     */
+    public SceneUpdateService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates a new <code>SceneUpdateService</code> with the provided number
+     * of workers to tick the scenes.
+     *
+     * @param parallelism The number of workers ticking the scenes (&gt;0).
+     */
+    public SceneUpdateService(int parallelism) {
+        Validator.positive(parallelism, "The number of workers must be strictly positive!");
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    @OpenGLCall
+    public void initialize(MercurySettings settings) {
+        if (pool == null) {
+            this.pool = new ForkJoinPool(parallelism);
+        }
+
+        super.initialize(settings);
+    }
+
+    @Override
+    @OpenGLCall
+    public void update(ReadableTimer timer) {
+        super.update(timer);
+        updateScenes(timer);
+    }
+
+    /**
+     * Adds the provided root {@link NucleusMundi} to the scenes ticked by the
+     * <code>SceneUpdateService</code>, and return the {@link SceneMutationQueue}
+     * in which any thread can record its modifications.
+     * <p>
+     * It mustn't be invoked while the scenes are being ticked.
+     *
+     * @param scene The root node of the scene to tick, without any parent (not null).
+     * @return      The mutation queue of the scene, applied before each tick (not null).
+     *
+     * @throws IllegalArgumentException Thrown if the scene has a parent or has already been added.
+     */
+    public SceneMutationQueue addScene(NucleusMundi scene) {
+        Validator.nonNull(scene, "The scene to tick can't be null!");
+        Validator.check(scene.getParent() == null, "The scene to tick must be a root node!");
+        Validator.check(indexOf(scene) < 0, "The scene " + scene + " is already ticked by the service!");
+
+        var queue = new SceneMutationQueue();
+        // The scenes are already updated in parallel, so are their controllers.
+        var controllers = new ControllerSystem();
+        controllers.setParallel(false);
+
+        scenes.add(scene);
+        mutations.add(queue);
+        tasks.add(() -> {
+            queue.apply();
+            controllers.update(scene, timer);
+            scene.updateGeometricState(timer);
+            return null;
+        });
+        return queue;
+    }
+
+    /**
+     * Removes the provided root {@link NucleusMundi} from the scenes ticked by the
+     * <code>SceneUpdateService</code>. The mutations remaining in its queue aren't
+     * applied.
+     * <p>
+     * It mustn't be invoked while the scenes are being ticked.
+     *
+     * @param scene The root node of the scene to remove (not null).
+     * @return      Whether the scene was ticked by the service.
+     */
+    public boolean removeScene(NucleusMundi scene) {
+        Validator.nonNull(scene, "The scene to remove can't be null!");
+        var index = indexOf(scene);
+        if (index < 0) {
+            return false;
+        }
+
+        scenes.remove(index);
+        mutations.remove(index);
+        tasks.remove(index);
+        return true;
+    }
+
+    /**
+     * Return the {@link SceneMutationQueue} of the provided root
+     * {@link NucleusMundi}.
+     *
+     * @param scene The root node of the ticked scene (not null).
+     * @return      The mutation queue of the scene, or null if it isn't ticked by the service.
+     */
+    public SceneMutationQueue getMutationQueue(NucleusMundi scene) {
+        Validator.nonNull(scene, "The scene can't be null!");
+        var index = indexOf(scene);
+        return index >= 0 ? mutations.get(index) : null;
+    }
+
+    private int indexOf(NucleusMundi scene) {
+        for (int i = 0; i < scenes.size(); i++) {
+            if (scenes.get(i) == scene) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ticks in parallel each scene of the <code>SceneUpdateService</code>, by
+     * applying its mutations, updating its controllers and its geometric state.
+     * The method blocks until all the scenes have been ticked.
+     * <p>
+     * It is invoked by the linked {@link Application} when the service is updated,
+     * but can also be invoked directly when the service isn't linked.
+     *
+     * @param timer The timer used to update the scenes (not null).
+     *
+     * @throws MercuryException Thrown if the update of a scene has failed.
+     */
+    public void updateScenes(ReadableTimer timer) {
+        Validator.nonNull(timer, "The timer can't be null!");
+        if (pool == null) {
+            throw new IllegalStateException("The scene update service has been cleaned up!");
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        this.timer = timer;
+        try {
+            for (var result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MercuryException("Interrupted while waiting for the scenes update!", ex);
+        } catch (ExecutionException ex) {
+            throw new MercuryException("Unable to update the scenes!", ex.getCause());
+        } finally {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Return the number of scenes ticked by the <code>SceneUpdateService</code>.
+     *
+     * @return The number of scenes (&ge;0).
+     */
+    public int getSceneCount() {
+        return scenes.size();
+    }
+
+    /**
+     * Return the number of workers ticking the scenes of the
+     * <code>SceneUpdateService</code>.
+     *
+     * @return The number of workers (&gt;0).
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Shuts down the pool of the <code>SceneUpdateService</code>. It can be
+     * invoked directly when the service isn't linked to an {@link Application}.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            this.pool = null;
+        }
+    }
+
+    @Override
+    @OpenGLCall
+    public void cleanup() {
+        shutdown();
+        logger.info("SceneUpdateService successfully shutdown.");
+
+        super.cleanup();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[scenes= " + scenes.size() + ", parallelism= " + parallelism + "]";
+    }
+}
@@ -32,6 +32,7 @@ import fr.mercury.nucleus.asset.loader.data.AssetData;
 import fr.mercury.nucleus.asset.loader.data.PathAssetData;
 import fr.mercury.nucleus.asset.loader.image.AWTImageReader;
 import fr.mercury.nucleus.asset.loader.image.STBImageReader;
+import fr.mercury.nucleus.asset.loader.scene.BinarySceneLoader;
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderSource;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform;
@@ -81,6 +82,7 @@ public class AssetManager extends AbstractApplicationService {
         registerLoader(STBImageReader.DESCRIPTOR);
         registerLoader(MaterialLoader.DESCRIPTOR);
         registerLoader(AssimpLoader.DESCRIPTOR);
+        registerLoader(BinarySceneLoader.DESCRIPTOR);
 
         registerWorkingDirectory();
     }
@@ -197,7 +199,14 @@ public class AssetManager extends AbstractApplicationService {
      * @return The loaded materials or null.
      */
     public Material[] loadMaterial(String path) {
-        return load(new PathAssetData(Paths.get(path)));
+        Material[] materials = load(new PathAssetData(Paths.get(path)));
+        if (materials != null) {
+            // Keep track of the asset, so the materials can be referenced by a binary scene.
+            for (var material : materials) {
+                material.setAssetPath(path);
+            }
+        }
+        return materials;
     }
 
     /**
@@ -256,6 +265,7 @@ public class AssetManager extends AbstractApplicationService {
 
         T texture = Instantiator.fromClass(type);
         texture.setImage(image);
+        texture.setAssetPath(path);
         return texture;
     }
 
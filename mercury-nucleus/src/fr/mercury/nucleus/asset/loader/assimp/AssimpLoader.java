@@ -40,6 +40,7 @@ import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.scenegraph.Mesh.Mode;
 import fr.mercury.nucleus.scenegraph.NucleusMundi;
 import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.StaticBatcher;
 import fr.mercury.nucleus.texture.Texture2D;
 import fr.mercury.nucleus.texture.TextureState.MagFilter;
 import fr.mercury.nucleus.texture.TextureState.MinFilter;
@@ -124,6 +125,9 @@ public class AssimpLoader implements AssetLoader<AnimaMundi, AssimpLoaderConfig>
 
         var rootNode = scene.mRootNode();
         var rootNucleus = processNode(rootNode, scene, surfaces, template);
+        if (config.staticBatching()) {
+            new StaticBatcher().batch(rootNucleus);
+        }
 
         return rootNucleus;
     }
@@ -3,6 +3,7 @@ package fr.mercury.nucleus.asset.loader.assimp;
 import org.lwjgl.assimp.Assimp;
 
 import fr.mercury.nucleus.asset.loader.AssetLoader;
+import fr.mercury.nucleus.scenegraph.StaticBatcher;
 
 /**
  * <code>AssimpLoaderConfig</code> is an implementation of
@@ -38,6 +39,10 @@ public class AssimpLoaderConfig implements AssetLoader.Config {
      * The assimp flags to use when loading scene file.
      */
     private int flags;
+    /**
+     * Whether to merge the compatible meshes of the scene into static batches.
+     */
+    private boolean staticBatching = false;
 
     /**
      * Instantiates a new <code>AssimpLoaderConfig</code> with the default
@@ -125,4 +130,29 @@ public class AssimpLoaderConfig implements AssetLoader.Config {
         this.flags = flags;
         return this;
     }
+
+    /**
+     * Return whether the {@link AssimpLoader} should merge the meshes of the
+     * loaded scene sharing the same material into static batches, using a
+     * {@link StaticBatcher}.
+     * 
+     * @return Whether to batch the loaded scene (default &rarr; false).
+     */
+    public boolean staticBatching() {
+        return staticBatching;
+    }
+
+    /**
+     * Sets whether the {@link AssimpLoader} should merge the meshes of the loaded
+     * scene sharing the same material into static batches, using a
+     * {@link StaticBatcher}. The loaded scene can then only be moved as a whole.
+     * 
+     * @param staticBatching Whether to batch the loaded scene (default &rarr;
+     *                       false).
+     * @return The assimp loader config.
+     */
+    public AssimpLoaderConfig setStaticBatching(boolean staticBatching) {
+        this.staticBatching = staticBatching;
+        return this;
+    }
 }
@@ -0,0 +1,201 @@
+package fr.mercury.nucleus.asset.loader.scene;
+
+import java.nio.ByteOrder;
+
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+
+/**
+ * <code>BinarySceneFormat</code> describes the layout of the versioned binary scene files, written by the
+ * {@link BinarySceneWriter} and read back by the {@link BinarySceneLoader}.
+ * <p>
+ * The file is made of a header followed by sections of fixed-size records, all values being stored in
+ * little-endian order. The header contains the {@link #MAGIC} number, the {@link #VERSION} of the format and a
+ * directory giving the offset from the start of the file, the number of records and the size of a record for each
+ * section. Records reference each other by their index in a section, so that any of them can be addressed directly
+ * without parsing the ones before it:
+ * <ul>
+ * <li>{@link #STRINGS}: the offset and length of each UTF-8 string in the data section.</li>
+ * <li>{@link #NODES}: the {@link AnimaMundi} in depth-first pre-order, with their parent index, transform, bucket,
+ * layer and the ranges of their render states, environment elements and levels of detail.</li>
+ * <li>{@link #RENDER_STATES} and {@link #ENVIRONMENT}: the local render states and environment elements.</li>
+ * <li>{@link #MATERIALS}, {@link #VARIABLES} and {@link #TEXTURES}: the materials, referenced by their asset path
+ * and name, with their variables and the textures they reference.</li>
+ * <li>{@link #MESHES} and {@link #BUFFERS}: the meshes and their vertex buffers, whose content is stored in the data
+ * section.</li>
+ * <li>{@link #LOD_LEVELS}: the mesh and screen size of each level of detail.</li>
+ * <li>{@link #DATA}: the raw bytes of the strings and vertex buffers, each block being aligned on 4 bytes.</li>
+ * </ul>
+ * The enum constants are stored by the index of their name in the strings, so reordering the constants of an enum
+ * doesn't break the existing files.
+ * <p>
+ * Readers ignore the sections they don't know and the trailing fields of larger records, so that new data can be
+ * appended without breaking older readers.
+ *
+ * @author GnosticOccultist
+ */
+public final class BinarySceneFormat {
+
+    /**
+     * The extension of the binary scene files.
+     */
+    public static final String EXTENSION = "msb";
+    /**
+     * The magic number starting a binary scene file ('MSCB').
+     */
+    public static final int MAGIC = 0x4D534342;
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 2;
+    /**
+     * The first version storing the enum constants by the index of their name in the
+     * {@link #STRINGS}, instead of their ordinal which changes when they are reordered.
+     */
+    static final int NAMED_CONSTANTS_VERSION = 2;
+    /**
+     * The byte order used for all values.
+     */
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * The section of the strings.
+     */
+    public static final int STRINGS = 0;
+    /**
+     * The section of the nodes.
+     */
+    public static final int NODES = 1;
+    /**
+     * The section of the render states.
+     */
+    public static final int RENDER_STATES = 2;
+    /**
+     * The section of the environment elements.
+     */
+    public static final int ENVIRONMENT = 3;
+    /**
+     * The section of the material references.
+     */
+    public static final int MATERIALS = 4;
+    /**
+     * The section of the material variables.
+     */
+    public static final int VARIABLES = 5;
+    /**
+     * The section of the texture references.
+     */
+    public static final int TEXTURES = 6;
+    /**
+     * The section of the meshes.
+     */
+    public static final int MESHES = 7;
+    /**
+     * The section of the vertex buffers.
+     */
+    public static final int BUFFERS = 8;
+    /**
+     * The section of the levels of detail.
+     */
+    public static final int LOD_LEVELS = 9;
+    /**
+     * The section of the raw data.
+     */
+    public static final int DATA = 10;
+    /**
+     * The number of sections written in the current version.
+     */
+    public static final int SECTION_COUNT = 11;
+
+    /**
+     * The size in bytes of the header, before the section directory.
+     */
+    public static final int HEADER_SIZE = 3 * Integer.BYTES;
+    /**
+     * The size in bytes of an entry in the section directory: the offset, the
+     * number of records and the size of a record.
+     */
+    public static final int DIRECTORY_ENTRY_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * The size in bytes of each record, indexed by section.
+     */
+    static final int[] RECORD_SIZES = new int[SECTION_COUNT];
+
+    static {
+        RECORD_SIZES[STRINGS] = 2 * Integer.BYTES;
+        // Kind, parent, name, bucket, layer, layer index, environment mode, first and count of the render states,
+        // environment elements and levels of detail, mesh, material, hysteresis, translation, rotation and scale.
+        RECORD_SIZES[NODES] = 15 * Integer.BYTES + 16 * Float.BYTES;
+        RECORD_SIZES[RENDER_STATES] = 4 * Integer.BYTES;
+        RECORD_SIZES[ENVIRONMENT] = Integer.BYTES + 8 * Float.BYTES;
+        RECORD_SIZES[MATERIALS] = 4 * Integer.BYTES;
+        RECORD_SIZES[VARIABLES] = 4 * Integer.BYTES + 4 * Float.BYTES;
+        RECORD_SIZES[TEXTURES] = 6 * Integer.BYTES;
+        RECORD_SIZES[MESHES] = 4 * Integer.BYTES;
+        RECORD_SIZES[BUFFERS] = 10 * Integer.BYTES;
+        RECORD_SIZES[LOD_LEVELS] = Integer.BYTES + Float.BYTES;
+        RECORD_SIZES[DATA] = 1;
+    }
+
+    /**
+     * The kind of a node: a <code>NucleusMundi</code>.
+     */
+    static final int NODE_NUCLEUS = 0;
+    /**
+     * The kind of a node: a <code>PhysicaMundi</code>.
+     */
+    static final int NODE_PHYSICA = 1;
+    /**
+     * The kind of a node: a <code>LodPhysicaMundi</code>.
+     */
+    static final int NODE_LOD_PHYSICA = 2;
+
+    /**
+     * The kind of an environment element: a <code>Fog</code>.
+     */
+    static final int ELEMENT_FOG = 0;
+    /**
+     * The kind of an environment element: a <code>DirectionalLight</code>.
+     */
+    static final int ELEMENT_DIRECTIONAL_LIGHT = 1;
+
+    /**
+     * The kind of a variable value: null.
+     */
+    static final int VALUE_NULL = 0;
+    /**
+     * The kind of a variable value: a string.
+     */
+    static final int VALUE_STRING = 1;
+    /**
+     * The kind of a variable value: an integer.
+     */
+    static final int VALUE_INTEGER = 2;
+    /**
+     * The kind of a variable value: a float.
+     */
+    static final int VALUE_FLOAT = 3;
+    /**
+     * The kind of a variable value: a boolean.
+     */
+    static final int VALUE_BOOLEAN = 4;
+    /**
+     * The kind of a variable value: a color.
+     */
+    static final int VALUE_COLOR = 5;
+    /**
+     * The kind of a variable value: a vector of 3 components.
+     */
+    static final int VALUE_VECTOR3 = 6;
+    /**
+     * The kind of a variable value: a 2D texture.
+     */
+    static final int VALUE_TEXTURE = 7;
+
+    /**
+     * The index used for a missing reference.
+     */
+    static final int NONE = -1;
+
+    private BinarySceneFormat() {}
+}
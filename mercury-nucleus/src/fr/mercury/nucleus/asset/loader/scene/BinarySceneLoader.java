@@ -0,0 +1,658 @@
+package fr.mercury.nucleus.asset.loader.scene;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Objects;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.asset.AssetManager;
+import fr.mercury.nucleus.asset.loader.AssetLoader;
+import fr.mercury.nucleus.asset.loader.AssetLoaderDescriptor;
+import fr.mercury.nucleus.asset.loader.VoidLoaderConfig;
+import fr.mercury.nucleus.asset.loader.data.AssetData;
+import fr.mercury.nucleus.math.objects.Color;
+import fr.mercury.nucleus.math.objects.Matrix3f;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.renderer.logic.state.BlendState;
+import fr.mercury.nucleus.renderer.logic.state.BlendState.BlendFunction;
+import fr.mercury.nucleus.renderer.logic.state.DepthBufferState;
+import fr.mercury.nucleus.renderer.logic.state.DepthBufferState.DepthFunction;
+import fr.mercury.nucleus.renderer.logic.state.FaceCullingState;
+import fr.mercury.nucleus.renderer.logic.state.FaceCullingState.WindingOrder;
+import fr.mercury.nucleus.renderer.logic.state.PolygonModeState;
+import fr.mercury.nucleus.renderer.logic.state.PolygonModeState.PolygonMode;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState.Face;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType.Format;
+import fr.mercury.nucleus.renderer.queue.BucketType;
+import fr.mercury.nucleus.renderer.queue.RenderLayer;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.LodPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.MaterialVariable.ValueType;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.Mesh.Mode;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentMode;
+import fr.mercury.nucleus.scenegraph.environment.Fog;
+import fr.mercury.nucleus.scenegraph.environment.light.DirectionalLight;
+import fr.mercury.nucleus.texture.Texture2D;
+import fr.mercury.nucleus.texture.TextureState.MagFilter;
+import fr.mercury.nucleus.texture.TextureState.MinFilter;
+import fr.mercury.nucleus.texture.TextureState.WrapMode;
+import fr.mercury.nucleus.utils.MercuryException;
+import fr.mercury.nucleus.utils.data.BufferUtils;
+
+/**
+ * <code>BinarySceneLoader</code> loads a scene-graph written in the {@link BinarySceneFormat} by a
+ * {@link BinarySceneWriter}.
+ * <p>
+ * The whole file is read at once and every record is decoded directly from its offset, the vertex data being bulk
+ * copied into the buffers of the meshes. The materials and textures are loaded from their asset path with the
+ * {@link AssetManager}, each file being loaded only once per scene.
+ *
+ * @author GnosticOccultist
+ */
+public class BinarySceneLoader implements AssetLoader<AnimaMundi, VoidLoaderConfig> {
+
+    /**
+     * The binary scene asset loader descriptor.
+     */
+    public static final AssetLoaderDescriptor<BinarySceneLoader> DESCRIPTOR = new AssetLoaderDescriptor<>(
+            BinarySceneLoader::new,
+            BinarySceneFormat.EXTENSION
+    );
+
+    /**
+     * The asset manager managing this asset loader.
+     */
+    private AssetManager assetManager;
+
+    @Override
+    public AnimaMundi load(AssetData data) {
+        return load(data, VoidLoaderConfig.get());
+    }
+
+    @Override
+    public AnimaMundi load(AssetData data, VoidLoaderConfig config) {
+        var buffer = ByteBuffer.wrap(data.getBytes()).order(BinarySceneFormat.ORDER);
+        var root = read(buffer);
+        if (root.getName() == null) {
+            root.setName(data.getName());
+        }
+        return root;
+    }
+
+    /**
+     * Reads the scene-graph contained in the provided buffer, written in the
+     * {@link BinarySceneFormat}.
+     * <p>
+     * The materials and textures referenced by the scene can only be loaded if
+     * the loader is registered to an {@link AssetManager}.
+     *
+     * @param buffer The buffer containing the binary scene, from its start (not null).
+     * @return       The root of the read scene-graph (not null).
+     *
+     * @throws MercuryException Thrown if the buffer doesn't contain a valid binary scene.
+     */
+    public AnimaMundi read(ByteBuffer buffer) {
+        Validator.nonNull(buffer, "The buffer to read can't be null!");
+        // The state of the read is kept apart, since the loader can be shared by concurrent loads.
+        var in = new SceneInput(buffer.slice().order(BinarySceneFormat.ORDER));
+
+        readHeader(in);
+
+        var strings = readStrings(in);
+        in.strings = strings;
+        var textures = readTextures(in, strings);
+        var materials = readMaterials(in, strings, textures);
+        var meshes = readMeshes(in, strings);
+
+        var nodeCount = in.counts[BinarySceneFormat.NODES];
+        if (nodeCount == 0) {
+            throw new MercuryException("The binary scene doesn't contain any node!");
+        }
+
+        var nodes = new AnimaMundi[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = readNode(in, i, nodes, strings, materials, meshes);
+        }
+        return nodes[0];
+    }
+
+    private void readHeader(SceneInput in) {
+        if (in.buffer.remaining() < BinarySceneFormat.HEADER_SIZE || in.getInt(0) != BinarySceneFormat.MAGIC) {
+            throw new MercuryException("The data isn't a binary scene!");
+        }
+
+        var version = in.getInt(Integer.BYTES);
+        if (version > BinarySceneFormat.VERSION) {
+            throw new MercuryException("Unsupported binary scene version " + version + ", the latest supported is "
+                    + BinarySceneFormat.VERSION + "!");
+        }
+        in.version = version;
+
+        // Newer files may contain sections unknown to this version, which are ignored.
+        var sectionCount = in.getInt(2 * Integer.BYTES);
+        for (int i = 0; i < BinarySceneFormat.SECTION_COUNT; i++) {
+            if (i >= sectionCount) {
+                in.offsets[i] = -1;
+                in.counts[i] = 0;
+                in.recordSizes[i] = BinarySceneFormat.RECORD_SIZES[i];
+                continue;
+            }
+
+            var entry = BinarySceneFormat.HEADER_SIZE + i * BinarySceneFormat.DIRECTORY_ENTRY_SIZE;
+            in.offsets[i] = in.getInt(entry);
+            in.counts[i] = in.getInt(entry + Integer.BYTES);
+            in.recordSizes[i] = in.getInt(entry + 2 * Integer.BYTES);
+
+            if (in.recordSizes[i] < BinarySceneFormat.RECORD_SIZES[i]
+                    || in.offsets[i] + (long) in.counts[i] * in.recordSizes[i] > in.buffer.limit()) {
+                throw new MercuryException("The section " + i + " of the binary scene is corrupted!");
+            }
+        }
+    }
+
+    private String[] readStrings(SceneInput in) {
+        var strings = new String[in.counts[BinarySceneFormat.STRINGS]];
+        var data = in.offsets[BinarySceneFormat.DATA];
+        var dataSize = in.counts[BinarySceneFormat.DATA];
+        for (int i = 0; i < strings.length; i++) {
+            var offset = in.record(BinarySceneFormat.STRINGS, i);
+            var relative = in.getInt(offset);
+            var length = in.getInt(offset + Integer.BYTES);
+            if (data < 0 || relative < 0 || length < 0 || relative + (long) length > dataSize) {
+                throw new MercuryException("The string " + i + " of the binary scene is corrupted!");
+            }
+
+            var start = data + relative;
+            var bytes = new byte[length];
+            in.buffer.duplicate().position(start).get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private Texture2D[] readTextures(SceneInput in, String[] strings) {
+        var textures = new Texture2D[in.counts[BinarySceneFormat.TEXTURES]];
+        for (int i = 0; i < textures.length; i++) {
+            var offset = in.record(BinarySceneFormat.TEXTURES, i);
+            var texture = assetManager().loadTexture2D(string(strings, in.getInt(offset)));
+            if (texture == null) {
+                continue;
+            }
+
+            var minFilter = constant(in, MinFilter.values(), in.getInt(offset + 2 * Integer.BYTES));
+            var magFilter = constant(in, MagFilter.values(), in.getInt(offset + 3 * Integer.BYTES));
+            if (minFilter != null || magFilter != null) {
+                texture.setFilter(minFilter, magFilter);
+            }
+
+            var sWrap = constant(in, WrapMode.values(), in.getInt(offset + 4 * Integer.BYTES));
+            var tWrap = constant(in, WrapMode.values(), in.getInt(offset + 5 * Integer.BYTES));
+            texture.setWrapMode(sWrap, tWrap);
+            textures[i] = texture;
+        }
+        return textures;
+    }
+
+    private Material[] readMaterials(SceneInput in, String[] strings, Texture2D[] textures) {
+        var materials = new Material[in.counts[BinarySceneFormat.MATERIALS]];
+        // Load each material file only once, even if several of its materials are used.
+        var templates = new HashMap<String, Material[]>();
+        for (int i = 0; i < materials.length; i++) {
+            var offset = in.record(BinarySceneFormat.MATERIALS, i);
+            var path = string(strings, in.getInt(offset));
+            var name = string(strings, in.getInt(offset + Integer.BYTES));
+
+            var template = findMaterial(templates.computeIfAbsent(path, assetManager()::loadMaterial), name);
+            if (template == null) {
+                throw new MercuryException("Unable to find the material '" + name + "' in '" + path + "'!");
+            }
+
+            // Make sure the shader is compiled in the template, so that it is shared by the copies.
+            template.getFirstShader();
+            var material = template.copyShader();
+
+            var first = in.getInt(offset + 2 * Integer.BYTES);
+            var count = in.getInt(offset + 3 * Integer.BYTES);
+            for (int j = first; j < first + count; j++) {
+                readVariable(in, j, material, strings, textures);
+            }
+            materials[i] = material;
+        }
+        return materials;
+    }
+
+    private Material findMaterial(Material[] materials, String name) {
+        if (materials == null) {
+            return null;
+        }
+
+        for (var material : materials) {
+            if (Objects.equals(material.getName(), name)) {
+                return material;
+            }
+        }
+        return null;
+    }
+
+    private void readVariable(SceneInput in, int index, Material material, String[] strings, Texture2D[] textures) {
+        var offset = in.record(BinarySceneFormat.VARIABLES, index);
+        var name = string(strings, in.getInt(offset));
+        var valueType = constant(in, ValueType.values(), in.getInt(offset + Integer.BYTES));
+        var kind = in.getInt(offset + 2 * Integer.BYTES);
+        var reference = in.getInt(offset + 3 * Integer.BYTES);
+        var x = in.getFloat(offset + 4 * Integer.BYTES);
+        var y = in.getFloat(offset + 5 * Integer.BYTES);
+        var z = in.getFloat(offset + 6 * Integer.BYTES);
+        var w = in.getFloat(offset + 7 * Integer.BYTES);
+
+        Object value;
+        switch (kind) {
+        case BinarySceneFormat.VALUE_NULL:
+            value = null;
+            break;
+        case BinarySceneFormat.VALUE_STRING:
+            value = string(strings, reference);
+            break;
+        case BinarySceneFormat.VALUE_INTEGER:
+            value = reference;
+            break;
+        case BinarySceneFormat.VALUE_FLOAT:
+            value = x;
+            break;
+        case BinarySceneFormat.VALUE_BOOLEAN:
+            value = reference != 0;
+            break;
+        case BinarySceneFormat.VALUE_COLOR:
+            value = new Color(x, y, z, w);
+            break;
+        case BinarySceneFormat.VALUE_VECTOR3:
+            value = new Vector3f(x, y, z);
+            break;
+        case BinarySceneFormat.VALUE_TEXTURE:
+            in.record(BinarySceneFormat.TEXTURES, reference);
+            value = textures[reference];
+            break;
+        default:
+            throw new MercuryException("Unknown value kind " + kind + " for the variable '" + name
+                    + "' of the material '" + material.getName() + "'!");
+        }
+
+        material.addVariable(name, value, valueType);
+    }
+
+    private Mesh[] readMeshes(SceneInput in, String[] strings) {
+        var meshes = new Mesh[in.counts[BinarySceneFormat.MESHES]];
+        for (int i = 0; i < meshes.length; i++) {
+            var offset = in.record(BinarySceneFormat.MESHES, i);
+            var mesh = new Mesh();
+
+            var first = in.getInt(offset + 2 * Integer.BYTES);
+            var count = in.getInt(offset + 3 * Integer.BYTES);
+            for (int j = first; j < first + count; j++) {
+                readBuffer(in, j, mesh, strings);
+            }
+
+            mesh.setMode(constant(in, Mode.values(), in.getInt(offset)));
+            var instanceCount = in.getInt(offset + Integer.BYTES);
+            if (instanceCount > 1) {
+                mesh.setInstanceCount(instanceCount);
+            }
+            meshes[i] = mesh;
+        }
+        return meshes;
+    }
+
+    private void readBuffer(SceneInput in, int index, Mesh mesh, String[] strings) {
+        var offset = in.record(BinarySceneFormat.BUFFERS, index);
+        var key = string(strings, in.getInt(offset));
+        var type = in.getInt(offset + Integer.BYTES);
+        var size = in.getInt(offset + 2 * Integer.BYTES);
+        var usage = constant(in, Usage.values(), in.getInt(offset + 3 * Integer.BYTES));
+        var format = constant(in, Format.values(), in.getInt(offset + 4 * Integer.BYTES));
+        var normalized = in.getInt(offset + 5 * Integer.BYTES) != 0;
+        var stride = in.getInt(offset + 6 * Integer.BYTES);
+        var bufferOffset = in.getInt(offset + 7 * Integer.BYTES);
+        var dataOffset = in.getInt(offset + 8 * Integer.BYTES);
+        var count = in.getInt(offset + 9 * Integer.BYTES);
+
+        var start = in.offsets[BinarySceneFormat.DATA] + dataOffset;
+        if (count < 0 || start + (long) count * format.getSizeInByte() > in.buffer.limit()) {
+            throw new MercuryException("The data of the buffer '" + key + "' of the binary scene is corrupted!");
+        }
+
+        // Bulk copy the data from a little-endian view into a native buffer.
+        var source = in.buffer.duplicate().position(start).slice().order(BinarySceneFormat.ORDER);
+        Buffer data;
+        switch (format) {
+        case FLOAT:
+            var floats = BufferUtils.createFloatBuffer(count);
+            floats.put(source.asFloatBuffer().limit(count)).flip();
+            data = floats;
+            break;
+        case UNSIGNED_INT:
+            var ints = BufferUtils.createIntBuffer(count);
+            ints.put(source.asIntBuffer().limit(count)).flip();
+            data = ints;
+            break;
+        case UNSIGNED_SHORT:
+            var shorts = BufferUtils.createShortBuffer(count);
+            shorts.put(source.asShortBuffer().limit(count)).flip();
+            data = shorts;
+            break;
+        default:
+            var bytes = BufferUtils.createByteBuffer(count);
+            bytes.put(source.limit(count)).flip();
+            data = bytes;
+            break;
+        }
+
+        if (type != BinarySceneFormat.NONE) {
+            mesh.setupBuffer(constant(in, VertexBufferType.values(), type), usage, data);
+        } else {
+            mesh.setupBuffer(key, size, usage, data);
+        }
+
+        var buffer = mesh.getBuffer(key);
+        buffer.setNormalized(normalized);
+        buffer.setStride(stride);
+        buffer.setOffset(bufferOffset);
+    }
+
+    private AnimaMundi readNode(SceneInput in, int index, AnimaMundi[] nodes, String[] strings, Material[] materials,
+            Mesh[] meshes) {
+        var offset = in.record(BinarySceneFormat.NODES, index);
+        var kind = in.getInt(offset);
+        var parent = in.getInt(offset + Integer.BYTES);
+        var name = string(strings, in.getInt(offset + 2 * Integer.BYTES));
+
+        AnimaMundi anima;
+        switch (kind) {
+        case BinarySceneFormat.NODE_NUCLEUS:
+            anima = new NucleusMundi(name);
+            break;
+        case BinarySceneFormat.NODE_PHYSICA:
+            var physica = new PhysicaMundi(name);
+            var mesh = in.getInt(offset + 11 * Integer.BYTES);
+            if (mesh != BinarySceneFormat.NONE) {
+                in.record(BinarySceneFormat.MESHES, mesh);
+                physica.setMesh(meshes[mesh]);
+            }
+            anima = physica;
+            break;
+        case BinarySceneFormat.NODE_LOD_PHYSICA:
+            anima = readLevels(in, offset, name, meshes);
+            break;
+        default:
+            throw new MercuryException("Unknown kind " + kind + " for the node '" + name + "'!");
+        }
+
+        var material = in.getInt(offset + 12 * Integer.BYTES);
+        if (material != BinarySceneFormat.NONE) {
+            in.record(BinarySceneFormat.MATERIALS, material);
+            ((PhysicaMundi) anima).setMaterial(materials[material]);
+        }
+
+        var bucket = BucketType.get(string(strings, in.getInt(offset + 3 * Integer.BYTES)));
+        if (bucket != BucketType.LEGACY) {
+            anima.setBucket(bucket);
+        }
+        var layer = string(strings, in.getInt(offset + 4 * Integer.BYTES));
+        if (!RenderLayer.LEGACY.name().equals(layer)) {
+            anima.setRenderLayer(RenderLayer.get(layer, in.getInt(offset + 5 * Integer.BYTES)));
+        }
+        anima.setEnvironmentMode(constant(in, EnvironmentMode.values(), in.getInt(offset + 6 * Integer.BYTES)));
+
+        var stateFirst = in.getInt(offset + 7 * Integer.BYTES);
+        var stateCount = in.getInt(offset + 8 * Integer.BYTES);
+        if (stateCount > 0) {
+            var states = new RenderState[stateCount];
+            for (int i = 0; i < stateCount; i++) {
+                states[i] = readRenderState(in, stateFirst + i);
+            }
+            anima.setRenderStates(states);
+        }
+
+        var envFirst = in.getInt(offset + 9 * Integer.BYTES);
+        var envCount = in.getInt(offset + 10 * Integer.BYTES);
+        for (int i = envFirst; i < envFirst + envCount; i++) {
+            anima.addEnvironmentElement(readEnvironmentElement(in, i));
+        }
+
+        var floats = offset + 15 * Integer.BYTES;
+        var transform = in.transform;
+        transform.identity();
+        transform.setTranslation(in.getFloat(floats + Float.BYTES), in.getFloat(floats + 2 * Float.BYTES),
+                in.getFloat(floats + 3 * Float.BYTES));
+        var rotation = in.rotation.set(in.getFloat(floats + 4 * Float.BYTES), in.getFloat(floats + 5 * Float.BYTES),
+                in.getFloat(floats + 6 * Float.BYTES), in.getFloat(floats + 7 * Float.BYTES),
+                in.getFloat(floats + 8 * Float.BYTES), in.getFloat(floats + 9 * Float.BYTES),
+                in.getFloat(floats + 10 * Float.BYTES), in.getFloat(floats + 11 * Float.BYTES),
+                in.getFloat(floats + 12 * Float.BYTES));
+        transform.setRotation(rotation);
+        // A rotation matrix containing the scale already defines it.
+        if (transform.isRotationMatrix()) {
+            transform.setScale(in.getFloat(floats + 13 * Float.BYTES), in.getFloat(floats + 14 * Float.BYTES),
+                    in.getFloat(floats + 15 * Float.BYTES));
+        }
+        anima.setTransform(transform);
+
+        if (parent != BinarySceneFormat.NONE) {
+            // Nodes are written in pre-order, so the parent is always read first.
+            if (parent >= index || !(nodes[parent] instanceof NucleusMundi)) {
+                throw new MercuryException("Invalid parent " + parent + " for the node '" + name + "'!");
+            }
+            ((NucleusMundi) nodes[parent]).attach(anima);
+        } else if (index != 0) {
+            throw new MercuryException("The node '" + name + "' doesn't have any parent!");
+        }
+
+        return anima;
+    }
+
+    private LodPhysicaMundi readLevels(SceneInput in, int offset, String name, Mesh[] meshes) {
+        var first = in.getInt(offset + 13 * Integer.BYTES);
+        var count = in.getInt(offset + 14 * Integer.BYTES);
+        if (count <= 0) {
+            throw new MercuryException("The level of detail node '" + name + "' doesn't have any level!");
+        }
+
+        var levels = new Mesh[count];
+        var screenSizes = new float[count - 1];
+        for (int i = 0; i < count; i++) {
+            var level = in.record(BinarySceneFormat.LOD_LEVELS, first + i);
+            var mesh = in.getInt(level);
+            in.record(BinarySceneFormat.MESHES, mesh);
+            levels[i] = meshes[mesh];
+            if (i < count - 1) {
+                screenSizes[i] = in.getFloat(level + Integer.BYTES);
+            }
+        }
+
+        var lod = new LodPhysicaMundi(name, levels, screenSizes);
+        lod.setHysteresis(in.getFloat(offset + 15 * Integer.BYTES));
+        return lod;
+    }
+
+    private RenderState readRenderState(SceneInput in, int index) {
+        var offset = in.record(BinarySceneFormat.RENDER_STATES, index);
+        var type = constant(in, RenderState.Type.values(), in.getInt(offset));
+        var first = in.getInt(offset + 2 * Integer.BYTES);
+        var second = in.getInt(offset + 3 * Integer.BYTES);
+
+        RenderState state;
+        switch (type) {
+        case FACE_CULLING:
+            state = new FaceCullingState().setFace(constant(in, Face.values(), first))
+                    .setWindingOrder(constant(in, WindingOrder.values(), second));
+            break;
+        case POLYGON_MODE:
+            state = new PolygonModeState().setPolygonMode(Face.FRONT, constant(in, PolygonMode.values(), first))
+                    .setPolygonMode(Face.BACK, constant(in, PolygonMode.values(), second));
+            break;
+        case DEPTH_BUFFER:
+            var depth = new DepthBufferState().setFunction(constant(in, DepthFunction.values(), second));
+            state = first != 0 ? depth.write() : depth.mask();
+            break;
+        case BLEND_STATE:
+            state = new BlendState().setSRCFactor(constant(in, BlendFunction.values(), first))
+                    .setDSTFactor(constant(in, BlendFunction.values(), second));
+            break;
+        default:
+            throw new MercuryException("Unsupported render state type " + type + " in the binary scene!");
+        }
+
+        if (in.getInt(offset + Integer.BYTES) != 0) {
+            state.enable();
+        } else {
+            state.disable();
+        }
+        return state;
+    }
+
+    private EnvironmentElement readEnvironmentElement(SceneInput in, int index) {
+        var offset = in.record(BinarySceneFormat.ENVIRONMENT, index);
+        var kind = in.getInt(offset);
+        var color = new Color(in.getFloat(offset + Integer.BYTES), in.getFloat(offset + 2 * Integer.BYTES),
+                in.getFloat(offset + 3 * Integer.BYTES), in.getFloat(offset + 4 * Integer.BYTES));
+        var value = in.getFloat(offset + 5 * Integer.BYTES);
+
+        switch (kind) {
+        case BinarySceneFormat.ELEMENT_FOG:
+            return new Fog(color, value);
+        case BinarySceneFormat.ELEMENT_DIRECTIONAL_LIGHT:
+            var light = new DirectionalLight();
+            light.setColor(color);
+            light.setIntensity(value);
+            light.setDirection(new Vector3f(in.getFloat(offset + 6 * Integer.BYTES),
+                    in.getFloat(offset + 7 * Integer.BYTES), in.getFloat(offset + 8 * Integer.BYTES)));
+            return light;
+        default:
+            throw new MercuryException("Unknown kind " + kind + " for an environment element!");
+        }
+    }
+
+    private String string(String[] strings, int index) {
+        if (index == BinarySceneFormat.NONE) {
+            return null;
+        }
+
+        if (index < 0 || index >= strings.length) {
+            throw new MercuryException("Invalid reference " + index + " to the section " + BinarySceneFormat.STRINGS
+                    + " of the binary scene!");
+        }
+        return strings[index];
+    }
+
+    private <E extends Enum<E>> E constant(SceneInput in, E[] values, int value) {
+        if (value == BinarySceneFormat.NONE) {
+            return null;
+        }
+
+        if (in.version < BinarySceneFormat.NAMED_CONSTANTS_VERSION) {
+            // Older files store the ordinal of the constant.
+            if (value < 0 || value >= values.length) {
+                throw new MercuryException("Invalid constant " + value + " in the binary scene!");
+            }
+            return values[value];
+        }
+
+        var name = string(in.strings, value);
+        for (var constant : values) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        throw new MercuryException("Unknown constant '" + name + "' in the binary scene!");
+    }
+
+    private AssetManager assetManager() {
+        if (assetManager == null) {
+            throw new MercuryException("The binary scene references assets, but the loader isn't registered "
+                    + "to an asset manager!");
+        }
+        return assetManager;
+    }
+
+    @Override
+    public void registerAssetManager(AssetManager assetManager) {
+        Validator.nonNull(assetManager);
+        this.assetManager = assetManager;
+    }
+
+    /**
+     * <code>SceneInput</code> is the state of a single read of a binary scene: the
+     * buffer containing it, its table of sections and the objects reused to decode
+     * the nodes.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class SceneInput {
+
+        /**
+         * The buffer containing the binary scene, from its start.
+         */
+        private final ByteBuffer buffer;
+        /**
+         * The offset of each section in the file, or -1 if it isn't present.
+         */
+        private final int[] offsets = new int[BinarySceneFormat.SECTION_COUNT];
+        /**
+         * The number of records of each section.
+         */
+        private final int[] counts = new int[BinarySceneFormat.SECTION_COUNT];
+        /**
+         * The size in bytes of a record of each section.
+         */
+        private final int[] recordSizes = new int[BinarySceneFormat.SECTION_COUNT];
+        /**
+         * The transform used to apply the local transform of each node.
+         */
+        private final Transform transform = new Transform();
+        /**
+         * The rotation used to apply the local transform of each node.
+         */
+        private final Matrix3f rotation = new Matrix3f();
+        /**
+         * The version of the format the scene is written in.
+         */
+        private int version = BinarySceneFormat.VERSION;
+        /**
+         * The strings of the scene, once they have been read.
+         */
+        private String[] strings = new String[0];
+
+        private SceneInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Return the offset of the record at the given index in the provided section.
+         */
+        private int record(int section, int index) {
+            if (index < 0 || index >= counts[section]) {
+                throw new MercuryException("Invalid reference " + index + " to the section " + section
+                        + " of the binary scene!");
+            }
+            return offsets[section] + index * recordSizes[section];
+        }
+
+        private int getInt(int offset) {
+            return buffer.getInt(offset);
+        }
+
+        private float getFloat(int offset) {
+            return buffer.getFloat(offset);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package fr.mercury.nucleus.asset.loader.scene;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.Color;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.renderer.logic.state.BlendState;
+import fr.mercury.nucleus.renderer.logic.state.DepthBufferState;
+import fr.mercury.nucleus.renderer.logic.state.FaceCullingState;
+import fr.mercury.nucleus.renderer.logic.state.PolygonModeState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState.Face;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.LodPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
+import fr.mercury.nucleus.scenegraph.environment.Fog;
+import fr.mercury.nucleus.scenegraph.environment.light.DirectionalLight;
+import fr.mercury.nucleus.texture.Texture;
+import fr.mercury.nucleus.texture.Texture2D;
+import fr.mercury.nucleus.texture.TextureState.WrapCoordinate;
+import fr.mercury.nucleus.utils.MercuryException;
+
+/**
+ * <code>BinarySceneWriter</code> writes a scene-graph into the {@link BinarySceneFormat}, so that it can be loaded
+ * back quickly with the {@link BinarySceneLoader} instead of importing the original model again.
+ * <p>
+ * The meshes and textures shared by several nodes are only written once. The {@link Material} and {@link Texture}
+ * are written as references to the asset they were loaded from, so they must have an asset path, which is the case
+ * when they are loaded with the <code>AssetManager</code>.
+ * <p>
+ * A {@link BatchedPhysicaMundi} is written as a plain physica-mundi with its merged mesh, and the environment
+ * elements other than {@link Fog} and {@link DirectionalLight} are skipped.
+ *
+ * @author GnosticOccultist
+ */
+public final class BinarySceneWriter {
+
+    /**
+     * The logger of the mercury assets.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.asset");
+
+    /**
+     * The sections being written.
+     */
+    private final Section[] sections = new Section[BinarySceneFormat.SECTION_COUNT];
+    /**
+     * The index of each string already written.
+     */
+    private final Map<String, Integer> strings = new HashMap<>();
+    /**
+     * The index of each mesh already written.
+     */
+    private final Map<Mesh, Integer> meshes = new IdentityHashMap<>();
+    /**
+     * The index of each material already written.
+     */
+    private final Map<Material, Integer> materials = new IdentityHashMap<>();
+    /**
+     * The index of each texture already written.
+     */
+    private final Map<Texture, Integer> textures = new IdentityHashMap<>();
+
+    /**
+     * Writes the scene-graph starting at the provided {@link AnimaMundi} to the
+     * file at the given path, replacing it if it already exists.
+     *
+     * @param root The root of the scene-graph to write (not null).
+     * @param path The path of the file to write (not null).
+     *
+     * @throws IOException Thrown if the file couldn't be written.
+     */
+    public void write(AnimaMundi root, Path path) throws IOException {
+        Validator.nonNull(path, "The path to write to can't be null!");
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(root, channel);
+        }
+    }
+
+    /**
+     * Writes the scene-graph starting at the provided {@link AnimaMundi} to the
+     * given <code>OutputStream</code>, which isn't closed.
+     *
+     * @param root The root of the scene-graph to write (not null).
+     * @param out  The stream to write to (not null).
+     *
+     * @throws IOException Thrown if the stream couldn't be written.
+     */
+    public void write(AnimaMundi root, OutputStream out) throws IOException {
+        Validator.nonNull(out, "The output stream can't be null!");
+        write(root, Channels.newChannel(out));
+    }
+
+    private void write(AnimaMundi root, WritableByteChannel channel) throws IOException {
+        var buffer = toByteBuffer(root);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the scene-graph starting at the provided {@link AnimaMundi} into a new
+     * <code>ByteBuffer</code>, ready to be read.
+     *
+     * @param root The root of the scene-graph to write (not null).
+     * @return     A buffer containing the binary scene (not null).
+     */
+    public ByteBuffer toByteBuffer(AnimaMundi root) {
+        Validator.nonNull(root, "The root of the scene can't be null!");
+
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = new Section(BinarySceneFormat.RECORD_SIZES[i]);
+        }
+        strings.clear();
+        meshes.clear();
+        materials.clear();
+        textures.clear();
+
+        try {
+            writeNode(root, BinarySceneFormat.NONE);
+            return assemble();
+        } finally {
+            // Release the references to the scene.
+            meshes.clear();
+            materials.clear();
+            textures.clear();
+        }
+    }
+
+    private ByteBuffer assemble() {
+        var offset = BinarySceneFormat.HEADER_SIZE
+                + BinarySceneFormat.SECTION_COUNT * BinarySceneFormat.DIRECTORY_ENTRY_SIZE;
+        var offsets = new int[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            offsets[i] = offset;
+            offset += align(sections[i].buffer.position());
+        }
+
+        var result = ByteBuffer.allocate(offset).order(BinarySceneFormat.ORDER);
+        result.putInt(BinarySceneFormat.MAGIC).putInt(BinarySceneFormat.VERSION).putInt(sections.length);
+        for (int i = 0; i < sections.length; i++) {
+            var count = i == BinarySceneFormat.DATA ? sections[i].buffer.position() : sections[i].count;
+            result.putInt(offsets[i]).putInt(count).putInt(BinarySceneFormat.RECORD_SIZES[i]);
+        }
+        for (int i = 0; i < sections.length; i++) {
+            result.position(offsets[i]);
+            result.put(sections[i].buffer.flip());
+        }
+
+        result.clear();
+        return result;
+    }
+
+    private int writeNode(AnimaMundi anima, int parent) {
+        // Write the ranges referenced by the node first, since its record needs them.
+        var states = sections[BinarySceneFormat.RENDER_STATES];
+        var stateFirst = states.count;
+        for (var type : RenderState.Type.values()) {
+            var state = anima.getLocalRenderState(type);
+            if (state != null) {
+                writeRenderState(state);
+            }
+        }
+
+        var environment = sections[BinarySceneFormat.ENVIRONMENT];
+        var envFirst = environment.count;
+        for (var element : anima.getLocalEnvironmentElements()) {
+            writeEnvironmentElement(element);
+        }
+
+        var kind = BinarySceneFormat.NODE_NUCLEUS;
+        var mesh = BinarySceneFormat.NONE;
+        var material = BinarySceneFormat.NONE;
+        var lods = sections[BinarySceneFormat.LOD_LEVELS];
+        var lodFirst = lods.count;
+        var hysteresis = 0.0F;
+        if (anima instanceof LodPhysicaMundi) {
+            var lod = (LodPhysicaMundi) anima;
+            kind = BinarySceneFormat.NODE_LOD_PHYSICA;
+            for (int i = 0; i < lod.getLevelCount(); i++) {
+                var level = writeMesh(lod.getLevel(i));
+                var screenSize = i < lod.getLevelCount() - 1 ? lod.getScreenSize(i) : 0.0F;
+                lods.record().putInt(level).putFloat(screenSize);
+            }
+            hysteresis = lod.getHysteresis();
+            material = writeMaterial(lod.getMaterial());
+        } else if (anima instanceof PhysicaMundi) {
+            var physica = (PhysicaMundi) anima;
+            kind = BinarySceneFormat.NODE_PHYSICA;
+            mesh = writeMesh(physica.getMesh());
+            material = writeMaterial(physica.getMaterial());
+        }
+
+        var nodes = sections[BinarySceneFormat.NODES];
+        var index = nodes.count;
+        var layer = anima.getRenderLayer(false);
+        var record = nodes.record();
+        record.putInt(kind).putInt(parent).putInt(writeString(anima.getName()));
+        record.putInt(writeString(anima.getBucket(false).toString())).putInt(writeString(layer.name()))
+                .putInt(layer.index());
+        record.putInt(constant(anima.getEnvironmentMode()));
+        record.putInt(stateFirst).putInt(states.count - stateFirst);
+        record.putInt(envFirst).putInt(environment.count - envFirst);
+        record.putInt(mesh).putInt(material);
+        record.putInt(lodFirst).putInt(lods.count - lodFirst).putFloat(hysteresis);
+
+        var transform = anima.getLocalTransform();
+        var translation = transform.getTranslation();
+        record.putFloat(translation.x()).putFloat(translation.y()).putFloat(translation.z());
+        var rotation = transform.getRotation();
+        record.putFloat(rotation.m00()).putFloat(rotation.m01()).putFloat(rotation.m02());
+        record.putFloat(rotation.m10()).putFloat(rotation.m11()).putFloat(rotation.m12());
+        record.putFloat(rotation.m20()).putFloat(rotation.m21()).putFloat(rotation.m22());
+        var scale = transform.getScale();
+        record.putFloat(scale.x()).putFloat(scale.y()).putFloat(scale.z());
+
+        if (anima instanceof NucleusMundi) {
+            for (var child : ((NucleusMundi) anima).children()) {
+                writeNode(child, index);
+            }
+        }
+
+        return index;
+    }
+
+    private void writeRenderState(RenderState state) {
+        int first;
+        int second;
+        switch (state.type()) {
+        case FACE_CULLING:
+            var culling = (FaceCullingState) state;
+            first = constant(culling.face());
+            second = constant(culling.windingOrder());
+            break;
+        case POLYGON_MODE:
+            var polygon = (PolygonModeState) state;
+            first = constant(polygon.polygonMode(Face.FRONT));
+            second = constant(polygon.polygonMode(Face.BACK));
+            break;
+        case DEPTH_BUFFER:
+            var depth = (DepthBufferState) state;
+            first = depth.isWritable() ? 1 : 0;
+            second = constant(depth.function());
+            break;
+        case BLEND_STATE:
+            var blend = (BlendState) state;
+            first = constant(blend.srcFactor());
+            second = constant(blend.dstFactor());
+            break;
+        default:
+            logger.warning("Skipping unsupported render state " + state + " in binary scene!");
+            return;
+        }
+
+        sections[BinarySceneFormat.RENDER_STATES].record().putInt(constant(state.type()))
+                .putInt(state.isEnabled() ? 1 : 0).putInt(first).putInt(second);
+    }
+
+    private void writeEnvironmentElement(EnvironmentElement element) {
+        int kind;
+        Color color;
+        float value;
+        ReadableVector3f vector = Vector3f.ZERO;
+        if (element instanceof Fog) {
+            var fog = (Fog) element;
+            kind = BinarySceneFormat.ELEMENT_FOG;
+            color = fog.getColor();
+            value = fog.getDensity();
+        } else if (element instanceof DirectionalLight) {
+            var light = (DirectionalLight) element;
+            kind = BinarySceneFormat.ELEMENT_DIRECTIONAL_LIGHT;
+            color = light.getColor();
+            value = light.getIntensity();
+            vector = light.getDirection();
+        } else {
+            logger.warning("Skipping unsupported environment element " + element + " in binary scene!");
+            return;
+        }
+
+        sections[BinarySceneFormat.ENVIRONMENT].record().putInt(kind).putFloat(color.r).putFloat(color.g)
+                .putFloat(color.b).putFloat(color.a).putFloat(value).putFloat(vector.x()).putFloat(vector.y())
+                .putFloat(vector.z());
+    }
+
+    private int writeMaterial(Material material) {
+        if (material == null) {
+            return BinarySceneFormat.NONE;
+        }
+
+        var index = materials.get(material);
+        if (index != null) {
+            return index;
+        }
+
+        if (material.getAssetPath() == null) {
+            throw new MercuryException("Can't reference the material '" + material.getName()
+                    + "' in a binary scene, since it wasn't loaded from an asset!");
+        }
+
+        // Write the variables first, since the material record needs their range.
+        var variables = sections[BinarySceneFormat.VARIABLES];
+        var first = variables.count;
+        for (var variable : material.getVariables()) {
+            writeVariable(material, variable.getName(), constant(variable.getValueType()), variable.value());
+        }
+
+        var section = sections[BinarySceneFormat.MATERIALS];
+        index = section.count;
+        section.record().putInt(writeString(material.getAssetPath())).putInt(writeString(material.getName()))
+                .putInt(first).putInt(variables.count - first);
+        materials.put(material, index);
+        return index;
+    }
+
+    private void writeVariable(Material material, String name, int valueType, Object value) {
+        var kind = BinarySceneFormat.VALUE_NULL;
+        var reference = BinarySceneFormat.NONE;
+        float x = 0, y = 0, z = 0, w = 0;
+        if (value == null) {
+            kind = BinarySceneFormat.VALUE_NULL;
+        } else if (value instanceof String) {
+            kind = BinarySceneFormat.VALUE_STRING;
+            reference = writeString((String) value);
+        } else if (value instanceof Integer) {
+            kind = BinarySceneFormat.VALUE_INTEGER;
+            reference = (Integer) value;
+        } else if (value instanceof Float) {
+            kind = BinarySceneFormat.VALUE_FLOAT;
+            x = (Float) value;
+        } else if (value instanceof Boolean) {
+            kind = BinarySceneFormat.VALUE_BOOLEAN;
+            reference = ((Boolean) value) ? 1 : 0;
+        } else if (value instanceof Color) {
+            var color = (Color) value;
+            kind = BinarySceneFormat.VALUE_COLOR;
+            x = color.r;
+            y = color.g;
+            z = color.b;
+            w = color.a;
+        } else if (value instanceof Vector3f) {
+            var vector = (Vector3f) value;
+            kind = BinarySceneFormat.VALUE_VECTOR3;
+            x = vector.x();
+            y = vector.y();
+            z = vector.z();
+        } else if (value.getClass() == Texture2D.class) {
+            kind = BinarySceneFormat.VALUE_TEXTURE;
+            reference = writeTexture((Texture2D) value);
+        } else {
+            throw new MercuryException("Can't write the value of the variable '" + name + "' of the material '"
+                    + material.getName() + "' in a binary scene: " + value.getClass().getSimpleName());
+        }
+
+        sections[BinarySceneFormat.VARIABLES].record().putInt(writeString(name)).putInt(valueType).putInt(kind)
+                .putInt(reference).putFloat(x).putFloat(y).putFloat(z).putFloat(w);
+    }
+
+    private int writeTexture(Texture2D texture) {
+        var index = textures.get(texture);
+        if (index != null) {
+            return index;
+        }
+
+        if (texture.getAssetPath() == null) {
+            throw new MercuryException("Can't reference the texture " + texture
+                    + " in a binary scene, since it wasn't loaded from an asset!");
+        }
+
+        var section = sections[BinarySceneFormat.TEXTURES];
+        index = section.count;
+        section.record().putInt(writeString(texture.getAssetPath())).putInt(0)
+                .putInt(constant(texture.getMinFilter())).putInt(constant(texture.getMagFilter()))
+                .putInt(constant(texture.getWrapMode(WrapCoordinate.S)))
+                .putInt(constant(texture.getWrapMode(WrapCoordinate.T)));
+        textures.put(texture, index);
+        return index;
+    }
+
+    private int writeMesh(Mesh mesh) {
+        if (mesh == null) {
+            return BinarySceneFormat.NONE;
+        }
+
+        var index = meshes.get(mesh);
+        if (index != null) {
+            return index;
+        }
+
+        // Write the buffers first, since the mesh record needs their range.
+        var buffers = sections[BinarySceneFormat.BUFFERS];
+        var first = buffers.count;
+        // Sort the keys to write the same file for the same mesh.
+        for (var key : new TreeSet<>(mesh.getBufferKeys())) {
+            var buffer = mesh.getBuffer(key);
+            var data = buffer.getData();
+            if (data == null) {
+                continue;
+            }
+
+            var type = buffer.getVertexBufferType();
+            var format = VertexBufferType.getFormatFromBuffer(data);
+            var count = data.limit();
+            var offset = writeData(data, count);
+            buffers.record().putInt(writeString(key)).putInt(constant(type))
+                    .putInt(buffer.getSize()).putInt(constant(buffer.getUsage())).putInt(constant(format))
+                    .putInt(buffer.isNormalized() ? 1 : 0).putInt(buffer.getStride()).putInt(buffer.getOffset())
+                    .putInt(offset).putInt(count);
+        }
+
+        var section = sections[BinarySceneFormat.MESHES];
+        index = section.count;
+        section.record().putInt(constant(mesh.getMode())).putInt(mesh.getInstanceCount()).putInt(first)
+                .putInt(buffers.count - first);
+        meshes.put(mesh, index);
+        return index;
+    }
+
+    private int writeString(String value) {
+        if (value == null) {
+            return BinarySceneFormat.NONE;
+        }
+
+        var index = strings.get(value);
+        if (index != null) {
+            return index;
+        }
+
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        var offset = writeData(ByteBuffer.wrap(bytes), bytes.length);
+
+        var section = sections[BinarySceneFormat.STRINGS];
+        index = section.count;
+        section.record().putInt(offset).putInt(bytes.length);
+        strings.put(value, index);
+        return index;
+    }
+
+    /**
+     * Copies the given number of elements of the provided buffer into the data
+     * section, starting at its first element.
+     *
+     * @return The offset of the copied elements in the data section.
+     */
+    private int writeData(Buffer data, int count) {
+        var section = sections[BinarySceneFormat.DATA];
+        var offset = align(section.buffer.position());
+        var byteSize = count * VertexBufferType.getFormatFromBuffer(data).getSizeInByte();
+        section.ensureCapacity(offset - section.buffer.position() + byteSize);
+        section.buffer.position(offset);
+
+        // The views are created from a slice, whose byte order needs to be set again.
+        var target = section.buffer.slice().order(BinarySceneFormat.ORDER);
+        if (data instanceof FloatBuffer) {
+            target.asFloatBuffer().put(((FloatBuffer) data).duplicate().clear().limit(count));
+        } else if (data instanceof IntBuffer) {
+            target.asIntBuffer().put(((IntBuffer) data).duplicate().clear().limit(count));
+        } else if (data instanceof ShortBuffer) {
+            target.asShortBuffer().put(((ShortBuffer) data).duplicate().clear().limit(count));
+        } else {
+            target.put(((ByteBuffer) data).duplicate().clear().limit(count));
+        }
+
+        section.buffer.position(offset + byteSize);
+        return offset;
+    }
+
+    /**
+     * Return the index of the name of the provided constant in the strings, which
+     * remains valid when the constants of its enum are reordered.
+     */
+    private int constant(Enum<?> value) {
+        return value != null ? writeString(value.name()) : BinarySceneFormat.NONE;
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    /**
+     * <code>Section</code> is a growing buffer of fixed-size records.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class Section {
+
+        /**
+         * The size in bytes of a record.
+         */
+        private final int recordSize;
+        /**
+         * The buffer containing the records.
+         */
+        private ByteBuffer buffer = ByteBuffer.allocate(256).order(BinarySceneFormat.ORDER);
+        /**
+         * The number of records written.
+         */
+        private int count = 0;
+
+        private Section(int recordSize) {
+            this.recordSize = recordSize;
+        }
+
+        /**
+         * Return the buffer to write a new record to, at its current position.
+         */
+        private ByteBuffer record() {
+            ensureCapacity(recordSize);
+            count++;
+            return buffer;
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                var capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                var grown = ByteBuffer.allocate(capacity).order(BinarySceneFormat.ORDER);
+                grown.put(buffer.flip());
+                this.buffer = grown;
+            }
+        }
+    }
+}
@@ -31,94 +31,107 @@ public final class MercuryMath {
      */
     public static final double EPSILON = 0.0001D;
     /**
-     * The local vars from the main thread.
-     */
-    public static final LocalVars LOCAL_VARS = LocalVars.get();
-
-    static {
-        LOCAL_VARS.register(Vector2f.class);
-        LOCAL_VARS.register(Vector3f.class);
-        LOCAL_VARS.register(Vector4f.class);
-        LOCAL_VARS.register(Quaternion.class);
-        LOCAL_VARS.register(Matrix3f.class);
-        LOCAL_VARS.register(Matrix4f.class);
-        LOCAL_VARS.register(Color.class);
+     * The local vars of each thread, so that independent scenes can be updated
+     * concurrently without sharing their temporary objects.
+     */
+    private static final ThreadLocal<LocalVars> LOCAL_VARS = ThreadLocal.withInitial(MercuryMath::createLocalVars);
+
+    private static LocalVars createLocalVars() {
+        var vars = LocalVars.get();
+        vars.register(Vector2f.class);
+        vars.register(Vector3f.class);
+        vars.register(Vector4f.class);
+        vars.register(Quaternion.class);
+        vars.register(Matrix3f.class);
+        vars.register(Matrix4f.class);
+        vars.register(Color.class);
+        return vars;
+    }
+
+    /**
+     * Return the {@link LocalVars} of the calling thread, in which the temporary
+     * objects of the <code>MercuryMath</code> are acquired.
+     * 
+     * @return The local vars of the calling thread (not null).
+     */
+    public static LocalVars localVars() {
+        return LOCAL_VARS.get();
     }
 
     /**
      * Return an instance of {@link Vector2f} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available vector instance, or a newly created one.
      */
     public static Vector2f getVector2f() {
-        return LOCAL_VARS.acquireNext(Vector2f.class, Vector2f::new);
+        return LOCAL_VARS.get().acquireNext(Vector2f.class, Vector2f::new);
     }
 
     /**
      * Return an instance of {@link Vector3f} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available vector instance, or a newly created one.
      */
     public static Vector3f getVector3f() {
-        return LOCAL_VARS.acquireNext(Vector3f.class, Vector3f::new);
+        return LOCAL_VARS.get().acquireNext(Vector3f.class, Vector3f::new);
     }
 
     /**
      * Return an instance of {@link Vector4f} using the <code>MercuryMath</code>
-     * {@link LocalVars}.
+     * {@link LocalVars} of the calling thread.
      * 
      * @return A free and available vector instance, or a newly created one.
      */
     public static Vector4f getVector4f() {
-        return LOCAL_VARS.acquireNext(Vector4f.class, Vector4f::new);
+        return LOCAL_VARS.get().acquireNext(Vector4f.class, Vector4f::new);
     }
 
     /**
      * Return an instance of {@link Quaternion} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available quaternion instance, or a newly created one.
      */
     public static Quaternion getQuaternion() {
-        return LOCAL_VARS.acquireNext(Quaternion.class, Quaternion::new);
+        return LOCAL_VARS.get().acquireNext(Quaternion.class, Quaternion::new);
     }
 
     /**
      * Return an instance of {@link Matrix3f} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available matrix instance, or a newly created one.
      */
     public static Matrix3f getMatrix3f() {
-        return LOCAL_VARS.acquireNext(Matrix3f.class, Matrix3f::new);
+        return LOCAL_VARS.get().acquireNext(Matrix3f.class, Matrix3f::new);
     }
 
     /**
      * Return an instance of {@link Matrix4f} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available matrix instance, or a newly created one.
      */
     public static Matrix4f getMatrix4f() {
-        return LOCAL_VARS.acquireNext(Matrix4f.class, Matrix4f::new);
+        return LOCAL_VARS.get().acquireNext(Matrix4f.class, Matrix4f::new);
     }
 
     /**
      * Return an instance of {@link Color} using the <code>MercuryMath</code>
-     * {@link LocalVars}. If no instance is currently available, it will
-     * instantiates a new one.
+     * {@link LocalVars} of the calling thread. If no instance is currently
+     * available, it will instantiates a new one.
      * 
      * @return A free and available color instance, or a newly created one.
      */
     public static Color getColor() {
-        return LOCAL_VARS.acquireNext(Color.class, Color::new);
+        return LOCAL_VARS.get().acquireNext(Color.class, Color::new);
     }
 
     /**
@@ -0,0 +1,293 @@
+package fr.mercury.nucleus.math.objects;
+
+import java.nio.FloatBuffer;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.MercuryMath;
+import fr.mercury.nucleus.math.readable.ReadableTransform;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+
+/**
+ * <code>BoundingBox</code> is a mathematical object representing an axis-aligned bounding box (AABB)
+ * in a 3D space, described with a center and a positive half-extent on each axis.
+ * <p>
+ * The box can either be <b>empty</b>, meaning it doesn't enclose anything, or <b>infinite</b>, meaning
+ * it encloses the whole space. An empty box is ignored when merging and never intersects anything, whereas
+ * an infinite box always intersects.
+ *
+ * @author GnosticOccultist
+ */
+public final class BoundingBox {
+
+    /**
+     * The center of the box.
+     */
+    private final Vector3f center = new Vector3f();
+    /**
+     * The half-extents of the box on each axis, negative if the box is empty.
+     */
+    private final Vector3f extents = new Vector3f(-1, -1, -1);
+
+    /**
+     * Instantiates a new empty <code>BoundingBox</code>.
+     */
+    public BoundingBox() {
+        super();
+    }
+
+    /**
+     * Instantiates a new <code>BoundingBox</code> with the provided center and
+     * half-extents.
+     *
+     * @param center  The center of the box (not null).
+     * @param extents The half-extents of the box on each axis (not null).
+     */
+    public BoundingBox(ReadableVector3f center, ReadableVector3f extents) {
+        set(center, extents);
+    }
+
+    /**
+     * Sets the <code>BoundingBox</code> to the provided center and half-extents.
+     *
+     * @param center  The center of the box (not null).
+     * @param extents The half-extents of the box on each axis (not null).
+     * @return        The box for chaining purposes.
+     */
+    public BoundingBox set(ReadableVector3f center, ReadableVector3f extents) {
+        Validator.nonNull(center, "The center of the box can't be null!");
+        Validator.nonNull(extents, "The extents of the box can't be null!");
+        this.center.set(center);
+        this.extents.set(extents);
+        return this;
+    }
+
+    /**
+     * Sets the <code>BoundingBox</code> to the values of the provided one.
+     *
+     * @param other The box to copy from (not null).
+     * @return      The box for chaining purposes.
+     */
+    public BoundingBox set(BoundingBox other) {
+        Validator.nonNull(other, "The box to copy can't be null!");
+        return set(other.center, other.extents);
+    }
+
+    /**
+     * Sets the <code>BoundingBox</code> to enclose the provided minimum and maximum
+     * corners.
+     *
+     * @param minX The minimum X-axis coordinate.
+     * @param minY The minimum Y-axis coordinate.
+     * @param minZ The minimum Z-axis coordinate.
+     * @param maxX The maximum X-axis coordinate.
+     * @param maxY The maximum Y-axis coordinate.
+     * @param maxZ The maximum Z-axis coordinate.
+     * @return     The box for chaining purposes.
+     */
+    public BoundingBox setMinMax(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        center.set((minX + maxX) * 0.5F, (minY + maxY) * 0.5F, (minZ + maxZ) * 0.5F);
+        extents.set((maxX - minX) * 0.5F, (maxY - minY) * 0.5F, (maxZ - minZ) * 0.5F);
+        return this;
+    }
+
+    /**
+     * Computes the <code>BoundingBox</code> to enclose all the positions contained
+     * in the provided {@link FloatBuffer}, which are read as triplets of
+     * coordinates from the start to the limit of the buffer.
+     * <p>
+     * If the buffer doesn't contain any position, the box is set to empty.
+     *
+     * @param positions The buffer containing the positions (not null).
+     * @return          The box for chaining purposes.
+     */
+    public BoundingBox compute(FloatBuffer positions) {
+        Validator.nonNull(positions, "The positions buffer can't be null!");
+
+        var count = positions.limit() / 3;
+        if (count == 0) {
+            return setEmpty();
+        }
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+
+        // Use absolute getters to leave the buffer's position untouched.
+        for (int i = 0; i < count * 3; i += 3) {
+            var x = positions.get(i);
+            var y = positions.get(i + 1);
+            var z = positions.get(i + 2);
+
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        return setMinMax(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Merges the provided <code>BoundingBox</code> into this one, so it encloses
+     * both volumes. An empty box is ignored by the merge.
+     *
+     * @param other The box to merge with (not null).
+     * @return      The box for chaining purposes.
+     */
+    public BoundingBox merge(BoundingBox other) {
+        Validator.nonNull(other, "The box to merge can't be null!");
+
+        if (other.isEmpty() || isInfinite()) {
+            return this;
+        }
+
+        if (isEmpty() || other.isInfinite()) {
+            return set(other);
+        }
+
+        var minX = Math.min(center.x - extents.x, other.center.x - other.extents.x);
+        var minY = Math.min(center.y - extents.y, other.center.y - other.extents.y);
+        var minZ = Math.min(center.z - extents.z, other.center.z - other.extents.z);
+        var maxX = Math.max(center.x + extents.x, other.center.x + other.extents.x);
+        var maxY = Math.max(center.y + extents.y, other.center.y + other.extents.y);
+        var maxZ = Math.max(center.z + extents.z, other.center.z + other.extents.z);
+
+        return setMinMax(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Transforms the <code>BoundingBox</code> with the provided {@link ReadableTransform}
+     * and stores the axis-aligned box enclosing the result into the given store.
+     *
+     * @param transform The transform to apply (not null).
+     * @param store     The box to store the result, or null to create a new one.
+     * @return          The transformed box, either the store or a new instance.
+     */
+    public BoundingBox transform(ReadableTransform transform, BoundingBox store) {
+        Validator.nonNull(transform, "The transform can't be null!");
+        var result = store == null ? new BoundingBox() : store;
+
+        if (isEmpty() || isInfinite()) {
+            return result.set(this);
+        }
+
+        var m = transform.asModelMatrix(MercuryMath.getMatrix4f());
+
+        // Transform the center as a point, using row-vector convention of the model matrix.
+        var cx = center.x * m.m00 + center.y * m.m10 + center.z * m.m20 + m.m30;
+        var cy = center.x * m.m01 + center.y * m.m11 + center.z * m.m21 + m.m31;
+        var cz = center.x * m.m02 + center.y * m.m12 + center.z * m.m22 + m.m32;
+
+        // Project the extents onto each world axis using the absolute matrix.
+        var ex = Math.abs(m.m00) * extents.x + Math.abs(m.m10) * extents.y + Math.abs(m.m20) * extents.z;
+        var ey = Math.abs(m.m01) * extents.x + Math.abs(m.m11) * extents.y + Math.abs(m.m21) * extents.z;
+        var ez = Math.abs(m.m02) * extents.x + Math.abs(m.m12) * extents.y + Math.abs(m.m22) * extents.z;
+
+        result.center.set(cx, cy, cz);
+        result.extents.set(ex, ey, ez);
+        return result;
+    }
+
+    /**
+     * Return whether the <code>BoundingBox</code> intersects the provided one.
+     *
+     * @param other The other box to test for intersection (not null).
+     * @return      Whether the two boxes are overlapping.
+     */
+    public boolean intersects(BoundingBox other) {
+        Validator.nonNull(other, "The box to test can't be null!");
+        if (isEmpty() || other.isEmpty()) {
+            return false;
+        }
+
+        if (isInfinite() || other.isInfinite()) {
+            return true;
+        }
+
+        return Math.abs(center.x - other.center.x) <= extents.x + other.extents.x
+                && Math.abs(center.y - other.center.y) <= extents.y + other.extents.y
+                && Math.abs(center.z - other.center.z) <= extents.z + other.extents.z;
+    }
+
+    /**
+     * Return whether the provided point is contained inside the <code>BoundingBox</code>.
+     *
+     * @param point The point to test (not null).
+     * @return      Whether the point is inside the box.
+     */
+    public boolean contains(ReadableVector3f point) {
+        Validator.nonNull(point, "The point to test can't be null!");
+        if (isEmpty()) {
+            return false;
+        }
+
+        return Math.abs(center.x - point.x()) <= extents.x && Math.abs(center.y - point.y()) <= extents.y
+                && Math.abs(center.z - point.z()) <= extents.z;
+    }
+
+    /**
+     * Sets the <code>BoundingBox</code> to be empty, meaning it doesn't enclose
+     * anything.
+     *
+     * @return The box for chaining purposes.
+     */
+    public BoundingBox setEmpty() {
+        center.set(0, 0, 0);
+        extents.set(-1, -1, -1);
+        return this;
+    }
+
+    /**
+     * Sets the <code>BoundingBox</code> to be infinite, meaning it encloses the
+     * whole space.
+     *
+     * @return The box for chaining purposes.
+     */
+    public BoundingBox setInfinite() {
+        center.set(0, 0, 0);
+        extents.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        return this;
+    }
+
+    /**
+     * Return whether the <code>BoundingBox</code> is empty.
+     *
+     * @return Whether the box doesn't enclose anything.
+     */
+    public boolean isEmpty() {
+        return extents.x < 0 || extents.y < 0 || extents.z < 0;
+    }
+
+    /**
+     * Return whether the <code>BoundingBox</code> is infinite.
+     *
+     * @return Whether the box encloses the whole space.
+     */
+    public boolean isInfinite() {
+        return Float.isInfinite(extents.x) || Float.isInfinite(extents.y) || Float.isInfinite(extents.z);
+    }
+
+    /**
+     * Return the readable-only center of the <code>BoundingBox</code>.
+     *
+     * @return The center of the box.
+     */
+    public ReadableVector3f getCenter() {
+        return center;
+    }
+
+    /**
+     * Return the readable-only half-extents of the <code>BoundingBox</code> on each axis.
+     *
+     * @return The half-extents of the box.
+     */
+    public ReadableVector3f getExtents() {
+        return extents;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ center= " + center + ", extents= " + extents + " ]";
+    }
+}
@@ -0,0 +1,264 @@
+package fr.mercury.nucleus.math.objects;
+
+import java.nio.FloatBuffer;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.MercuryMath;
+import fr.mercury.nucleus.math.readable.ReadableTransform;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+
+/**
+ * <code>BoundingSphere</code> is a mathematical object representing a bounding sphere in a 3D space,
+ * described with a center and a radius.
+ * <p>
+ * The sphere can either be <b>empty</b> (negative radius), meaning it doesn't enclose anything, or
+ * <b>infinite</b>, meaning it encloses the whole space.
+ *
+ * @author GnosticOccultist
+ */
+public final class BoundingSphere {
+
+    /**
+     * The center of the sphere.
+     */
+    private final Vector3f center = new Vector3f();
+    /**
+     * The radius of the sphere, negative if the sphere is empty.
+     */
+    private float radius = -1;
+
+    /**
+     * Instantiates a new empty <code>BoundingSphere</code>.
+     */
+    public BoundingSphere() {
+        super();
+    }
+
+    /**
+     * Instantiates a new <code>BoundingSphere</code> with the provided center and
+     * radius.
+     *
+     * @param center The center of the sphere (not null).
+     * @param radius The radius of the sphere.
+     */
+    public BoundingSphere(ReadableVector3f center, float radius) {
+        set(center, radius);
+    }
+
+    /**
+     * Sets the <code>BoundingSphere</code> to the provided center and radius.
+     *
+     * @param center The center of the sphere (not null).
+     * @param radius The radius of the sphere.
+     * @return       The sphere for chaining purposes.
+     */
+    public BoundingSphere set(ReadableVector3f center, float radius) {
+        Validator.nonNull(center, "The center of the sphere can't be null!");
+        this.center.set(center);
+        this.radius = radius;
+        return this;
+    }
+
+    /**
+     * Sets the <code>BoundingSphere</code> to the values of the provided one.
+     *
+     * @param other The sphere to copy from (not null).
+     * @return      The sphere for chaining purposes.
+     */
+    public BoundingSphere set(BoundingSphere other) {
+        Validator.nonNull(other, "The sphere to copy can't be null!");
+        return set(other.center, other.radius);
+    }
+
+    /**
+     * Computes the <code>BoundingSphere</code> to enclose all the positions
+     * contained in the provided {@link FloatBuffer}, which are read as triplets of
+     * coordinates from the start to the limit of the buffer.
+     * <p>
+     * The sphere is centered on the provided {@link BoundingBox} of the same positions,
+     * and its radius is the largest distance from this center to a position, which gives
+     * a tighter sphere than the one enclosing the box.
+     *
+     * @param positions The buffer containing the positions (not null).
+     * @param box       The bounding box of the same positions (not null).
+     * @return          The sphere for chaining purposes.
+     */
+    public BoundingSphere compute(FloatBuffer positions, BoundingBox box) {
+        Validator.nonNull(positions, "The positions buffer can't be null!");
+        Validator.nonNull(box, "The bounding box can't be null!");
+
+        if (box.isEmpty()) {
+            return setEmpty();
+        }
+
+        var c = box.getCenter();
+        var count = positions.limit() / 3;
+        var maxDistSq = 0F;
+        for (int i = 0; i < count * 3; i += 3) {
+            var dx = positions.get(i) - c.x();
+            var dy = positions.get(i + 1) - c.y();
+            var dz = positions.get(i + 2) - c.z();
+
+            maxDistSq = Math.max(maxDistSq, dx * dx + dy * dy + dz * dz);
+        }
+
+        return set(c, MercuryMath.sqrt(maxDistSq));
+    }
+
+    /**
+     * Merges the provided <code>BoundingSphere</code> into this one, so it encloses
+     * both volumes. An empty sphere is ignored by the merge.
+     *
+     * @param other The sphere to merge with (not null).
+     * @return      The sphere for chaining purposes.
+     */
+    public BoundingSphere merge(BoundingSphere other) {
+        Validator.nonNull(other, "The sphere to merge can't be null!");
+
+        if (other.isEmpty() || isInfinite()) {
+            return this;
+        }
+
+        if (isEmpty() || other.isInfinite()) {
+            return set(other);
+        }
+
+        var dx = other.center.x - center.x;
+        var dy = other.center.y - center.y;
+        var dz = other.center.z - center.z;
+        var distance = MercuryMath.sqrt(dx * dx + dy * dy + dz * dz);
+
+        // One sphere is already enclosing the other one.
+        if (distance + other.radius <= radius) {
+            return this;
+        }
+        if (distance + radius <= other.radius) {
+            return set(other);
+        }
+
+        var newRadius = (distance + radius + other.radius) * 0.5F;
+        var ratio = (newRadius - radius) / distance;
+        center.add(dx * ratio, dy * ratio, dz * ratio);
+        this.radius = newRadius;
+        return this;
+    }
+
+    /**
+     * Transforms the <code>BoundingSphere</code> with the provided {@link ReadableTransform}
+     * and stores the result into the given store. The radius is scaled by the largest
+     * scaling factor of the transform, so the result still encloses the transformed volume.
+     *
+     * @param transform The transform to apply (not null).
+     * @param store     The sphere to store the result, or null to create a new one.
+     * @return          The transformed sphere, either the store or a new instance.
+     */
+    public BoundingSphere transform(ReadableTransform transform, BoundingSphere store) {
+        Validator.nonNull(transform, "The transform can't be null!");
+        var result = store == null ? new BoundingSphere() : store;
+
+        if (isEmpty() || isInfinite()) {
+            return result.set(this);
+        }
+
+        var m = transform.asModelMatrix(MercuryMath.getMatrix4f());
+
+        var cx = center.x * m.m00 + center.y * m.m10 + center.z * m.m20 + m.m30;
+        var cy = center.x * m.m01 + center.y * m.m11 + center.z * m.m21 + m.m31;
+        var cz = center.x * m.m02 + center.y * m.m12 + center.z * m.m22 + m.m32;
+
+        // Each row of the model matrix is a scaled basis vector.
+        var sx = m.m00 * m.m00 + m.m01 * m.m01 + m.m02 * m.m02;
+        var sy = m.m10 * m.m10 + m.m11 * m.m11 + m.m12 * m.m12;
+        var sz = m.m20 * m.m20 + m.m21 * m.m21 + m.m22 * m.m22;
+        var maxScale = MercuryMath.sqrt(Math.max(sx, Math.max(sy, sz)));
+
+        result.center.set(cx, cy, cz);
+        result.radius = radius * maxScale;
+        return result;
+    }
+
+    /**
+     * Return whether the <code>BoundingSphere</code> intersects the provided one.
+     *
+     * @param other The other sphere to test for intersection (not null).
+     * @return      Whether the two spheres are overlapping.
+     */
+    public boolean intersects(BoundingSphere other) {
+        Validator.nonNull(other, "The sphere to test can't be null!");
+        if (isEmpty() || other.isEmpty()) {
+            return false;
+        }
+
+        if (isInfinite() || other.isInfinite()) {
+            return true;
+        }
+
+        var sum = radius + other.radius;
+        return center.distanceSquared(other.center) <= sum * sum;
+    }
+
+    /**
+     * Sets the <code>BoundingSphere</code> to be empty, meaning it doesn't enclose
+     * anything.
+     *
+     * @return The sphere for chaining purposes.
+     */
+    public BoundingSphere setEmpty() {
+        center.set(0, 0, 0);
+        this.radius = -1;
+        return this;
+    }
+
+    /**
+     * Sets the <code>BoundingSphere</code> to be infinite, meaning it encloses the
+     * whole space.
+     *
+     * @return The sphere for chaining purposes.
+     */
+    public BoundingSphere setInfinite() {
+        center.set(0, 0, 0);
+        this.radius = Float.POSITIVE_INFINITY;
+        return this;
+    }
+
+    /**
+     * Return whether the <code>BoundingSphere</code> is empty.
+     *
+     * @return Whether the sphere doesn't enclose anything.
+     */
+    public boolean isEmpty() {
+        return radius < 0;
+    }
+
+    /**
+     * Return whether the <code>BoundingSphere</code> is infinite.
+     *
+     * @return Whether the sphere encloses the whole space.
+     */
+    public boolean isInfinite() {
+        return Float.isInfinite(radius);
+    }
+
+    /**
+     * Return the readable-only center of the <code>BoundingSphere</code>.
+     *
+     * @return The center of the sphere.
+     */
+    public ReadableVector3f getCenter() {
+        return center;
+    }
+
+    /**
+     * Return the radius of the <code>BoundingSphere</code>.
+     *
+     * @return The radius of the sphere, negative if empty.
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ center= " + center + ", radius= " + radius + " ]";
+    }
+}
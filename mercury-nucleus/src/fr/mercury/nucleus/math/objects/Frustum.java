@@ -0,0 +1,183 @@
+package fr.mercury.nucleus.math.objects;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
+import fr.mercury.nucleus.renderer.Camera;
+
+/**
+ * <code>Frustum</code> is a mathematical object representing the 6 planes delimiting the visible volume
+ * of a {@link Camera}: left, right, bottom, top, near and far.
+ * <p>
+ * The planes are extracted from a view-projection matrix, their normals are pointing inside the volume
+ * and are normalized, so that the signed distance of a point to a plane is <code>n&middot;p + d</code>.
+ * <p>
+ * The intersection tests are using a plane mask, where each bit set corresponds to a plane which still
+ * needs to be tested. When a volume is fully inside a plane, its bit is cleared from the returned mask,
+ * so that the enclosed volumes (children in a scene-graph for example) can skip testing against it.
+ *
+ * @author GnosticOccultist
+ */
+public final class Frustum {
+
+    /**
+     * The number of planes of the frustum.
+     */
+    public static final int PLANE_COUNT = 6;
+    /**
+     * The plane mask to test a volume against all the planes of the frustum.
+     */
+    public static final int ALL_PLANES = (1 << PLANE_COUNT) - 1;
+    /**
+     * The plane mask returned when a volume is fully inside the frustum.
+     */
+    public static final int INSIDE = 0;
+    /**
+     * The plane mask returned when a volume is fully outside the frustum.
+     */
+    public static final int OUTSIDE = -1;
+
+    /**
+     * The planes coefficients packed as [nx, ny, nz, d] for each plane.
+     */
+    private final float[] planes = new float[PLANE_COUNT * 4];
+
+    /**
+     * Extracts the planes of the <code>Frustum</code> from the provided
+     * view-projection matrix.
+     * <p>
+     * The matrix is expected to follow the engine convention of row-vectors, meaning
+     * a clip-space position is computed as <code>p * VP</code>, so the planes are
+     * obtained by combining the columns of the matrix.
+     *
+     * @param viewProjection The view-projection matrix to extract from (not null).
+     * @return               The frustum for chaining purposes.
+     */
+    public Frustum set(ReadableMatrix4f viewProjection) {
+        Validator.nonNull(viewProjection, "The view-projection matrix can't be null!");
+        var m = viewProjection;
+
+        // Left: w + x.
+        setPlane(0, m.m03() + m.m00(), m.m13() + m.m10(), m.m23() + m.m20(), m.m33() + m.m30());
+        // Right: w - x.
+        setPlane(1, m.m03() - m.m00(), m.m13() - m.m10(), m.m23() - m.m20(), m.m33() - m.m30());
+        // Bottom: w + y.
+        setPlane(2, m.m03() + m.m01(), m.m13() + m.m11(), m.m23() + m.m21(), m.m33() + m.m31());
+        // Top: w - y.
+        setPlane(3, m.m03() - m.m01(), m.m13() - m.m11(), m.m23() - m.m21(), m.m33() - m.m31());
+        // Near: w + z.
+        setPlane(4, m.m03() + m.m02(), m.m13() + m.m12(), m.m23() + m.m22(), m.m33() + m.m32());
+        // Far: w - z.
+        setPlane(5, m.m03() - m.m02(), m.m13() - m.m12(), m.m23() - m.m22(), m.m33() - m.m32());
+
+        return this;
+    }
+
+    private void setPlane(int index, float nx, float ny, float nz, float d) {
+        var invLength = 1.0F / (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        var offset = index * 4;
+        planes[offset] = nx * invLength;
+        planes[offset + 1] = ny * invLength;
+        planes[offset + 2] = nz * invLength;
+        planes[offset + 3] = d * invLength;
+    }
+
+    /**
+     * Tests the provided {@link BoundingSphere} against the planes of the
+     * <code>Frustum</code> present in the given mask.
+     *
+     * @param sphere    The sphere to test (not null).
+     * @param planeMask The mask of planes to test against, {@link #ALL_PLANES} for a full test.
+     * @return          {@link #OUTSIDE} if the sphere is outside, otherwise the mask of planes
+     *                  still intersecting the sphere ({@link #INSIDE} if none).
+     */
+    public int intersects(BoundingSphere sphere, int planeMask) {
+        Validator.nonNull(sphere, "The sphere to test can't be null!");
+        if (sphere.isEmpty()) {
+            return OUTSIDE;
+        }
+
+        var c = sphere.getCenter();
+        var radius = sphere.getRadius();
+        var result = planeMask;
+        for (int i = 0; i < PLANE_COUNT; i++) {
+            var bit = 1 << i;
+            if ((planeMask & bit) == 0) {
+                continue;
+            }
+
+            var offset = i * 4;
+            var distance = planes[offset] * c.x() + planes[offset + 1] * c.y() + planes[offset + 2] * c.z()
+                    + planes[offset + 3];
+            if (distance < -radius) {
+                return OUTSIDE;
+            }
+
+            if (distance >= radius) {
+                result &= ~bit;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests the provided {@link BoundingBox} against the planes of the
+     * <code>Frustum</code> present in the given mask.
+     *
+     * @param box       The box to test (not null).
+     * @param planeMask The mask of planes to test against, {@link #ALL_PLANES} for a full test.
+     * @return          {@link #OUTSIDE} if the box is outside, otherwise the mask of planes
+     *                  still intersecting the box ({@link #INSIDE} if none).
+     */
+    public int intersects(BoundingBox box, int planeMask) {
+        Validator.nonNull(box, "The box to test can't be null!");
+        if (box.isEmpty()) {
+            return OUTSIDE;
+        }
+
+        var c = box.getCenter();
+        var e = box.getExtents();
+        var result = planeMask;
+        for (int i = 0; i < PLANE_COUNT; i++) {
+            var bit = 1 << i;
+            if ((planeMask & bit) == 0) {
+                continue;
+            }
+
+            var offset = i * 4;
+            var nx = planes[offset];
+            var ny = planes[offset + 1];
+            var nz = planes[offset + 2];
+
+            // Projected radius of the box onto the plane normal.
+            var radius = Math.abs(nx) * e.x() + Math.abs(ny) * e.y() + Math.abs(nz) * e.z();
+            var distance = nx * c.x() + ny * c.y() + nz * c.z() + planes[offset + 3];
+            if (distance < -radius) {
+                return OUTSIDE;
+            }
+
+            if (distance >= radius) {
+                result &= ~bit;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return the signed distance of the provided point to the plane at the given
+     * index of the <code>Frustum</code>. A positive value means the point is on the
+     * inner side of the plane.
+     *
+     * @param index The index of the plane (&ge;0, &lt;6).
+     * @param x     The X-axis coordinate of the point.
+     * @param y     The Y-axis coordinate of the point.
+     * @param z     The Z-axis coordinate of the point.
+     * @return      The signed distance from the point to the plane.
+     */
+    public float distance(int index, float x, float y, float z) {
+        Validator.inRange(index, 0, PLANE_COUNT - 1);
+        var offset = index * 4;
+        return planes[offset] * x + planes[offset + 1] * y + planes[offset + 2] * z + planes[offset + 3];
+    }
+}
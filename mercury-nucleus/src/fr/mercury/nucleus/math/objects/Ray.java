@@ -0,0 +1,168 @@
+package fr.mercury.nucleus.math.objects;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+
+/**
+ * <code>Ray</code> is a mathematical object representing a half-line in a 3D space, described with an origin
+ * and a normalized direction, so that a point on the ray is <code>origin + t * direction</code> with <code>t &ge; 0</code>
+ * being the distance to the origin.
+ *
+ * @author GnosticOccultist
+ */
+public final class Ray {
+
+    /**
+     * The origin of the ray.
+     */
+    private final Vector3f origin = new Vector3f();
+    /**
+     * The normalized direction of the ray.
+     */
+    private final Vector3f direction = new Vector3f(0, 0, -1);
+
+    /**
+     * Instantiates a new <code>Ray</code> starting from the origin and pointing
+     * toward the negative Z-axis.
+     */
+    public Ray() {
+        super();
+    }
+
+    /**
+     * Instantiates a new <code>Ray</code> with the provided origin and direction.
+     *
+     * @param origin    The origin of the ray (not null).
+     * @param direction The direction of the ray, normalized by the ray (not null).
+     */
+    public Ray(ReadableVector3f origin, ReadableVector3f direction) {
+        set(origin, direction);
+    }
+
+    /**
+     * Sets the <code>Ray</code> to the provided origin and direction.
+     *
+     * @param origin    The origin of the ray (not null).
+     * @param direction The direction of the ray, normalized by the ray (not null).
+     * @return          The ray for chaining purposes.
+     */
+    public Ray set(ReadableVector3f origin, ReadableVector3f direction) {
+        Validator.nonNull(origin, "The origin of the ray can't be null!");
+        Validator.nonNull(direction, "The direction of the ray can't be null!");
+        this.origin.set(origin);
+        this.direction.set(direction).normalize();
+        return this;
+    }
+
+    /**
+     * Sets the <code>Ray</code> to the values of the provided one.
+     *
+     * @param other The ray to copy from (not null).
+     * @return      The ray for chaining purposes.
+     */
+    public Ray set(Ray other) {
+        Validator.nonNull(other, "The ray to copy can't be null!");
+        return set(other.origin, other.direction);
+    }
+
+    /**
+     * Return the distance along the <code>Ray</code> at which it enters the provided
+     * {@link BoundingBox}, using the slab method.
+     *
+     * @param box The box to test (not null).
+     * @return    The distance to the box, 0 if the origin is inside it, or
+     *            {@link Float#POSITIVE_INFINITY} if the ray misses it.
+     */
+    public float distance(BoundingBox box) {
+        Validator.nonNull(box, "The box to test can't be null!");
+        if (box.isEmpty()) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if (box.isInfinite()) {
+            return 0;
+        }
+
+        var c = box.getCenter();
+        var e = box.getExtents();
+        return distance(c.x() - e.x(), c.y() - e.y(), c.z() - e.z(), c.x() + e.x(), c.y() + e.y(), c.z() + e.z());
+    }
+
+    /**
+     * Return the distance along the <code>Ray</code> at which it enters the
+     * axis-aligned box described by the provided corners, using the slab method.
+     *
+     * @param minX The minimum X-axis coordinate of the box.
+     * @param minY The minimum Y-axis coordinate of the box.
+     * @param minZ The minimum Z-axis coordinate of the box.
+     * @param maxX The maximum X-axis coordinate of the box.
+     * @param maxY The maximum Y-axis coordinate of the box.
+     * @param maxZ The maximum Z-axis coordinate of the box.
+     * @return     The distance to the box, 0 if the origin is inside it, or
+     *             {@link Float#POSITIVE_INFINITY} if the ray misses it.
+     */
+    public float distance(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        // A null direction component gives infinite inverses, which the comparisons handle.
+        var invX = 1.0F / direction.x;
+        var invY = 1.0F / direction.y;
+        var invZ = 1.0F / direction.z;
+
+        var t1 = (minX - origin.x) * invX;
+        var t2 = (maxX - origin.x) * invX;
+        var tMin = Math.min(t1, t2);
+        var tMax = Math.max(t1, t2);
+
+        t1 = (minY - origin.y) * invY;
+        t2 = (maxY - origin.y) * invY;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+
+        t1 = (minZ - origin.z) * invZ;
+        t2 = (maxZ - origin.z) * invZ;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+
+        // Negated comparison, so a NaN produced by a grazing ray counts as a miss.
+        if (tMax < 0 || !(tMin <= tMax)) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return Math.max(tMin, 0);
+    }
+
+    /**
+     * Computes the point located at the given distance along the
+     * <code>Ray</code>.
+     *
+     * @param distance The distance from the origin of the ray.
+     * @param store    The vector to store the result, or null to create a new one.
+     * @return         The point on the ray, either the store or a new instance.
+     */
+    public Vector3f getPoint(float distance, Vector3f store) {
+        var result = store == null ? new Vector3f() : store;
+        return result.set(origin.x + direction.x * distance, origin.y + direction.y * distance,
+                origin.z + direction.z * distance);
+    }
+
+    /**
+     * Return the readable-only origin of the <code>Ray</code>.
+     *
+     * @return The origin of the ray.
+     */
+    public ReadableVector3f getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Return the readable-only normalized direction of the <code>Ray</code>.
+     *
+     * @return The direction of the ray.
+     */
+    public ReadableVector3f getDirection() {
+        return direction;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ origin= " + origin + ", direction= " + direction + " ]";
+    }
+}
@@ -42,9 +42,10 @@ public final class Transform implements ReadableTransform, Comparable<Transform>
      */
     private final Vector3f scale;
     /**
-     * The matrix containing the model transform.
+     * The matrix containing the model transform, lazily allocated since most
+     * transforms are converted into a provided store.
      */
-    private final Matrix4f transformMatrix;
+    private Matrix4f transformMatrix = null;
     /**
      * Whether the transform is an identity one.
      */
@@ -72,7 +73,6 @@ public final class Transform implements ReadableTransform, Comparable<Transform>
         this.translation = new Vector3f();
         this.rotation = new Matrix3f();
         this.scale = new Vector3f(1, 1, 1);
-        this.transformMatrix = new Matrix4f();
 
         this.identity = true;
         this.rotationMatrix = true;
@@ -107,7 +107,6 @@ public final class Transform implements ReadableTransform, Comparable<Transform>
         this.translation = new Vector3f(translation);
         this.rotation = new Matrix3f(rotation);
         this.scale = new Vector3f(scale);
-        this.transformMatrix = new Matrix4f();
 
         update(false);
     }
@@ -145,6 +144,99 @@ public final class Transform implements ReadableTransform, Comparable<Transform>
         return this;
     }
 
+    /**
+     * Sets the components values of the <code>Transform</code> to the affine transformation packed
+     * inside the provided array, starting at the given offset.
+     * <p>
+     * The packed data is made of the 9 components of the matrix combining the rotation and the scale,
+     * in row-major order, followed by the 3 components of the translation. The matrix is split back into
+     * a rotation and a scale, the length of each column, so the transform reads the same as one computed
+     * with {@link #worldTransform(ReadableTransform, Transform)}. If it can't be written as such, for
+     * example when sheared by a non-uniform scale, the matrix is kept combined and the scale is reset to 1.
+     *
+     * @param array  The array containing the packed affine transformation (not null).
+     * @param offset The offset of the first component in the array (&ge;0).
+     * @return       The transform with copied components.
+     *
+     * @see #toAffine(float[], int)
+     */
+    public Transform setAffine(float[] array, int offset) {
+        Validator.nonNull(array, "The array can't be null!");
+        this.translation.set(array[offset + 9], array[offset + 10], array[offset + 11]);
+
+        var sx = columnLength(array, offset);
+        var sy = columnLength(array, offset + 1);
+        var sz = columnLength(array, offset + 2);
+        if (sx != 0 && sy != 0 && sz != 0) {
+            // Absorb the rounding errors of a uniform scale.
+            if (Math.abs(sx - sy) <= MercuryMath.EPSILON && Math.abs(sx - sz) <= MercuryMath.EPSILON) {
+                sy = sz = sx;
+            }
+
+            this.rotation.set(array[offset] / sx, array[offset + 1] / sy, array[offset + 2] / sz,
+                    array[offset + 3] / sx, array[offset + 4] / sy, array[offset + 5] / sz, array[offset + 6] / sx,
+                    array[offset + 7] / sy, array[offset + 8] / sz);
+            if (rotation.isOrthonormal()) {
+                this.scale.set(sx, sy, sz);
+                update(true);
+                return this;
+            }
+        }
+
+        this.rotation.set(array[offset], array[offset + 1], array[offset + 2], array[offset + 3], array[offset + 4],
+                array[offset + 5], array[offset + 6], array[offset + 7], array[offset + 8]);
+        this.scale.set(1.0F, 1.0F, 1.0F);
+
+        update(false);
+        return this;
+    }
+
+    /**
+     * Return the length of the column of the packed matrix starting at the given
+     * offset, which is the scale of its axis.
+     */
+    private static float columnLength(float[] array, int offset) {
+        var x = array[offset];
+        var y = array[offset + 3];
+        var z = array[offset + 6];
+        return MercuryMath.sqrt(x * x + y * y + z * z);
+    }
+
+    /**
+     * Packs the <code>Transform</code> as an affine transformation inside the provided array,
+     * starting at the given offset.
+     * <p>
+     * The packed data is made of the 9 components of the matrix combining the rotation and the scale,
+     * in row-major order, followed by the 3 components of the translation.
+     *
+     * @param array  The array to store the packed affine transformation (not null).
+     * @param offset The offset of the first component in the array (&ge;0).
+     * @return       The given array filled with the affine transformation.
+     *
+     * @see #setAffine(float[], int)
+     */
+    public float[] toAffine(float[] array, int offset) {
+        Validator.nonNull(array, "The array can't be null!");
+        // Same combination as the one used to compute the world transform.
+        var sx = rotationMatrix ? scale.x() : 1.0F;
+        var sy = rotationMatrix ? scale.y() : 1.0F;
+        var sz = rotationMatrix ? scale.z() : 1.0F;
+
+        array[offset] = rotation.m00 * sx;
+        array[offset + 1] = rotation.m01 * sy;
+        array[offset + 2] = rotation.m02 * sz;
+        array[offset + 3] = rotation.m10 * sx;
+        array[offset + 4] = rotation.m11 * sy;
+        array[offset + 5] = rotation.m12 * sz;
+        array[offset + 6] = rotation.m20 * sx;
+        array[offset + 7] = rotation.m21 * sy;
+        array[offset + 8] = rotation.m22 * sz;
+        array[offset + 9] = translation.x();
+        array[offset + 10] = translation.y();
+        array[offset + 11] = translation.z();
+        return array;
+    }
+
     /**
      * Return the translation vector of the <code>Transform</code>.
      * 
@@ -393,6 +485,10 @@ public final class Transform implements ReadableTransform, Comparable<Transform>
      * @return      The transformation matrix.
      */
     public Matrix4f asModelMatrix(Matrix4f store) {
+        if (store == null && transformMatrix == null) {
+            this.transformMatrix = new Matrix4f();
+        }
+
         var result = (store == null) ? transformMatrix : store;
         if (isIdentity()) {
             result.set(Matrix4f.IDENTITY_MATRIX);
@@ -13,6 +13,7 @@ import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
 import fr.mercury.nucleus.application.AbstractApplicationService;
+import fr.mercury.nucleus.application.MercurySettings;
 import fr.mercury.nucleus.math.objects.Color;
 import fr.mercury.nucleus.math.objects.FloatBufferPopulator;
 import fr.mercury.nucleus.math.objects.Matrix3f;
@@ -20,6 +21,7 @@ import fr.mercury.nucleus.math.objects.Matrix4f;
 import fr.mercury.nucleus.math.readable.ReadableMatrix3f;
 import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
 import fr.mercury.nucleus.math.readable.ReadableTransform;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
 import fr.mercury.nucleus.renderer.logic.state.BlendState;
 import fr.mercury.nucleus.renderer.logic.state.DepthBufferState;
 import fr.mercury.nucleus.renderer.logic.state.FaceCullingState;
@@ -27,6 +29,8 @@ import fr.mercury.nucleus.renderer.logic.state.PolygonModeState;
 import fr.mercury.nucleus.renderer.logic.state.PolygonModeState.PolygonMode;
 import fr.mercury.nucleus.renderer.logic.state.RenderState;
 import fr.mercury.nucleus.renderer.logic.state.RenderState.Face;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker.Capability;
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
@@ -34,8 +38,12 @@ import fr.mercury.nucleus.renderer.opengl.shader.uniform.UniformStructure;
 import fr.mercury.nucleus.renderer.queue.BucketType;
 import fr.mercury.nucleus.renderer.queue.RenderBucket;
 import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.LodPhysicaMundi;
 import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.MaterialBindingPlan;
+import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
 import fr.mercury.nucleus.utils.MercuryException;
 import fr.mercury.nucleus.utils.OpenGLCall;
 
@@ -67,6 +75,14 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      * The camera used by the renderer.
      */
     protected Camera camera;
+    /**
+     * The global bias applied when selecting the levels of detail.
+     */
+    protected float lodBias = 1.0F;
+    /**
+     * The number of triangles saved by the levels of detail during the last frame.
+     */
+    protected long lodTrianglesSaved = 0;
 
     /**
      * Instantiates a new <code>AbstractRenderer</code> with the provided
@@ -93,6 +109,9 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
         this.camera = camera;
         this.renderStateMachine.withDefaultStates(defaultStates);
 
+        // The context may have been changed by a previous renderer.
+        GLStateTracker.invalidate();
+
         for (var type : RenderState.Type.values()) {
             renderStateMachine.applyDefault(type);
         }
@@ -159,12 +178,11 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      * @return      Whether the anima-mundi has been added to a bucket.
      */
     protected boolean submitToBucket(AnimaMundi anima) {
-        if (anima.getBucket().equals(BucketType.NONE) || !camera.checkLayer(anima.getRenderLayer())) {
+        var type = anima.getBucket();
+        if (type.equals(BucketType.NONE) || !camera.checkLayer(anima.getRenderLayer())) {
             return false;
         }
 
-        var type = anima.getBucket();
-
         var bucket = buckets.get(type);
         if (bucket != null) {
             bucket.add(anima);
@@ -187,6 +205,23 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      *                               specified type in the renderer.
      */
     protected void renderBucket(BucketType type) {
+        renderBucket(type, true);
+    }
+
+    /**
+     * Render the {@link RenderBucket} corresponding to the specified {@link BucketType}, sorting it first with
+     * {@link RenderBucket#sort()} if requested. The sort can only be skipped if the bucket has already been sorted
+     * for the current state of the camera and of the animae.
+     * 
+     * @param type The type of bucket to render.
+     * @param sort Whether to sort the bucket before rendering it.
+     * 
+     * @throws MercuryException Thrown if the type is either {@link BucketType#LEGACY} 
+     *                          or {@link BucketType#NONE}.
+     * @throws IllegalStateException Thrown if there is no registered bucket of the 
+     *                               specified type in the renderer.
+     */
+    protected void renderBucket(BucketType type, boolean sort) {
         if (type.equals(BucketType.LEGACY) || type.equals(BucketType.NONE)) {
             throw new MercuryException("The bucket '" + type + "' cannot be rendered!");
         }
@@ -200,7 +235,9 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
             return;
         }
 
-        bucket.sort();
+        if (sort) {
+            bucket.sort();
+        }
         bucket.render(this);
 
         logger.debug("Rendered bucket of type '" + type + "' which contained " + bucket.size() + " anima-mundi.");
@@ -216,6 +253,29 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
         buckets.values().forEach(RenderBucket::flush);
     }
 
+    /**
+     * Prepares the selection of the levels of detail for a new frame, by reading the
+     * global bias from the {@link MercurySettings} of the application, if any, and
+     * resetting the counters.
+     * 
+     * @see MercurySettings#getLodBias()
+     */
+    protected void beginLevelsOfDetail() {
+        var settings = application != null ? application.getSettings() : null;
+        this.lodBias = settings != null ? settings.getLodBias() : 1.0F;
+        this.lodTrianglesSaved = 0;
+    }
+
+    /**
+     * Return the number of triangles which weren't drawn during the last frame, thanks
+     * to the coarser levels of detail selected for the visible {@link LodPhysicaMundi}.
+     * 
+     * @return The number of triangles saved by the levels of detail (&ge;0).
+     */
+    public long getLodTrianglesSaved() {
+        return lodTrianglesSaved;
+    }
+
     /**
      * Render the provided {@link AnimaMundi}. Override this method in your implementation of 
      * <code>AbstractRenderer</code>.
@@ -224,6 +284,26 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      */
     public abstract void render(PhysicaMundi physica);
 
+    /**
+     * Render the given number of consecutive {@link PhysicaMundi} from the provided
+     * array, which are sharing the same {@link Mesh}, an instancing {@link Material}
+     * and the same resolved states, so that they can be drawn as instances.
+     * <p>
+     * The default implementation renders each physica-mundi independently,
+     * override it to use a single instanced draw call.
+     * 
+     * @param animae The array containing the physica-mundis to render (not null).
+     * @param offset The index of the first physica-mundi to render (&ge;0).
+     * @param count  The number of physica-mundis to render (&gt;0).
+     * 
+     * @see RenderBucket#countInstances(int)
+     */
+    public void renderInstanced(AnimaMundi[] animae, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            render((PhysicaMundi) animae[i]);
+        }
+    }
+
     /**
      * Sets the clear values of the <code>AbstractRenderer</code> for the color-buffer.
      * 
@@ -264,29 +344,29 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
         case FACE_CULLING:
             var cull = (FaceCullingState) state;
             if (cull.isEnabled()) {
-                GL11.glEnable(GL11.GL_CULL_FACE);
+                GLStateTracker.setEnabled(Capability.CULL_FACE, true);
                 switch (cull.face()) {
                 case BACK:
-                    GL11.glCullFace(GL11.GL_BACK);
+                    GLStateTracker.cullFace(GL11.GL_BACK);
                     break;
                 case FRONT:
-                    GL11.glCullFace(GL11.GL_FRONT);
+                    GLStateTracker.cullFace(GL11.GL_FRONT);
                     break;
                 case FRONT_AND_BACK:
-                    GL11.glCullFace(GL11.GL_FRONT_AND_BACK);
+                    GLStateTracker.cullFace(GL11.GL_FRONT_AND_BACK);
                     break;
                 default:
                     break;
                 }
             } else {
-                GL11.glDisable(GL11.GL_CULL_FACE);
+                GLStateTracker.setEnabled(Capability.CULL_FACE, false);
             }
             switch (cull.windingOrder()) {
             case CLOCKWISE:
-                GL11.glFrontFace(GL11.GL_CW);
+                GLStateTracker.frontFace(GL11.GL_CW);
                 break;
             case COUNTER_CLOCKWISE:
-                GL11.glFrontFace(GL11.GL_CCW);
+                GLStateTracker.frontFace(GL11.GL_CCW);
                 break;
             default:
                 break;
@@ -300,84 +380,84 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
                 if (fMode == bMode) {
                     switch (bMode) {
                     case FILL:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_FILL);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_FILL);
                         break;
                     case LINE:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_LINE);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_LINE);
                         break;
                     case POINT:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_POINT);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_POINT);
                         break;
                     }
                 } else if (fMode != bMode) {
                     switch (fMode) {
                     case FILL:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT, GL11C.GL_FILL);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT, GL11C.GL_FILL);
                         break;
                     case LINE:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT, GL11C.GL_LINE);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT, GL11C.GL_LINE);
                         break;
                     case POINT:
-                        GL11C.glPolygonMode(GL11C.GL_FRONT, GL11C.GL_POINT);
+                        GLStateTracker.polygonMode(GL11C.GL_FRONT, GL11C.GL_POINT);
                         break;
                     }
                     switch (bMode) {
                     case FILL:
-                        GL11C.glPolygonMode(GL11C.GL_BACK, GL11C.GL_FILL);
+                        GLStateTracker.polygonMode(GL11C.GL_BACK, GL11C.GL_FILL);
                         break;
                     case LINE:
-                        GL11C.glPolygonMode(GL11C.GL_BACK, GL11C.GL_LINE);
+                        GLStateTracker.polygonMode(GL11C.GL_BACK, GL11C.GL_LINE);
                         break;
                     case POINT:
-                        GL11C.glPolygonMode(GL11C.GL_BACK, GL11C.GL_POINT);
+                        GLStateTracker.polygonMode(GL11C.GL_BACK, GL11C.GL_POINT);
                         break;
                     }
                 }
             } else {
-                GL11C.glPolygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_FILL);
+                GLStateTracker.polygonMode(GL11C.GL_FRONT_AND_BACK, GL11C.GL_FILL);
             }
             break;
         case DEPTH_BUFFER:
             var zBuffer = (DepthBufferState) state;
             if (zBuffer.isEnabled()) {
-                GL11C.glEnable(GL11.GL_DEPTH_TEST);
+                GLStateTracker.setEnabled(Capability.DEPTH_TEST, true);
                 switch (zBuffer.function()) {
                 case NEVER:
-                    GL11C.glDepthFunc(GL11C.GL_NEVER);
+                    GLStateTracker.depthFunc(GL11C.GL_NEVER);
                     break;
                 case ALWAYS:
-                    GL11C.glDepthFunc(GL11C.GL_ALWAYS);
+                    GLStateTracker.depthFunc(GL11C.GL_ALWAYS);
                     break;
                 case EQUAL:
-                    GL11C.glDepthFunc(GL11C.GL_EQUAL);
+                    GLStateTracker.depthFunc(GL11C.GL_EQUAL);
                     break;
                 case NOT_EQUAL:
-                    GL11C.glDepthFunc(GL11C.GL_NOTEQUAL);
+                    GLStateTracker.depthFunc(GL11C.GL_NOTEQUAL);
                     break;
                 case LESS:
-                    GL11C.glDepthFunc(GL11C.GL_LESS);
+                    GLStateTracker.depthFunc(GL11C.GL_LESS);
                     break;
                 case LESS_OR_EQUAL:
-                    GL11C.glDepthFunc(GL11C.GL_LEQUAL);
+                    GLStateTracker.depthFunc(GL11C.GL_LEQUAL);
                     break;
                 case GREATER:
-                    GL11C.glDepthFunc(GL11C.GL_GREATER);
+                    GLStateTracker.depthFunc(GL11C.GL_GREATER);
                     break;
                 case GREATER_OR_EQUAL:
-                    GL11C.glDepthFunc(GL11C.GL_GEQUAL);
+                    GLStateTracker.depthFunc(GL11C.GL_GEQUAL);
                     break;
                 default:
                     break;
                 }
             } else {
-                GL11C.glDisable(GL11C.GL_DEPTH_TEST);
+                GLStateTracker.setEnabled(Capability.DEPTH_TEST, false);
             }
-            GL11C.glDepthMask(zBuffer.isWritable());
+            GLStateTracker.depthMask(zBuffer.isWritable());
             break;
         case BLEND_STATE:
             var blend = (BlendState) state;
             if (blend.isEnabled()) {
-                GL11C.glEnable(GL11.GL_BLEND);
+                GLStateTracker.setEnabled(Capability.BLEND, true);
 
                 int srcFactor = GL11C.GL_ONE;
                 int dstFactor = GL11C.GL_ZERO;
@@ -425,9 +505,9 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
                 default:
                     break;
                 }
-                GL11C.glBlendFunc(srcFactor, dstFactor);
+                GLStateTracker.blendFunc(srcFactor, dstFactor);
             } else {
-                GL11C.glDisable(GL11C.GL_BLEND);
+                GLStateTracker.setEnabled(Capability.BLEND, false);
             }
             break;
         default:
@@ -445,17 +525,25 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      * @param physica The physica-mundi requesting the matrix uniforms (not null).
      */
     protected void setupMatrixUniforms(ShaderProgram shader, PhysicaMundi physica) {
-        Validator.nonNull(shader, "The shader program can't be null!");
-        Validator.nonNull(shader, "The physica-mundi can't be null!");
-
-        var matrixVars = physica.getMaterial().getMatrixVariables();
+        Validator.nonNull(physica, "The physica-mundi can't be null!");
+        setupMatrixUniforms(shader, physica.getMaterial());
+    }
 
-        for (MatrixType type : MatrixType.values()) {
-            var name = type.getUniformName();
+    /**
+     * Setup the {@link Uniform} corresponding to the needed {@link MatrixType}
+     * specified by the provided {@link Material} and applied for the given
+     * {@link ShaderProgram}.
+     * 
+     * @param shader   The shader program to which the matrix uniforms need to be
+     *                 passed (not null).
+     * @param material The material requesting the matrix uniforms (not null).
+     */
+    protected void setupMatrixUniforms(ShaderProgram shader, Material material) {
+        Validator.nonNull(shader, "The shader program can't be null!");
+        Validator.nonNull(material, "The material can't be null!");
 
-            if (matrixVars.contains(name)) {
-                setupMatrixUniforms(shader, type);
-            }
+        for (var type : material.getBindingPlan(shader).getMatrixTypes()) {
+            setupMatrixUniforms(shader, type);
         }
     }
 
@@ -487,19 +575,31 @@ public abstract class AbstractRenderer extends AbstractApplicationService implem
      * @param physica The physica-mundi requesting the prefab uniforms.
      */
     protected void setupPrefabUniforms(ShaderProgram shader, PhysicaMundi physica) {
-        var prefabVars = physica.getMaterial().getPrefabVariables();
-
-        for (int i = 0; i < prefabVars.size(); i++) {
-
-            var prefabName = prefabVars.get(i);
-            
-            if ("cameraPos".equals(prefabName)) {
-                shader.addUniform("cameraPos", UniformType.VECTOR3F, camera.getLocation());
-            }
+        // The elements have been resolved during the last geometric state update.
+        setupPrefabUniforms(shader, physica.getMaterial(), physica.getResolvedEnvironment(), camera.getLocation());
+    }
 
-            // Look for an environment element attached to an animae.
-            var property = physica.getEnvironmentElement(prefabName);
+    /**
+     * Setup the {@link UniformStructure} specified by the provided {@link Material}
+     * and apply it for the given {@link ShaderProgram}, using the resolved
+     * environment elements and camera location.
+     * 
+     * @param shader         The shader program to setup the structure of uniforms for.
+     * @param material       The material requesting the prefab uniforms.
+     * @param environment    The resolved environment elements to use.
+     * @param cameraLocation The location of the camera to use.
+     */
+    protected void setupPrefabUniforms(ShaderProgram shader, Material material, ResolvedEnvironment environment,
+            ReadableVector3f cameraLocation) {
+        var plan = material.getBindingPlan(shader);
+        if (plan.needsCameraPosition()) {
+            shader.addUniform(MaterialBindingPlan.CAMERA_POSITION, UniformType.VECTOR3F, cameraLocation);
+        }
 
+        // Look for the environment elements attached to an animae.
+        var prefabSlots = plan.getPrefabSlots();
+        for (int i = 0; i < prefabSlots.length; i++) {
+            var property = environment.get(prefabSlots[i]);
             if (property != null) {
                 property.uniforms(shader);
             }
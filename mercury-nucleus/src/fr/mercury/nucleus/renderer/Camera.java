@@ -8,8 +8,11 @@ import java.util.Set;
 import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.input.MouseEvent;
 import fr.mercury.nucleus.math.MercuryMath;
+import fr.mercury.nucleus.math.objects.Frustum;
 import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Ray;
 import fr.mercury.nucleus.math.objects.Vector3f;
 import fr.mercury.nucleus.math.readable.ReadableVector3f;
 import fr.mercury.nucleus.renderer.AbstractRenderer.MatrixType;
@@ -90,6 +93,10 @@ public final class Camera {
      * The view-projection matrix.
      */
     private final Matrix4f viewProjectionMatrix = new Matrix4f();
+    /**
+     * The frustum planes extracted from the view-projection matrix.
+     */
+    private final Frustum frustum = new Frustum();
     /**
      * The graphical projection mode used by the camera.
      */
@@ -106,6 +113,10 @@ public final class Camera {
      * The set of layer specifying which anima-mundis are to be queued and rendered.
      */
     private final Set<RenderLayer> layers = new HashSet<RenderLayer>();
+    /**
+     * The mask of the render layers used by the camera.
+     */
+    private long layerMask = 0L;
 
     /**
      * Instantiates a new perspective <code>Camera</code> object with the specified
@@ -133,7 +144,7 @@ public final class Camera {
         this.width = width;
         this.height = height;
 
-        this.layers.add(RenderLayer.DEFAULT);
+        addLayer(RenderLayer.DEFAULT);
 
         // Make sure all the rendering data such as matrices is computed before the
         // first rendering pass
@@ -321,21 +332,35 @@ public final class Camera {
             renderer.setDepthRange(nearDepthRange, farDepthRange);
         }
 
+        update();
+
+        // The matrices are always passed, because the camera may have been updated
+        // without the renderer.
+        renderer.setMatrix(MatrixType.PROJECTION, getProjectionMatrix());
+        renderer.setMatrix(MatrixType.VIEW, getViewMatrix());
+        renderer.setMatrix(MatrixType.VIEW_PROJECTION, getViewProjectionMatrix());
+    }
+
+    /**
+     * Updates the matrices and the {@link Frustum} of the <code>Camera</code> if
+     * they are dirty. Unlike {@link #prepare(AbstractRenderer)}, the method doesn't
+     * perform any <code>OpenGL</code> call, so it can be invoked by a thread
+     * extracting the scene to render.
+     */
+    public void update() {
         if (dirtyFields.contains(CameraDirtyFields.PROJECTION_MATRIX)) {
             updateProjectionMatrix();
-            renderer.setMatrix(MatrixType.PROJECTION, getProjectionMatrix());
         }
 
         if (dirtyFields.contains(CameraDirtyFields.VIEW_MATRIX)) {
             updateViewMatrix();
-            renderer.setMatrix(MatrixType.VIEW, getViewMatrix());
         }
 
         if (dirtyFields.contains(CameraDirtyFields.VIEW_PROJECTION_MATRIX)) {
             // Recompute the view-projection matrix after.
             viewProjectionMatrix.set(viewMatrix).mult(projectionMatrix, viewProjectionMatrix);
+            frustum.set(viewProjectionMatrix);
             dirtyFields.remove(CameraDirtyFields.VIEW_PROJECTION_MATRIX);
-            renderer.setMatrix(MatrixType.VIEW_PROJECTION, getViewProjectionMatrix());
         }
     }
 
@@ -591,6 +616,108 @@ public final class Camera {
         return viewProjectionMatrix;
     }
 
+    /**
+     * Return the {@link Frustum} of the camera, extracted from the view-projection
+     * matrix.
+     * 
+     * @return The frustum of the camera.
+     */
+    public Frustum getFrustum() {
+        assert !dirtyFields.contains(CameraDirtyFields.VIEW_PROJECTION_MATRIX);
+        return frustum;
+    }
+
+    /**
+     * Tests the world bounds of the provided {@link AnimaMundi} against the
+     * {@link Frustum} planes of the <code>Camera</code> present in the given mask.
+     * <p>
+     * The bounding sphere is tested first as a fast rejection, then the bounding box
+     * is tested against the planes the sphere is still intersecting.
+     * 
+     * @param anima     The anima-mundi to test (not null).
+     * @param planeMask The mask of planes to test against, usually the result of the
+     *                  parent's test or {@link Frustum#ALL_PLANES}.
+     * @return          {@link Frustum#OUTSIDE} if the anima-mundi isn't visible, otherwise
+     *                  the mask of planes still intersecting its bounds.
+     */
+    public int cull(AnimaMundi anima, int planeMask) {
+        Validator.nonNull(anima, "The anima-mundi to cull can't be null!");
+        if (planeMask == Frustum.INSIDE) {
+            return planeMask;
+        }
+
+        var result = frustum.intersects(anima.getWorldBoundingSphere(), planeMask);
+        if (result == Frustum.OUTSIDE || result == Frustum.INSIDE) {
+            return result;
+        }
+
+        return frustum.intersects(anima.getWorldBoundingBox(), result);
+    }
+
+    /**
+     * Computes the size of the provided sphere once projected on the screen, as a
+     * fraction of the viewport height. A sphere containing the camera location is
+     * considered as covering the whole screen.
+     * <p>
+     * The size only depends on the distance to the camera, not its direction, so
+     * that it doesn't change when the camera is rotating.
+     * 
+     * @param center The center of the sphere in world space (not null).
+     * @param radius The radius of the sphere (&ge;0).
+     * @return       The projected size of the sphere (&ge;0, 1 for the viewport height).
+     */
+    public float getProjectedSize(ReadableVector3f center, float radius) {
+        var height = frustumTop - frustumBottom;
+        if (projectionMode == GraphicalProjectionMode.ORTHOGRAPHIC) {
+            return 2.0F * radius / height;
+        }
+
+        var distance = (float) location.distance(center);
+        if (distance <= radius) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        // The viewport height at the sphere distance, from the one on the near plane.
+        return 2.0F * radius * frustumNear / (distance * height);
+    }
+
+    /**
+     * Computes the {@link Ray} going from the <code>Camera</code> through the
+     * provided screen position, for example to pick the object under the cursor.
+     * <p>
+     * The screen coordinates are expressed in pixels with the origin at the
+     * bottom-left corner, like the position of a {@link MouseEvent}. With a
+     * perspective projection the ray starts at the camera location, and with an
+     * orthographic one it starts on the near plane and follows the camera
+     * direction.
+     * <p>
+     * The ray is computed from the camera orientation and frustum, so it doesn't
+     * require the matrices to be up-to-date.
+     * 
+     * @param screenX The X-axis screen coordinate in pixels.
+     * @param screenY The Y-axis screen coordinate in pixels.
+     * @param store   The ray to store the result, or null to create a new one.
+     * @return        The ray in world space, either the store or a new instance.
+     */
+    public Ray screenToRay(float screenX, float screenY, Ray store) {
+        var result = store == null ? new Ray() : store;
+
+        // The position on the near plane in view space, whose X-axis points to the right.
+        var x = frustumLeft + (frustumRight - frustumLeft) * (screenX / width);
+        var y = frustumBottom + (frustumTop - frustumBottom) * (screenY / height);
+
+        var offset = MercuryMath.getVector3f();
+        offset.set(up.x() * y - left.x() * x + direction.x() * frustumNear,
+                up.y() * y - left.y() * x + direction.y() * frustumNear,
+                up.z() * y - left.z() * x + direction.z() * frustumNear);
+
+        if (projectionMode == GraphicalProjectionMode.ORTHOGRAPHIC) {
+            return result.set(offset.add(location), direction);
+        }
+
+        return result.set(location, offset);
+    }
+
     /**
      * Return the projection matrix of the camera.
      * 
@@ -642,6 +769,7 @@ public final class Camera {
     public void addLayer(RenderLayer layer) {
         Validator.nonNull(layer, "The render layer can't be null!");
         this.layers.add(layer);
+        updateLayerMask();
     }
 
     /**
@@ -653,6 +781,15 @@ public final class Camera {
     public void removeLayer(RenderLayer layer) {
         Validator.nonNull(layer, "The render layer can't be null!");
         this.layers.remove(layer);
+        updateLayerMask();
+    }
+
+    private void updateLayerMask() {
+        var mask = 0L;
+        for (var layer : layers) {
+            mask |= layer.mask();
+        }
+        this.layerMask = mask;
     }
 
     /**
@@ -664,7 +801,30 @@ public final class Camera {
      * @return Whether the layer is queued and rendered by the camera.
      */
     public boolean checkLayer(RenderLayer layer) {
-        return layers.contains(layer);
+        return (layerMask & layer.mask()) != 0;
+    }
+
+    /**
+     * Checks whether any of the {@link RenderLayer} present in the provided mask is
+     * used by the <code>Camera</code>, for example to test all the layers of a
+     * subtree at once.
+     * 
+     * @param mask The mask of layers to check with the camera.
+     * @return     Whether one of the layers is queued and rendered by the camera.
+     * 
+     * @see AnimaMundi#getLayerMask()
+     */
+    public boolean checkLayers(long mask) {
+        return (layerMask & mask) != 0;
+    }
+
+    /**
+     * Return the mask of the {@link RenderLayer} used by the <code>Camera</code>.
+     * 
+     * @return The mask of the layers of the camera.
+     */
+    public long getLayerMask() {
+        return layerMask;
     }
 
     @Override
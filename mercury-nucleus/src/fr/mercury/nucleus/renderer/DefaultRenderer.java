@@ -1,8 +1,15 @@
 package fr.mercury.nucleus.renderer;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.lwjgl.opengl.GL11C;
 
 import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.renderer.command.GLRenderBackend;
+import fr.mercury.nucleus.renderer.command.RenderBackend;
+import fr.mercury.nucleus.renderer.command.RenderCommandList;
+import fr.mercury.nucleus.renderer.command.RenderCommandRecorder;
 import fr.mercury.nucleus.renderer.logic.DefaultRenderLogic;
 import fr.mercury.nucleus.renderer.logic.RenderLogic;
 import fr.mercury.nucleus.renderer.logic.state.BlendState;
@@ -12,10 +19,17 @@ import fr.mercury.nucleus.renderer.logic.state.PolygonModeState;
 import fr.mercury.nucleus.renderer.logic.state.RenderState;
 import fr.mercury.nucleus.renderer.logic.state.RenderState.Face;
 import fr.mercury.nucleus.renderer.logic.state.RenderState.Type;
+import fr.mercury.nucleus.renderer.occlusion.OcclusionCuller;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker.Capability;
 import fr.mercury.nucleus.renderer.queue.BucketType;
 import fr.mercury.nucleus.renderer.queue.RenderBucket;
+import fr.mercury.nucleus.renderer.queue.RenderListBuilder;
+import fr.mercury.nucleus.renderer.queue.RenderSnapshot;
+import fr.mercury.nucleus.renderer.queue.RenderSortKey.DepthOrder;
 import fr.mercury.nucleus.scenegraph.AnimaMundi;
-import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.LodPhysicaMundi;
 import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.scenegraph.NucleusMundi;
 import fr.mercury.nucleus.scenegraph.PhysicaMundi;
@@ -35,44 +49,52 @@ public class DefaultRenderer extends AbstractRenderer {
         public void visit(AnimaMundi anima) {
             if (anima instanceof PhysicaMundi) {
                 var physica = (PhysicaMundi) anima;
-                physica.getMesh().cleanup();
+                if (physica instanceof LodPhysicaMundi) {
+                    var lod = (LodPhysicaMundi) physica;
+                    for (int i = 0; i < lod.getLevelCount(); i++) {
+                        lod.getLevel(i).cleanup();
+                    }
+                } else {
+                    physica.getMesh().cleanup();
+                }
                 physica.getMaterial().cleanup();
             }
         }
     };
 
     /**
-     * The visitor designed to render {@link PhysicaMundi} which doesn't use any
-     * {@link RenderBucket}.
+     * The culler of the anima-mundis hidden behind occluders, or null to disable it.
      */
-    private final Visitor RENDER_NONE_BUCKET = new Visitor() {
-
-        @Override
-        public void visit(AnimaMundi anima) {
-            if (anima instanceof PhysicaMundi && anima.getBucket().equals(BucketType.NONE)) {
-                render((PhysicaMundi) anima);
-            }
-        }
-    };
-
+    private OcclusionCuller occlusionCuller = null;
     /**
-     * The visitor designed to fill the buckets with appropriate
-     * {@link PhysicaMundi}.
+     * The builder filling the buckets with the visible part of the scene.
      */
-    private final Visitor BUCKETS_FILLER = new Visitor() {
-
-        @Override
-        public void visit(AnimaMundi anima) {
-            if (anima instanceof PhysicaMundi) {
-                submitToBucket(anima);
-            }
-        }
-    };
-
+    private RenderListBuilder listBuilder = new RenderListBuilder();
+    /**
+     * The world matrix of the physica-mundi being recorded.
+     */
+    private final Matrix4f proxyMatrix = new Matrix4f();
     /**
      * The render logic used by the renderer.
      */
     private final RenderLogic defaultLogic;
+    /**
+     * The commands recorded for the frame, executed once it is traversed.
+     */
+    private final RenderCommandList commands = new RenderCommandList();
+    /**
+     * The recorder deciding the commands of each draw.
+     */
+    private final RenderCommandRecorder recorder = new RenderCommandRecorder();
+    /**
+     * The backend executing the recorded commands.
+     */
+    private RenderBackend backend;
+    /**
+     * Whether the commands are being recorded for a whole frame, or executed after
+     * each draw.
+     */
+    private boolean recording = false;
 
     /**
      * Instantiates a new <code>Renderer</code> with the provided {@link Camera} and
@@ -98,10 +120,14 @@ public class DefaultRenderer extends AbstractRenderer {
         super(camera, defaultStates);
 
         this.defaultLogic = new DefaultRenderLogic();
+        this.backend = new GLRenderBackend(renderStateMachine, defaultLogic);
 
-        registerBucket(BucketType.OPAQUE);
+        // Group the opaque objects by shader, texture, material and mesh, so they can be drawn as instances.
+        var opaque = new RenderBucket(camera);
+        opaque.setKeyOrder(DepthOrder.FRONT_TO_BACK);
+        registerBucket(BucketType.OPAQUE, opaque);
         var bucket = new RenderBucket(camera);
-        bucket.setComparator(bucket.new TransparentComparator());
+        bucket.setKeyOrder(DepthOrder.BACK_TO_FRONT);
         registerBucket(BucketType.TRANSPARENT, bucket);
     }
 
@@ -128,65 +154,239 @@ public class DefaultRenderer extends AbstractRenderer {
 
         // Prepares the camera before rendering the scene.
         camera.prepare(this);
+        recorder.setCamera(camera.getViewMatrix(), camera.getProjectionMatrix(), camera.getViewProjectionMatrix(),
+                camera.getLocation());
+        beginLevelsOfDetail();
+        if (occlusionCuller != null) {
+            occlusionCuller.update(camera);
+        }
 
-        // Visit the scene and render objects which doesn't use the bucket logic.
-        scene.visit(RENDER_NONE_BUCKET, VisitType.POST_ORDER);
+        this.recording = true;
+        try {
+            // Cull the scene and fill the buckets on the worker threads, then record the objects
+            // which doesn't use the bucket logic in their traversal order.
+            buildRenderList(scene);
+            var unsorted = listBuilder.getUnsorted();
+            for (int i = 0; i < unsorted.size(); i++) {
+                render(unsorted.get(i));
+            }
 
-        // Visit the scene and fill the buckets with renderables.
-        scene.visit(BUCKETS_FILLER, VisitType.POST_ORDER);
+            // Record buckets, already sorted by the list builder...
+            renderBucket(BucketType.OPAQUE, false);
+            renderBucket(BucketType.TRANSPARENT, false);
+
+            // Execute the whole frame once it is recorded.
+            executeCommands();
+        } finally {
+            this.recording = false;
+            // Discard the commands of an interrupted frame.
+            commands.reset();
+            // Flushes all the buckets, even if some rendering wasn't performed.
+            listBuilder.flush();
+            flushBuckets();
+        }
+    }
+
+    @Override
+    public void extractScene(NucleusMundi scene, RenderSnapshot snapshot) {
+        Validator.nonNull(scene, "The scene to extract can't be null!");
+        Validator.nonNull(snapshot, "The snapshot can't be null!");
+
+        // Check a camera is registered.
+        if (camera == null) {
+            throw new MercuryException("Unable to extract scene without a camera!");
+        }
+
+        // Update the camera frustum without any OpenGL call.
+        camera.update();
+        snapshot.reset(camera);
+        beginLevelsOfDetail();
+        if (occlusionCuller != null) {
+            occlusionCuller.update(camera);
+        }
 
-        // Render buckets...
-        renderBucket(BucketType.OPAQUE);
-        renderBucket(BucketType.TRANSPARENT);
+        try {
+            // Physica-mundis which doesn't use the bucket logic are added first, as they
+            // would be rendered before the buckets.
+            buildRenderList(scene);
+            var unsorted = listBuilder.getUnsorted();
+            for (int i = 0; i < unsorted.size(); i++) {
+                snapshot.add(unsorted.get(i));
+            }
 
-        // Flushes all the buckets, even if some rendering wasn't performed.
-        flushBuckets();
+            // Add the sorted buckets in their rendering order.
+            extractBucket(BucketType.OPAQUE, snapshot);
+            extractBucket(BucketType.TRANSPARENT, snapshot);
+        } finally {
+            listBuilder.flush();
+            flushBuckets();
+        }
+    }
+
+    /**
+     * Fills and sorts the registered {@link RenderBucket} with the visible part of
+     * the provided scene, using the {@link RenderListBuilder} of the
+     * <code>DefaultRenderer</code>.
+     * 
+     * @param scene The scene to build the render list of (not null).
+     */
+    private void buildRenderList(NucleusMundi scene) {
+        listBuilder.build(scene, camera, buckets, occlusionCuller, lodBias);
+        this.lodTrianglesSaved = listBuilder.getLodTrianglesSaved();
+    }
+
+    /**
+     * Adds the content of the {@link RenderBucket} of the given {@link BucketType},
+     * already sorted by the {@link RenderListBuilder}, to the {@link RenderSnapshot}.
+     * 
+     * @param type     The type of bucket to extract.
+     * @param snapshot The snapshot to add the render proxies to.
+     */
+    private void extractBucket(BucketType type, RenderSnapshot snapshot) {
+        var bucket = buckets.get(type);
+        if (bucket == null || bucket.isEmpty()) {
+            return;
+        }
+
+        bucket.extract(snapshot);
     }
 
     @Override
     @OpenGLCall
-    public void render(PhysicaMundi physica) {
-        Validator.nonNull(physica, "The physica-mundi to render can't be null!");
-
-        setMatrix(MatrixType.MODEL, physica.getWorldTransform());
+    public void renderSnapshot(RenderSnapshot snapshot) {
+        Validator.nonNull(snapshot, "The snapshot to render can't be null!");
 
-        applyRenderStates(physica);
+        // Clears the buffer before writing to it.
+        clearBuffers();
 
-        var shader = physica.getMaterial().getFirstShader();
+        // Use the camera state of the snapshot, since the camera may be used to extract
+        // the next frame.
+        setDepthRange(snapshot.getNearDepthRange(), snapshot.getFarDepthRange());
 
-        setupMatrixUniforms(shader, physica);
+        recorder.record(snapshot, commands);
+        executeCommands();
+    }
 
-        setupPrefabUniforms(shader, physica);
+    /**
+     * Executes the recorded {@link RenderCommandList} with the {@link RenderBackend}
+     * of the <code>DefaultRenderer</code>, and resets it for the next recording.
+     */
+    @OpenGLCall
+    private void executeCommands() {
+        try {
+            commands.execute(backend);
+        } finally {
+            commands.reset();
+        }
+    }
 
-        var material = physica.getMaterial();
-        material.setupData(shader);
-        material.bindAttributes(physica);
+    /**
+     * Render the given number of consecutive {@link PhysicaMundi} from the provided
+     * array with a single instanced draw call, by passing their world matrices to
+     * the instance attribute of their material.
+     * 
+     * @param animae The array containing the physica-mundis to render (not null).
+     * @param offset The index of the first physica-mundi to render (&ge;0).
+     * @param count  The number of physica-mundis to render (&gt;0).
+     */
+    @Override
+    @OpenGLCall
+    public void renderInstanced(AnimaMundi[] animae, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            commands.addInstance(((PhysicaMundi) animae[i]).getWorldTransform().asModelMatrix(proxyMatrix));
+        }
 
-        // Upload latest changes to the OpenGL state.
-        shader.upload();
+        var physica = (PhysicaMundi) animae[offset];
+        recorder.setModelMatrix(Matrix4f.IDENTITY_MATRIX);
+        record(physica, null, count);
+    }
 
-        defaultLogic.begin(physica);
+    @Override
+    @OpenGLCall
+    public void render(PhysicaMundi physica) {
+        Validator.nonNull(physica, "The physica-mundi to render can't be null!");
 
-        defaultLogic.render(physica);
+        var ranges = physica instanceof BatchedPhysicaMundi ? ((BatchedPhysicaMundi) physica).getDrawRanges() : null;
+        // An instancing material expects the world matrix as instance data.
+        if (ranges == null && RenderBucket.usesInstancing(physica.getMesh(), physica.getMaterial())) {
+            commands.addInstance(physica.getWorldTransform().asModelMatrix(proxyMatrix));
+            recorder.setModelMatrix(Matrix4f.IDENTITY_MATRIX);
+            record(physica, null, 1);
+            return;
+        }
 
-        defaultLogic.end(physica);
+        recorder.setModelMatrix(physica.getWorldTransform());
+        record(physica, ranges, 0);
     }
 
     /**
-     * Applies the local {@link RenderState} defined for the given {@link PhysicaMundi} to the 
-     * <code>OpenGL</code> context.
+     * Records the draw of the provided {@link PhysicaMundi} into the
+     * {@link RenderCommandList}, once the model matrix and the instances have been
+     * set. The commands are directly executed if no frame is being recorded.
      * 
-     * @param physica The physica-mundi to render (not null).
+     * @param physica       The physica-mundi to draw (not null).
+     * @param ranges        The ranges of indices to draw, or null to draw the whole mesh.
+     * @param instanceCount The number of instances added to the command list, or 0
+     *                      to draw the mesh once.
      */
     @OpenGLCall
-    private void applyRenderStates(PhysicaMundi physica) {
-        for (var type : RenderState.Type.values()) {
-            var state = physica.getLocalRenderState(type);
-            if (state != null) {
-                logger.debug("Request " + type.name() + " state change before rendering " + physica + ".");
-                renderStateMachine.pushAndApply(state);
-            }
+    private void record(PhysicaMundi physica, int[] ranges, int instanceCount) {
+        if (!recording) {
+            // Rendered outside of a frame, use the current camera state.
+            recorder.setCamera(camera.getViewMatrix(), camera.getProjectionMatrix(),
+                    camera.getViewProjectionMatrix(), camera.getLocation());
         }
+
+        recorder.recordDraw(physica.getMesh(), physica.getMaterial(), physica.getResolvedRenderStates(),
+                physica.getResolvedEnvironment(), ranges, instanceCount, commands);
+
+        if (!recording) {
+            executeCommands();
+        }
+    }
+
+    /**
+     * Return the {@link RenderListBuilder} filling the buckets of the
+     * <code>DefaultRenderer</code> with the visible part of the scene.
+     * 
+     * @return The render list builder (not null).
+     */
+    public RenderListBuilder getListBuilder() {
+        return listBuilder;
+    }
+
+    /**
+     * Sets the {@link RenderListBuilder} filling the buckets of the
+     * <code>DefaultRenderer</code> with the visible part of the scene, for example
+     * to use another {@link ForkJoinPool} or threshold.
+     * 
+     * @param listBuilder The render list builder to use (not null).
+     */
+    public void setListBuilder(RenderListBuilder listBuilder) {
+        Validator.nonNull(listBuilder, "The render list builder can't be null!");
+        this.listBuilder = listBuilder;
+    }
+
+    /**
+     * Return the {@link RenderBackend} executing the commands recorded by the
+     * <code>DefaultRenderer</code>.
+     * 
+     * @return The render backend (not null).
+     */
+    public RenderBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Sets the {@link RenderBackend} executing the commands recorded by the
+     * <code>DefaultRenderer</code>, for example to count the commands instead of
+     * issuing them.
+     * 
+     * @param backend The render backend to use (not null).
+     */
+    public void setBackend(RenderBackend backend) {
+        Validator.nonNull(backend, "The render backend can't be null!");
+        this.backend = backend;
     }
 
     /**
@@ -201,11 +401,32 @@ public class DefaultRenderer extends AbstractRenderer {
     public void resize(int width, int height) {
         if (camera != null && camera.resize(width, height)) {
             GL11C.glViewport(0, 0, width, height);
-            GL11C.glEnable(GL11C.GL_SCISSOR_TEST);
+            GLStateTracker.setEnabled(Capability.SCISSOR_TEST, true);
             GL11C.glScissor(0, 0, width, height);
         }
     }
 
+    /**
+     * Return the {@link OcclusionCuller} used to skip the anima-mundis hidden behind
+     * occluders, before submitting them to a {@link RenderBucket}.
+     * 
+     * @return The occlusion culler, or null if disabled (default&rarr;null).
+     */
+    public OcclusionCuller getOcclusionCuller() {
+        return occlusionCuller;
+    }
+
+    /**
+     * Sets the {@link OcclusionCuller} used to skip the anima-mundis hidden behind
+     * occluders, before submitting them to a {@link RenderBucket}. The occluders are
+     * rasterized on the CPU at the start of each frame.
+     * 
+     * @param occlusionCuller The occlusion culler, or null to disable it (default&rarr;null).
+     */
+    public void setOcclusionCuller(OcclusionCuller occlusionCuller) {
+        this.occlusionCuller = occlusionCuller;
+    }
+
     /**
      * Cleanup the <code>Renderer</code> by visiting the given {@link AnimaMundi} and its potential 
      * children to cleanup their {@link Mesh} and {@link Material}.
@@ -3,8 +3,10 @@ package fr.mercury.nucleus.renderer;
 import java.util.Collection;
 import java.util.EnumMap;
 
+import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.collections.array.Array;
 import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
 
 public class RenderStateMachine {
 
@@ -44,24 +46,69 @@ public class RenderStateMachine {
         }
     }
 
+    /**
+     * Applies the provided {@link RenderState} in place of the current one of its
+     * type, without growing the stack of states. The default state at the bottom of
+     * the stack is never replaced, so it can still be restored afterwards.
+     * <p>
+     * The state is only applied if it differs from the current one or needs an
+     * update, the redundant OpenGL calls being skipped by the {@link GLStateTracker}.
+     * 
+     * @param state The render state to apply (not null).
+     * @return Whether the state has been applied to the renderer.
+     */
+    public boolean apply(RenderState state) {
+        Validator.nonNull(state, "The render state to apply can't be null!");
+
+        var applied = canApply(state);
+        var result = states.get(state.type());
+        if (result != null && result.size() > 1) {
+            result.pop();
+        }
+        push(state);
+
+        if (applied) {
+            renderer.applyRenderState(state);
+            state.setNeedsUpdate(false);
+        }
+
+        return applied;
+    }
+
+    /**
+     * Pushes the provided {@link RenderState} on top of the stack of its type and
+     * applies it if needed. The push must be paired with a call to
+     * {@link #restore(RenderState.Type)} to go back to the previous state.
+     * 
+     * @param state The render state to push and apply (not null).
+     * @return Whether the state has been applied to the renderer.
+     */
     public boolean pushAndApply(RenderState state) {
-        if (canApply(state)) {
-            push(state);
+        Validator.nonNull(state, "The render state to push can't be null!");
+
+        var applied = canApply(state);
+        push(state);
+
+        if (applied) {
             renderer.applyRenderState(state);
             state.setNeedsUpdate(false);
-            return true;
         }
 
-        return false;
+        return applied;
     }
 
     private void push(RenderState state) {
-        var result = states.getOrDefault(state.type(), Array.ofType(RenderState.class));
+        var result = states.computeIfAbsent(state.type(), k -> Array.ofType(RenderState.class));
         result.add(state);
-
-        states.put(state.type(), result);
     }
 
+    /**
+     * Pushes and applies the default {@link RenderState} of the provided type, which
+     * is the one at the bottom of its stack.
+     * 
+     * @param type The type of render state to apply the default of (not null).
+     * @return Whether a default state exists for the type.
+     */
     public boolean applyDefault(RenderState.Type type) {
         var result = states.get(type);
         var state = result != null ? result.firstSafe().orElse(null) : null;
@@ -73,11 +120,22 @@ public class RenderStateMachine {
         return true;
     }
 
+    /**
+     * Pops the {@link RenderState} on top of the stack of the provided type and
+     * applies back the previous one if needed. The default state at the bottom of the
+     * stack is never popped.
+     * 
+     * @param type The type of render state to restore (not null).
+     * @return Whether the previous state has been applied to the renderer.
+     */
     public boolean restore(RenderState.Type type) {
         var result = states.get(type);
-        var previous = result.pop();
+        if (result == null || result.size() <= 1) {
+            return false;
+        }
 
-        var state = result != null ? result.lastSafe().orElse(null) : null;
+        var previous = result.pop();
+        var state = result.lastSafe().orElse(null);
         if (canApply(previous, state)) {
             renderer.applyRenderState(state);
             state.setNeedsUpdate(false);
@@ -4,6 +4,7 @@ import fr.mercury.nucleus.application.Application;
 import fr.mercury.nucleus.application.service.ApplicationService;
 import fr.mercury.nucleus.math.objects.Color;
 import fr.mercury.nucleus.renderer.queue.RenderBucket;
+import fr.mercury.nucleus.renderer.queue.RenderSnapshot;
 import fr.mercury.nucleus.scenegraph.NucleusMundi;
 import fr.mercury.nucleus.utils.OpenGLCall;
 
@@ -56,4 +57,31 @@ public interface Renderer extends ApplicationService {
      * @param scene The scene root to render (not null).
      */
     void renderScene(NucleusMundi scene);
+
+    /**
+     * Extracts the visible part of the provided {@link NucleusMundi} into the given
+     * {@link RenderSnapshot}, in the order it should be rendered. The geometric state
+     * of the scene must have been updated.
+     * <p>
+     * The extraction doesn't perform any <code>OpenGL</code> call, so it can be invoked
+     * by another thread than the rendering one, as long as the scene and the {@link Camera} 
+     * aren't modified concurrently.
+     * 
+     * @param scene    The scene root to extract (not null).
+     * @param snapshot The snapshot to fill with the render proxies (not null).
+     * 
+     * @see #renderSnapshot(RenderSnapshot)
+     */
+    void extractScene(NucleusMundi scene, RenderSnapshot snapshot);
+
+    /**
+     * Render the provided {@link RenderSnapshot} previously extracted from a scene, without
+     * accessing the scene itself, so that it can be updated concurrently.
+     * 
+     * @param snapshot The snapshot to render (not null).
+     * 
+     * @see #extractScene(NucleusMundi, RenderSnapshot)
+     */
+    @OpenGLCall
+    void renderSnapshot(RenderSnapshot snapshot);
 }
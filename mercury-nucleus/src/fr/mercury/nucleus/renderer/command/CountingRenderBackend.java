@@ -0,0 +1,117 @@
+package fr.mercury.nucleus.renderer.command;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.command.RenderCommandList.CommandType;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+
+/**
+ * <code>CountingRenderBackend</code> is an implementation of {@link RenderBackend} which counts the executed
+ * commands instead of issuing any <code>OpenGL</code> call, so that the work submitted by the renderer can be
+ * checked or measured in a {@link Type#HEADLESS} environment.
+ * <p>
+ * The counters accumulate over the executions until the backend is {@link #reset()}.
+ *
+ * @author GnosticOccultist
+ */
+public class CountingRenderBackend implements RenderBackend {
+
+    /**
+     * The number of executed commands of each type, indexed by ordinal.
+     */
+    private final long[] counts = new long[CommandType.values().length];
+    /**
+     * The number of issued draw calls, counting each range of indices.
+     */
+    private long drawCalls = 0;
+    /**
+     * The number of drawn instances, counting a non-instanced mesh as one.
+     */
+    private long instances = 0;
+
+    @Override
+    public void bindProgram(ShaderProgram program, Material material, ResolvedEnvironment environment) {
+        counts[CommandType.BIND_PROGRAM.ordinal()]++;
+    }
+
+    @Override
+    public void setUniform(ShaderProgram program, String name, UniformType type, float[] values, int offset) {
+        counts[CommandType.SET_UNIFORM.ordinal()]++;
+    }
+
+    @Override
+    public void setState(RenderState state) {
+        counts[CommandType.SET_STATE.ordinal()]++;
+    }
+
+    @Override
+    public void bindVertexArray(ShaderProgram program, Mesh mesh, Material material, float[] values, int offset,
+            int instanceCount) {
+        counts[CommandType.BIND_VERTEX_ARRAY.ordinal()]++;
+    }
+
+    @Override
+    public void draw(Mesh mesh, Material material, int[] ranges, int instanceCount) {
+        counts[CommandType.DRAW.ordinal()]++;
+        drawCalls += ranges != null ? ranges.length / BatchedPhysicaMundi.RANGE_SIZE : 1;
+        instances += Math.max(instanceCount, 1);
+    }
+
+    /**
+     * Return the number of executed commands of the provided {@link CommandType}.
+     *
+     * @param type The type of command to count (not null).
+     * @return     The number of executed commands of the type (&ge;0).
+     */
+    public long getCount(CommandType type) {
+        Validator.nonNull(type, "The command type can't be null!");
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * Return the number of draw calls which would have been issued, counting each
+     * range of indices drawn separately.
+     *
+     * @return The number of draw calls (&ge;0).
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Return the number of drawn instances, counting a mesh which isn't drawn as
+     * instances as one.
+     *
+     * @return The number of drawn instances (&ge;0).
+     */
+    public long getInstances() {
+        return instances;
+    }
+
+    /**
+     * Resets all the counters of the <code>CountingRenderBackend</code> to 0.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        this.drawCalls = 0;
+        this.instances = 0;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder(getClass().getSimpleName()).append("[");
+        for (var type : CommandType.values()) {
+            builder.append(type.name().toLowerCase()).append("= ").append(counts[type.ordinal()]).append(", ");
+        }
+        return builder.append("drawCalls= ").append(drawCalls).append(", instances= ").append(instances).append("]")
+                .toString();
+    }
+}
@@ -0,0 +1,171 @@
+package fr.mercury.nucleus.renderer.command;
+
+import java.nio.FloatBuffer;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.Matrix3f;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.renderer.RenderStateMachine;
+import fr.mercury.nucleus.renderer.logic.RenderLogic;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+import fr.mercury.nucleus.utils.OpenGLCall;
+import fr.mercury.nucleus.utils.data.BufferUtils;
+
+/**
+ * <code>GLRenderBackend</code> is an implementation of {@link RenderBackend} which executes the commands of a
+ * {@link RenderCommandList} with <code>OpenGL</code> calls. The render states are applied through a
+ * {@link RenderStateMachine}, and the meshes are drawn with a {@link RenderLogic}.
+ *
+ * @author GnosticOccultist
+ */
+public class GLRenderBackend implements RenderBackend {
+
+    /**
+     * The logger for the Mercury Renderer.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.renderer");
+
+    /**
+     * The state machine applying the render states.
+     */
+    private final RenderStateMachine stateMachine;
+    /**
+     * The logic drawing the meshes.
+     */
+    private final RenderLogic logic;
+    /**
+     * The buffer containing the world matrices of the instances being drawn.
+     */
+    private FloatBuffer instanceData = BufferUtils.createFloatBuffer(16 * 16);
+    /**
+     * The 4x4 matrix passed to the uniforms.
+     */
+    private final Matrix4f matrix4 = new Matrix4f();
+    /**
+     * The 3x3 matrix passed to the uniforms.
+     */
+    private final Matrix3f matrix3 = new Matrix3f();
+    /**
+     * The vector passed to the uniforms.
+     */
+    private final Vector3f vector = new Vector3f();
+
+    /**
+     * Instantiates a new <code>GLRenderBackend</code> applying the render states
+     * with the provided {@link RenderStateMachine} and drawing with the
+     * {@link RenderLogic}.
+     *
+     * @param stateMachine The state machine applying the render states (not null).
+     * @param logic        The logic drawing the meshes (not null).
+     */
+    public GLRenderBackend(RenderStateMachine stateMachine, RenderLogic logic) {
+        Validator.nonNull(stateMachine, "The render state machine can't be null!");
+        Validator.nonNull(logic, "The render logic can't be null!");
+        this.stateMachine = stateMachine;
+        this.logic = logic;
+    }
+
+    @Override
+    @OpenGLCall
+    public void bindProgram(ShaderProgram program, Material material, ResolvedEnvironment environment) {
+        material.getBindingPlan(program).bind(environment);
+    }
+
+    @Override
+    public void setUniform(ShaderProgram program, String name, UniformType type, float[] values, int offset) {
+        switch (type) {
+        case MATRIX4F:
+            program.addUniform(name, type, matrix4(values, offset));
+            break;
+        case MATRIX3F:
+            matrix3.set(values[offset], values[offset + 1], values[offset + 2], values[offset + 3],
+                    values[offset + 4], values[offset + 5], values[offset + 6], values[offset + 7],
+                    values[offset + 8]);
+            program.addUniform(name, type, matrix3);
+            break;
+        case VECTOR3F:
+            program.addUniform(name, type, vector.set(values[offset], values[offset + 1], values[offset + 2]));
+            break;
+        default:
+            throw new UnsupportedOperationException("Unsupported uniform type: " + type);
+        }
+    }
+
+    @Override
+    @OpenGLCall
+    public void setState(RenderState state) {
+        logger.debug("Request " + state.type().name() + " state change.");
+        stateMachine.apply(state);
+    }
+
+    @Override
+    @OpenGLCall
+    public void bindVertexArray(ShaderProgram program, Mesh mesh, Material material, float[] values, int offset,
+            int instanceCount) {
+        if (instanceCount > 0) {
+            var data = instanceBuffer(instanceCount);
+            for (int i = 0; i < instanceCount; i++) {
+                matrix4(values, offset + i * 16).populate(data);
+            }
+            data.flip();
+
+            // Marks the mesh as dirty, so that the instance data is uploaded and bound.
+            var key = material.getInstanceAttribute().getBufferKey();
+            mesh.setupBuffer(key, 4, Usage.DYNAMIC_DRAW, data);
+        }
+        material.bindAttributes(mesh);
+
+        // Upload latest changes to the OpenGL state.
+        program.upload();
+
+        logic.begin(mesh, material);
+    }
+
+    @Override
+    @OpenGLCall
+    public void draw(Mesh mesh, Material material, int[] ranges, int instanceCount) {
+        if (instanceCount > 0) {
+            logic.renderInstanced(mesh, material, instanceCount);
+        } else if (ranges != null) {
+            logic.render(mesh, material, ranges);
+        } else {
+            logic.render(mesh, material);
+        }
+
+        logic.end(mesh, material);
+    }
+
+    /**
+     * Return the 4x4 matrix set to the values stored in row-major order in the
+     * provided array.
+     */
+    private Matrix4f matrix4(float[] values, int offset) {
+        return matrix4.set(values[offset], values[offset + 1], values[offset + 2], values[offset + 3],
+                values[offset + 4], values[offset + 5], values[offset + 6], values[offset + 7], values[offset + 8],
+                values[offset + 9], values[offset + 10], values[offset + 11], values[offset + 12],
+                values[offset + 13], values[offset + 14], values[offset + 15]);
+    }
+
+    /**
+     * Return the buffer to populate with the world matrices of the given number of
+     * instances, growing it if needed. The returned buffer is cleared.
+     */
+    private FloatBuffer instanceBuffer(int count) {
+        var required = count * 16;
+        if (instanceData.capacity() < required) {
+            this.instanceData = BufferUtils.createFloatBuffer(Math.max(required, instanceData.capacity() * 2));
+        }
+
+        instanceData.clear();
+        return instanceData;
+    }
+}
@@ -0,0 +1,35 @@
+package fr.mercury.nucleus.renderer.command;
+
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+
+/**
+ * <code>NullRenderBackend</code> is an implementation of {@link RenderBackend} which ignores every command, so that
+ * a {@link RenderCommandList} can be replayed in a {@link Type#HEADLESS} environment to measure the cost of its
+ * decoding only.
+ *
+ * @author GnosticOccultist
+ */
+public class NullRenderBackend implements RenderBackend {
+
+    @Override
+    public void bindProgram(ShaderProgram program, Material material, ResolvedEnvironment environment) {}
+
+    @Override
+    public void setUniform(ShaderProgram program, String name, UniformType type, float[] values, int offset) {}
+
+    @Override
+    public void setState(RenderState state) {}
+
+    @Override
+    public void bindVertexArray(ShaderProgram program, Mesh mesh, Material material, float[] values, int offset,
+            int instanceCount) {}
+
+    @Override
+    public void draw(Mesh mesh, Material material, int[] ranges, int instanceCount) {}
+}
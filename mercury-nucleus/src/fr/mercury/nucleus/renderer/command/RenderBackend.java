@@ -0,0 +1,74 @@
+package fr.mercury.nucleus.renderer.command;
+
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+
+/**
+ * <code>RenderBackend</code> is an interface to execute the commands recorded in a {@link RenderCommandList}, for
+ * example by issuing the corresponding <code>OpenGL</code> calls, or by simply counting them.
+ * <p>
+ * The float values passed to the backend are only valid during the invocation, and mustn't be modified.
+ *
+ * @author GnosticOccultist
+ */
+public interface RenderBackend {
+
+    /**
+     * Uses the provided {@link ShaderProgram} with the data of the {@link Material}
+     * and the uniforms of the {@link ResolvedEnvironment}.
+     *
+     * @param program     The shader program to use (not null).
+     * @param material    The material whose data to pass (not null).
+     * @param environment The environment whose uniforms to pass (not null).
+     */
+    void bindProgram(ShaderProgram program, Material material, ResolvedEnvironment environment);
+
+    /**
+     * Passes the float values starting at the given offset to the uniform of the
+     * {@link ShaderProgram}. The matrices are stored in row-major order.
+     *
+     * @param program The shader program owning the uniform (not null).
+     * @param name    The name of the uniform (not null).
+     * @param type    The type of the uniform, determining the number of values (not null).
+     * @param values  The array containing the values (not null).
+     * @param offset  The offset of the first value in the array (&ge;0).
+     */
+    void setUniform(ShaderProgram program, String name, UniformType type, float[] values, int offset);
+
+    /**
+     * Applies the provided {@link RenderState}.
+     *
+     * @param state The render state to apply (not null).
+     */
+    void setState(RenderState state);
+
+    /**
+     * Uploads the provided {@link ShaderProgram} and binds the vertex array of the
+     * {@link Mesh} with the attributes of the {@link Material}. The world matrices
+     * of the instances, if any, are stored consecutively in row-major order.
+     *
+     * @param program       The shader program to upload (not null).
+     * @param mesh          The mesh whose vertex array to bind (not null).
+     * @param material      The material whose attributes to enable (not null).
+     * @param values        The array containing the world matrices of the instances (not null).
+     * @param offset        The offset of the first world matrix in the array (&ge;0).
+     * @param instanceCount The number of instances, or 0 if the mesh isn't drawn as instances (&ge;0).
+     */
+    void bindVertexArray(ShaderProgram program, Mesh mesh, Material material, float[] values, int offset,
+            int instanceCount);
+
+    /**
+     * Draws the provided {@link Mesh} whose vertex array has been bound, and unbinds
+     * it.
+     *
+     * @param mesh          The mesh to draw (not null).
+     * @param material      The material to draw the mesh with (not null).
+     * @param ranges        The ranges of indices to draw, or null to draw the whole mesh.
+     * @param instanceCount The number of instances to draw, or 0 to draw the mesh once (&ge;0).
+     */
+    void draw(Mesh mesh, Material material, int[] ranges, int instanceCount);
+}
@@ -0,0 +1,467 @@
+package fr.mercury.nucleus.renderer.command;
+
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.readable.ReadableMatrix3f;
+import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+
+/**
+ * <code>RenderCommandList</code> is a compact stream of rendering commands, recorded without any <code>OpenGL</code>
+ * call and executed later by a {@link RenderBackend}. The same list can be executed by the <code>OpenGL</code>
+ * backend, or replayed by a {@link NullRenderBackend} or a {@link CountingRenderBackend} to measure the cost of the
+ * renderer on the CPU side only.
+ * <p>
+ * The commands are stored as integers, each one starting with the ordinal of its {@link CommandType} followed by its
+ * operands. The referenced objects and the float values, such as the matrices, are stored in separate arrays, which
+ * are reused after a {@link #reset()}.
+ * <p>
+ * The instances of an instanced draw are consecutively added with {@link #addInstance(ReadableMatrix4f)}, before
+ * recording the {@link CommandType#BIND_VERTEX_ARRAY} command using them.
+ *
+ * @author GnosticOccultist
+ */
+public final class RenderCommandList {
+
+    /**
+     * The initial number of integers, objects and floats of the list.
+     */
+    private static final int INITIAL_SIZE = 256;
+    /**
+     * The number of floats of a 4x4 matrix.
+     */
+    private static final int MATRIX4_SIZE = 16;
+    /**
+     * The command types, indexed by ordinal.
+     */
+    private static final CommandType[] TYPES = CommandType.values();
+    /**
+     * The uniform types, indexed by ordinal.
+     */
+    private static final UniformType[] UNIFORM_TYPES = UniformType.values();
+
+    /**
+     * The stream of commands and their operands.
+     */
+    private int[] commands = new int[INITIAL_SIZE];
+    /**
+     * The number of integers in the stream.
+     */
+    private int commandSize = 0;
+    /**
+     * The number of recorded commands.
+     */
+    private int commandCount = 0;
+    /**
+     * The objects referenced by the commands.
+     */
+    private Object[] objects = new Object[INITIAL_SIZE];
+    /**
+     * The number of referenced objects.
+     */
+    private int objectSize = 0;
+    /**
+     * The float values referenced by the commands.
+     */
+    private float[] values = new float[INITIAL_SIZE];
+    /**
+     * The number of float values.
+     */
+    private int valueSize = 0;
+    /**
+     * The offset of the instances added since the last vertex array binding.
+     */
+    private int instanceOffset = 0;
+    /**
+     * The number of instances added since the last vertex array binding.
+     */
+    private int instanceCount = 0;
+    /**
+     * The program bound by the last program command, or null.
+     */
+    private ShaderProgram boundProgram = null;
+    /**
+     * The material bound by the last program command, or null.
+     */
+    private Material boundMaterial = null;
+    /**
+     * The environment bound by the last program command, or null.
+     */
+    private ResolvedEnvironment boundEnvironment = null;
+
+    /**
+     * Records a {@link CommandType#BIND_PROGRAM} command, to use the provided
+     * {@link ShaderProgram} with the data of the {@link Material} and the uniforms
+     * of the {@link ResolvedEnvironment}. The command is skipped if the same
+     * binding was the last one recorded.
+     *
+     * @param program     The shader program to use (not null).
+     * @param material    The material whose data to pass (not null).
+     * @param environment The environment whose uniforms to pass (not null).
+     */
+    public void bindProgram(ShaderProgram program, Material material, ResolvedEnvironment environment) {
+        Validator.nonNull(program, "The shader program can't be null!");
+        Validator.nonNull(material, "The material can't be null!");
+        Validator.nonNull(environment, "The environment can't be null!");
+
+        if (program == boundProgram && material == boundMaterial && environment == boundEnvironment) {
+            return;
+        }
+
+        var index = command(CommandType.BIND_PROGRAM);
+        commands[index + 1] = object(program);
+        commands[index + 2] = object(material);
+        commands[index + 3] = object(environment);
+
+        this.boundProgram = program;
+        this.boundMaterial = material;
+        this.boundEnvironment = environment;
+    }
+
+    /**
+     * Records a {@link CommandType#SET_UNIFORM} command, to pass the provided 4x4
+     * matrix to the uniform of the {@link ShaderProgram}.
+     *
+     * @param program The shader program owning the uniform (not null).
+     * @param name    The name of the uniform (not null).
+     * @param matrix  The matrix to pass, copied in row-major order (not null).
+     */
+    public void setUniform(ShaderProgram program, String name, ReadableMatrix4f matrix) {
+        Validator.nonNull(matrix, "The matrix can't be null!");
+
+        var offset = uniform(program, name, UniformType.MATRIX4F, MATRIX4_SIZE);
+        putMatrix(offset, matrix);
+    }
+
+    /**
+     * Records a {@link CommandType#SET_UNIFORM} command, to pass the provided 3x3
+     * matrix to the uniform of the {@link ShaderProgram}.
+     *
+     * @param program The shader program owning the uniform (not null).
+     * @param name    The name of the uniform (not null).
+     * @param matrix  The matrix to pass, copied in row-major order (not null).
+     */
+    public void setUniform(ShaderProgram program, String name, ReadableMatrix3f matrix) {
+        Validator.nonNull(matrix, "The matrix can't be null!");
+
+        var offset = uniform(program, name, UniformType.MATRIX3F, 9);
+        values[offset] = matrix.m00();
+        values[offset + 1] = matrix.m01();
+        values[offset + 2] = matrix.m02();
+        values[offset + 3] = matrix.m10();
+        values[offset + 4] = matrix.m11();
+        values[offset + 5] = matrix.m12();
+        values[offset + 6] = matrix.m20();
+        values[offset + 7] = matrix.m21();
+        values[offset + 8] = matrix.m22();
+    }
+
+    /**
+     * Records a {@link CommandType#SET_UNIFORM} command, to pass the provided
+     * vector to the uniform of the {@link ShaderProgram}.
+     *
+     * @param program The shader program owning the uniform (not null).
+     * @param name    The name of the uniform (not null).
+     * @param vector  The vector to pass, copied (not null).
+     */
+    public void setUniform(ShaderProgram program, String name, ReadableVector3f vector) {
+        Validator.nonNull(vector, "The vector can't be null!");
+
+        var offset = uniform(program, name, UniformType.VECTOR3F, 3);
+        values[offset] = vector.x();
+        values[offset + 1] = vector.y();
+        values[offset + 2] = vector.z();
+    }
+
+    private int uniform(ShaderProgram program, String name, UniformType type, int length) {
+        Validator.nonNull(program, "The shader program can't be null!");
+        Validator.nonNull(name, "The uniform's name can't be null!");
+
+        var offset = value(length);
+        var index = command(CommandType.SET_UNIFORM);
+        commands[index + 1] = object(program);
+        commands[index + 2] = object(name);
+        commands[index + 3] = type.ordinal();
+        commands[index + 4] = offset;
+        return offset;
+    }
+
+    /**
+     * Records a {@link CommandType#SET_STATE} command, to apply the provided
+     * {@link RenderState}.
+     *
+     * @param state The render state to apply (not null).
+     */
+    public void setState(RenderState state) {
+        Validator.nonNull(state, "The render state can't be null!");
+
+        var index = command(CommandType.SET_STATE);
+        commands[index + 1] = object(state);
+    }
+
+    /**
+     * Adds the world matrix of an instance to draw with the next
+     * {@link CommandType#BIND_VERTEX_ARRAY} command. No other command can be
+     * recorded between the instances of the same binding.
+     *
+     * @param matrix The world matrix of the instance, copied in row-major order
+     *               (not null).
+     */
+    public void addInstance(ReadableMatrix4f matrix) {
+        Validator.nonNull(matrix, "The world matrix can't be null!");
+
+        var offset = value(MATRIX4_SIZE);
+        if (instanceCount == 0) {
+            this.instanceOffset = offset;
+        }
+        Validator.check(offset == instanceOffset + instanceCount * MATRIX4_SIZE,
+                "The instances must be added consecutively!");
+        putMatrix(offset, matrix);
+        instanceCount++;
+    }
+
+    /**
+     * Records a {@link CommandType#BIND_VERTEX_ARRAY} command, to bind the vertex
+     * array of the provided {@link Mesh} with the attributes of the
+     * {@link Material}, after uploading the {@link ShaderProgram}. The instances
+     * added since the last binding are passed as instance data.
+     *
+     * @param program  The shader program to upload (not null).
+     * @param mesh     The mesh whose vertex array to bind (not null).
+     * @param material The material whose attributes to enable (not null).
+     */
+    public void bindVertexArray(ShaderProgram program, Mesh mesh, Material material) {
+        Validator.nonNull(program, "The shader program can't be null!");
+        Validator.nonNull(mesh, "The mesh can't be null!");
+        Validator.nonNull(material, "The material can't be null!");
+
+        var index = command(CommandType.BIND_VERTEX_ARRAY);
+        commands[index + 1] = object(program);
+        commands[index + 2] = object(mesh);
+        commands[index + 3] = object(material);
+        commands[index + 4] = instanceOffset;
+        commands[index + 5] = instanceCount;
+
+        this.instanceOffset = 0;
+        this.instanceCount = 0;
+    }
+
+    /**
+     * Records a {@link CommandType#DRAW} command, to draw the provided {@link Mesh}
+     * whose vertex array has been bound.
+     *
+     * @param mesh          The mesh to draw (not null).
+     * @param material      The material to draw the mesh with (not null).
+     * @param ranges        The ranges of indices to draw, or null to draw the whole mesh.
+     * @param instanceCount The number of instances to draw, or 0 to draw the mesh once (&ge;0).
+     */
+    public void draw(Mesh mesh, Material material, int[] ranges, int instanceCount) {
+        Validator.nonNull(mesh, "The mesh can't be null!");
+        Validator.nonNull(material, "The material can't be null!");
+        Validator.nonNegative(instanceCount, "The number of instances can't be negative!");
+
+        var index = command(CommandType.DRAW);
+        commands[index + 1] = object(mesh);
+        commands[index + 2] = object(material);
+        commands[index + 3] = ranges != null ? object(ranges) : -1;
+        commands[index + 4] = instanceCount;
+    }
+
+    /**
+     * Executes the commands of the <code>RenderCommandList</code> in their
+     * recording order with the provided {@link RenderBackend}. The list is left
+     * unchanged, so it can be executed again.
+     *
+     * @param backend The backend executing the commands (not null).
+     */
+    public void execute(RenderBackend backend) {
+        Validator.nonNull(backend, "The render backend can't be null!");
+
+        for (int i = 0; i < commandSize;) {
+            var type = TYPES[commands[i]];
+            switch (type) {
+            case BIND_PROGRAM:
+                backend.bindProgram((ShaderProgram) objects[commands[i + 1]], (Material) objects[commands[i + 2]],
+                        (ResolvedEnvironment) objects[commands[i + 3]]);
+                break;
+            case SET_UNIFORM:
+                backend.setUniform((ShaderProgram) objects[commands[i + 1]], (String) objects[commands[i + 2]],
+                        UNIFORM_TYPES[commands[i + 3]], values, commands[i + 4]);
+                break;
+            case SET_STATE:
+                backend.setState((RenderState) objects[commands[i + 1]]);
+                break;
+            case BIND_VERTEX_ARRAY:
+                backend.bindVertexArray((ShaderProgram) objects[commands[i + 1]], (Mesh) objects[commands[i + 2]],
+                        (Material) objects[commands[i + 3]], values, commands[i + 4], commands[i + 5]);
+                break;
+            case DRAW:
+                var ranges = commands[i + 3] >= 0 ? (int[]) objects[commands[i + 3]] : null;
+                backend.draw((Mesh) objects[commands[i + 1]], (Material) objects[commands[i + 2]], ranges,
+                        commands[i + 4]);
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported render command: " + type);
+            }
+            i += type.size;
+        }
+    }
+
+    /**
+     * Resets the <code>RenderCommandList</code>, by removing all its commands and
+     * releasing the referenced objects. The arrays are kept for the next recording.
+     */
+    public void reset() {
+        Arrays.fill(objects, 0, objectSize, null);
+        this.commandSize = 0;
+        this.commandCount = 0;
+        this.objectSize = 0;
+        this.valueSize = 0;
+        this.instanceOffset = 0;
+        this.instanceCount = 0;
+        this.boundProgram = null;
+        this.boundMaterial = null;
+        this.boundEnvironment = null;
+    }
+
+    /**
+     * Return the number of commands recorded in the <code>RenderCommandList</code>.
+     *
+     * @return The number of commands (&ge;0).
+     */
+    public int size() {
+        return commandCount;
+    }
+
+    /**
+     * Return whether the <code>RenderCommandList</code> doesn't contain any command.
+     *
+     * @return Whether the list is empty.
+     */
+    public boolean isEmpty() {
+        return commandCount == 0;
+    }
+
+    /**
+     * Appends the provided command type to the stream, and return its index.
+     */
+    private int command(CommandType type) {
+        if (commandSize + type.size > commands.length) {
+            this.commands = Arrays.copyOf(commands, Math.max(commands.length * 2, commandSize + type.size));
+        }
+
+        var index = commandSize;
+        commands[index] = type.ordinal();
+        commandSize += type.size;
+        commandCount++;
+        return index;
+    }
+
+    /**
+     * Appends the provided object to the referenced ones, and return its index.
+     */
+    private int object(Object object) {
+        if (objectSize == objects.length) {
+            this.objects = Arrays.copyOf(objects, objectSize * 2);
+        }
+
+        objects[objectSize] = object;
+        return objectSize++;
+    }
+
+    /**
+     * Reserves the given number of float values, and return the offset of the
+     * first one.
+     */
+    private int value(int length) {
+        if (valueSize + length > values.length) {
+            this.values = Arrays.copyOf(values, Math.max(values.length * 2, valueSize + length));
+        }
+
+        var offset = valueSize;
+        valueSize += length;
+        return offset;
+    }
+
+    private void putMatrix(int offset, ReadableMatrix4f matrix) {
+        values[offset] = matrix.m00();
+        values[offset + 1] = matrix.m01();
+        values[offset + 2] = matrix.m02();
+        values[offset + 3] = matrix.m03();
+        values[offset + 4] = matrix.m10();
+        values[offset + 5] = matrix.m11();
+        values[offset + 6] = matrix.m12();
+        values[offset + 7] = matrix.m13();
+        values[offset + 8] = matrix.m20();
+        values[offset + 9] = matrix.m21();
+        values[offset + 10] = matrix.m22();
+        values[offset + 11] = matrix.m23();
+        values[offset + 12] = matrix.m30();
+        values[offset + 13] = matrix.m31();
+        values[offset + 14] = matrix.m32();
+        values[offset + 15] = matrix.m33();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[commands= " + commandCount + ", objects= " + objectSize + ", values= "
+                + valueSize + "]";
+    }
+
+    /**
+     * <code>CommandType</code> enumerates the commands which can be recorded in a {@link RenderCommandList}, with
+     * the number of integers they use in the stream.
+     *
+     * @author GnosticOccultist
+     */
+    public enum CommandType {
+        /**
+         * Uses a shader program with the data of a material and the uniforms of an
+         * environment.
+         */
+        BIND_PROGRAM(4),
+        /**
+         * Passes float values to a uniform of a shader program.
+         */
+        SET_UNIFORM(5),
+        /**
+         * Applies a render state.
+         */
+        SET_STATE(2),
+        /**
+         * Uploads a shader program and binds the vertex array of a mesh, with the
+         * instance data if any.
+         */
+        BIND_VERTEX_ARRAY(6),
+        /**
+         * Draws the bound mesh, either entirely, by ranges or as instances.
+         */
+        DRAW(5);
+
+        /**
+         * The number of integers used by the command, including its type.
+         */
+        private final int size;
+
+        private CommandType(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Return the number of integers used by the <code>CommandType</code> in the
+         * stream of a {@link RenderCommandList}, including its type.
+         *
+         * @return The size of the command (&gt;0).
+         */
+        public int size() {
+            return size;
+        }
+    }
+}
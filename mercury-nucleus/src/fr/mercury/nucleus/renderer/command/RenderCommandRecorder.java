@@ -0,0 +1,207 @@
+package fr.mercury.nucleus.renderer.command;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.application.MercuryContext.Type;
+import fr.mercury.nucleus.math.objects.Matrix3f;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
+import fr.mercury.nucleus.math.readable.ReadableTransform;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.AbstractRenderer.MatrixType;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.queue.RenderSnapshot;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.MaterialBindingPlan;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+import fr.mercury.nucleus.scenegraph.ResolvedRenderStates;
+
+/**
+ * <code>RenderCommandRecorder</code> turns the draws of the renderer into commands of a {@link RenderCommandList},
+ * deciding which render states, uniforms and vertex arrays each draw needs, without performing any
+ * <code>OpenGL</code> call. It can therefore record a whole {@link RenderSnapshot} in a {@link Type#HEADLESS}
+ * environment.
+ * <p>
+ * The recorder keeps the camera matrices and the model matrix of the next draw, from which it computes the
+ * {@link MatrixType} requested by the materials.
+ *
+ * @author GnosticOccultist
+ */
+public final class RenderCommandRecorder {
+
+    /**
+     * The render state types, in their application order.
+     */
+    private static final RenderState.Type[] STATE_TYPES = RenderState.Type.values();
+
+    /**
+     * The view matrix of the camera.
+     */
+    private final Matrix4f view = new Matrix4f();
+    /**
+     * The projection matrix of the camera.
+     */
+    private final Matrix4f projection = new Matrix4f();
+    /**
+     * The view-projection matrix of the camera.
+     */
+    private final Matrix4f viewProjection = new Matrix4f();
+    /**
+     * The model matrix of the next draw.
+     */
+    private final Matrix4f model = new Matrix4f();
+    /**
+     * The view-projection-model matrix of the next draw.
+     */
+    private final Matrix4f viewProjectionModel = new Matrix4f();
+    /**
+     * The normal matrix, which isn't computed yet.
+     */
+    private final Matrix3f normal = new Matrix3f();
+    /**
+     * The world matrix of an instance.
+     */
+    private final Matrix4f instance = new Matrix4f();
+    /**
+     * The location of the camera.
+     */
+    private final Vector3f cameraLocation = new Vector3f();
+
+    /**
+     * Sets the matrices and the location of the camera used by the next draws
+     * recorded by the <code>RenderCommandRecorder</code>.
+     *
+     * @param view           The view matrix of the camera (not null).
+     * @param projection     The projection matrix of the camera (not null).
+     * @param viewProjection The view-projection matrix of the camera (not null).
+     * @param location       The location of the camera (not null).
+     */
+    public void setCamera(ReadableMatrix4f view, ReadableMatrix4f projection, ReadableMatrix4f viewProjection,
+            ReadableVector3f location) {
+        Validator.nonNull(location, "The camera location can't be null!");
+        this.view.set(view);
+        this.projection.set(projection);
+        this.viewProjection.set(viewProjection);
+        this.cameraLocation.set(location);
+    }
+
+    /**
+     * Sets the model matrix used by the next draws recorded by the
+     * <code>RenderCommandRecorder</code>.
+     *
+     * @param model The model matrix to use (not null).
+     */
+    public void setModelMatrix(ReadableMatrix4f model) {
+        this.model.set(model);
+    }
+
+    /**
+     * Sets the model matrix used by the next draws recorded by the
+     * <code>RenderCommandRecorder</code> to the provided world transform.
+     *
+     * @param transform The world transform to use as the model matrix (not null).
+     */
+    public void setModelMatrix(ReadableTransform transform) {
+        transform.asModelMatrix(model);
+    }
+
+    /**
+     * Records the render proxies of the provided {@link RenderSnapshot} in their
+     * order into the {@link RenderCommandList}, using the camera state of the
+     * snapshot. The consecutive proxies which can be drawn as instances are
+     * recorded as a single draw.
+     *
+     * @param snapshot The snapshot to record (not null).
+     * @param commands The command list to record into (not null).
+     */
+    public void record(RenderSnapshot snapshot, RenderCommandList commands) {
+        Validator.nonNull(snapshot, "The snapshot to record can't be null!");
+        Validator.nonNull(commands, "The command list can't be null!");
+
+        setCamera(snapshot.getViewMatrix(), snapshot.getProjectionMatrix(), snapshot.getViewProjectionMatrix(),
+                snapshot.getCameraLocation());
+
+        for (int i = 0; i < snapshot.size();) {
+            var count = snapshot.countInstances(i);
+            if (count > 0) {
+                // The world matrices are passed as instance data instead.
+                for (int j = i; j < i + count; j++) {
+                    commands.addInstance(snapshot.getWorldMatrix(j, instance));
+                }
+                model.set(Matrix4f.IDENTITY_MATRIX);
+            } else {
+                snapshot.getWorldMatrix(i, model);
+            }
+
+            recordDraw(snapshot.getMesh(i), snapshot.getMaterial(i), snapshot.getRenderStates(i),
+                    snapshot.getEnvironment(i), snapshot.getDrawRanges(i), count, commands);
+            i += Math.max(count, 1);
+        }
+    }
+
+    /**
+     * Records the draw of the provided {@link Mesh} with the given {@link Material}
+     * into the {@link RenderCommandList}, using the current model matrix. For an
+     * instanced draw, the world matrices of the instances must have been added to
+     * the list beforehand.
+     *
+     * @param mesh          The mesh to draw (not null).
+     * @param material      The material to draw the mesh with (not null).
+     * @param states        The resolved render states to apply (not null).
+     * @param environment   The resolved environment elements to apply (not null).
+     * @param ranges        The ranges of indices to draw, or null to draw the whole mesh.
+     * @param instanceCount The number of instances added to the list, or 0 to draw the mesh once (&ge;0).
+     * @param commands      The command list to record into (not null).
+     */
+    public void recordDraw(Mesh mesh, Material material, ResolvedRenderStates states, ResolvedEnvironment environment,
+            int[] ranges, int instanceCount, RenderCommandList commands) {
+        for (var type : STATE_TYPES) {
+            var state = states.get(type);
+            if (state != null) {
+                commands.setState(state);
+            }
+        }
+
+        var shader = material.getFirstShader();
+        commands.bindProgram(shader, material, environment);
+
+        var plan = material.getBindingPlan(shader);
+        for (var type : plan.getMatrixTypes()) {
+            if (type == MatrixType.NORMAL) {
+                commands.setUniform(shader, type.getUniformName(), normal);
+            } else {
+                commands.setUniform(shader, type.getUniformName(), matrix(type));
+            }
+        }
+
+        if (plan.needsCameraPosition()) {
+            commands.setUniform(shader, MaterialBindingPlan.CAMERA_POSITION, cameraLocation);
+        }
+
+        commands.bindVertexArray(shader, mesh, material);
+        commands.draw(mesh, material, ranges, instanceCount);
+    }
+
+    /**
+     * Return the 4x4 matrix of the provided {@link MatrixType}, computing it if
+     * needed.
+     */
+    private ReadableMatrix4f matrix(MatrixType type) {
+        switch (type) {
+        case MODEL:
+            return model;
+        case VIEW:
+            return view;
+        case PROJECTION:
+            return projection;
+        case VIEW_PROJECTION:
+            return viewProjection;
+        case VIEW_PROJECTION_MODEL:
+            viewProjectionModel.set(viewProjection);
+            return viewProjectionModel.mult(model, viewProjectionModel);
+        default:
+            throw new UnsupportedOperationException("The provided type of matrix: " + type + " isn't a 4x4 matrix!");
+        }
+    }
+}
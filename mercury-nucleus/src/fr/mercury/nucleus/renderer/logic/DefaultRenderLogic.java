@@ -2,7 +2,8 @@ package fr.mercury.nucleus.renderer.logic;
 
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexAttribute;
-import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.utils.OpenGLCall;
 
 /**
@@ -25,20 +26,16 @@ public class DefaultRenderLogic implements RenderLogic {
 
     @Override
     @OpenGLCall
-    public void begin(PhysicaMundi physica) {
+    public void begin(Mesh mesh, Material material) {
 
-        var mesh = physica.getMesh();
         mesh.bind();
 
-        var material = physica.getMaterial();
         material.getAttributes().forEach(VertexAttribute::enable);
     }
 
     @Override
     @OpenGLCall
-    public void render(PhysicaMundi physica) {
-
-        var mesh = physica.getMesh();
+    public void render(Mesh mesh, Material material) {
 
         // Check that our mesh as an indices buffer setup to draw elements, otherwise
         // draw arrays.
@@ -60,12 +57,10 @@ public class DefaultRenderLogic implements RenderLogic {
 
     @Override
     @OpenGLCall
-    public void end(PhysicaMundi physica) {
+    public void end(Mesh mesh, Material material) {
 
-        var material = physica.getMaterial();
         material.getAttributes().forEach(VertexAttribute::disable);
 
-        var mesh = physica.getMesh();
         mesh.unbind();
     }
 }
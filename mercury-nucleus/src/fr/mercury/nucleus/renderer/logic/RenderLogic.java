@@ -8,6 +8,8 @@ import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexAttribute;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexBuffer;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
 import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.scenegraph.PhysicaMundi;
 import fr.mercury.nucleus.utils.OpenGLCall;
@@ -27,7 +29,19 @@ public interface RenderLogic {
      * @param physica The physica-mundi to render on the screen.
      */
     @OpenGLCall
-    void begin(PhysicaMundi physica);
+    default void begin(PhysicaMundi physica) {
+        begin(physica.getMesh(), physica.getMaterial());
+    }
+
+    /**
+     * Begins the rendering process for the provided {@link Mesh} with the given {@link Material}, 
+     * for example when rendering a copy of a {@link PhysicaMundi}.
+     * 
+     * @param mesh     The mesh to render on the screen.
+     * @param material The material used to render the mesh.
+     */
+    @OpenGLCall
+    void begin(Mesh mesh, Material material);
 
     /**
      * Performs the rendering technique on the provided {@link PhysicaMundi}.
@@ -35,7 +49,53 @@ public interface RenderLogic {
      * @param physica The physica-mundi to render on the screen.
      */
     @OpenGLCall
-    void render(PhysicaMundi physica);
+    default void render(PhysicaMundi physica) {
+        render(physica.getMesh(), physica.getMaterial());
+    }
+
+    /**
+     * Performs the rendering technique on the provided {@link Mesh} with the given {@link Material}.
+     * 
+     * @param mesh     The mesh to render on the screen.
+     * @param material The material used to render the mesh.
+     */
+    @OpenGLCall
+    void render(Mesh mesh, Material material);
+
+    /**
+     * Performs the rendering technique on the provided sub-ranges of the indices of the {@link Mesh} 
+     * with the given {@link Material}, for example to render only the visible pieces of a 
+     * {@link BatchedPhysicaMundi}. Each range is drawn with {@link #drawRangeElements(Mesh, int, int, int, int)}.
+     * 
+     * @param mesh     The mesh with an indices buffer to render on the screen.
+     * @param material The material used to render the mesh.
+     * @param ranges   The ranges to draw, stored as {@link BatchedPhysicaMundi#RANGE_SIZE} integers: the 
+     *                 first index, the number of indices, the minimum and maximum vertex index.
+     */
+    @OpenGLCall
+    default void render(Mesh mesh, Material material, int[] ranges) {
+        for (int i = 0; i < ranges.length; i += BatchedPhysicaMundi.RANGE_SIZE) {
+            drawRangeElements(mesh, ranges[i + 2], ranges[i + 3], ranges[i], ranges[i + 1]);
+        }
+    }
+
+    /**
+     * Performs the rendering technique on the provided number of instances of the {@link Mesh} with the 
+     * given {@link Material}, for example to render consecutive renderables sharing the same mesh whose 
+     * world matrices have been gathered into the {@link Material#getInstanceAttribute() instance attribute}.
+     * 
+     * @param mesh          The mesh to render on the screen.
+     * @param material      The material used to render the mesh.
+     * @param instanceCount The number of instances to draw (&gt;0).
+     */
+    @OpenGLCall
+    default void renderInstanced(Mesh mesh, Material material, int instanceCount) {
+        if (mesh.hasIndices()) {
+            drawElementsInstanced(mesh, instanceCount);
+        } else {
+            drawArraysInstanced(mesh, instanceCount);
+        }
+    }
 
     /**
      * Ends the rendering process for the provided {@link PhysicaMundi}. It can be used to restore 
@@ -44,7 +104,18 @@ public interface RenderLogic {
      * @param physica The physica-mundi to render on the screen.
      */
     @OpenGLCall
-    void end(PhysicaMundi physica);
+    default void end(PhysicaMundi physica) {
+        end(physica.getMesh(), physica.getMaterial());
+    }
+
+    /**
+     * Ends the rendering process for the provided {@link Mesh} with the given {@link Material}.
+     * 
+     * @param mesh     The mesh to render on the screen.
+     * @param material The material used to render the mesh.
+     */
+    @OpenGLCall
+    void end(Mesh mesh, Material material);
 
     /**
      * Transfer the {@link VertexBuffer} to the bound {@link ShaderProgram} as {@link VertexAttribute}. 
@@ -81,8 +152,26 @@ public interface RenderLogic {
         assert mesh.hasIndices();
         assert mesh.getInstanceCount() > 1;
 
+        drawElementsInstanced(mesh, mesh.getInstanceCount());
+    }
+
+    /**
+     * Transfer the {@link VertexBuffer} to the bound {@link ShaderProgram} as {@link VertexAttribute}, 
+     * drawing the provided number of instances of the set of elements.
+     * 
+     * @param mesh          The mesh containing the vertex data to pass (not null).
+     * @param instanceCount The number of instances to draw (&gt;0).
+     * 
+     * @see Mesh#getElementCount()
+     */
+    @OpenGLCall
+    default void drawElementsInstanced(Mesh mesh, int instanceCount) {
+        assert mesh != null;
+        assert mesh.hasIndices();
+        assert instanceCount > 0;
+
         GL31C.glDrawElementsInstanced(mesh.toOpenGLMode(), mesh.getElementCount(),
-                VertexBufferType.getOpenGLFormat(mesh.getIndicesFormat()), 0, mesh.getInstanceCount());
+                VertexBufferType.getOpenGLFormat(mesh.getIndicesFormat()), 0, instanceCount);
     }
 
     /**
@@ -114,7 +203,24 @@ public interface RenderLogic {
         assert mesh != null;
         assert mesh.getInstanceCount() > 1;
 
-        GL31C.glDrawArraysInstanced(mesh.toOpenGLMode(), 0, mesh.getVertexCount(), mesh.getInstanceCount());
+        drawArraysInstanced(mesh, mesh.getInstanceCount());
+    }
+
+    /**
+     * Transfer the {@link VertexBuffer} to the bound {@link ShaderProgram} as {@link VertexAttribute}, 
+     * drawing the provided number of instances of the set of vertices.
+     * 
+     * @param mesh          The mesh containing the vertex data to pass (not null).
+     * @param instanceCount The number of instances to draw (&gt;0).
+     * 
+     * @see Mesh#getVertexCount()
+     */
+    @OpenGLCall
+    default void drawArraysInstanced(Mesh mesh, int instanceCount) {
+        assert mesh != null;
+        assert instanceCount > 0;
+
+        GL31C.glDrawArraysInstanced(mesh.toOpenGLMode(), 0, mesh.getVertexCount(), instanceCount);
     }
 
     /**
@@ -135,4 +241,25 @@ public interface RenderLogic {
                 mesh.getBuffer(VertexBufferType.INDEX).getData().limit(),
                 VertexBufferType.getOpenGLFormat(mesh.getIndicesFormat()), 0);
     }
+
+    /**
+     * Transfer the {@link VertexBuffer} to the bound {@link ShaderProgram} as {@link VertexAttribute}, 
+     * for the provided sub-range of the element array buffer only. The range of vertices referenced by 
+     * the indices allows the driver to only process the required vertex data.
+     * 
+     * @param mesh  The mesh containing the vertex data to pass (not null).
+     * @param start The minimum vertex index referenced in the range (&ge;0).
+     * @param end   The maximum vertex index referenced in the range (&ge;start).
+     * @param first The first index of the range to draw (&ge;0).
+     * @param count The number of indices to draw (&ge;0).
+     */
+    @OpenGLCall
+    default void drawRangeElements(Mesh mesh, int start, int end, int first, int count) {
+        assert mesh != null;
+        assert mesh.hasIndices();
+
+        var format = mesh.getIndicesFormat();
+        GL20C.glDrawRangeElements(mesh.toOpenGLMode(), start, end, count, VertexBufferType.getOpenGLFormat(format),
+                (long) first * format.getSizeInByte());
+    }
 }
@@ -0,0 +1,574 @@
+package fr.mercury.nucleus.renderer.occlusion;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
+
+/**
+ * <code>OcclusionBuffer</code> is a low-resolution depth buffer rasterized on the CPU from a set of occluder
+ * triangles, used to test whether a volume is hidden behind them before submitting it for rendering.
+ * <p>
+ * The triangles are transformed and binned into square tiles of {@value #TILE_SIZE} pixels, then each tile is
+ * rasterized independently, in parallel if enabled, keeping for each pixel the nearest depth. The inner loop
+ * evaluates linear edge and depth equations on contiguous rows, so that it can be vectorized by the compiler. Once
+ * rasterized, the buffer is reduced into a hierarchical-Z pyramid keeping the farthest depth of each cell, starting
+ * with cells of {@value #BLOCK_SIZE} pixels, against which the projected bounds of a volume are tested.
+ * <p>
+ * The depth is the normalized device depth mapped to [0, 1], 1 being the far plane. The culling is conservative:
+ * the triangles crossing the near plane are skipped, and a volume crossing it is never considered occluded.
+ * <p>
+ * The buffer is filled between {@link #begin(ReadableMatrix4f)} and {@link #end()} by a single thread, and can
+ * then be queried from multiple threads.
+ *
+ * @author GnosticOccultist
+ */
+public final class OcclusionBuffer {
+
+    /**
+     * The size in pixels of the tiles rasterized independently.
+     */
+    public static final int TILE_SIZE = 32;
+    /**
+     * The size in pixels of the cells of the first level of the hierarchical-Z pyramid.
+     */
+    public static final int BLOCK_SIZE = 8;
+    /**
+     * The maximum number of cells tested on each axis of a pyramid level.
+     */
+    private static final int MAX_CELLS = 4;
+    /**
+     * The minimum clip-space W of a vertex, under which it is considered behind the camera.
+     */
+    private static final float NEAR_W = 1E-5F;
+    /**
+     * The limit of the normalized device coordinates of a rasterized triangle, to preserve
+     * the precision of the edge equations.
+     */
+    private static final float GUARD_BAND = 64.0F;
+    /**
+     * The depth tolerance under which a volume is considered occluded.
+     */
+    private static final float DEPTH_BIAS = 1E-5F;
+    /**
+     * The number of floats describing a screen-space triangle: x, y and depth of each vertex.
+     */
+    private static final int TRIANGLE_STRIDE = 9;
+
+    /**
+     * The width and height in pixels of the buffer.
+     */
+    private final int width, height;
+    /**
+     * The number of tiles on each axis.
+     */
+    private final int tileColumns, tileRows;
+    /**
+     * The nearest depth of each pixel.
+     */
+    private final float[] depth;
+    /**
+     * The farthest depth of each cell of each level of the pyramid.
+     */
+    private final float[][] levels;
+    /**
+     * The number of cells on each axis of each level of the pyramid.
+     */
+    private final int[] levelWidths, levelHeights;
+    /**
+     * The indices of the triangles overlapping each tile.
+     */
+    private final int[][] bins;
+    /**
+     * The number of triangles overlapping each tile.
+     */
+    private final int[] binCounts;
+    /**
+     * The view-projection matrix of the current frame.
+     */
+    private final Matrix4f viewProjection = new Matrix4f();
+    /**
+     * The model-view-projection matrix of the occluder being added.
+     */
+    private final Matrix4f modelViewProjection = new Matrix4f();
+    /**
+     * The screen-space triangles, packed as [x0, y0, z0, x1, y1, z1, x2, y2, z2].
+     */
+    private float[] triangles = new float[TRIANGLE_STRIDE * 256];
+    /**
+     * The number of screen-space triangles.
+     */
+    private int triangleCount = 0;
+    /**
+     * Whether the buffer has been rasterized since the last begin.
+     */
+    private volatile boolean rasterized = false;
+    /**
+     * Whether to rasterize the tiles in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Instantiates a new <code>OcclusionBuffer</code> with the given size, rounded
+     * up to a multiple of {@value #TILE_SIZE} pixels.
+     *
+     * @param width  The width of the buffer in pixels (&gt;0).
+     * @param height The height of the buffer in pixels (&gt;0).
+     */
+    public OcclusionBuffer(int width, int height) {
+        Validator.positive(width, "The width of the occlusion buffer must be strictly positive!");
+        Validator.positive(height, "The height of the occlusion buffer must be strictly positive!");
+
+        this.tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tileRows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.width = tileColumns * TILE_SIZE;
+        this.height = tileRows * TILE_SIZE;
+        this.depth = new float[this.width * this.height];
+        Arrays.fill(depth, 1.0F);
+
+        // Halve the cells until a single one covers the whole buffer.
+        var count = 1;
+        for (int w = this.width / BLOCK_SIZE, h = this.height / BLOCK_SIZE; w > 1 || h > 1; w = (w + 1) / 2,
+                h = (h + 1) / 2) {
+            count++;
+        }
+        this.levels = new float[count][];
+        this.levelWidths = new int[count];
+        this.levelHeights = new int[count];
+        var w = this.width / BLOCK_SIZE;
+        var h = this.height / BLOCK_SIZE;
+        for (int i = 0; i < count; i++) {
+            levelWidths[i] = w;
+            levelHeights[i] = h;
+            levels[i] = new float[w * h];
+            Arrays.fill(levels[i], 1.0F);
+            w = (w + 1) / 2;
+            h = (h + 1) / 2;
+        }
+
+        this.bins = new int[tileColumns * tileRows][16];
+        this.binCounts = new int[tileColumns * tileRows];
+    }
+
+    /**
+     * Begins a new frame of the <code>OcclusionBuffer</code> seen through the
+     * provided view-projection matrix, removing the previous occluders.
+     *
+     * @param viewProjection The view-projection matrix of the camera (not null).
+     */
+    public void begin(ReadableMatrix4f viewProjection) {
+        Validator.nonNull(viewProjection, "The view-projection matrix can't be null!");
+        this.viewProjection.set(viewProjection);
+        this.triangleCount = 0;
+        this.rasterized = false;
+        Arrays.fill(binCounts, 0);
+    }
+
+    /**
+     * Adds the provided triangles to the occluders of the current frame. They are
+     * transformed and binned immediately, so the array can be reused afterwards.
+     *
+     * @param vertices The positions of the vertices of each triangle in model space,
+     *                 packed as [x0, y0, z0, x1, y1, z1, x2, y2, z2] (not null).
+     * @param model    The model matrix transforming the triangles into world space (not null).
+     *
+     * @see fr.mercury.nucleus.scenegraph.Mesh#getTriangleVertices()
+     */
+    public void addOccluder(float[] vertices, ReadableMatrix4f model) {
+        Validator.nonNull(vertices, "The vertices of the occluder can't be null!");
+        Validator.nonNull(model, "The model matrix can't be null!");
+
+        var m = modelViewProjection.set(model).mult(viewProjection, modelViewProjection);
+        for (int i = 0; i + TRIANGLE_STRIDE <= vertices.length; i += TRIANGLE_STRIDE) {
+            ensureCapacity(triangleCount + 1);
+            var offset = triangleCount * TRIANGLE_STRIDE;
+            if (project(vertices, i, m, offset)) {
+                bin(triangleCount++);
+            }
+        }
+    }
+
+    /**
+     * Projects the triangle starting at the given index into the screen-space
+     * triangles, and return whether it needs to be rasterized.
+     */
+    private boolean project(float[] vertices, int index, ReadableMatrix4f m, int offset) {
+        // Count the vertices outside of each plane, to reject the triangles outside of the frustum.
+        int left = 0, right = 0, bottom = 0, top = 0, far = 0;
+        for (int v = 0; v < 3; v++) {
+            var px = vertices[index + v * 3];
+            var py = vertices[index + v * 3 + 1];
+            var pz = vertices[index + v * 3 + 2];
+            var x = px * m.m00() + py * m.m10() + pz * m.m20() + m.m30();
+            var y = px * m.m01() + py * m.m11() + pz * m.m21() + m.m31();
+            var z = px * m.m02() + py * m.m12() + pz * m.m22() + m.m32();
+            var w = px * m.m03() + py * m.m13() + pz * m.m23() + m.m33();
+
+            // Clipping against the near plane isn't worth it, skipping the triangle is conservative.
+            if (w < NEAR_W || z < -w) {
+                return false;
+            }
+
+            left += x < -w ? 1 : 0;
+            right += x > w ? 1 : 0;
+            bottom += y < -w ? 1 : 0;
+            top += y > w ? 1 : 0;
+            far += z > w ? 1 : 0;
+
+            var invW = 1.0F / w;
+            var ndcX = x * invW;
+            var ndcY = y * invW;
+            if (Math.abs(ndcX) > GUARD_BAND || Math.abs(ndcY) > GUARD_BAND) {
+                return false;
+            }
+
+            triangles[offset + v * 3] = (ndcX * 0.5F + 0.5F) * width;
+            triangles[offset + v * 3 + 1] = (ndcY * 0.5F + 0.5F) * height;
+            triangles[offset + v * 3 + 2] = z * invW * 0.5F + 0.5F;
+        }
+
+        return left < 3 && right < 3 && bottom < 3 && top < 3 && far < 3;
+    }
+
+    /**
+     * Adds the screen-space triangle at the given index to the bins of the tiles
+     * whose pixel centers it may cover.
+     */
+    private void bin(int triangle) {
+        var offset = triangle * TRIANGLE_STRIDE;
+        var minX = Math.min(triangles[offset], Math.min(triangles[offset + 3], triangles[offset + 6]));
+        var maxX = Math.max(triangles[offset], Math.max(triangles[offset + 3], triangles[offset + 6]));
+        var minY = Math.min(triangles[offset + 1], Math.min(triangles[offset + 4], triangles[offset + 7]));
+        var maxY = Math.max(triangles[offset + 1], Math.max(triangles[offset + 4], triangles[offset + 7]));
+
+        var x0 = Math.max(0, (int) Math.ceil(minX - 0.5F)) / TILE_SIZE;
+        var x1 = Math.min(width - 1, (int) Math.floor(maxX - 0.5F));
+        var y0 = Math.max(0, (int) Math.ceil(minY - 0.5F)) / TILE_SIZE;
+        var y1 = Math.min(height - 1, (int) Math.floor(maxY - 0.5F));
+        if (x1 < 0 || y1 < 0) {
+            return;
+        }
+
+        for (int ty = y0; ty <= y1 / TILE_SIZE; ty++) {
+            for (int tx = x0; tx <= x1 / TILE_SIZE; tx++) {
+                var tile = ty * tileColumns + tx;
+                var count = binCounts[tile];
+                if (count == bins[tile].length) {
+                    bins[tile] = Arrays.copyOf(bins[tile], count * 2);
+                }
+                bins[tile][count] = triangle;
+                binCounts[tile] = count + 1;
+            }
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (count * TRIANGLE_STRIDE > triangles.length) {
+            triangles = Arrays.copyOf(triangles, Math.max(triangles.length * 2, count * TRIANGLE_STRIDE));
+        }
+    }
+
+    /**
+     * Rasterizes the occluders added since {@link #begin(ReadableMatrix4f)} and
+     * builds the hierarchical-Z pyramid, so that the <code>OcclusionBuffer</code>
+     * can be queried.
+     */
+    public void end() {
+        var tileCount = tileColumns * tileRows;
+        if (parallel && triangleCount > 0) {
+            IntStream.range(0, tileCount).parallel().forEach(this::rasterizeTile);
+        } else {
+            for (int i = 0; i < tileCount; i++) {
+                rasterizeTile(i);
+            }
+        }
+
+        // The upper levels are small enough to be reduced on a single thread.
+        for (int i = 1; i < levels.length; i++) {
+            reduce(i);
+        }
+
+        this.rasterized = true;
+    }
+
+    /**
+     * Rasterizes the triangles binned into the given tile, and computes the cells of
+     * the first pyramid level it contains.
+     */
+    private void rasterizeTile(int tile) {
+        var tileX = (tile % tileColumns) * TILE_SIZE;
+        var tileY = (tile / tileColumns) * TILE_SIZE;
+        for (int y = tileY; y < tileY + TILE_SIZE; y++) {
+            Arrays.fill(depth, y * width + tileX, y * width + tileX + TILE_SIZE, 1.0F);
+        }
+
+        var bin = bins[tile];
+        for (int i = 0; i < binCounts[tile]; i++) {
+            rasterizeTriangle(bin[i] * TRIANGLE_STRIDE, tileX, tileY);
+        }
+
+        var level = levels[0];
+        var levelWidth = levelWidths[0];
+        for (int by = tileY; by < tileY + TILE_SIZE; by += BLOCK_SIZE) {
+            for (int bx = tileX; bx < tileX + TILE_SIZE; bx += BLOCK_SIZE) {
+                var max = 0.0F;
+                for (int y = by; y < by + BLOCK_SIZE; y++) {
+                    for (int x = y * width + bx, end = x + BLOCK_SIZE; x < end; x++) {
+                        max = Math.max(max, depth[x]);
+                    }
+                }
+                level[(by / BLOCK_SIZE) * levelWidth + bx / BLOCK_SIZE] = max;
+            }
+        }
+    }
+
+    private void rasterizeTriangle(int offset, int tileX, int tileY) {
+        var x0 = triangles[offset];
+        var y0 = triangles[offset + 1];
+        var z0 = triangles[offset + 2];
+        var x1 = triangles[offset + 3];
+        var y1 = triangles[offset + 4];
+        var z1 = triangles[offset + 5];
+        var x2 = triangles[offset + 6];
+        var y2 = triangles[offset + 7];
+        var z2 = triangles[offset + 8];
+
+        var area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        if (area == 0.0F) {
+            return;
+        }
+        // Both faces are rasterized, so make the edge functions positive inside.
+        var sign = area > 0.0F ? 1.0F : -1.0F;
+        var invArea = 1.0F / (area * sign);
+
+        // Edge functions e = a * x + b * y + c, the edge opposite to each vertex being its barycentric weight.
+        var a0 = (y1 - y2) * sign;
+        var b0 = (x2 - x1) * sign;
+        var c0 = -a0 * x1 - b0 * y1;
+        var a1 = (y2 - y0) * sign;
+        var b1 = (x0 - x2) * sign;
+        var c1 = -a1 * x2 - b1 * y2;
+        var a2 = (y0 - y1) * sign;
+        var b2 = (x1 - x0) * sign;
+        var c2 = -a2 * x0 - b2 * y0;
+
+        // The depth is linear in screen-space.
+        var za = (a0 * z0 + a1 * z1 + a2 * z2) * invArea;
+        var zb = (b0 * z0 + b1 * z1 + b2 * z2) * invArea;
+        var zc = (c0 * z0 + c1 * z1 + c2 * z2) * invArea;
+
+        var minX = Math.max(tileX, (int) Math.ceil(Math.min(x0, Math.min(x1, x2)) - 0.5F));
+        var maxX = Math.min(tileX + TILE_SIZE - 1, (int) Math.floor(Math.max(x0, Math.max(x1, x2)) - 0.5F));
+        var minY = Math.max(tileY, (int) Math.ceil(Math.min(y0, Math.min(y1, y2)) - 0.5F));
+        var maxY = Math.min(tileY + TILE_SIZE - 1, (int) Math.floor(Math.max(y0, Math.max(y1, y2)) - 0.5F));
+
+        for (int y = minY; y <= maxY; y++) {
+            var py = y + 0.5F;
+            var row0 = b0 * py + c0;
+            var row1 = b1 * py + c1;
+            var row2 = b2 * py + c2;
+            var rowZ = zb * py + zc;
+            var index = y * width;
+            for (int x = minX; x <= maxX; x++) {
+                var px = x + 0.5F;
+                var e0 = a0 * px + row0;
+                var e1 = a1 * px + row1;
+                var e2 = a2 * px + row2;
+                var z = za * px + rowZ;
+                if (e0 >= 0.0F && e1 >= 0.0F && e2 >= 0.0F && z < depth[index + x]) {
+                    depth[index + x] = z;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the given level of the pyramid from the previous one.
+     */
+    private void reduce(int level) {
+        var source = levels[level - 1];
+        var sourceWidth = levelWidths[level - 1];
+        var sourceHeight = levelHeights[level - 1];
+        var target = levels[level];
+        var targetWidth = levelWidths[level];
+        for (int y = 0; y < levelHeights[level]; y++) {
+            var sy0 = y * 2;
+            var sy1 = Math.min(sy0 + 1, sourceHeight - 1);
+            for (int x = 0; x < targetWidth; x++) {
+                var sx0 = x * 2;
+                var sx1 = Math.min(sx0 + 1, sourceWidth - 1);
+                target[y * targetWidth + x] = Math.max(
+                        Math.max(source[sy0 * sourceWidth + sx0], source[sy0 * sourceWidth + sx1]),
+                        Math.max(source[sy1 * sourceWidth + sx0], source[sy1 * sourceWidth + sx1]));
+            }
+        }
+    }
+
+    /**
+     * Return whether the provided {@link BoundingBox} in world space is entirely
+     * hidden behind the rasterized occluders. A box which isn't in front of the
+     * camera or outside the buffer is never considered occluded.
+     *
+     * @param box The box to test (not null).
+     * @return    Whether the box is occluded.
+     */
+    public boolean isOccluded(BoundingBox box) {
+        Validator.nonNull(box, "The box to test can't be null!");
+        if (!rasterized || triangleCount == 0 || box.isEmpty() || box.isInfinite()) {
+            return false;
+        }
+
+        var center = box.getCenter();
+        var extents = box.getExtents();
+        var m = viewProjection;
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < 8; i++) {
+            var px = center.x() + ((i & 1) == 0 ? -extents.x() : extents.x());
+            var py = center.y() + ((i & 2) == 0 ? -extents.y() : extents.y());
+            var pz = center.z() + ((i & 4) == 0 ? -extents.z() : extents.z());
+            var x = px * m.m00() + py * m.m10() + pz * m.m20() + m.m30();
+            var y = px * m.m01() + py * m.m11() + pz * m.m21() + m.m31();
+            var z = px * m.m02() + py * m.m12() + pz * m.m22() + m.m32();
+            var w = px * m.m03() + py * m.m13() + pz * m.m23() + m.m33();
+            // The box is crossing the near plane, it can't be safely projected.
+            if (w < NEAR_W || z < -w) {
+                return false;
+            }
+
+            var invW = 1.0F / w;
+            var sx = (x * invW * 0.5F + 0.5F) * width;
+            var sy = (y * invW * 0.5F + 0.5F) * height;
+            minX = Math.min(minX, sx);
+            maxX = Math.max(maxX, sx);
+            minY = Math.min(minY, sy);
+            maxY = Math.max(maxY, sy);
+            minZ = Math.min(minZ, z * invW * 0.5F + 0.5F);
+        }
+
+        return isOccluded(minX, minY, maxX, maxY, minZ);
+    }
+
+    /**
+     * Return whether the provided screen-space rectangle at the given depth is
+     * entirely hidden behind the rasterized occluders, by testing the cells of the
+     * hierarchical-Z pyramid it overlaps. A rectangle outside the buffer is never
+     * considered occluded.
+     *
+     * @param minX     The minimum X coordinate of the rectangle in pixels.
+     * @param minY     The minimum Y coordinate of the rectangle in pixels.
+     * @param maxX     The maximum X coordinate of the rectangle in pixels.
+     * @param maxY     The maximum Y coordinate of the rectangle in pixels.
+     * @param minDepth The nearest depth of the tested volume, in [0, 1].
+     * @return         Whether the rectangle is occluded.
+     */
+    public boolean isOccluded(float minX, float minY, float maxX, float maxY, float minDepth) {
+        if (!rasterized) {
+            return false;
+        }
+
+        var x0 = Math.max(0, (int) Math.floor(minX));
+        var y0 = Math.max(0, (int) Math.floor(minY));
+        var x1 = Math.min(width - 1, (int) Math.floor(maxX));
+        var y1 = Math.min(height - 1, (int) Math.floor(maxY));
+        if (x0 > x1 || y0 > y1) {
+            return false;
+        }
+
+        // Climb the pyramid until only a few cells cover the rectangle.
+        var level = 0;
+        x0 /= BLOCK_SIZE;
+        y0 /= BLOCK_SIZE;
+        x1 /= BLOCK_SIZE;
+        y1 /= BLOCK_SIZE;
+        while (level < levels.length - 1 && (x1 - x0 >= MAX_CELLS || y1 - y0 >= MAX_CELLS)) {
+            level++;
+            x0 >>= 1;
+            y0 >>= 1;
+            x1 >>= 1;
+            y1 >>= 1;
+        }
+
+        var cells = levels[level];
+        var levelWidth = levelWidths[level];
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (cells[y * levelWidth + x] + DEPTH_BIAS >= minDepth) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the nearest depth rasterized at the given pixel of the
+     * <code>OcclusionBuffer</code>.
+     *
+     * @param x The X coordinate of the pixel (&ge;0, &lt;width).
+     * @param y The Y coordinate of the pixel (&ge;0, &lt;height).
+     * @return  The depth of the pixel in [0, 1], 1 if no occluder covers it.
+     */
+    public float getDepth(int x, int y) {
+        Validator.inRange(x, "The X coordinate is out of the buffer!", 0, width - 1);
+        Validator.inRange(y, "The Y coordinate is out of the buffer!", 0, height - 1);
+        return depth[y * width + x];
+    }
+
+    /**
+     * Return the number of triangles rasterized into the <code>OcclusionBuffer</code>
+     * during the current frame, after rejecting the ones outside the frustum.
+     *
+     * @return The number of rasterized triangles (&ge;0).
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Return the width of the <code>OcclusionBuffer</code>.
+     *
+     * @return The width in pixels, multiple of {@value #TILE_SIZE} (&gt;0).
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Return the height of the <code>OcclusionBuffer</code>.
+     *
+     * @return The height in pixels, multiple of {@value #TILE_SIZE} (&gt;0).
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Return whether the tiles of the <code>OcclusionBuffer</code> are rasterized in
+     * parallel.
+     *
+     * @return Whether the buffer uses parallel rasterization (default&rarr;true).
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether the tiles of the <code>OcclusionBuffer</code> should be
+     * rasterized in parallel.
+     *
+     * @param parallel Whether the buffer uses parallel rasterization (default&rarr;true).
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[width= " + width + ", height= " + height + ", triangles= "
+                + triangleCount + "]";
+    }
+}
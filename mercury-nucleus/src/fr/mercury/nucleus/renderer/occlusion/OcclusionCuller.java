@@ -0,0 +1,223 @@
+package fr.mercury.nucleus.renderer.occlusion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.queue.RenderBucket;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+
+/**
+ * <code>OcclusionCuller</code> skips the parts of the scene hidden behind a set of designated occluders, before
+ * they are submitted to a {@link RenderBucket}.
+ * <p>
+ * Each frame, the occluders inside the {@link Camera} frustum are rasterized into an {@link OcclusionBuffer}, then
+ * the world bounds of the visited <code>AnimaMundi</code> are tested against it. The occluders should be large and
+ * made of a few triangles, like walls or terrain, and can be rasterized with a simplified {@link Mesh} instead of
+ * the rendered one. Their triangles are read when they are added, so an occluder must be added again if its mesh
+ * is modified.
+ * <p>
+ * The occluders must be part of the culled scene, since their world transform is used once the geometric state of
+ * the scene has been updated.
+ *
+ * @author GnosticOccultist
+ */
+public final class OcclusionCuller {
+
+    /**
+     * The default width of the occlusion buffer in pixels.
+     */
+    public static final int DEFAULT_WIDTH = 256;
+    /**
+     * The default height of the occlusion buffer in pixels.
+     */
+    public static final int DEFAULT_HEIGHT = 128;
+
+    /**
+     * The buffer into which the occluders are rasterized.
+     */
+    private final OcclusionBuffer buffer;
+    /**
+     * The anima-mundis whose world transform is used by each occluder.
+     */
+    private final List<AnimaMundi> occluders = new ArrayList<>();
+    /**
+     * The vertices of the triangles of each occluder in model space.
+     */
+    private final List<float[]> vertices = new ArrayList<>();
+    /**
+     * The model matrix of the occluder being rasterized.
+     */
+    private final Matrix4f modelMatrix = new Matrix4f();
+    /**
+     * The number of tests performed since the last update, counted by every thread
+     * testing the scene.
+     */
+    private final LongAdder testCount = new LongAdder();
+    /**
+     * The number of occluded tests since the last update, counted by every thread
+     * testing the scene.
+     */
+    private final LongAdder occludedCount = new LongAdder();
+
+    /**
+     * Instantiates a new <code>OcclusionCuller</code> with an
+     * {@link OcclusionBuffer} of the default size.
+     */
+    public OcclusionCuller() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Instantiates a new <code>OcclusionCuller</code> with an
+     * {@link OcclusionBuffer} of the given size.
+     *
+     * @param width  The width of the occlusion buffer in pixels (&gt;0).
+     * @param height The height of the occlusion buffer in pixels (&gt;0).
+     */
+    public OcclusionCuller(int width, int height) {
+        this.buffer = new OcclusionBuffer(width, height);
+    }
+
+    /**
+     * Adds the provided {@link PhysicaMundi} as an occluder, rasterized with its own
+     * {@link Mesh}.
+     *
+     * @param physica The physica-mundi to add as an occluder (not null).
+     */
+    public void addOccluder(PhysicaMundi physica) {
+        Validator.nonNull(physica, "The occluder can't be null!");
+        addOccluder(physica, physica.getMesh());
+    }
+
+    /**
+     * Adds an occluder rasterized with the provided {@link Mesh}, placed with the
+     * world transform of the given {@link AnimaMundi}. If the anima-mundi is
+     * already an occluder, its mesh is replaced.
+     *
+     * @param anima The anima-mundi providing the world transform (not null).
+     * @param mesh  The mesh to rasterize, usually a simplified version of the rendered one (not null).
+     */
+    public void addOccluder(AnimaMundi anima, Mesh mesh) {
+        Validator.nonNull(anima, "The occluder can't be null!");
+        Validator.nonNull(mesh, "The mesh of the occluder can't be null!");
+
+        var triangles = mesh.getTriangleVertices();
+        var index = occluders.indexOf(anima);
+        if (index >= 0) {
+            vertices.set(index, triangles);
+        } else {
+            occluders.add(anima);
+            vertices.add(triangles);
+        }
+    }
+
+    /**
+     * Removes the provided {@link AnimaMundi} from the occluders.
+     *
+     * @param anima The anima-mundi to remove (not null).
+     * @return      Whether the anima-mundi was an occluder.
+     */
+    public boolean removeOccluder(AnimaMundi anima) {
+        Validator.nonNull(anima, "The occluder can't be null!");
+        var index = occluders.indexOf(anima);
+        if (index < 0) {
+            return false;
+        }
+
+        occluders.remove(index);
+        vertices.remove(index);
+        return true;
+    }
+
+    /**
+     * Rasterizes the occluders seen by the provided {@link Camera} into the
+     * {@link OcclusionBuffer}. It must be invoked once the geometric state of the
+     * scene and the camera have been updated, before testing the scene.
+     *
+     * @param camera The camera used to cull the scene (not null).
+     */
+    public void update(Camera camera) {
+        Validator.nonNull(camera, "The camera can't be null!");
+        testCount.reset();
+        occludedCount.reset();
+
+        var frustum = camera.getFrustum();
+        buffer.begin(camera.getViewProjectionMatrix());
+        for (int i = 0; i < occluders.size(); i++) {
+            var occluder = occluders.get(i);
+            if (frustum.intersects(occluder.getWorldBoundingBox(), Frustum.ALL_PLANES) == Frustum.OUTSIDE) {
+                continue;
+            }
+
+            occluder.getWorldTransform().asModelMatrix(modelMatrix);
+            buffer.addOccluder(vertices.get(i), modelMatrix);
+        }
+        buffer.end();
+    }
+
+    /**
+     * Return whether the world bounds of the provided {@link AnimaMundi} are
+     * entirely hidden behind the occluders, meaning its whole subtree can be
+     * skipped. Once updated, the culler can be tested from several threads.
+     *
+     * @param anima The anima-mundi to test (not null).
+     * @return      Whether the anima-mundi is occluded.
+     */
+    public boolean isOccluded(AnimaMundi anima) {
+        Validator.nonNull(anima, "The anima-mundi to test can't be null!");
+        testCount.increment();
+        var occluded = buffer.isOccluded(anima.getWorldBoundingBox());
+        if (occluded) {
+            occludedCount.increment();
+        }
+        return occluded;
+    }
+
+    /**
+     * Return the number of anima-mundis tested since the last update.
+     *
+     * @return The number of tests (&ge;0).
+     */
+    public int getTestCount() {
+        return testCount.intValue();
+    }
+
+    /**
+     * Return the number of anima-mundis found occluded since the last update.
+     *
+     * @return The number of occluded tests (&ge;0).
+     */
+    public int getOccludedCount() {
+        return occludedCount.intValue();
+    }
+
+    /**
+     * Return the number of occluders of the <code>OcclusionCuller</code>.
+     *
+     * @return The number of occluders (&ge;0).
+     */
+    public int getOccluderCount() {
+        return occluders.size();
+    }
+
+    /**
+     * Return the {@link OcclusionBuffer} into which the occluders are rasterized.
+     *
+     * @return The occlusion buffer (not null).
+     */
+    public OcclusionBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[occluders= " + occluders.size() + ", buffer= " + buffer + "]";
+    }
+}
@@ -28,12 +28,6 @@ import fr.mercury.nucleus.utils.OpenGLCall;
  */
 public abstract class GLBuffer extends GLObject {
 
-    /**
-     * The array of currently bound GL buffers to the context, normally one for each
-     * buffer type.
-     */
-    private static final GLBuffer[] CURRENTS = new GLBuffer[BufferType.values().length];
-
     /**
      * The usage of the buffer.
      */
@@ -50,6 +44,10 @@ public abstract class GLBuffer extends GLObject {
      * Whether the buffer needs to be updated through OpenGL.
      */
     protected boolean needsUpdate = true;
+    /**
+     * The size in bytes of the data store allocated on the GPU.
+     */
+    protected int allocatedSize = 0;
 
     /**
      * Determines if the provided ID correspond to an OpenGL <code>GLBuffer</code>.
@@ -77,28 +75,23 @@ public abstract class GLBuffer extends GLObject {
     public static void unbind(BufferType type) {
         Validator.nonNull(type, "The buffer type can't be null!");
 
-        GL15.glBindBuffer(GLBuffer.getOpenGLType(type), 0);
-        CURRENTS[type.ordinal()] = null;
+        GLStateTracker.bindBuffer(type, 0);
     }
 
     /**
      * Binds the <code>GLBuffer</code> to the OpenGL context, allowing it to be used
      * or updated.
      * <p>
-     * Note that there is only one bound buffer per {@link BufferType}.
+     * Note that there is only one bound buffer per {@link BufferType}, and the call
+     * is skipped by the {@link GLStateTracker} if it is already bound.
      */
     @OpenGLCall
     public void bind() {
-        if (CURRENTS[getType().ordinal()] == this) {
-            return;
-        }
-
         if (getID() == INVALID_ID) {
             throw new GLException("The " + getClass().getSimpleName() + " isn't created yet!");
         }
 
-        GL15.glBindBuffer(getOpenGLType(), getID());
-        CURRENTS[getType().ordinal()] = this;
+        GLStateTracker.bindBuffer(getType(), getID());
     }
 
     /**
@@ -106,6 +99,9 @@ public abstract class GLBuffer extends GLObject {
      * context. This method should be called internally in {@link #upload()} to
      * update the stored data, for each implementation of this class.
      * <p>
+     * The data store is only re-allocated when the buffer is new or when the data
+     * no longer fits in it, otherwise its content is simply replaced.
+     * <p>
      * Note that the stored data cannot be null.
      */
     @OpenGLCall
@@ -119,9 +115,10 @@ public abstract class GLBuffer extends GLObject {
         // Rewind the buffer to prepare for reading.
         this.data.rewind();
 
-        if (newVBO) {
-            var byteSize = data.capacity() * format.getSizeInByte();
+        var byteSize = data.capacity() * format.getSizeInByte();
+        if (newVBO || byteSize > allocatedSize) {
             GL15C.glBufferData(getOpenGLType(), byteSize, getOpenGLUsage());
+            this.allocatedSize = byteSize;
         }
 
         if (data instanceof FloatBuffer) {
@@ -175,6 +172,7 @@ public abstract class GLBuffer extends GLObject {
     @Override
     protected void restart() {
         this.needsUpdate = true;
+        this.allocatedSize = 0;
 
         super.restart();
     }
@@ -333,7 +331,7 @@ public abstract class GLBuffer extends GLObject {
      * 
      * @return The usage of the buffer.
      */
-    protected Usage getUsage() {
+    public Usage getUsage() {
         return usage;
     }
 
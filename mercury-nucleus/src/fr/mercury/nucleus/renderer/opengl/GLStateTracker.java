@@ -0,0 +1,512 @@
+package fr.mercury.nucleus.renderer.opengl;
+
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL13C;
+import org.lwjgl.opengl.GL15C;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.opengl.GL30C;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.BufferType;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexArray;
+import fr.mercury.nucleus.texture.Texture;
+import fr.mercury.nucleus.utils.OpenGLCall;
+
+/**
+ * <code>GLStateTracker</code> mirrors the part of the <code>OpenGL</code> state changed by the engine, in order to
+ * skip the calls which wouldn't change it. It keeps track of the enabled {@link Capability}, the culled face, the
+ * polygon modes, the depth and blend functions, the used {@link ShaderProgram}, the bound {@link VertexArray}, the
+ * bound {@link GLBuffer} for each {@link BufferType} and the bound {@link Texture} for each texture unit.
+ * <p>
+ * The tracked state is unknown until it has been set once, so the first call is always issued. The state must be
+ * {@link #invalidate() invalidated} if it is changed without the tracker, for example by another library or when
+ * another context is made current. The number of issued and skipped calls is counted to measure the savings.
+ * <p>
+ * Like the rest of the <code>OpenGL</code> calls, the tracker must only be accessed from the rendering thread.
+ *
+ * @author GnosticOccultist
+ */
+public final class GLStateTracker {
+
+    /**
+     * The value of a tracked state which hasn't been set yet.
+     */
+    private static final int UNKNOWN = -1;
+    /**
+     * The number of texture units whose bound texture is tracked, the others are
+     * always bound.
+     */
+    public static final int MAX_TEXTURE_UNITS = 32;
+
+    /**
+     * The state of each capability, 1 if enabled and 0 if disabled.
+     */
+    private static final int[] capabilities = new int[Capability.values().length];
+    /**
+     * The culled face.
+     */
+    private static int cullFace;
+    /**
+     * The winding order of the front faces.
+     */
+    private static int frontFace;
+    /**
+     * The polygon mode of the front faces.
+     */
+    private static int frontPolygonMode;
+    /**
+     * The polygon mode of the back faces.
+     */
+    private static int backPolygonMode;
+    /**
+     * The depth comparison function.
+     */
+    private static int depthFunction;
+    /**
+     * Whether the depth buffer is writable, 1 if it is and 0 otherwise.
+     */
+    private static int depthMask;
+    /**
+     * The blending factor of the source color.
+     */
+    private static int blendSource;
+    /**
+     * The blending factor of the destination color.
+     */
+    private static int blendDestination;
+    /**
+     * The identifier of the used program.
+     */
+    private static int program;
+    /**
+     * The identifier of the bound vertex array.
+     */
+    private static int vertexArray;
+    /**
+     * The identifier of the bound buffer for each type.
+     */
+    private static final int[] buffers = new int[BufferType.values().length];
+    /**
+     * The active texture unit.
+     */
+    private static int activeTextureUnit;
+    /**
+     * The identifier of the last texture bound to each unit.
+     */
+    private static final int[] textures = new int[MAX_TEXTURE_UNITS];
+    /**
+     * The number of calls issued to the context.
+     */
+    private static long issuedCalls = 0;
+    /**
+     * The number of redundant calls which have been skipped.
+     */
+    private static long skippedCalls = 0;
+
+    static {
+        invalidate();
+    }
+
+    /**
+     * Private constructor to inhibit instantiation of <code>GLStateTracker</code>.
+     */
+    private GLStateTracker() {}
+
+    /**
+     * Forgets the whole tracked state, so that the next call of each kind is
+     * issued. It must be called when the state has been changed without the
+     * <code>GLStateTracker</code>.
+     */
+    public static void invalidate() {
+        Arrays.fill(capabilities, UNKNOWN);
+        cullFace = UNKNOWN;
+        frontFace = UNKNOWN;
+        frontPolygonMode = UNKNOWN;
+        backPolygonMode = UNKNOWN;
+        depthFunction = UNKNOWN;
+        depthMask = UNKNOWN;
+        blendSource = UNKNOWN;
+        blendDestination = UNKNOWN;
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        Arrays.fill(buffers, UNKNOWN);
+        activeTextureUnit = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+    }
+
+    /**
+     * Enables or disables the provided {@link Capability}, unless it is already
+     * in the requested state.
+     *
+     * @param capability The capability to enable or disable (not null).
+     * @param enabled    Whether to enable the capability.
+     */
+    @OpenGLCall
+    public static void setEnabled(Capability capability, boolean enabled) {
+        Validator.nonNull(capability, "The capability can't be null!");
+        var value = enabled ? 1 : 0;
+        if (skip(capabilities[capability.ordinal()] == value)) {
+            return;
+        }
+
+        if (enabled) {
+            GL11C.glEnable(capability.getOpenGLType());
+        } else {
+            GL11C.glDisable(capability.getOpenGLType());
+        }
+        capabilities[capability.ordinal()] = value;
+    }
+
+    /**
+     * Sets the face to cull, unless it is already culled.
+     *
+     * @param face The <code>OpenGL</code> face to cull.
+     */
+    @OpenGLCall
+    public static void cullFace(int face) {
+        if (skip(cullFace == face)) {
+            return;
+        }
+
+        GL11C.glCullFace(face);
+        cullFace = face;
+    }
+
+    /**
+     * Sets the winding order of the front faces, unless it is already used.
+     *
+     * @param mode The <code>OpenGL</code> winding order of the front faces.
+     */
+    @OpenGLCall
+    public static void frontFace(int mode) {
+        if (skip(frontFace == mode)) {
+            return;
+        }
+
+        GL11C.glFrontFace(mode);
+        frontFace = mode;
+    }
+
+    /**
+     * Sets the polygon mode of the provided faces, unless they already use it.
+     *
+     * @param face The <code>OpenGL</code> faces to set the mode of, either front,
+     *             back or both.
+     * @param mode The <code>OpenGL</code> polygon mode to use.
+     */
+    @OpenGLCall
+    public static void polygonMode(int face, int mode) {
+        var front = face != GL11C.GL_BACK;
+        var back = face != GL11C.GL_FRONT;
+        if (skip((!front || frontPolygonMode == mode) && (!back || backPolygonMode == mode))) {
+            return;
+        }
+
+        GL11C.glPolygonMode(face, mode);
+        if (front) {
+            frontPolygonMode = mode;
+        }
+        if (back) {
+            backPolygonMode = mode;
+        }
+    }
+
+    /**
+     * Sets the depth comparison function, unless it is already used.
+     *
+     * @param function The <code>OpenGL</code> depth function.
+     */
+    @OpenGLCall
+    public static void depthFunc(int function) {
+        if (skip(depthFunction == function)) {
+            return;
+        }
+
+        GL11C.glDepthFunc(function);
+        depthFunction = function;
+    }
+
+    /**
+     * Sets whether the depth buffer is writable, unless it already is.
+     *
+     * @param writable Whether to write into the depth buffer.
+     */
+    @OpenGLCall
+    public static void depthMask(boolean writable) {
+        var value = writable ? 1 : 0;
+        if (skip(depthMask == value)) {
+            return;
+        }
+
+        GL11C.glDepthMask(writable);
+        depthMask = value;
+    }
+
+    /**
+     * Sets the blending factors, unless they are already used.
+     *
+     * @param source      The <code>OpenGL</code> blending factor of the source color.
+     * @param destination The <code>OpenGL</code> blending factor of the destination
+     *                    color.
+     */
+    @OpenGLCall
+    public static void blendFunc(int source, int destination) {
+        if (skip(blendSource == source && blendDestination == destination)) {
+            return;
+        }
+
+        GL11C.glBlendFunc(source, destination);
+        blendSource = source;
+        blendDestination = destination;
+    }
+
+    /**
+     * Installs the program with the provided identifier, unless it is already
+     * used.
+     *
+     * @param id The identifier of the program to use (&ge;0).
+     */
+    @OpenGLCall
+    public static void useProgram(int id) {
+        if (skip(program == id)) {
+            return;
+        }
+
+        GL20C.glUseProgram(id);
+        program = id;
+    }
+
+    /**
+     * Binds the vertex array with the provided identifier, unless it is already
+     * bound. Since the bound index buffer is part of the vertex array, it is
+     * forgotten when another one is bound.
+     *
+     * @param id The identifier of the vertex array to bind, or 0 to unbind it
+     *           (&ge;0).
+     */
+    @OpenGLCall
+    public static void bindVertexArray(int id) {
+        if (skip(vertexArray == id)) {
+            return;
+        }
+
+        GL30C.glBindVertexArray(id);
+        vertexArray = id;
+        buffers[BufferType.VERTEX_INDEXING.ordinal()] = UNKNOWN;
+    }
+
+    /**
+     * Binds the buffer with the provided identifier to the target of the
+     * {@link BufferType}, unless it is already bound.
+     *
+     * @param type The type of buffer to bind (not null).
+     * @param id   The identifier of the buffer to bind, or 0 to unbind it (&ge;0).
+     */
+    @OpenGLCall
+    public static void bindBuffer(BufferType type, int id) {
+        Validator.nonNull(type, "The buffer type can't be null!");
+        if (skip(buffers[type.ordinal()] == id)) {
+            return;
+        }
+
+        GL15C.glBindBuffer(GLBuffer.getOpenGLType(type), id);
+        buffers[type.ordinal()] = id;
+    }
+
+    /**
+     * Binds the texture with the provided identifier to the given target of the
+     * active texture unit, unless it is already bound.
+     *
+     * @param target The <code>OpenGL</code> target of the texture.
+     * @param id     The identifier of the texture to bind, or 0 to unbind it (&ge;0).
+     */
+    @OpenGLCall
+    public static void bindTexture(int target, int id) {
+        var tracked = activeTextureUnit >= 0 && activeTextureUnit < MAX_TEXTURE_UNITS;
+        if (skip(tracked && textures[activeTextureUnit] == id)) {
+            return;
+        }
+
+        GL11C.glBindTexture(target, id);
+        if (tracked) {
+            textures[activeTextureUnit] = id;
+        }
+    }
+
+    /**
+     * Binds the texture with the provided identifier to the given target of the
+     * texture unit, unless it is already bound. The unit is activated if needed.
+     *
+     * @param unit   The texture unit to bind the texture to (&ge;0).
+     * @param target The <code>OpenGL</code> target of the texture.
+     * @param id     The identifier of the texture to bind, or 0 to unbind it (&ge;0).
+     */
+    @OpenGLCall
+    public static void bindTexture(int unit, int target, int id) {
+        Validator.nonNegative(unit, "The texture unit can't be negative!");
+        if (unit < MAX_TEXTURE_UNITS && textures[unit] == id) {
+            // The texture is still bound to the unit, no matter which one is active.
+            skippedCalls++;
+            return;
+        }
+
+        activeTexture(unit);
+        bindTexture(target, id);
+    }
+
+    /**
+     * Activates the provided texture unit, unless it is already active.
+     *
+     * @param unit The texture unit to activate (&ge;0).
+     */
+    @OpenGLCall
+    public static void activeTexture(int unit) {
+        if (skip(activeTextureUnit == unit)) {
+            return;
+        }
+
+        GL13C.glActiveTexture(GL13C.GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+    }
+
+    /**
+     * Forgets the program with the provided identifier, which is about to be
+     * deleted.
+     *
+     * @param id The identifier of the deleted program.
+     */
+    public static void forgetProgram(int id) {
+        if (program == id) {
+            program = UNKNOWN;
+        }
+    }
+
+    /**
+     * Forgets the vertex array with the provided identifier, which is about to be
+     * deleted.
+     *
+     * @param id The identifier of the deleted vertex array.
+     */
+    public static void forgetVertexArray(int id) {
+        if (vertexArray == id) {
+            vertexArray = UNKNOWN;
+            buffers[BufferType.VERTEX_INDEXING.ordinal()] = UNKNOWN;
+        }
+    }
+
+    /**
+     * Forgets the buffer with the provided identifier, which is about to be
+     * deleted, so that a new buffer reusing its identifier is bound again.
+     *
+     * @param id The identifier of the deleted buffer.
+     */
+    public static void forgetBuffer(int id) {
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == id) {
+                buffers[i] = UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Forgets the texture with the provided identifier, which is about to be
+     * deleted, so that a new texture reusing its identifier is bound again.
+     *
+     * @param id The identifier of the deleted texture.
+     */
+    public static void forgetTexture(int id) {
+        for (int i = 0; i < textures.length; i++) {
+            if (textures[i] == id) {
+                textures[i] = UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Return the number of calls issued to the <code>OpenGL</code> context through
+     * the <code>GLStateTracker</code> since the last reset of the counters.
+     *
+     * @return The number of issued calls (&ge;0).
+     */
+    public static long getIssuedCalls() {
+        return issuedCalls;
+    }
+
+    /**
+     * Return the number of redundant calls skipped by the
+     * <code>GLStateTracker</code> since the last reset of the counters.
+     *
+     * @return The number of skipped calls (&ge;0).
+     */
+    public static long getSkippedCalls() {
+        return skippedCalls;
+    }
+
+    /**
+     * Resets the counters of issued and skipped calls, for example at the start of
+     * a frame.
+     */
+    public static void resetCounters() {
+        issuedCalls = 0;
+        skippedCalls = 0;
+    }
+
+    /**
+     * Counts a call as skipped if the tracked state already matches it, or as
+     * issued otherwise, and return whether to skip it.
+     */
+    private static boolean skip(boolean redundant) {
+        if (redundant) {
+            skippedCalls++;
+        } else {
+            issuedCalls++;
+        }
+        return redundant;
+    }
+
+    /**
+     * <code>Capability</code> enumerates the <code>OpenGL</code> capabilities whose
+     * state is tracked by the <code>GLStateTracker</code>.
+     *
+     * @author GnosticOccultist
+     */
+    public enum Capability {
+        /**
+         * The culling of the polygons depending on their winding.
+         */
+        CULL_FACE(GL11C.GL_CULL_FACE),
+        /**
+         * The comparison with the depth buffer.
+         */
+        DEPTH_TEST(GL11C.GL_DEPTH_TEST),
+        /**
+         * The blending of the computed colors with the ones in the color buffers.
+         */
+        BLEND(GL11C.GL_BLEND),
+        /**
+         * The discarding of the fragments outside the scissor box.
+         */
+        SCISSOR_TEST(GL11C.GL_SCISSOR_TEST);
+
+        /**
+         * The OpenGL equivalent of the capability.
+         */
+        private final int openGLType;
+
+        private Capability(int openGLType) {
+            this.openGLType = openGLType;
+        }
+
+        /**
+         * Return the <code>OpenGL</code> equivalent of the <code>Capability</code>.
+         *
+         * @return The OpenGL capability.
+         */
+        public int getOpenGLType() {
+            return openGLType;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
 import fr.mercury.nucleus.renderer.opengl.GLObject;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
 import fr.mercury.nucleus.renderer.opengl.shader.uniform.UniformField;
@@ -123,25 +124,23 @@ public final class ShaderProgram extends GLObject {
 
     /**
      * Install this <code>ShaderProgram</code> as part of the current rendering
-     * state of <code>OpenGL</code>. It keeps track of the bounded program, to
-     * prevent useless call of this function.
+     * state of <code>OpenGL</code>. The {@link GLStateTracker} keeps track of the
+     * bounded program, to prevent useless call of this function.
      * 
      * @throws GLException Thrown if the program isn't yet created.
      */
     @OpenGLCall
     public void use() {
-        if (CURRENT == this) {
-            return;
-        }
-
         if (getID() == INVALID_ID) {
             throw new GLException("The program isn't yet created!");
         }
 
-        GL20.glUseProgram(id);
+        GLStateTracker.useProgram(id);
 
-        CURRENT = this;
-        logger.debug("Using ShaderProgram " + this + ".");
+        if (CURRENT != this) {
+            CURRENT = this;
+            logger.debug("Using ShaderProgram " + this + ".");
+        }
     }
 
     /**
@@ -206,6 +205,24 @@ public final class ShaderProgram extends GLObject {
         sources.remove(source);
     }
 
+    /**
+     * Return whether one of the {@link ShaderSource} attached to the
+     * <code>ShaderProgram</code> is compiled with the provided define.
+     * 
+     * @param define The name of the define to look for (not null).
+     * @return       Whether the define is used by the program.
+     * 
+     * @see ShaderSource#hasDefine(String)
+     */
+    public boolean hasDefine(String define) {
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).hasDefine(define)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Add a {@link Uniform} to the <code>ShaderProgram</code> with the specified
      * name, type and value. If a uniform with the name already exists, it will
@@ -334,7 +351,10 @@ public final class ShaderProgram extends GLObject {
     @Override
     @OpenGLCall
     public Runnable onDestroy(int id) {
-        return () -> GL20.glDeleteProgram(id);
+        return () -> {
+            GLStateTracker.forgetProgram(id);
+            GL20.glDeleteProgram(id);
+        };
     }
 
     @Override
@@ -346,6 +366,6 @@ public final class ShaderProgram extends GLObject {
     @Override
     @OpenGLCall
     protected Consumer<Integer> deleteAction() {
-        return GL20::glDeleteProgram;
+        return id -> onDestroy(id).run();
     }
 }
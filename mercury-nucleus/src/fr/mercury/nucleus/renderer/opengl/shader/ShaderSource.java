@@ -136,6 +136,18 @@ public final class ShaderSource extends GLObject {
         this.needsUpdate = true;
     }
 
+    /**
+     * Return whether the <code>ShaderSource</code> is compiled with the provided
+     * define.
+     * 
+     * @param define The name of the define to look for (not null).
+     * @return       Whether the define is used by the shader.
+     */
+    public boolean hasDefine(String define) {
+        Validator.nonNull(define, "The define can't be null!");
+        return defines != null && defines.contains("#define " + define + "\n");
+    }
+
     /**
      * Return whether the <code>ShaderSource</code> needs to be recompiled, to take
      * into account the latest changes.
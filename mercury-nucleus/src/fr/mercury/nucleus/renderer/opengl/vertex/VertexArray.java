@@ -5,6 +5,7 @@ import java.util.function.Consumer;
 import org.lwjgl.opengl.GL30;
 
 import fr.mercury.nucleus.renderer.opengl.GLObject;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
 import fr.mercury.nucleus.utils.GLException;
 import fr.mercury.nucleus.utils.OpenGLCall;
 
@@ -20,11 +21,6 @@ import fr.mercury.nucleus.utils.OpenGLCall;
  */
 public final class VertexArray extends GLObject {
 
-    /**
-     * The currently bound VAO on the OpenGL context.
-     */
-    private static VertexArray CURRENT = null;
-
     /**
      * Determines if the provided {@link VertexArray} correspond to an OpenGL vertex
      * array object.
@@ -49,20 +45,16 @@ public final class VertexArray extends GLObject {
 
     /**
      * Binds the <code>VertexArray</code> to the OpenGL context, allowing it to be
-     * used or updated.
+     * used or updated. The call is skipped by the {@link GLStateTracker} if it is
+     * already bound.
      */
     @OpenGLCall
     public void bind() {
-        if (CURRENT == this) {
-            return;
-        }
-
         if (getID() == INVALID_ID) {
             throw new GLException("The vertex array isn't created yet!");
         }
 
-        GL30.glBindVertexArray(getID());
-        CURRENT = this;
+        GLStateTracker.bindVertexArray(getID());
     }
 
     /**
@@ -78,9 +70,7 @@ public final class VertexArray extends GLObject {
      */
     @OpenGLCall
     public static void unbind() {
-        GL30.glBindVertexArray(0);
-
-        CURRENT = null;
+        GLStateTracker.bindVertexArray(0);
     }
 
     @Override
@@ -108,12 +98,15 @@ public final class VertexArray extends GLObject {
     @Override
     @OpenGLCall
     protected Consumer<Integer> deleteAction() {
-        return GL30::glDeleteVertexArrays;
+        return id -> onDestroy(id).run();
     }
 
     @Override
     @OpenGLCall
     public Runnable onDestroy(int id) {
-        return () -> GL30.glDeleteVertexArrays(id);
+        return () -> {
+            GLStateTracker.forgetVertexArray(id);
+            GL30.glDeleteVertexArrays(id);
+        };
     }
 }
@@ -146,6 +146,46 @@ public class VertexAttribute {
         return bufferType;
     }
 
+    /**
+     * Return the key of the {@link VertexBuffer} bound to the
+     * <code>VertexAttribute</code> in a mesh, which is its buffer type if defined or
+     * its name otherwise.
+     * 
+     * @return The key of the vertex buffer to bind (not null).
+     */
+    public String getBufferKey() {
+        return (bufferType != null && !bufferType.isEmpty()) ? bufferType : name;
+    }
+
+    /**
+     * Return the first location of the <code>VertexAttribute</code> in the shader.
+     * 
+     * @return The location of the attribute (&ge;0).
+     */
+    public int getLocation() {
+        return location;
+    }
+
+    /**
+     * Return the divisor of the <code>VertexAttribute</code>, which is the number of
+     * instances sharing the same vertex data, or 0 if it advances per vertex.
+     * 
+     * @return The divisor of the attribute (&ge;0).
+     */
+    public int getDivisor() {
+        return divisor;
+    }
+
+    /**
+     * Return the number of locations used by the <code>VertexAttribute</code>, for
+     * example 4 for a mat4.
+     * 
+     * @return The span of the attribute (&gt;0).
+     */
+    public int getSpan() {
+        return span;
+    }
+
     @Override
     public String toString() {
         var buffType = (bufferType == null || bufferType.isEmpty()) ? "" : ", bufferType= " + bufferType;
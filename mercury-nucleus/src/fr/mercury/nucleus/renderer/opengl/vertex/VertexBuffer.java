@@ -7,6 +7,7 @@ import org.lwjgl.opengl.GL15;
 
 import fr.alchemy.utilities.Validator;
 import fr.mercury.nucleus.renderer.opengl.GLBuffer;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType.Format;
 import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.utils.OpenGLCall;
@@ -364,12 +365,15 @@ public class VertexBuffer extends GLBuffer {
     @Override
     @OpenGLCall
     protected Consumer<Integer> deleteAction() {
-        return GL15::glDeleteBuffers;
+        return id -> onDestroy(id).run();
     }
 
     @Override
     @OpenGLCall
     public Runnable onDestroy(int id) {
-        return () -> GL15.glDeleteBuffers(id);
+        return () -> {
+            GLStateTracker.forgetBuffer(id);
+            GL15.glDeleteBuffers(id);
+        };
     }
 }
@@ -55,7 +55,7 @@ public final class BucketType {
      * @param name The name of the bucket to retrieve or create.
      * @return     The bucket matching the name or a new one.
      */
-    public static BucketType get(String name) {
+    public static synchronized BucketType get(String name) {
         Validator.nonEmpty(name, "The name of the bucket can't be null or empty!");
 
         BucketType bucket = BUCKET_TYPES.get(name);
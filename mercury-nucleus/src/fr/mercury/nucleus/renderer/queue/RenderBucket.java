@@ -1,6 +1,10 @@
 package fr.mercury.nucleus.renderer.queue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.collections.array.ArrayUtil;
@@ -8,8 +12,13 @@ import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
 import fr.mercury.nucleus.renderer.AbstractRenderer;
 import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.queue.RenderSortKey.DepthOrder;
 import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
 import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.texture.Texture;
 
 /**
  * <code>RenderBucket</code> represents a temporary storage for {@link AnimaMundi} that are 
@@ -18,6 +27,14 @@ import fr.mercury.nucleus.scenegraph.PhysicaMundi;
  * It is in charge of sorting these animae based on the provided {@link Comparator}, to increase 
  * performance and quality of the rendering process by limiting, for example, <code>OpenGL</code> 
  * state changes, redrawn pixel or drawing background object prior to a transparent one.
+ * <p>
+ * When a {@link DepthOrder} is set, the comparator is replaced by a {@link RenderSortKey} packed for 
+ * each anima, and the keys are sorted with a radix sort over reusable arrays, without comparing the 
+ * animae themselves.
+ * <p>
+ * When rendered, consecutive {@link PhysicaMundi} sharing the same {@link Mesh}, an instancing 
+ * {@link Material} and the same resolved states are drawn as instances with a single call, so 
+ * {@link DepthOrder#FRONT_TO_BACK} or a {@link StateComparator} should be preferred to keep them grouped.
  * 
  * @author GnosticOccultist
  */
@@ -31,6 +48,23 @@ public class RenderBucket {
      * The initial size of the rendering bucket, specified as 16.
      */
     protected static final int INITIAL_SIZE = 16;
+    /**
+     * The number of animae under which the sort keys are sorted by insertion
+     * instead of a radix sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    /**
+     * The number of bits of a digit of the radix sort.
+     */
+    private static final int RADIX_BITS = 8;
+    /**
+     * The number of values of a digit of the radix sort.
+     */
+    private static final int RADIX = 1 << RADIX_BITS;
+    /**
+     * The number of passes of the radix sort to sort 64-bit keys.
+     */
+    private static final int RADIX_PASSES = Long.SIZE / RADIX_BITS;
 
     /**
      * The distance comparator from the {@link Camera} to the {@link AnimaMundi}.
@@ -63,6 +97,62 @@ public class RenderBucket {
      * The current size of the bucket.
      */
     protected int size;
+    /**
+     * The depth order of the sort keys, or null to sort with the comparator.
+     */
+    protected DepthOrder keyOrder = null;
+    /**
+     * The sort key of each anima, or null if the keys were never used.
+     */
+    private long[] keys = null;
+    /**
+     * The index in the bucket of the anima of each sort key.
+     */
+    private int[] indices = null;
+    /**
+     * The buffer receiving the sort keys during a radix pass.
+     */
+    private long[] keyBuffer = null;
+    /**
+     * The buffer receiving the indices during a radix pass.
+     */
+    private int[] indexBuffer = null;
+    /**
+     * The animae in the sorted order, before being copied back into the bucket.
+     */
+    private AnimaMundi[] sorted = null;
+    /**
+     * The number of keys having each digit, for every radix pass.
+     */
+    private int[] counts = null;
+    /**
+     * The distinct render layers of the sorted animae, ordered by index.
+     */
+    private final List<RenderLayer> layers = new ArrayList<>();
+    /**
+     * The ranks of the shader programs used by the sorted animae.
+     */
+    private final IdentityRanks shaderRanks = new IdentityRanks();
+    /**
+     * The ranks of the textures used by the sorted animae.
+     */
+    private final IdentityRanks textureRanks = new IdentityRanks();
+    /**
+     * The ranks of the materials used by the sorted animae.
+     */
+    private final IdentityRanks materialRanks = new IdentityRanks();
+    /**
+     * The ranks of the meshes used by the sorted animae.
+     */
+    private final IdentityRanks meshRanks = new IdentityRanks();
+    /**
+     * The rank of the shader program of each ranked material.
+     */
+    private int[] materialShaders = new int[INITIAL_SIZE];
+    /**
+     * The rank of the texture of each ranked material.
+     */
+    private int[] materialTextures = new int[INITIAL_SIZE];
 
     /**
      * Instantiates a new <code>RenderBucket</code> with an initial size of
@@ -148,39 +238,328 @@ public class RenderBucket {
     }
 
     /**
-     * Sort the <code>RenderBucket</code> using the {@link Comparator} and a
-     * <code>shellsort</code> sorter. Note that the comparator cannot be null.
+     * Sort the <code>RenderBucket</code> using the packed {@link RenderSortKey} if
+     * a {@link DepthOrder} is set, or using the {@link Comparator} and a
+     * <code>shellsort</code> sorter otherwise.
      */
     public void sort() {
         // Perform the sort only is there is more than one anima in the bucket.
-        if (size > 1) {
+        if (size <= 1) {
+            return;
+        }
+
+        if (keyOrder != null) {
+            sortKeys();
+        } else {
             // Shell sorting the array.
             ArrayUtil.shellSort(array, 0, size - 1, comparator);
         }
     }
 
+    /**
+     * Sort the <code>RenderBucket</code> by packing a {@link RenderSortKey} for
+     * each {@link AnimaMundi}, sorting the keys and reordering the animae
+     * accordingly. The animae with the same key keep their submission order.
+     */
+    protected void sortKeys() {
+        ensureKeyCapacity();
+
+        // Rank the render layers by index, there are usually only a few of them.
+        layers.clear();
+        for (int i = 0; i < size; i++) {
+            var layer = array[i].getRenderLayer();
+            if (!layers.contains(layer)) {
+                layers.add(layer);
+            }
+        }
+        Collections.sort(layers);
+
+        try {
+            for (int i = 0; i < size; i++) {
+                var anima = array[i];
+                int shader = 0, texture = 0, material = 0, mesh = 0;
+
+                if (anima instanceof PhysicaMundi) {
+                    var physica = (PhysicaMundi) anima;
+                    material = rankMaterial(physica.getMaterial());
+                    shader = materialShaders[material];
+                    texture = materialTextures[material];
+                    mesh = meshRanks.rank(physica.getMesh());
+                }
+
+                var layer = layers.indexOf(anima.getRenderLayer());
+                keys[i] = RenderSortKey.pack(keyOrder, layer, shader, texture, material, mesh, computeDistance(anima));
+                indices[i] = i;
+            }
+        } finally {
+            shaderRanks.clear();
+            textureRanks.clear();
+            materialRanks.clear();
+            meshRanks.clear();
+        }
+
+        if (size <= INSERTION_SORT_THRESHOLD) {
+            insertionSort();
+        } else {
+            radixSort();
+        }
+
+        for (int i = 0; i < size; i++) {
+            sorted[i] = array[indices[i]];
+        }
+        System.arraycopy(sorted, 0, array, 0, size);
+        Arrays.fill(sorted, 0, size, null);
+    }
+
+    /**
+     * Return the rank of the provided {@link Material}, ranking its shader program
+     * and its first texture the first time it is encountered.
+     */
+    private int rankMaterial(Material material) {
+        var count = materialRanks.size;
+        var rank = materialRanks.rank(material);
+        if (material == null || materialRanks.size == count) {
+            return rank;
+        }
+
+        if (rank >= materialShaders.length) {
+            materialShaders = Arrays.copyOf(materialShaders, rank * 2);
+            materialTextures = Arrays.copyOf(materialTextures, rank * 2);
+        }
+
+        materialShaders[rank] = shaderRanks.rank(material.findFirstShader());
+        materialTextures[rank] = 0;
+        for (var variable : material.getVariables()) {
+            if (variable.value() instanceof Texture) {
+                materialTextures[rank] = textureRanks.rank(variable.value());
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Sorts the keys and their indices by insertion, comparing the keys as unsigned
+     * integers.
+     */
+    private void insertionSort() {
+        for (int i = 1; i < size; i++) {
+            var key = keys[i];
+            var index = indices[i];
+
+            var j = i - 1;
+            for (; j >= 0 && Long.compareUnsigned(keys[j], key) > 0; j--) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    /**
+     * Sorts the keys and their indices with a least significant digit radix sort,
+     * skipping the passes whose digit is shared by all the keys.
+     */
+    private void radixSort() {
+        // Count the digits of every pass at once.
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < size; i++) {
+            var key = keys[i];
+            for (int pass = 0; pass < RADIX_PASSES; pass++) {
+                counts[pass * RADIX + (int) (key >>> (pass * RADIX_BITS) & (RADIX - 1))]++;
+            }
+        }
+
+        var srcKeys = keys;
+        var srcIndices = indices;
+        var dstKeys = keyBuffer;
+        var dstIndices = indexBuffer;
+        for (int pass = 0; pass < RADIX_PASSES; pass++) {
+            var shift = pass * RADIX_BITS;
+            var offset = pass * RADIX;
+            if (counts[offset + (int) (srcKeys[0] >>> shift & (RADIX - 1))] == size) {
+                continue;
+            }
+
+            // Turn the counts into the first position of each digit.
+            var position = 0;
+            for (int digit = offset; digit < offset + RADIX; digit++) {
+                var count = counts[digit];
+                counts[digit] = position;
+                position += count;
+            }
+
+            for (int i = 0; i < size; i++) {
+                var key = srcKeys[i];
+                var target = counts[offset + (int) (key >>> shift & (RADIX - 1))]++;
+                dstKeys[target] = key;
+                dstIndices[target] = srcIndices[i];
+            }
+
+            var tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            var tmpIndices = srcIndices;
+            srcIndices = dstIndices;
+            dstIndices = tmpIndices;
+        }
+
+        // The sorted keys may have ended in the buffers, swap them.
+        this.keys = srcKeys;
+        this.indices = srcIndices;
+        this.keyBuffer = dstKeys;
+        this.indexBuffer = dstIndices;
+    }
+
+    /**
+     * Ensures the arrays used to sort the keys can hold the whole content of the
+     * <code>RenderBucket</code>.
+     */
+    private void ensureKeyCapacity() {
+        if (keys == null || keys.length < size) {
+            var capacity = array.length;
+            this.keys = new long[capacity];
+            this.indices = new int[capacity];
+            this.keyBuffer = new long[capacity];
+            this.indexBuffer = new int[capacity];
+            this.sorted = new AnimaMundi[capacity];
+        }
+        if (counts == null) {
+            this.counts = new int[RADIX_PASSES * RADIX];
+        }
+    }
+
     /**
      * Render the <code>RenderBucket</code> by calling
      * {@link AbstractRenderer#render(PhysicaMundi)} for each {@link PhysicaMundi},
-     * and resetting the queue distance field.
+     * and resetting the queue distance field. Consecutive physica-mundis which can
+     * be drawn as instances of the same {@link Mesh} are rendered at once with
+     * {@link AbstractRenderer#renderInstanced(AnimaMundi[], int, int)}.
      * 
      * @param renderer The renderer used to render each animae independently.
+     * 
+     * @see #countInstances(int)
      */
     public void render(AbstractRenderer renderer) {
-        for (int i = 0; i < size; i++) {
+        for (int i = 0; i < size;) {
             var anima = array[i];
+            var count = countInstances(i);
 
             // Delegates the rendering of the physica-mundi to the renderer.
-            if (anima instanceof PhysicaMundi) {
+            if (count > 0) {
+                renderer.renderInstanced(array, i, count);
+            } else if (anima instanceof PhysicaMundi) {
                 renderer.render((PhysicaMundi) anima);
             }
 
             // Make sure to reset the distance, so it can be recomputed.
             // This is only if the bucket isn't flushed every frame.
+            var end = i + Math.max(count, 1);
+            for (; i < end; i++) {
+                array[i].queueDistance = Double.NEGATIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * Return the number of consecutive {@link PhysicaMundi} in the
+     * <code>RenderBucket</code>, starting from the given index, which can be drawn
+     * as instances of the same {@link Mesh}. They need to share the same mesh, the
+     * same resolved states and an instancing {@link Material}.
+     * 
+     * @param index The index of the first physica-mundi (&ge;0, &lt;size).
+     * @return      The number of instances to draw, or 0 if the anima at the index
+     *              doesn't use instancing.
+     * 
+     * @see #usesInstancing(Mesh, Material)
+     */
+    public int countInstances(int index) {
+        if (!(array[index] instanceof PhysicaMundi) || array[index] instanceof BatchedPhysicaMundi) {
+            return 0;
+        }
+
+        var first = (PhysicaMundi) array[index];
+        var mesh = first.getMesh();
+        var material = first.getMaterial();
+        if (!usesInstancing(mesh, material)) {
+            return 0;
+        }
+
+        var end = index + 1;
+        while (end < size && array[end] instanceof PhysicaMundi && !(array[end] instanceof BatchedPhysicaMundi)) {
+            var other = (PhysicaMundi) array[end];
+            if (other.getMesh() != mesh || !isInstanceCompatible(material, other.getMaterial())
+                    || other.getResolvedRenderStates() != first.getResolvedRenderStates()
+                    || other.getResolvedEnvironment() != first.getResolvedEnvironment()) {
+                break;
+            }
+            end++;
+        }
+        return end - index;
+    }
+
+    /**
+     * Return whether the provided {@link Mesh} should be drawn as instances when
+     * rendered with the given {@link Material}, meaning the material uses
+     * instancing and the mesh doesn't already define its own instances.
+     * 
+     * @param mesh     The mesh to render.
+     * @param material The material to render the mesh with.
+     * @return         Whether the world matrices should be passed as instance data.
+     * 
+     * @see Material#isInstancing()
+     */
+    public static boolean usesInstancing(Mesh mesh, Material material) {
+        return mesh != null && material != null && !mesh.isInstanced() && material.isInstancing();
+    }
+
+    /**
+     * Return whether the instances rendered with the provided {@link Material} can
+     * be drawn in the same call as the ones rendered with the other material.
+     * 
+     * @param material The material of the first instance (not null).
+     * @param other    The material of the other instance.
+     * @return         Whether the materials can be used interchangeably.
+     */
+    static boolean isInstanceCompatible(Material material, Material other) {
+        return other == material || (other != null && material.isBatchCompatible(other));
+    }
+
+    /**
+     * Extracts the <code>RenderBucket</code> into the provided
+     * {@link RenderSnapshot}, by adding a render proxy for each
+     * {@link PhysicaMundi} in the order of the bucket, and resetting the queue
+     * distance field.
+     * 
+     * @param snapshot The snapshot to add the render proxies to (not null).
+     */
+    public void extract(RenderSnapshot snapshot) {
+        for (int i = 0; i < size; i++) {
+            var anima = array[i];
+
+            if (anima instanceof PhysicaMundi) {
+                snapshot.add((PhysicaMundi) anima);
+            }
+
             anima.queueDistance = Double.NEGATIVE_INFINITY;
         }
     }
 
+    /**
+     * Computes the distance to the {@link Camera} of each {@link AnimaMundi} in the
+     * <code>RenderBucket</code>, which is otherwise computed when sorting. It allows
+     * to compute the distances on the thread filling the bucket, before it is
+     * merged into another one.
+     * 
+     * @see #merge(RenderBucket)
+     */
+    public void computeDistances() {
+        for (int i = 0; i < size; i++) {
+            computeDistance(array[i]);
+        }
+    }
+
     /**
      * Compute the distance between the provided {@link AnimaMundi} and the
      * registered {@link Camera}. Note that the camera cannot be null.
@@ -206,31 +585,31 @@ public class RenderBucket {
     /**
      * Merges the <code>RenderBucket</code>'s content with the specified bucket's
      * one, by first adding the content of this bucket and then the content of the
-     * other bucket.
+     * other bucket. The other bucket is left unchanged, and the distances already
+     * computed for its {@link AnimaMundi} are kept.
      * <p>
      * It returns this <code>RenderBucket</code> with the new content.
      * 
-     * @param other The other bucket to merge the content with.
+     * @param other The other bucket to merge the content with (not null).
      * @return      The bucket with the merged content.
      */
     public RenderBucket merge(RenderBucket other) {
+        Validator.nonNull(other, "The bucket to merge can't be null!");
         // No need to merge an empty bucket.
         if (other.size() < 1) {
             return this;
         }
 
-        AnimaMundi[] tmp = new AnimaMundi[array.length + other.array.length];
-        // Adding content of this render bucket.
-        for (int i = 0; i < array.length; i++) {
-            tmp[i] = array[i];
-        }
-
-        // Adding content of the other render bucket.
-        for (int i = 0; i < array.length; i++) {
-            tmp[i] = other.array[i];
+        var required = size + other.size;
+        if (required > array.length) {
+            var tmp = new AnimaMundi[Math.max(required, array.length * 2)];
+            System.arraycopy(array, 0, tmp, 0, size);
+            array = tmp;
         }
 
-        array = tmp;
+        // Adding content of the other render bucket after this one.
+        System.arraycopy(other.array, 0, array, size, other.size);
+        size = required;
         return this;
     }
 
@@ -269,6 +648,30 @@ public class RenderBucket {
     public void setComparator(Comparator<AnimaMundi> comparator) {
         Validator.nonNull(comparator, "The comparator can't be null!");
         this.comparator = comparator;
+        this.keyOrder = null;
+    }
+
+    /**
+     * Return the {@link DepthOrder} of the {@link RenderSortKey} used to sort the
+     * <code>RenderBucket</code>.
+     * 
+     * @return The depth order of the sort keys, or null if the bucket is sorted
+     *         with its comparator (default&rarr;null).
+     */
+    public DepthOrder getKeyOrder() {
+        return keyOrder;
+    }
+
+    /**
+     * Sets the {@link DepthOrder} of the {@link RenderSortKey} used to sort the
+     * {@link AnimaMundi} to render the <code>RenderBucket</code>, instead of its
+     * {@link Comparator}.
+     * 
+     * @param keyOrder The depth order of the sort keys, or null to sort with the
+     *                 comparator (default&rarr;null).
+     */
+    public void setKeyOrder(DepthOrder keyOrder) {
+        this.keyOrder = keyOrder;
     }
 
     /**
@@ -298,6 +701,38 @@ public class RenderBucket {
         return size <= 0;
     }
 
+    /**
+     * <code>StateComparator</code> sorts the {@link AnimaMundi} by {@link Material} and then by {@link Mesh}, so
+     * that the ones sharing the same states are rendered consecutively and can be drawn as instances, and finally
+     * front to back.
+     * 
+     * @author GnosticOccultist
+     */
+    public class StateComparator implements Comparator<AnimaMundi> {
+
+        @Override
+        public int compare(AnimaMundi anima1, AnimaMundi anima2) {
+            if (anima1 instanceof PhysicaMundi && anima2 instanceof PhysicaMundi) {
+                var physica1 = (PhysicaMundi) anima1;
+                var physica2 = (PhysicaMundi) anima2;
+
+                var result = Integer.compare(System.identityHashCode(physica1.getMaterial()),
+                        System.identityHashCode(physica2.getMaterial()));
+                if (result != 0) {
+                    return result;
+                }
+
+                result = Integer.compare(System.identityHashCode(physica1.getMesh()),
+                        System.identityHashCode(physica2.getMesh()));
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return Double.compare(computeDistance(anima1), computeDistance(anima2));
+        }
+    }
+
     public class TransparentComparator implements Comparator<AnimaMundi> {
 
         @Override
@@ -309,4 +744,89 @@ public class RenderBucket {
             return Double.compare(d2, d1);
         }
     }
+
+    /**
+     * <code>IdentityRanks</code> gives a dense rank, starting from 1, to each distinct object it encounters,
+     * comparing them by identity. It uses an open addressing table, so ranking doesn't allocate once the table is
+     * large enough.
+     * 
+     * @author GnosticOccultist
+     */
+    private static final class IdentityRanks {
+
+        /**
+         * The ranked objects, or null for an empty slot.
+         */
+        private Object[] objects = new Object[INITIAL_SIZE];
+        /**
+         * The rank of the object in the same slot.
+         */
+        private int[] ranks = new int[INITIAL_SIZE];
+        /**
+         * The number of ranked objects.
+         */
+        private int size = 0;
+
+        /**
+         * Return the rank of the provided object, giving it the next rank if it
+         * wasn't encountered before.
+         * 
+         * @param object The object to rank.
+         * @return       The rank of the object, or 0 if it is null.
+         */
+        private int rank(Object object) {
+            if (object == null) {
+                return 0;
+            }
+
+            var mask = objects.length - 1;
+            var index = slot(object, mask);
+            for (; objects[index] != null; index = (index + 1) & mask) {
+                if (objects[index] == object) {
+                    return ranks[index];
+                }
+            }
+
+            objects[index] = object;
+            var rank = ranks[index] = ++size;
+            if (size * 2 > objects.length) {
+                grow();
+            }
+            return rank;
+        }
+
+        private void grow() {
+            var oldObjects = objects;
+            var oldRanks = ranks;
+            this.objects = new Object[oldObjects.length * 2];
+            this.ranks = new int[oldObjects.length * 2];
+
+            var mask = objects.length - 1;
+            for (int i = 0; i < oldObjects.length; i++) {
+                if (oldObjects[i] != null) {
+                    var index = slot(oldObjects[i], mask);
+                    while (objects[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    objects[index] = oldObjects[i];
+                    ranks[index] = oldRanks[i];
+                }
+            }
+        }
+
+        private static int slot(Object object, int mask) {
+            var hash = System.identityHashCode(object);
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        /**
+         * Forgets all the ranked objects, keeping the table for the next ranking.
+         */
+        private void clear() {
+            if (size > 0) {
+                Arrays.fill(objects, null);
+                this.size = 0;
+            }
+        }
+    }
 }
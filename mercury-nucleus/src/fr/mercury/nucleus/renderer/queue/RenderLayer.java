@@ -11,8 +11,12 @@ import fr.mercury.nucleus.scenegraph.AnimaMundi;
  * <code>RenderLayer</code> describes a layer on which is situated an {@link AnimaMundi}. Each {@link Camera} 
  * can define their own set of layers which they are in charge of queuing and rendering.
  * <p>
- * For now, the render layers are only useful to discard some anima-mundis from the rendering and queuing process, 
- * and aren't yet ready to actually perform an ordering during the rendering mostly used in 2D scenes.
+ * The render layers are used to discard some anima-mundis from the rendering and queuing process, and a 
+ * {@link RenderBucket} sorted with {@link RenderSortKey} renders its layers by increasing index, which is mostly 
+ * useful in 2D scenes.
+ * <p>
+ * Each layer, except {@link #LEGACY}, is given a distinct bit in a 64-bit {@link #mask()}, so that a set of layers
+ * can be tested with a single operation. Therefore at most {@value #MAX_LAYERS} layers can be defined.
  * 
  * @author GnosticOccultist
  */
@@ -22,12 +26,20 @@ public final class RenderLayer implements Comparable<RenderLayer> {
      * The table mapping the rendering layer with its name.
      */
     private static final Map<String, RenderLayer> RENDER_LAYERS = new HashMap<String, RenderLayer>();
+    /**
+     * The maximum number of render layers, each using a bit of a long mask.
+     */
+    public static final int MAX_LAYERS = Long.SIZE;
+    /**
+     * The number of bits already given to the render layers.
+     */
+    private static int bitCount;
 
     /**
      * Use the {@link AnimaMundi}'s parent render layer, or default to
      * {@link #DEFAULT} if it is orphan.
      */
-    public static final RenderLayer LEGACY = get("Legacy", -1);
+    public static final RenderLayer LEGACY = register("Legacy", -1, -1);
     /**
      * The default render layer.
      */
@@ -43,21 +55,34 @@ public final class RenderLayer implements Comparable<RenderLayer> {
      * If the render layer doesn't already exists it will instantiates a new one
      * with this name and finally return it.
      * 
-     * @param name The name of the layer to retrieve or create.
-     * @return     The render layer matching the name or a new one.
+     * @param name  The name of the layer to retrieve or create.
+     * @param index The index used to order the layer when it is created.
+     * @return      The render layer matching the name or a new one.
+     * 
+     * @throws IllegalStateException Thrown if {@value #MAX_LAYERS} layers have already been created.
      */
-    public static RenderLayer get(String name, int index) {
+    public static synchronized RenderLayer get(String name, int index) {
         Validator.nonEmpty(name, "The name of the layer can't be null or empty!");
 
         RenderLayer layer = RENDER_LAYERS.get(name);
         if (layer == null) {
-            layer = new RenderLayer(name, index);
-            RENDER_LAYERS.put(name, layer);
+            if (bitCount == MAX_LAYERS) {
+                throw new IllegalStateException("Can't create the render layer '" + name + "', only " + MAX_LAYERS
+                        + " layers can be defined!");
+            }
+
+            layer = register(name, index, bitCount++);
         }
 
         return layer;
     }
 
+    private static RenderLayer register(String name, int index, int bit) {
+        var layer = new RenderLayer(name, index, bit);
+        RENDER_LAYERS.put(name, layer);
+        return layer;
+    }
+
     /**
      * The name of the render layer.
      */
@@ -66,10 +91,54 @@ public final class RenderLayer implements Comparable<RenderLayer> {
      * The index of the render layer.
      */
     private final int index;
+    /**
+     * The bit of the render layer in a mask, or -1 for the legacy layer.
+     */
+    private final int bit;
 
-    private RenderLayer(String name, int index) {
+    private RenderLayer(String name, int index, int bit) {
         this.name = name;
         this.index = index;
+        this.bit = bit;
+    }
+
+    /**
+     * Return the name of the <code>RenderLayer</code>.
+     * 
+     * @return The name of the layer (not null).
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Return the index used to order the <code>RenderLayer</code>.
+     * 
+     * @return The index of the layer.
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Return the bit index of the <code>RenderLayer</code> in a layer mask.
+     * 
+     * @return The bit index of the layer (&ge;0, &lt;{@value #MAX_LAYERS}), or -1 for
+     *         {@link #LEGACY}.
+     */
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Return the mask with only the bit of the <code>RenderLayer</code> set. The
+     * {@link #LEGACY} layer has an empty mask, since it is replaced by the inherited
+     * one.
+     * 
+     * @return The mask of the layer.
+     */
+    public long mask() {
+        return bit < 0 ? 0L : 1L << bit;
     }
 
     @Override
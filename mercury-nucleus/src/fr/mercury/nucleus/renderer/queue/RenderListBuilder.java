@@ -0,0 +1,624 @@
+package fr.mercury.nucleus.renderer.queue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.occlusion.OcclusionCuller;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.LodPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.visitor.ParallelTraversal;
+
+/**
+ * <code>RenderListBuilder</code> fills the {@link RenderBucket} of a renderer with the visible part of a scene, by
+ * culling it against the {@link Camera} frustum and an optional {@link OcclusionCuller}, and selecting the levels
+ * of detail, without any <code>OpenGL</code> call.
+ * <p>
+ * The scene is split like a {@link ParallelTraversal} into tasks executed by a {@link ForkJoinPool}, each one filling
+ * its own segment of buckets and computing the distances used by their sort. The segments are then merged in the
+ * traversal order, so the content of the buckets doesn't depend on the scheduling of the tasks, and the large
+ * buckets are sorted concurrently. Only the recording and the execution of the draws are left to the renderer.
+ * <p>
+ * The scene mustn't be modified while it is being built, and its geometric state must have been updated.
+ *
+ * @author GnosticOccultist
+ */
+public final class RenderListBuilder {
+
+    /**
+     * The logger for the Mercury Renderer.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.renderer");
+
+    /**
+     * The minimum number of anima-mundis for a subtree to be culled by its own task, and for a bucket to be sorted
+     * by a worker thread.
+     */
+    private final int threshold;
+    /**
+     * The pool executing the tasks.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The segments available to the next tasks.
+     */
+    private final ConcurrentLinkedQueue<Segment> segments = new ConcurrentLinkedQueue<>();
+    /**
+     * The segments filled during the current build, in the traversal order.
+     */
+    private final List<Segment> filled = new ArrayList<>();
+    /**
+     * The sorts of the large buckets executed by the pool.
+     */
+    private final List<ForkJoinTask<?>> sorts = new ArrayList<>();
+    /**
+     * The visible physica-mundis which doesn't use any bucket, in the traversal order.
+     */
+    private final List<PhysicaMundi> unsorted = new ArrayList<>();
+    /**
+     * The read-only view of the unsorted physica-mundis.
+     */
+    private final List<PhysicaMundi> unsortedView = Collections.unmodifiableList(unsorted);
+    /**
+     * The number of triangles saved by the levels of detail during the last build.
+     */
+    private long lodTrianglesSaved = 0;
+
+    /**
+     * The camera used to cull the scene being built.
+     */
+    private Camera camera;
+    /**
+     * The buckets to fill, organized by their types.
+     */
+    private Map<BucketType, RenderBucket> buckets;
+    /**
+     * The culler of the anima-mundis hidden behind occluders, or null.
+     */
+    private OcclusionCuller occlusionCuller;
+    /**
+     * The global bias applied when selecting the levels of detail.
+     */
+    private float lodBias;
+
+    /**
+     * Instantiates a new <code>RenderListBuilder</code> with the threshold of the
+     * {@link ParallelTraversal}, using the common {@link ForkJoinPool}.
+     */
+    public RenderListBuilder() {
+        this(ParallelTraversal.DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiates a new <code>RenderListBuilder</code> with the provided
+     * threshold and {@link ForkJoinPool}.
+     *
+     * @param threshold The minimum number of anima-mundis for a subtree to be
+     *                  culled by its own task (&gt;0).
+     * @param pool      The pool executing the tasks (not null).
+     */
+    public RenderListBuilder(int threshold, ForkJoinPool pool) {
+        Validator.positive(threshold, "The subtree size threshold must be strictly positive!");
+        Validator.nonNull(pool, "The fork/join pool can't be null!");
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Fills the provided {@link RenderBucket} with the visible part of the given
+     * scene, and sorts them. The visible {@link PhysicaMundi} which doesn't use any
+     * bucket are accessible with {@link #getUnsorted()} until the next build.
+     * <p>
+     * The method blocks until the whole scene has been built. The camera and the
+     * occlusion culler must have been updated for the frame.
+     *
+     * @param scene           The scene to build the render list of (not null).
+     * @param camera          The camera to cull the scene with (not null).
+     * @param buckets         The buckets to fill, organized by their types (not null).
+     * @param occlusionCuller The culler of the anima-mundis hidden behind occluders, or
+     *                        null to disable it.
+     * @param lodBias         The global bias applied when selecting the levels of detail
+     *                        (&gt;0).
+     */
+    public void build(AnimaMundi scene, Camera camera, Map<BucketType, RenderBucket> buckets,
+            OcclusionCuller occlusionCuller, float lodBias) {
+        Validator.nonNull(scene, "The scene to build can't be null!");
+        Validator.nonNull(camera, "The camera can't be null!");
+        Validator.nonNull(buckets, "The buckets to fill can't be null!");
+
+        flush();
+        this.camera = camera;
+        this.buckets = buckets;
+        this.occlusionCuller = occlusionCuller;
+        this.lodBias = lodBias;
+
+        try {
+            var task = new FillTask(scene, null, 0, 0, Frustum.ALL_PLANES);
+            if (scene.getSubtreeSize() < threshold) {
+                // Not worth to involve the pool.
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+
+            task.collect(filled);
+            merge();
+            sort();
+        } finally {
+            for (int i = 0; i < filled.size(); i++) {
+                var segment = filled.get(i);
+                segment.flush();
+                segments.offer(segment);
+            }
+            filled.clear();
+            sorts.clear();
+
+            this.camera = null;
+            this.buckets = null;
+            this.occlusionCuller = null;
+        }
+    }
+
+    /**
+     * Merges the filled segments into the buckets, in the traversal order.
+     */
+    private void merge() {
+        for (int i = 0; i < filled.size(); i++) {
+            var segment = filled.get(i);
+            unsorted.addAll(segment.unsorted);
+            lodTrianglesSaved += segment.lodTrianglesSaved;
+
+            for (var entry : buckets.entrySet()) {
+                var part = segment.buckets.get(entry.getKey());
+                if (part != null) {
+                    entry.getValue().merge(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the buckets, the large ones being sorted concurrently by the pool.
+     */
+    private void sort() {
+        for (var bucket : buckets.values()) {
+            if (bucket.size() >= threshold) {
+                sorts.add(pool.submit(bucket::sort));
+            } else {
+                bucket.sort();
+            }
+        }
+
+        // Wait for every sort, before reporting the first failure.
+        for (int i = 0; i < sorts.size(); i++) {
+            sorts.get(i).quietlyJoin();
+        }
+        for (int i = 0; i < sorts.size(); i++) {
+            sorts.get(i).join();
+        }
+    }
+
+    /**
+     * Return the visible {@link PhysicaMundi} of the last build which doesn't use
+     * any {@link RenderBucket}, in the traversal order.
+     *
+     * @return A read-only list of the unsorted physica-mundis (not null).
+     */
+    public List<PhysicaMundi> getUnsorted() {
+        return unsortedView;
+    }
+
+    /**
+     * Return the number of triangles which weren't drawn during the last build,
+     * thanks to the coarser levels of detail selected for the visible
+     * {@link LodPhysicaMundi}.
+     *
+     * @return The number of triangles saved by the levels of detail (&ge;0).
+     */
+    public long getLodTrianglesSaved() {
+        return lodTrianglesSaved;
+    }
+
+    /**
+     * Flushes the result of the last build of the <code>RenderListBuilder</code>.
+     * Note that the filled buckets must be flushed separately.
+     */
+    public void flush() {
+        unsorted.clear();
+        lodTrianglesSaved = 0;
+    }
+
+    /**
+     * Return the minimum number of anima-mundis for a subtree to be culled by its
+     * own task.
+     *
+     * @return The subtree size threshold (&gt;0).
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[threshold= " + threshold + ", parallelism= " + pool.getParallelism()
+                + "]";
+    }
+
+    /**
+     * Return a flushed {@link Segment} to fill, reusing one of a previous build if
+     * possible.
+     */
+    private Segment acquireSegment() {
+        var segment = segments.poll();
+        if (segment == null) {
+            segment = new Segment();
+        }
+
+        segment.camera = camera;
+        return segment;
+    }
+
+    /**
+     * Culls the provided {@link AnimaMundi} and its descendants on the calling
+     * thread, and fills the {@link Segment} with the visible ones. The subtree is
+     * visited in pre-order with the explicit stack of the segment, so that a deep
+     * hierarchy can't overflow the thread stack.
+     */
+    private void fill(AnimaMundi anima, int planeMask, Segment segment) {
+        segment.push(anima, planeMask);
+
+        while (segment.depth > 0) {
+            var current = segment.pop();
+            var mask = cull(current, segment.poppedMask);
+            if (mask == Frustum.OUTSIDE) {
+                continue;
+            }
+
+            gather(current, mask, segment);
+            if (current instanceof NucleusMundi) {
+                var nucleus = (NucleusMundi) current;
+                // Push the children in reverse, so the first one is visited first.
+                for (int i = nucleus.size() - 1; i >= 0; i--) {
+                    segment.push(nucleus.getChild(i), mask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the frustum planes mask of the provided {@link AnimaMundi} from the
+     * one of its parent, or {@link Frustum#OUTSIDE} if its subtree can be skipped.
+     */
+    private int cull(AnimaMundi anima, int planeMask) {
+        // None of the layers used in the subtree is rendered by the camera.
+        if (!camera.checkLayers(anima.getLayerMask())) {
+            return Frustum.OUTSIDE;
+        }
+
+        var mask = camera.cull(anima, planeMask);
+        if (mask == Frustum.OUTSIDE) {
+            return mask;
+        }
+        // The subtree is hidden behind the occluders.
+        if (occlusionCuller != null && occlusionCuller.isOccluded(anima)) {
+            return Frustum.OUTSIDE;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Adds the provided visible {@link AnimaMundi} to the {@link Segment}, either
+     * into its bucket or as an unsorted physica-mundi if it doesn't use any.
+     */
+    private void gather(AnimaMundi anima, int mask, Segment segment) {
+        if (anima instanceof LodPhysicaMundi) {
+            var physica = (LodPhysicaMundi) anima;
+            physica.selectLevel(camera, lodBias);
+            segment.lodTrianglesSaved += physica.getTrianglesSaved();
+        }
+        // Gather the visible pieces of a batch, which is skipped if none is visible.
+        if (anima instanceof BatchedPhysicaMundi && !((BatchedPhysicaMundi) anima).cull(camera.getFrustum(), mask)) {
+            return;
+        }
+
+        if (!(anima instanceof PhysicaMundi)) {
+            return;
+        }
+
+        var type = anima.getBucket();
+        if (type.equals(BucketType.NONE)) {
+            segment.unsorted.add((PhysicaMundi) anima);
+        } else if (camera.checkLayer(anima.getRenderLayer())) {
+            if (buckets.containsKey(type)) {
+                segment.bucket(type).add(anima);
+            } else {
+                logger.warning("The anima '" + anima + "' couldn't be submitted to a bucket of type " + type + "!");
+            }
+        }
+    }
+
+    /**
+     * <code>Segment</code> contains the part of the render list filled by a single
+     * task, which is reused from one build to another.
+     */
+    private static final class Segment {
+
+        /**
+         * The buckets filled by the task, organized by their types.
+         */
+        private final Map<BucketType, RenderBucket> buckets = new HashMap<>();
+        /**
+         * The visible physica-mundis which doesn't use any bucket, in the traversal order.
+         */
+        private final List<PhysicaMundi> unsorted = new ArrayList<>();
+        /**
+         * The number of triangles saved by the levels of detail.
+         */
+        private long lodTrianglesSaved = 0;
+        /**
+         * The camera used to compute the distances.
+         */
+        private Camera camera;
+        /**
+         * The stack of the anima-mundis left to cull.
+         */
+        private AnimaMundi[] stack = new AnimaMundi[16];
+        /**
+         * The frustum planes mask of the parent of each anima-mundi in the stack.
+         */
+        private int[] masks = new int[16];
+        /**
+         * The number of anima-mundis in the stack.
+         */
+        private int depth = 0;
+        /**
+         * The parent planes mask of the last popped anima-mundi.
+         */
+        private int poppedMask = 0;
+
+        /**
+         * Pushes the provided {@link AnimaMundi} to cull with the frustum planes mask
+         * of its parent on the stack, growing it if needed.
+         */
+        private void push(AnimaMundi anima, int planeMask) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+                masks = Arrays.copyOf(masks, depth * 2);
+            }
+
+            stack[depth] = anima;
+            masks[depth++] = planeMask;
+        }
+
+        /**
+         * Pops the last pushed {@link AnimaMundi} from the stack, its parent planes
+         * mask being stored in the popped mask.
+         */
+        private AnimaMundi pop() {
+            var anima = stack[--depth];
+            stack[depth] = null;
+            poppedMask = masks[depth];
+            return anima;
+        }
+
+        /**
+         * Return the bucket of the segment for the provided {@link BucketType},
+         * creating it if needed.
+         */
+        private RenderBucket bucket(BucketType type) {
+            var bucket = buckets.get(type);
+            if (bucket == null) {
+                bucket = new RenderBucket(camera);
+                buckets.put(type, bucket);
+            } else if (bucket.camera != camera) {
+                bucket.setCamera(camera);
+            }
+            return bucket;
+        }
+
+        /**
+         * Computes the distances to the camera of the anima-mundis in the buckets.
+         */
+        private void computeDistances() {
+            for (var bucket : buckets.values()) {
+                bucket.computeDistances();
+            }
+        }
+
+        /**
+         * Flushes the content of the segment.
+         */
+        private void flush() {
+            for (var bucket : buckets.values()) {
+                bucket.flush();
+            }
+            unsorted.clear();
+            lodTrianglesSaved = 0;
+            camera = null;
+            // Release the anima-mundis left by an interrupted fill.
+            Arrays.fill(stack, 0, depth, null);
+            depth = 0;
+        }
+    }
+
+    /**
+     * <code>FillTask</code> culls either a subtree or a range of children of a
+     * {@link NucleusMundi} into its own {@link Segment}, and splits the large
+     * subtrees it encounters into new tasks.
+     */
+    private final class FillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The root of the subtree to cull, or null to cull a range of children.
+         */
+        private final AnimaMundi anima;
+        /**
+         * The parent of the range of children to cull.
+         */
+        private final NucleusMundi parent;
+        /**
+         * The index of the first child to cull (inclusive).
+         */
+        private final int from;
+        /**
+         * The index of the last child to cull (exclusive).
+         */
+        private final int to;
+        /**
+         * The frustum planes mask of the parent.
+         */
+        private final int planeMask;
+        /**
+         * The segment filled by the task.
+         */
+        private Segment segment;
+        /**
+         * The tasks culling the children of the subtree, in their order, or null.
+         */
+        private List<FillTask> forks;
+
+        FillTask(AnimaMundi anima, NucleusMundi parent, int from, int to, int planeMask) {
+            this.anima = anima;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+            this.planeMask = planeMask;
+        }
+
+        @Override
+        protected void compute() {
+            this.segment = acquireSegment();
+
+            if (anima == null) {
+                // The range has been grouped to be culled by this task only.
+                for (int i = from; i < to; i++) {
+                    fill(parent.getChild(i), planeMask, segment);
+                }
+            } else {
+                descend();
+            }
+
+            segment.computeDistances();
+            if (forks != null) {
+                invokeAll(forks);
+            }
+        }
+
+        /**
+         * Culls the subtree of the task, splitting it into forks. A chain of large
+         * subtrees with a single child is descended by the task itself instead of
+         * nesting forks, so that a deep hierarchy can't overflow the thread stack.
+         */
+        private void descend() {
+            var current = anima;
+            var mask = planeMask;
+
+            while (current.getSubtreeSize() >= threshold && current instanceof NucleusMundi) {
+                mask = cull(current, mask);
+                if (mask == Frustum.OUTSIDE) {
+                    return;
+                }
+
+                gather(current, mask, segment);
+                split((NucleusMundi) current, mask);
+                if (forks.size() != 1) {
+                    return;
+                }
+
+                // The only fork follows in the traversal order, so fill the same segment.
+                var fork = forks.get(0);
+                this.forks = null;
+                if (fork.anima == null) {
+                    for (int i = fork.from; i < fork.to; i++) {
+                        fill(fork.parent.getChild(i), mask, segment);
+                    }
+                    return;
+                }
+                current = fork.anima;
+            }
+
+            fill(current, mask, segment);
+        }
+
+        /**
+         * Splits the children of the provided {@link NucleusMundi} into contiguous
+         * tasks, either culling a large child or a range of smaller ones.
+         */
+        private void split(NucleusMundi nucleus, int mask) {
+            this.forks = new ArrayList<>();
+            var rangeStart = 0;
+            var rangeSize = 0;
+
+            for (int i = 0; i < nucleus.size(); i++) {
+                var size = nucleus.getChild(i).getSubtreeSize();
+
+                if (size >= threshold) {
+                    // Cull the pending small children, before the large one.
+                    if (rangeStart < i) {
+                        forks.add(new FillTask(null, nucleus, rangeStart, i, mask));
+                    }
+                    forks.add(new FillTask(nucleus.getChild(i), null, 0, 0, mask));
+
+                    rangeStart = i + 1;
+                    rangeSize = 0;
+                    continue;
+                }
+
+                rangeSize += size;
+                if (rangeSize >= threshold) {
+                    forks.add(new FillTask(null, nucleus, rangeStart, i + 1, mask));
+
+                    rangeStart = i + 1;
+                    rangeSize = 0;
+                }
+            }
+
+            if (rangeStart < nucleus.size()) {
+                forks.add(new FillTask(null, nucleus, rangeStart, nucleus.size(), mask));
+            }
+        }
+
+        /**
+         * Adds the segments filled by the task and its forks to the provided list, in
+         * the traversal order.
+         */
+        private void collect(List<Segment> result) {
+            var pending = new ArrayDeque<FillTask>();
+            pending.push(this);
+
+            while (!pending.isEmpty()) {
+                var task = pending.pop();
+                if (task.segment == null) {
+                    continue;
+                }
+
+                result.add(task.segment);
+                if (task.forks != null) {
+                    // Push the forks in reverse, so the first one is collected first.
+                    for (int i = task.forks.size() - 1; i >= 0; i--) {
+                        pending.push(task.forks.get(i));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package fr.mercury.nucleus.renderer.queue;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.math.readable.ReadableMatrix4f;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.Camera;
+import fr.mercury.nucleus.renderer.Renderer;
+import fr.mercury.nucleus.scenegraph.BatchedPhysicaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.scenegraph.PhysicaMundi;
+import fr.mercury.nucleus.scenegraph.ResolvedEnvironment;
+import fr.mercury.nucleus.scenegraph.ResolvedRenderStates;
+
+/**
+ * <code>RenderSnapshot</code> is a compact copy of everything needed to render a frame, extracted from the visible
+ * {@link PhysicaMundi} of a scene in their rendering order, as well as the matrices of the {@link Camera} used for the
+ * extraction.
+ * <p>
+ * Each render proxy stores the world matrix, the {@link Mesh}, the {@link Material} and the resolved render states and
+ * environment elements of a physica-mundi, so that the snapshot can be rendered by the <code>OpenGL</code> thread while
+ * the scene is updated for the next frame by another thread. The resolved tables are immutable, however the mesh and
+ * the material are shared with the scene and shouldn't be modified while the snapshot is rendered.
+ * <p>
+ * A snapshot should be used by a single thread at a time, usually two of them are exchanged between the update and the
+ * rendering threads.
+ *
+ * @author GnosticOccultist
+ *
+ * @see Renderer#extractScene(fr.mercury.nucleus.scenegraph.NucleusMundi, RenderSnapshot)
+ * @see Renderer#renderSnapshot(RenderSnapshot)
+ */
+public final class RenderSnapshot {
+
+    /**
+     * The initial number of render proxies, specified as 16.
+     */
+    private static final int INITIAL_SIZE = 16;
+    /**
+     * The number of floats used by a world matrix.
+     */
+    private static final int MATRIX_SIZE = 16;
+
+    /**
+     * The world matrices of the proxies, stored in row order.
+     */
+    private float[] matrices;
+    /**
+     * The meshes of the proxies.
+     */
+    private Mesh[] meshes;
+    /**
+     * The materials of the proxies.
+     */
+    private Material[] materials;
+    /**
+     * The resolved render states of the proxies.
+     */
+    private ResolvedRenderStates[] states;
+    /**
+     * The resolved environment elements of the proxies.
+     */
+    private ResolvedEnvironment[] environments;
+    /**
+     * The draw ranges of the proxies, or null to draw the whole mesh.
+     */
+    private int[][] ranges;
+    /**
+     * The number of proxies in the snapshot.
+     */
+    private int size = 0;
+    /**
+     * The matrix used to compute the world matrix of a physica-mundi.
+     */
+    private final Matrix4f modelMatrix = new Matrix4f();
+    /**
+     * The view matrix of the camera.
+     */
+    private final Matrix4f viewMatrix = new Matrix4f();
+    /**
+     * The projection matrix of the camera.
+     */
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    /**
+     * The view-projection matrix of the camera.
+     */
+    private final Matrix4f viewProjectionMatrix = new Matrix4f();
+    /**
+     * The location of the camera.
+     */
+    private final Vector3f cameraLocation = new Vector3f();
+    /**
+     * The near depth range of the camera.
+     */
+    private float nearDepthRange = 0.0F;
+    /**
+     * The far depth range of the camera.
+     */
+    private float farDepthRange = 1.0F;
+
+    /**
+     * Instantiates a new empty <code>RenderSnapshot</code> with an initial
+     * capacity of {@link #INITIAL_SIZE} proxies.
+     */
+    public RenderSnapshot() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Instantiates a new empty <code>RenderSnapshot</code> with the specified
+     * initial capacity.
+     *
+     * @param capacity The initial number of proxies of the snapshot (&gt;0).
+     */
+    public RenderSnapshot(int capacity) {
+        Validator.positive(capacity, "The capacity of the snapshot must be strictly positive!");
+        this.matrices = new float[capacity * MATRIX_SIZE];
+        this.meshes = new Mesh[capacity];
+        this.materials = new Material[capacity];
+        this.states = new ResolvedRenderStates[capacity];
+        this.environments = new ResolvedEnvironment[capacity];
+        this.ranges = new int[capacity][];
+    }
+
+    /**
+     * Resets the <code>RenderSnapshot</code> by removing all its proxies, and
+     * copies the state of the provided {@link Camera}, whose matrices must be
+     * up-to-date.
+     *
+     * @param camera The camera used to extract the new frame (not null).
+     *
+     * @see Camera#update()
+     */
+    public void reset(Camera camera) {
+        Validator.nonNull(camera, "The camera can't be null!");
+
+        // Release the references of the previous frame.
+        Arrays.fill(meshes, 0, size, null);
+        Arrays.fill(materials, 0, size, null);
+        Arrays.fill(states, 0, size, null);
+        Arrays.fill(environments, 0, size, null);
+        Arrays.fill(ranges, 0, size, null);
+        this.size = 0;
+
+        viewMatrix.set(camera.getViewMatrix());
+        projectionMatrix.set(camera.getProjectionMatrix());
+        viewProjectionMatrix.set(camera.getViewProjectionMatrix());
+        cameraLocation.set(camera.getLocation());
+        this.nearDepthRange = camera.getNearDepthRange();
+        this.farDepthRange = camera.getFarDepthRange();
+    }
+
+    /**
+     * Adds a render proxy of the provided {@link PhysicaMundi} at the end of the
+     * <code>RenderSnapshot</code>, by copying its world matrix and its resolved
+     * states. The physica-mundi must have been updated with its geometric state.
+     *
+     * @param physica The physica-mundi to add to the snapshot (not null).
+     */
+    public void add(PhysicaMundi physica) {
+        Validator.nonNull(physica, "The physica-mundi can't be null!");
+
+        if (size == meshes.length) {
+            var capacity = size * 2;
+            this.matrices = Arrays.copyOf(matrices, capacity * MATRIX_SIZE);
+            this.meshes = Arrays.copyOf(meshes, capacity);
+            this.materials = Arrays.copyOf(materials, capacity);
+            this.states = Arrays.copyOf(states, capacity);
+            this.environments = Arrays.copyOf(environments, capacity);
+            this.ranges = Arrays.copyOf(ranges, capacity);
+        }
+
+        var m = physica.getWorldTransform().asModelMatrix(modelMatrix);
+        var offset = size * MATRIX_SIZE;
+        matrices[offset] = m.m00();
+        matrices[offset + 1] = m.m01();
+        matrices[offset + 2] = m.m02();
+        matrices[offset + 3] = m.m03();
+        matrices[offset + 4] = m.m10();
+        matrices[offset + 5] = m.m11();
+        matrices[offset + 6] = m.m12();
+        matrices[offset + 7] = m.m13();
+        matrices[offset + 8] = m.m20();
+        matrices[offset + 9] = m.m21();
+        matrices[offset + 10] = m.m22();
+        matrices[offset + 11] = m.m23();
+        matrices[offset + 12] = m.m30();
+        matrices[offset + 13] = m.m31();
+        matrices[offset + 14] = m.m32();
+        matrices[offset + 15] = m.m33();
+
+        meshes[size] = physica.getMesh();
+        materials[size] = physica.getMaterial();
+        states[size] = physica.getResolvedRenderStates();
+        environments[size] = physica.getResolvedEnvironment();
+        // The published draw ranges of a batch are never modified, so they can be shared.
+        ranges[size] = physica instanceof BatchedPhysicaMundi ? ((BatchedPhysicaMundi) physica).getDrawRanges() : null;
+        size++;
+    }
+
+    /**
+     * Return the world matrix of the proxy at the given index in the
+     * <code>RenderSnapshot</code>.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @param store The matrix to store the result in (not null).
+     * @return      The provided store with the world matrix.
+     */
+    public Matrix4f getWorldMatrix(int index, Matrix4f store) {
+        var offset = checkIndex(index) * MATRIX_SIZE;
+        return store.set(matrices[offset], matrices[offset + 1], matrices[offset + 2], matrices[offset + 3],
+                matrices[offset + 4], matrices[offset + 5], matrices[offset + 6], matrices[offset + 7],
+                matrices[offset + 8], matrices[offset + 9], matrices[offset + 10], matrices[offset + 11],
+                matrices[offset + 12], matrices[offset + 13], matrices[offset + 14], matrices[offset + 15]);
+    }
+
+    /**
+     * Return the {@link Mesh} of the proxy at the given index in the
+     * <code>RenderSnapshot</code>.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @return      The mesh to render.
+     */
+    public Mesh getMesh(int index) {
+        return meshes[checkIndex(index)];
+    }
+
+    /**
+     * Return the {@link Material} of the proxy at the given index in the
+     * <code>RenderSnapshot</code>.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @return      The material to render the mesh with.
+     */
+    public Material getMaterial(int index) {
+        return materials[checkIndex(index)];
+    }
+
+    /**
+     * Return the {@link ResolvedRenderStates} of the proxy at the given index in
+     * the <code>RenderSnapshot</code>.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @return      The render states to apply.
+     */
+    public ResolvedRenderStates getRenderStates(int index) {
+        return states[checkIndex(index)];
+    }
+
+    /**
+     * Return the {@link ResolvedEnvironment} of the proxy at the given index in
+     * the <code>RenderSnapshot</code>.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @return      The environment elements to apply.
+     */
+    public ResolvedEnvironment getEnvironment(int index) {
+        return environments[checkIndex(index)];
+    }
+
+    /**
+     * Return the draw ranges of the proxy at the given index in the
+     * <code>RenderSnapshot</code>, if only some pieces of its {@link Mesh} are
+     * visible.
+     *
+     * @param index The index of the proxy (&ge;0, &lt;size).
+     * @return      The draw ranges of the visible pieces, or null to draw the whole
+     *              mesh.
+     *
+     * @see BatchedPhysicaMundi#getDrawRanges()
+     */
+    public int[] getDrawRanges(int index) {
+        return ranges[checkIndex(index)];
+    }
+
+    /**
+     * Return the number of consecutive proxies in the <code>RenderSnapshot</code>,
+     * starting from the given index, which can be drawn as instances of the same
+     * {@link Mesh}.
+     *
+     * @param index The index of the first proxy (&ge;0, &lt;size).
+     * @return      The number of instances to draw, or 0 if the proxy at the index
+     *              doesn't use instancing.
+     *
+     * @see RenderBucket#countInstances(int)
+     */
+    public int countInstances(int index) {
+        checkIndex(index);
+
+        var mesh = meshes[index];
+        var material = materials[index];
+        if (ranges[index] != null || !RenderBucket.usesInstancing(mesh, material)) {
+            return 0;
+        }
+
+        var end = index + 1;
+        while (end < size && ranges[end] == null && meshes[end] == mesh
+                && RenderBucket.isInstanceCompatible(material, materials[end]) && states[end] == states[index]
+                && environments[end] == environments[index]) {
+            end++;
+        }
+        return end - index;
+    }
+
+    /**
+     * Populates the provided <code>FloatBuffer</code> with the world matrices of the
+     * given number of proxies in the <code>RenderSnapshot</code>, starting from the
+     * given index, as expected by an instance attribute.
+     *
+     * @param index The index of the first proxy (&ge;0, &lt;size).
+     * @param count The number of world matrices to populate (&gt;0, &le;size-index).
+     * @param store The buffer to populate with the matrices (not null).
+     * @return      The provided store populated with the matrices.
+     */
+    public FloatBuffer populateWorldMatrices(int index, int count, FloatBuffer store) {
+        Validator.nonNull(store, "The buffer to populate can't be null!");
+        checkIndex(index);
+        checkIndex(index + count - 1);
+
+        return store.put(matrices, index * MATRIX_SIZE, count * MATRIX_SIZE);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Return the readable-only view matrix of the {@link Camera} used for the
+     * extraction.
+     *
+     * @return The view matrix of the snapshot.
+     */
+    public ReadableMatrix4f getViewMatrix() {
+        return viewMatrix;
+    }
+
+    /**
+     * Return the readable-only projection matrix of the {@link Camera} used for
+     * the extraction.
+     *
+     * @return The projection matrix of the snapshot.
+     */
+    public ReadableMatrix4f getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    /**
+     * Return the readable-only view-projection matrix of the {@link Camera} used
+     * for the extraction.
+     *
+     * @return The view-projection matrix of the snapshot.
+     */
+    public ReadableMatrix4f getViewProjectionMatrix() {
+        return viewProjectionMatrix;
+    }
+
+    /**
+     * Return the readable-only location of the {@link Camera} used for the
+     * extraction.
+     *
+     * @return The camera location of the snapshot.
+     */
+    public ReadableVector3f getCameraLocation() {
+        return cameraLocation;
+    }
+
+    /**
+     * Return the near depth range of the {@link Camera} used for the extraction.
+     *
+     * @return The near depth range of the snapshot.
+     */
+    public float getNearDepthRange() {
+        return nearDepthRange;
+    }
+
+    /**
+     * Return the far depth range of the {@link Camera} used for the extraction.
+     *
+     * @return The far depth range of the snapshot.
+     */
+    public float getFarDepthRange() {
+        return farDepthRange;
+    }
+
+    /**
+     * Return the number of render proxies in the <code>RenderSnapshot</code>.
+     *
+     * @return The size of the snapshot (&ge;0).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the <code>RenderSnapshot</code> doesn't contain any render
+     * proxy.
+     *
+     * @return Whether the snapshot is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ size= " + size + " ]";
+    }
+}
@@ -0,0 +1,139 @@
+package fr.mercury.nucleus.renderer.queue;
+
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.Material;
+import fr.mercury.nucleus.scenegraph.Mesh;
+import fr.mercury.nucleus.texture.Texture;
+
+/**
+ * <code>RenderSortKey</code> packs the rendering order of an {@link AnimaMundi} inside a {@link RenderBucket} into
+ * a single 64-bit key, so that the bucket can be sorted by comparing keys as unsigned integers instead of invoking
+ * a comparator.
+ * <p>
+ * The most significant bits hold the rank of the {@link RenderLayer}, so that the layers are rendered by increasing
+ * index. With {@link DepthOrder#FRONT_TO_BACK} the layer is followed by the {@link ShaderProgram}, {@link Texture},
+ * {@link Material} and {@link Mesh} identifiers, limiting the state changes and keeping the instances of a mesh
+ * grouped, and finally by the quantized distance to the camera. With {@link DepthOrder#BACK_TO_FRONT} the inverted
+ * distance directly follows the layer, and the states are only used to break the ties.
+ * <p>
+ * The identifiers are dense ranks given by the bucket for each sort, and are clamped to the size of their field.
+ * Clamped identifiers only merge some groups together, the order being still valid.
+ *
+ * @author GnosticOccultist
+ */
+public final class RenderSortKey {
+
+    /**
+     * The number of bits for the rank of the render layer.
+     */
+    public static final int LAYER_BITS = 6;
+    /**
+     * The number of bits for the identifier of the shader program.
+     */
+    public static final int SHADER_BITS = 10;
+    /**
+     * The number of bits for the identifier of the texture.
+     */
+    public static final int TEXTURE_BITS = 10;
+    /**
+     * The number of bits for the identifier of the material.
+     */
+    public static final int MATERIAL_BITS = 10;
+    /**
+     * The number of bits for the identifier of the mesh.
+     */
+    public static final int MESH_BITS = 12;
+    /**
+     * The number of bits for the quantized distance, when sorting front to back.
+     */
+    public static final int FRONT_TO_BACK_DEPTH_BITS = 16;
+    /**
+     * The number of bits for the quantized distance, when sorting back to front.
+     */
+    public static final int BACK_TO_FRONT_DEPTH_BITS = 24;
+
+    /**
+     * The number of bits for the states, following the layer rank.
+     */
+    private static final int STATE_BITS = SHADER_BITS + TEXTURE_BITS + MATERIAL_BITS + MESH_BITS;
+
+    /**
+     * Private constructor to inhibit instantiation of <code>RenderSortKey</code>.
+     */
+    private RenderSortKey() {}
+
+    /**
+     * Packs the provided identifiers and distance into a sort key, following the
+     * given {@link DepthOrder}. The keys need to be compared as unsigned integers.
+     *
+     * @param order    The depth order of the bucket (not null).
+     * @param layer    The rank of the render layer (&ge;0).
+     * @param shader   The identifier of the shader program, or 0 if none (&ge;0).
+     * @param texture  The identifier of the texture, or 0 if none (&ge;0).
+     * @param material The identifier of the material, or 0 if none (&ge;0).
+     * @param mesh     The identifier of the mesh, or 0 if none (&ge;0).
+     * @param distance The distance from the camera (&ge;0).
+     * @return         The packed sort key.
+     */
+    public static long pack(DepthOrder order, int layer, int shader, int texture, int material, int mesh,
+            double distance) {
+        long state = field(shader, SHADER_BITS);
+        state = state << TEXTURE_BITS | field(texture, TEXTURE_BITS);
+        state = state << MATERIAL_BITS | field(material, MATERIAL_BITS);
+        state = state << MESH_BITS | field(mesh, MESH_BITS);
+
+        long key = field(layer, LAYER_BITS);
+        if (order == DepthOrder.FRONT_TO_BACK) {
+            key = key << STATE_BITS | state;
+            return key << FRONT_TO_BACK_DEPTH_BITS | quantize(distance, FRONT_TO_BACK_DEPTH_BITS);
+        }
+
+        // Only keep the most significant bits of the states to break the ties.
+        var remaining = Long.SIZE - LAYER_BITS - BACK_TO_FRONT_DEPTH_BITS;
+        var depth = (1L << BACK_TO_FRONT_DEPTH_BITS) - 1 - quantize(distance, BACK_TO_FRONT_DEPTH_BITS);
+        key = key << BACK_TO_FRONT_DEPTH_BITS | depth;
+        return key << remaining | state >>> (STATE_BITS - remaining);
+    }
+
+    /**
+     * Return the quantized value of the provided distance, using the given number
+     * of bits. The most significant bits of a positive float preserve its order,
+     * so the precision is relative to the distance and no far plane is required.
+     *
+     * @param distance The distance to quantize (&ge;0).
+     * @param bits     The number of bits of the quantized distance (&gt;0, &le;31).
+     * @return         The quantized distance, increasing with the distance.
+     */
+    public static long quantize(double distance, int bits) {
+        // The sign bit is always cleared, so it is dropped.
+        var value = Float.floatToRawIntBits(Math.max((float) distance, 0.0F));
+        return value >>> (Integer.SIZE - 1 - bits);
+    }
+
+    /**
+     * Return the provided identifier clamped to the given number of bits.
+     */
+    private static long field(int value, int bits) {
+        return Math.min(Math.max(value, 0), (1 << bits) - 1);
+    }
+
+    /**
+     * <code>DepthOrder</code> enumerates the orders in which the {@link AnimaMundi} at different distances of the
+     * camera are rendered by a {@link RenderBucket} sorted with {@link RenderSortKey}.
+     *
+     * @author GnosticOccultist
+     */
+    public enum DepthOrder {
+        /**
+         * The states are sorted first, then the closest objects are rendered first
+         * to limit the overdraw, which suits opaque objects.
+         */
+        FRONT_TO_BACK,
+        /**
+         * The farthest objects are rendered first, so they can be blended behind the
+         * closest ones, which suits transparent objects.
+         */
+        BACK_TO_FRONT;
+    }
+}
@@ -1,18 +1,19 @@
 package fr.mercury.nucleus.scenegraph;
 
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Stack;
+import java.util.Set;
 
 import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.collections.array.Array;
 import fr.alchemy.utilities.collections.array.ReadOnlyArray;
 import fr.alchemy.utilities.logging.FactoryLogger;
 import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.BoundingSphere;
 import fr.mercury.nucleus.math.objects.Matrix3f;
 import fr.mercury.nucleus.math.objects.Quaternion;
 import fr.mercury.nucleus.math.objects.Transform;
@@ -21,6 +22,7 @@ import fr.mercury.nucleus.math.readable.ReadableMatrix3f;
 import fr.mercury.nucleus.math.readable.ReadableQuaternion;
 import fr.mercury.nucleus.math.readable.ReadableTransform;
 import fr.mercury.nucleus.math.readable.ReadableVector3f;
+import fr.mercury.nucleus.renderer.Camera;
 import fr.mercury.nucleus.renderer.logic.state.RenderState;
 import fr.mercury.nucleus.renderer.logic.state.RenderState.Type;
 import fr.mercury.nucleus.renderer.queue.BucketType;
@@ -30,6 +32,9 @@ import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
 import fr.mercury.nucleus.scenegraph.environment.EnvironmentMode;
 import fr.mercury.nucleus.scenegraph.visitor.AbstractVisitor;
 import fr.mercury.nucleus.scenegraph.visitor.DirtyType;
+import fr.mercury.nucleus.scenegraph.visitor.PruningVisitor;
+import fr.mercury.nucleus.scenegraph.visitor.SceneTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.VisitResult;
 import fr.mercury.nucleus.scenegraph.visitor.VisitType;
 import fr.mercury.nucleus.scenegraph.visitor.Visitor;
 import fr.mercury.nucleus.utils.ReadableTimer;
@@ -54,12 +59,20 @@ import fr.mercury.nucleus.utils.ReadableTimer;
  */
 public abstract class AnimaMundi {
 
-    private static final Map<RenderState.Type, Stack<RenderState>> states = new HashMap<>();
-
     /**
      * The logger for the scene-graph.
      */
     protected static final Logger logger = FactoryLogger.getLogger("mercury.scenegraph");
+    /**
+     * The environment elements of the anima-mundis which don't define any, shared
+     * to avoid allocating an array per anima-mundi. It must never be modified.
+     */
+    private static final Array<EnvironmentElement> NO_ENV_ELEMENTS = Array.ofType(EnvironmentElement.class);
+    /**
+     * The controllers of the anima-mundis which don't have any, shared to avoid
+     * allocating an array per anima-mundi. It must never be modified.
+     */
+    private static final Array<Controller> NO_CONTROLLERS = Array.ofType(Controller.class);
 
     /**
      * An implementation of a visitor to update the transform of a hierarchy of
@@ -69,22 +82,94 @@ public abstract class AnimaMundi {
 
         @Override
         public void onVisit(AnimaMundi anima) {
-            anima.updateWorldTransform();
+            var store = anima.getTransformStore();
+            if (store != null) {
+                // The store may have been dirtied from outside through its root, it only computes once per update.
+                store.update();
+                anima.clearDirty(DirtyType.TRANSFORM);
+            } else {
+                anima.updateWorldTransform();
+            }
         }
     };
 
     /**
-     * An implementation of a visitor to update the render states of a hierarchy of
-     * anima-mundi.
+     * An implementation of a visitor to update the world bounds of a hierarchy of
+     * anima-mundi, it must be used in {@link VisitType#POST_ORDER} so that the
+     * children bounds are computed before their parent ones.
      */
-    protected static final AbstractVisitor RENDER_STATE_UPDATER = new AbstractVisitor() {
+    protected static final AbstractVisitor BOUNDS_UPDATER = new AbstractVisitor() {
 
         @Override
         public void onVisit(AnimaMundi anima) {
-            anima.collectState(states);
-            anima.applyState(states);
+            anima.updateWorldBound();
+            anima.clearDirty(DirtyType.BOUNDS);
+        }
+    };
+    /**
+     * The visitor entering each anima-mundi during the geometric state update, which
+     * updates its own state and only descends into the subtrees containing a dirty
+     * anima-mundi.
+     */
+    private static final PruningVisitor GEOMETRIC_STATE_UPDATER = (anima, depth) -> {
+        if (anima.dirtyMarks == 0 && !anima.dirtyDescendants) {
+            // Nothing has changed in this subtree since the last update.
+            return VisitResult.SKIP_CHILDREN;
+        }
+
+        anima.updateLocalState();
+
+        if (anima.dirtyDescendants) {
+            // Clear it first, so a descendant dirtied during the update is kept for the next one.
+            anima.dirtyDescendants = false;
+            return VisitResult.CONTINUE;
         }
+        return VisitResult.SKIP_CHILDREN;
+    };
+    /**
+     * The visitor exiting each anima-mundi during the geometric state update, once
+     * its descendants have been updated.
+     */
+    private static final Visitor GEOMETRIC_BOUNDS_UPDATER = anima -> {
+        if (anima.isDirty(DirtyType.BOUNDS)) {
+            // Only the bounds of some descendants have changed, which are now updated.
+            anima.updateWorldBound();
+            anima.clearDirty(DirtyType.BOUNDS);
+        }
+    };
+    /**
+     * The visitor applying the {@link DirtyType#TRANSFORM} mark to a subtree.
+     */
+    private static final PruningVisitor TRANSFORM_MARKER = (anima, depth) -> {
+        anima.propagateDown(DirtyType.TRANSFORM);
+        return VisitResult.CONTINUE;
     };
+    /**
+     * The visitor resolving the render states of the descendants of an anima-mundi
+     * whose resolved states changed, the root being already resolved. A subtree is
+     * skipped when its resolved states remain the same.
+     */
+    private static final PruningVisitor RENDER_STATES_RESOLVER = (anima, depth) -> depth == 0
+            || anima.resolveRenderStates() ? VisitResult.CONTINUE : VisitResult.SKIP_CHILDREN;
+    /**
+     * The visitor resolving the environment elements of the descendants of an
+     * anima-mundi whose resolved elements changed, the root being already resolved.
+     * A subtree is skipped when its resolved elements remain the same.
+     */
+    private static final PruningVisitor ENVIRONMENT_RESOLVER = (anima, depth) -> depth == 0
+            || anima.resolveEnvironment() ? VisitResult.CONTINUE : VisitResult.SKIP_CHILDREN;
+    /**
+     * The visitor resolving the bucket and layer of the descendants of an
+     * anima-mundi whose resolved values changed, the root being already resolved. A
+     * subtree is skipped when its resolved values remain the same.
+     */
+    private static final PruningVisitor QUEUEING_RESOLVER = (anima, depth) -> depth == 0
+            || anima.resolveQueueing() ? VisitResult.CONTINUE : VisitResult.SKIP_CHILDREN;
+    /**
+     * The visitor updating the layer mask of each anima-mundi entered by the
+     * {@link #QUEUEING_RESOLVER}, once the masks of its children are up-to-date.
+     */
+    private static final Visitor LAYER_MASK_UPDATER = anima -> anima.layerMask = anima.computeLayerMask();
 
     /**
      * The name of the spatial, mainly used for debugging.
@@ -98,10 +183,23 @@ public abstract class AnimaMundi {
      * The transform of the anima-mundi in the global scene-graph.
      */
     protected final Transform worldTransform;
+    /**
+     * The bounding box enclosing the anima-mundi in the global scene-graph.
+     */
+    protected final BoundingBox worldBoundingBox = new BoundingBox();
+    /**
+     * The bounding sphere enclosing the anima-mundi in the global scene-graph.
+     */
+    protected final BoundingSphere worldBoundingSphere = new BoundingSphere();
     /**
      * The parent of the anima-mundi.
      */
     protected NucleusMundi parent = null;
+    /**
+     * The bookkeeping of the transform store, bounding volume hierarchy and
+     * controllers of the anima-mundi, or null if none of them has been used yet.
+     */
+    private transient Attachments attachments = null;
     /**
      * The bucket used for queueing and rendering the anima-mundi.
      */
@@ -110,6 +208,20 @@ public abstract class AnimaMundi {
      * The layer the anima-mundi is present on.
      */
     protected RenderLayer layer = RenderLayer.LEGACY;
+    /**
+     * The bucket effectively used by the anima-mundi, once the legacy bucket has
+     * been resolved with its ancestors.
+     */
+    transient BucketType resolvedBucket = BucketType.OPAQUE;
+    /**
+     * The layer effectively used by the anima-mundi, once the legacy layer has been
+     * resolved with its ancestors.
+     */
+    transient RenderLayer resolvedLayer = RenderLayer.DEFAULT;
+    /**
+     * The mask of the resolved layers used in the subtree of the anima-mundi.
+     */
+    transient long layerMask = RenderLayer.DEFAULT.mask();
     /**
      * The environment mode describing how environmental elements should be passed
      * through the scene-graph.
@@ -117,18 +229,39 @@ public abstract class AnimaMundi {
     protected EnvironmentMode envMode = EnvironmentMode.LOCAL_PRIORITY;
     /**
      * The array of environmental elements which are locally present on this
-     * anima-mundi.
+     * anima-mundi, or null if none has been added yet.
      */
-    protected final Array<EnvironmentElement> envElements = Array.ofType(EnvironmentElement.class);
+    protected Array<EnvironmentElement> envElements = null;
     /**
-     * The accumulated dirty marks by the anima-mundi. At instantiation it will
-     * contain {@link DirtyType#TRANSFORM}.
+     * The environment elements effectively applied to the anima-mundi, combining
+     * the local ones with the ones inherited from its ancestors.
      */
-    protected final EnumSet<DirtyType> dirtyMarks = EnumSet.of(DirtyType.TRANSFORM, DirtyType.RENDER_STATE);
+    protected transient ResolvedEnvironment resolvedEnvironment = ResolvedEnvironment.EMPTY;
     /**
-     * The render states to be applied locally to the anima-mundi.
+     * The accumulated dirty marks by the anima-mundi, as a mask of the ordinals of
+     * each {@link DirtyType}. At instantiation it will contain every type.
      */
-    protected final EnumMap<RenderState.Type, RenderState> renderStates = new EnumMap<>(Type.class);
+    protected int dirtyMarks = (1 << DirtyType.values().length) - 1;
+    /**
+     * Whether one of the descendants of the anima-mundi has dirty marks, meaning
+     * its subtree can't be skipped during the next geometric state update.
+     */
+    protected transient boolean dirtyDescendants = false;
+    /**
+     * The number of anima-mundis in the subtree starting from this anima-mundi,
+     * including itself.
+     */
+    private transient int subtreeSize = 1;
+    /**
+     * The render states to be applied locally to the anima-mundi, or null if none
+     * has been set yet.
+     */
+    protected EnumMap<RenderState.Type, RenderState> renderStates = null;
+    /**
+     * The render states effectively applied to the anima-mundi, combining the local
+     * ones with the ones inherited from its ancestors.
+     */
+    protected transient ResolvedRenderStates resolvedStates = ResolvedRenderStates.EMPTY;
     /**
      * The queue distance computed by the {@link RenderBucket}.
      */
@@ -159,33 +292,44 @@ public abstract class AnimaMundi {
      * <p>
      * If the implementation calling this method is a {@link NucleusMundi}, it will
      * also update the geometric state of its children.
+     * <p>
+     * The subtrees which haven't changed since the last update are skipped, so the
+     * cost of the update only depends on the number of changed anima-mundis.
      * 
      * @param timer The timer used by the application (not null).
      */
     public void updateGeometricState(ReadableTimer timer) {
-        if (dirtyMarks.isEmpty()) {
-            updateChildren(timer);
-        } else {
-            if (isDirty(DirtyType.TRANSFORM)) {
-                visit(TRANSFORM_UPDATER, VisitType.PRE_ORDER);
-            }
-
-            if (isDirty(DirtyType.RENDER_STATE)) {
-                visit(RENDER_STATE_UPDATER, VisitType.PRE_ORDER);
-            }
-
-            updateChildren(timer);
+        if (dirtyMarks == 0 && !dirtyDescendants) {
+            // Nothing has changed in this subtree since the last update.
+            return;
         }
+
+        // The dirty subtrees are updated iteratively, so a deep hierarchy can't overflow the stack.
+        SceneTraversal.local().traverse(this, GEOMETRIC_STATE_UPDATER, GEOMETRIC_BOUNDS_UPDATER);
     }
 
     /**
-     * Updates the children of the <code>AnimaMundi</code>. The method should be
-     * implemented for implementation such as {@link NucleusMundi} to cycle through
-     * its children and update their state.
-     * 
-     * @param timer The timer used by the application (not null).
+     * Updates the state of the <code>AnimaMundi</code> itself during the geometric
+     * state update, before its dirty descendants. A dirty world transform is
+     * updated for the whole subtree at once, and changed render states or
+     * environment elements are resolved again for the descendants inheriting them.
      */
-    protected void updateChildren(ReadableTimer timer) {}
+    private void updateLocalState() {
+        if (isDirty(DirtyType.TRANSFORM)) {
+            // The transform store of a visited anima-mundi is updated by the visitor.
+            visit(TRANSFORM_UPDATER, VisitType.PRE_ORDER);
+            // The bounds are merged from the leaves up to this anima-mundi.
+            visit(BOUNDS_UPDATER, VisitType.POST_ORDER);
+        }
+
+        if (isDirty(DirtyType.RENDER_STATE) && resolveRenderStates()) {
+            traverse(RENDER_STATES_RESOLVER, VisitType.PRE_ORDER);
+        }
+
+        if (isDirty(DirtyType.ENVIRONMENT) && resolveEnvironment()) {
+            traverse(ENVIRONMENT_RESOLVER, VisitType.PRE_ORDER);
+        }
+    }
 
     /**
      * Update the world {@link Transform} by combining the local transform of this
@@ -206,7 +350,21 @@ public abstract class AnimaMundi {
             worldTransform.set(localTransform);
         }
 
-        dirtyMarks.remove(DirtyType.TRANSFORM);
+        clearDirty(DirtyType.TRANSFORM);
+    }
+
+    /**
+     * Update the world bounds of the <code>AnimaMundi</code>, using its world
+     * {@link Transform}. The method is called after the world transform of this
+     * anima-mundi and its descendants have been updated.
+     * <p>
+     * By default, the anima-mundi has empty bounds, implementations such as
+     * {@link PhysicaMundi} or {@link NucleusMundi} should override it to compute
+     * their actual bounds.
+     */
+    protected void updateWorldBound() {
+        worldBoundingBox.setEmpty();
+        worldBoundingSphere.setEmpty();
     }
 
     /**
@@ -218,12 +376,29 @@ public abstract class AnimaMundi {
      */
     protected boolean isDirty(DirtyType type) {
         Validator.nonNull(type);
-        return dirtyMarks.contains(type);
+        return (dirtyMarks & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Removes the specified {@link DirtyType} mark from the
+     * <code>AnimaMundi</code> only, once its data has been refreshed.
+     * 
+     * @param type The data type which has been refreshed (not null).
+     */
+    protected void clearDirty(DirtyType type) {
+        dirtyMarks &= ~(1 << type.ordinal());
     }
 
     /**
      * Sets the dirty mark for the specified {@link DirtyType} to this
      * <code>AnimaMundi</code> and all of its hierarchy.
+     * <p>
+     * A {@link DirtyType#TRANSFORM} mark is propagated to the descendants, and
+     * only invalidates the bounds of the ancestors, whose subtrees containing no
+     * dirty anima-mundi will be skipped by the next update. A
+     * {@link DirtyType#RENDER_STATE} or {@link DirtyType#ENVIRONMENT} mark is only
+     * applied to this anima-mundi, the descendants being resolved again only if its
+     * resolved states or elements changed.
      * 
      * @param type The dirty mark to apply (not null).
      */
@@ -232,28 +407,99 @@ public abstract class AnimaMundi {
 
         switch (type) {
         case TRANSFORM:
-            propagateDown(type);
-
-            if (parent != null) {
-                parent.dirty(type);
-            }
+            traverse(TRANSFORM_MARKER, VisitType.PRE_ORDER);
+            propagateUp(DirtyType.BOUNDS);
+            break;
+        case BOUNDS:
+            dirtyMarks |= 1 << type.ordinal();
+            propagateUp(type);
             break;
         case RENDER_STATE:
-            propagateDown(type);
+        case ENVIRONMENT:
+            dirtyMarks |= 1 << type.ordinal();
+            propagateUp(null);
             break;
         }
     }
 
     /**
-     * Propagates the {@link DirtyType} down the scenegraph starting from the
-     * <code>AnimaMundi</code>. If an implementation of this class handles children,
-     * it must propagate the dirty marks to its descendants.
+     * Marks the local {@link Transform} of each provided <code>AnimaMundi</code> as
+     * changed in a single batch, once they have been modified directly. The
+     * {@link DirtyType#TRANSFORM} mark is only propagated from the anima-mundis
+     * which don't have a changed ancestor, since their descendants are marked with
+     * it.
      * 
-     * @param type The dirty type to propagate down the scenegraph (not null).
+     * @param changed The anima-mundis whose local transform changed (not null).
+     */
+    static void dirtyLocalTransforms(Set<AnimaMundi> changed) {
+        for (var anima : changed) {
+            var store = anima.getTransformStore();
+            if (store != null) {
+                store.markChanged(anima.getStoreIndex());
+            }
+            if (!hasChangedAncestor(anima, changed)) {
+                anima.dirty(DirtyType.TRANSFORM);
+            }
+        }
+    }
+
+    private static boolean hasChangedAncestor(AnimaMundi anima, Set<AnimaMundi> changed) {
+        for (var ancestor = anima.parent; ancestor != null; ancestor = ancestor.parent) {
+            if (changed.contains(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the local {@link Transform} of the <code>AnimaMundi</code> as changed,
+     * by notifying its {@link TransformStore} if any and applying the
+     * {@link DirtyType#TRANSFORM} mark.
+     */
+    protected void dirtyLocalTransform() {
+        var store = getTransformStore();
+        if (store != null) {
+            store.markChanged(getStoreIndex());
+        }
+
+        dirty(DirtyType.TRANSFORM);
+    }
+
+    /**
+     * Notifies the ancestors of the <code>AnimaMundi</code> that one of their
+     * descendants is dirty, and applies the given {@link DirtyType} to each of
+     * them if any.
+     * <p>
+     * The propagation stops at the first ancestor already notified, since its own
+     * ancestors have been notified at the same time.
+     * 
+     * @param type The dirty type to apply to the ancestors, or null to only notify them.
+     */
+    protected void propagateUp(DirtyType type) {
+        for (var ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor.dirtyDescendants && (type == null || ancestor.isDirty(type))) {
+                break;
+            }
+
+            ancestor.dirtyDescendants = true;
+            if (type != null) {
+                ancestor.dirtyMarks |= 1 << type.ordinal();
+            }
+        }
+    }
+
+    /**
+     * Applies the {@link DirtyType} propagated down the scenegraph to the
+     * <code>AnimaMundi</code>. The method is called for each anima-mundi of the
+     * dirtied subtree by an iterative traversal, so it mustn't propagate the mark to
+     * the children by itself.
+     * 
+     * @param type The dirty type propagated down the scenegraph (not null).
      */
     protected void propagateDown(DirtyType type) {
         Validator.nonNull(type, "The dirty type can't be null!");
-        dirtyMarks.add(type);
+        dirtyMarks |= 1 << type.ordinal();
     }
 
     /**
@@ -285,6 +531,40 @@ public abstract class AnimaMundi {
         return worldTransform;
     }
 
+    /**
+     * Return the {@link BoundingBox} enclosing the <code>AnimaMundi</code> and its
+     * descendants in the global scene-graph.
+     * 
+     * @return The world bounding box of the anima-mundi.
+     * @throws IllegalStateException Thrown if the world transform is dirty and should be first refresh.
+     * 
+     * @see #getWorldBoundingSphere()
+     */
+    public BoundingBox getWorldBoundingBox() {
+        if (isDirty(DirtyType.TRANSFORM) || isDirty(DirtyType.BOUNDS)) {
+            throw new IllegalStateException("The world bounds haven't been computed yet!");
+        }
+
+        return worldBoundingBox;
+    }
+
+    /**
+     * Return the {@link BoundingSphere} enclosing the <code>AnimaMundi</code> and
+     * its descendants in the global scene-graph.
+     * 
+     * @return The world bounding sphere of the anima-mundi.
+     * @throws IllegalStateException Thrown if the world transform is dirty and should be first refresh.
+     * 
+     * @see #getWorldBoundingBox()
+     */
+    public BoundingSphere getWorldBoundingSphere() {
+        if (isDirty(DirtyType.TRANSFORM) || isDirty(DirtyType.BOUNDS)) {
+            throw new IllegalStateException("The world bounds haven't been computed yet!");
+        }
+
+        return worldBoundingSphere;
+    }
+
     /**
      * Sets the transform of this <code>AnimaMundi</code> to the provided
      * {@link Transform} in the local coordinate space. Note that the
@@ -296,7 +576,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setTransform(ReadableTransform transform) {
         localTransform.set(transform);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -312,7 +592,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setTranslation(ReadableVector3f translation) {
         localTransform.setTranslation(translation);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -330,7 +610,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setTranslation(float x, float y, float z) {
         localTransform.setTranslation(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -346,7 +626,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi translate(ReadableVector3f translate) {
         localTransform.translate(translate);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -364,7 +644,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi translate(float x, float y, float z) {
         localTransform.translate(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -380,7 +660,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setRotation(ReadableQuaternion rotation) {
         localTransform.setRotation(rotation);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -396,7 +676,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setRotation(ReadableMatrix3f rotation) {
         localTransform.setRotation(rotation);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -414,7 +694,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setRotation(float x, float y, float z) {
         localTransform.setRotation(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -430,7 +710,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi rotate(ReadableQuaternion rotation) {
         localTransform.rotate(rotation.x(), rotation.y(), rotation.z());
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -448,7 +728,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi rotate(float x, float y, float z) {
         localTransform.rotate(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -464,7 +744,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setScale(Vector3f scale) {
         localTransform.setScale(scale);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -482,7 +762,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi setScale(float x, float y, float z) {
         localTransform.setScale(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -498,7 +778,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi scale(Vector3f scale) {
         localTransform.scale(scale);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -515,7 +795,7 @@ public abstract class AnimaMundi {
      */
     public AnimaMundi scale(float x, float y, float z) {
         localTransform.scale(x, y, z);
-        dirty(DirtyType.TRANSFORM);
+        dirtyLocalTransform();
 
         return this;
     }
@@ -555,7 +835,165 @@ public abstract class AnimaMundi {
      * @param parent The parent of the anima-mundi.
      */
     protected void setParent(NucleusMundi parent) {
+        var previous = this.parent;
+        if (previous != null) {
+            previous.adjustSubtreeSize(-subtreeSize);
+            previous.adjustControllers(-getSubtreeControllers());
+        }
+
         this.parent = parent;
+
+        // The inherited bucket and layer may have changed for the whole subtree.
+        resolveSubtreeQueueing();
+
+        if (previous != null) {
+            previous.updateLayerMask();
+        }
+        if (parent != null) {
+            parent.adjustSubtreeSize(subtreeSize);
+            parent.adjustControllers(getSubtreeControllers());
+            parent.mergeLayerMask(layerMask);
+        }
+    }
+
+    /**
+     * Adjusts the subtree size of the <code>AnimaMundi</code> and its ancestors by
+     * the given amount, when a descendant has been attached or detached.
+     * 
+     * @param delta The number of anima-mundis added to the subtree, negative if removed.
+     */
+    void adjustSubtreeSize(int delta) {
+        for (var anima = this; anima != null; anima = anima.parent) {
+            anima.subtreeSize += delta;
+        }
+    }
+
+    /**
+     * Adjusts the number of controllers in the subtree of the
+     * <code>AnimaMundi</code> and its ancestors by the given amount, and
+     * increments their controllers version.
+     * 
+     * @param delta The number of controllers added to the subtree, negative if removed.
+     */
+    void adjustControllers(int delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        for (var anima = this; anima != null; anima = anima.parent) {
+            var attachments = anima.attachments();
+            attachments.subtreeControllers += delta;
+            attachments.controllersVersion++;
+        }
+    }
+
+    /**
+     * Return the number of {@link Controller} attached in the subtree of the
+     * <code>AnimaMundi</code>, including its own ones.
+     * 
+     * @return The number of controllers in the subtree (&ge;0).
+     */
+    int getSubtreeControllers() {
+        return attachments != null ? attachments.subtreeControllers : 0;
+    }
+
+    /**
+     * Return the version of the {@link Controller} attached in the subtree of the
+     * <code>AnimaMundi</code>, which is incremented each time one is added or
+     * removed.
+     * 
+     * @return The version of the controllers in the subtree.
+     */
+    int getControllersVersion() {
+        return attachments != null ? attachments.controllersVersion : 0;
+    }
+
+    /**
+     * Return the array of {@link Controller} attached to the <code>AnimaMundi</code>
+     * in their attachment order, which mustn't be modified.
+     * 
+     * @return The attached controllers, or null if none has been added yet.
+     */
+    Array<Controller> getAttachedControllers() {
+        return attachments != null ? attachments.controllers : null;
+    }
+
+    /**
+     * Return the {@link TransformStore} in which the transforms of the
+     * <code>AnimaMundi</code> are computed.
+     * 
+     * @return The transform store, or null if the anima-mundi updates its transforms by itself.
+     */
+    TransformStore getTransformStore() {
+        return attachments != null ? attachments.transformStore : null;
+    }
+
+    /**
+     * Return the index of the <code>AnimaMundi</code> in its {@link TransformStore}.
+     * 
+     * @return The index in the transform store, or -1 if none.
+     */
+    int getStoreIndex() {
+        return attachments != null ? attachments.storeIndex : -1;
+    }
+
+    /**
+     * Sets the {@link TransformStore} in which the transforms of the
+     * <code>AnimaMundi</code> are computed, and its index in the store.
+     * 
+     * @param store The transform store, or null to release the anima-mundi.
+     * @param index The index in the transform store, or -1 if none.
+     */
+    void setTransformStore(TransformStore store, int index) {
+        if (store == null && attachments == null) {
+            return;
+        }
+
+        var attachments = attachments();
+        attachments.transformStore = store;
+        attachments.storeIndex = index;
+    }
+
+    /**
+     * Return the {@link BoundingVolumeHierarchy} indexing the
+     * <code>AnimaMundi</code>.
+     * 
+     * @return The bounding volume hierarchy, or null if none.
+     */
+    BoundingVolumeHierarchy getBVH() {
+        return attachments != null ? attachments.bvh : null;
+    }
+
+    /**
+     * Sets the {@link BoundingVolumeHierarchy} indexing the <code>AnimaMundi</code>.
+     * 
+     * @param bvh The bounding volume hierarchy, or null to release the anima-mundi.
+     */
+    void setBVH(BoundingVolumeHierarchy bvh) {
+        if (bvh != null || attachments != null) {
+            attachments().bvh = bvh;
+        }
+    }
+
+    /**
+     * Return the {@link Attachments} of the <code>AnimaMundi</code>, which are
+     * allocated by the first rarely used feature needing them.
+     */
+    private Attachments attachments() {
+        if (attachments == null) {
+            this.attachments = new Attachments();
+        }
+        return attachments;
+    }
+
+    /**
+     * Return the number of <code>AnimaMundi</code> in the subtree starting from this
+     * anima-mundi, including itself.
+     * 
+     * @return The size of the subtree of the anima-mundi (&ge;1).
+     */
+    public int getSubtreeSize() {
+        return subtreeSize;
     }
 
     /**
@@ -578,6 +1016,101 @@ public abstract class AnimaMundi {
         return parent != null && (parent.equals(ancestor) || parent.hasAncestor(ancestor));
     }
 
+    /**
+     * Resolves the {@link BucketType} and {@link RenderLayer} effectively used by
+     * the <code>AnimaMundi</code>, replacing the legacy ones with the values resolved
+     * by its parent, or with {@link BucketType#OPAQUE} and {@link RenderLayer#DEFAULT}
+     * if it is orphan.
+     * <p>
+     * The method is called whenever the hierarchy or the settings change, so that
+     * the values don't need to be searched in the ancestors during the queuing.
+     * Only the anima-mundi is resolved, see {@link #resolveSubtreeQueueing()}.
+     * 
+     * @return Whether the resolved bucket or layer has changed.
+     */
+    protected boolean resolveQueueing() {
+        var inheritedBucket = parent != null ? parent.resolvedBucket : BucketType.OPAQUE;
+        var inheritedLayer = parent != null ? parent.resolvedLayer : RenderLayer.DEFAULT;
+        var newBucket = bucket.equals(BucketType.LEGACY) ? inheritedBucket : bucket;
+        var newLayer = layer.equals(RenderLayer.LEGACY) ? inheritedLayer : layer;
+
+        if (newBucket == resolvedBucket && newLayer == resolvedLayer) {
+            return false;
+        }
+
+        this.resolvedBucket = newBucket;
+        this.resolvedLayer = newLayer;
+        this.layerMask = computeLayerMask();
+        return true;
+    }
+
+    /**
+     * Resolves the {@link BucketType} and {@link RenderLayer} of the
+     * <code>AnimaMundi</code>, and resolves again the ones of its descendants if
+     * they have changed. The layer masks of the resolved anima-mundis are then
+     * updated from the leaves up to this one.
+     * 
+     * @return Whether the resolved bucket or layer of the anima-mundi has changed.
+     */
+    boolean resolveSubtreeQueueing() {
+        if (!resolveQueueing()) {
+            return false;
+        }
+
+        SceneTraversal.local().traverse(this, QUEUEING_RESOLVER, LAYER_MASK_UPDATER);
+        return true;
+    }
+
+    /**
+     * Computes the mask of the {@link RenderLayer} used in the subtree of the
+     * <code>AnimaMundi</code>, from its resolved layer.
+     * 
+     * @return The mask of the layers used in the subtree.
+     */
+    protected long computeLayerMask() {
+        return resolvedLayer.mask();
+    }
+
+    /**
+     * Updates the layer mask of the <code>AnimaMundi</code> and its ancestors, after
+     * the layers used in its subtree have changed. The update stops as soon as a
+     * mask remains unchanged.
+     */
+    void updateLayerMask() {
+        for (var anima = this; anima != null; anima = anima.parent) {
+            var mask = anima.computeLayerMask();
+            if (mask == anima.layerMask) {
+                break;
+            }
+            anima.layerMask = mask;
+        }
+    }
+
+    /**
+     * Adds the provided layers to the mask of the <code>AnimaMundi</code> and its
+     * ancestors, after a descendant has been attached.
+     * 
+     * @param mask The mask of the layers used by the new descendants.
+     */
+    void mergeLayerMask(long mask) {
+        for (var anima = this; anima != null && (anima.layerMask | mask) != anima.layerMask; anima = anima.parent) {
+            anima.layerMask |= mask;
+        }
+    }
+
+    /**
+     * Return the mask of the {@link RenderLayer} used by the <code>AnimaMundi</code>
+     * and all its descendants. If none of these layers is used by a camera, the
+     * whole subtree can be skipped during the queuing.
+     * 
+     * @return The mask of the layers used in the subtree of the anima-mundi.
+     * 
+     * @see Camera#checkLayers(long)
+     */
+    public long getLayerMask() {
+        return layerMask;
+    }
+
     /**
      * Return the used {@link BucketType} for the rendering of this <code>AnimaMundi</code>. 
      * It will try to find the ancestor's bucket type if its type is {@link BucketType#LEGACY}.
@@ -585,30 +1118,19 @@ public abstract class AnimaMundi {
      * @return The bucket type used to render the anima-mundi.
      */
     public BucketType getBucket() {
-        return getBucket(true);
+        return resolvedBucket;
     }
 
     /**
      * Return the used {@link BucketType} for the rendering of this <code>AnimaMundi</code>. If the <code>checkLegacy</code> 
-     * is set to true, it will search the parent's bucket type until it founds something different than {@link BucketType#LEGACY} 
-     * or until the ancestor is orphan.
+     * is set to true, it will return the bucket type resolved from the ancestors if it is {@link BucketType#LEGACY}, 
+     * defaulting to {@link BucketType#OPAQUE}.
      * 
      * @param checkLegacy Whether to return the legacy bucket's type or the {@link BucketType#LEGACY}.
      * @return            The bucket type used to render the anima-mundi.
      */
     public BucketType getBucket(boolean checkLegacy) {
-        var result = bucket;
-        if (checkLegacy && parent != null && bucket.equals(BucketType.LEGACY)) {
-            result = parent.getBucket(true);
-        }
-
-        // If no other bucket type is specified in the hierarchy, default to the OPAQUE
-        // bucket.
-        if (checkLegacy && result.equals(BucketType.LEGACY)) {
-            result = BucketType.OPAQUE;
-        }
-
-        return result;
+        return checkLegacy ? resolvedBucket : bucket;
     }
 
     /**
@@ -619,6 +1141,8 @@ public abstract class AnimaMundi {
     public void setBucket(BucketType bucket) {
         Validator.nonNull(bucket, "The bucket type can't be null!");
         this.bucket = bucket;
+
+        resolveSubtreeQueueing();
     }
 
     /**
@@ -628,30 +1152,19 @@ public abstract class AnimaMundi {
      * @return The render layer on which the anima-mundi is present.
      */
     public RenderLayer getRenderLayer() {
-        return getRenderLayer(true);
+        return resolvedLayer;
     }
 
     /**
      * Return the {@link RenderLayer} on which the <code>AnimaMundi</code> is present. If the <code>checkLegacy</code> 
-     * is set to true, it will search the parent's render layer until it founds something different than {@link RenderLayer#LEGACY} 
-     * or until the ancestor is orphan.
+     * is set to true, it will return the render layer resolved from the ancestors if it is {@link RenderLayer#LEGACY}, 
+     * defaulting to {@link RenderLayer#DEFAULT}.
      * 
      * @param checkLegacy Whether to return the legacy render layer or the {@link RenderLayer#LEGACY}.
      * @return            The render layer on which the anima-mundi is present.
      */
     public RenderLayer getRenderLayer(boolean checkLegacy) {
-        var result = layer;
-        if (checkLegacy && parent != null && layer.equals(RenderLayer.LEGACY)) {
-            result = parent.getRenderLayer(true);
-        }
-
-        // If no other render layer is specified in the hierarchy, default to the
-        // DEFAULT layer.
-        if (checkLegacy && result.equals(RenderLayer.LEGACY)) {
-            result = RenderLayer.DEFAULT;
-        }
-
-        return result;
+        return checkLegacy ? resolvedLayer : layer;
     }
 
     /**
@@ -662,6 +1175,61 @@ public abstract class AnimaMundi {
     public void setRenderLayer(RenderLayer layer) {
         Validator.nonNull(layer, "The render layer can't be null!");
         this.layer = layer;
+
+        if (resolveSubtreeQueueing() && parent != null) {
+            parent.updateLayerMask();
+        }
+    }
+
+    /**
+     * Adds the provided {@link Controller} to the <code>AnimaMundi</code>, after the
+     * ones already attached. The controller is updated each frame by the
+     * {@link ControllerSystem} of the scene, before its geometric state.
+     * 
+     * @param controller The controller to add, not attached to any anima-mundi (not null).
+     * 
+     * @throws IllegalArgumentException Thrown if the controller is already attached.
+     */
+    public void addController(Controller controller) {
+        Validator.nonNull(controller, "The controller can't be null!");
+        Validator.check(controller.anima == null, "The controller " + controller + " is already attached!");
+
+        var attachments = attachments();
+        if (attachments.controllers == null) {
+            attachments.controllers = Array.ofType(Controller.class);
+        }
+
+        controller.anima = this;
+        attachments.controllers.add(controller);
+        adjustControllers(1);
+    }
+
+    /**
+     * Removes the provided {@link Controller} from the <code>AnimaMundi</code>.
+     * 
+     * @param controller The controller to remove (not null).
+     * @return           Whether the controller was attached to this anima-mundi.
+     */
+    public boolean removeController(Controller controller) {
+        Validator.nonNull(controller, "The controller can't be null!");
+        if (controller.anima != this || !attachments.controllers.remove(controller)) {
+            return false;
+        }
+
+        controller.anima = null;
+        adjustControllers(-1);
+        return true;
+    }
+
+    /**
+     * Return a readable-only array of the {@link Controller} attached to the
+     * <code>AnimaMundi</code>, in their attachment order.
+     * 
+     * @return A readable only version of the controllers.
+     */
+    public ReadOnlyArray<Controller> getControllers() {
+        var controllers = getAttachedControllers();
+        return controllers != null ? controllers.readOnly() : NO_CONTROLLERS.readOnly();
     }
 
     /**
@@ -680,7 +1248,12 @@ public abstract class AnimaMundi {
                     "The provided environment element is already defined for '" + getName() + "' !");
         }
 
+        if (envElements == null) {
+            this.envElements = Array.ofType(EnvironmentElement.class);
+        }
+
         envElements.add(element);
+        dirty(DirtyType.ENVIRONMENT);
     }
 
     /**
@@ -691,7 +1264,12 @@ public abstract class AnimaMundi {
      */
     public boolean removeEnvironmentElement(EnvironmentElement element) {
         Validator.nonNull(element, "The provided environment element can't be null!");
-        return envElements.remove(element);
+        if (envElements == null || !envElements.remove(element)) {
+            return false;
+        }
+
+        dirty(DirtyType.ENVIRONMENT);
+        return true;
     }
 
     /**
@@ -702,42 +1280,89 @@ public abstract class AnimaMundi {
      * @return     Whether an element matching the name is present locally.
      */
     public boolean containsLocal(String name) {
-        return getLocalEnvironmentElementOpt(name).isPresent();
+        if (envElements == null) {
+            return false;
+        }
+
+        for (int i = 0; i < envElements.size(); i++) {
+            if (envElements.get(i).name().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Return an {@link EnvironmentElement} matching the provided name by searching
+     * Return an {@link EnvironmentElement} matching the provided name, searched
      * locally and through upper-hierarchy depending on the {@link EnvironmentMode}
-     * of the <code>AnimaMundi</code>.
+     * of the <code>AnimaMundi</code> during the last geometric state update.
      * 
-     * @param name The name of the enviromnent element to get.
-     * @return     The environment element matching the name.
+     * @param name The name of the enviromnent element to get (not null).
+     * @return     The environment element matching the name, or null if none.
+     * 
+     * @see #getResolvedEnvironment()
      */
     public EnvironmentElement getEnvironmentElement(String name) {
-        // Search on the local environment only.
-        if (envMode.equals(EnvironmentMode.LOCAL_ONLY)) {
-            return getLocalEnvironmentElement(name);
-        }
+        return resolvedEnvironment.get(name);
+    }
 
-        var parent = getParent();
-        if (envMode.equals(EnvironmentMode.LOCAL_PRIORITY)) {
-            var property = containsLocal(name) ? getLocalEnvironmentElementOpt(name).get() : null;
-            if (property == null && parent != null) {
-                property = parent.getEnvironmentElement(name);
-            }
-            return property;
+    /**
+     * Return the {@link ResolvedEnvironment} of the <code>AnimaMundi</code>,
+     * containing the {@link EnvironmentElement} effectively applied to it during the
+     * last geometric state update, which can be queried by slot without any search.
+     * 
+     * @return The resolved environment elements (not null).
+     */
+    public ResolvedEnvironment getResolvedEnvironment() {
+        return resolvedEnvironment;
+    }
+
+    /**
+     * Resolves the {@link EnvironmentElement} effectively applied to the
+     * <code>AnimaMundi</code> from the ones of its parent, and removes the
+     * {@link DirtyType#ENVIRONMENT} mark.
+     * <p>
+     * Only the anima-mundi is resolved, its descendants being resolved again by
+     * an iterative traversal when the method returns true.
+     * 
+     * @return Whether the resolved environment elements have changed.
+     */
+    protected boolean resolveEnvironment() {
+        var inherited = parent != null ? parent.resolvedEnvironment : ResolvedEnvironment.EMPTY;
+        var local = envElements != null ? envElements : NO_ENV_ELEMENTS;
+        var resolved = inherited.resolve(local, envMode, resolvedEnvironment);
+        clearDirty(DirtyType.ENVIRONMENT);
+
+        if (resolved == resolvedEnvironment) {
+            return false;
         }
 
-        if (envMode.equals(EnvironmentMode.ANCESTOR_PRIORITY)) {
-            var property = parent != null ? parent.getEnvironmentElement(name) : null;
-            if (property == null) {
-                property = getLocalEnvironmentElement(name);
-            }
+        this.resolvedEnvironment = resolved;
+        return true;
+    }
 
-            return property;
-        }
+    /**
+     * Return the {@link EnvironmentMode} describing how the <code>AnimaMundi</code>
+     * combines its local environment elements with the ones of its ancestors.
+     * 
+     * @return The environment mode (default&rarr;{@link EnvironmentMode#LOCAL_PRIORITY}).
+     */
+    public EnvironmentMode getEnvironmentMode() {
+        return envMode;
+    }
 
-        return null;
+    /**
+     * Sets the {@link EnvironmentMode} describing how the <code>AnimaMundi</code>
+     * combines its local environment elements with the ones of its ancestors.
+     * 
+     * @param envMode The environment mode (not null, default&rarr;{@link EnvironmentMode#LOCAL_PRIORITY}).
+     */
+    public void setEnvironmentMode(EnvironmentMode envMode) {
+        Validator.nonNull(envMode, "The environment mode can't be null!");
+        if (this.envMode != envMode) {
+            this.envMode = envMode;
+            dirty(DirtyType.ENVIRONMENT);
+        }
     }
 
     /**
@@ -753,6 +1378,10 @@ public abstract class AnimaMundi {
      * @see #getLocalEnvironmentElement(String)
      */
     public Optional<EnvironmentElement> getLocalEnvironmentElementOpt(String name) {
+        if (envElements == null) {
+            return Optional.empty();
+        }
+
         var optionalElement = envElements.stream().filter(element -> element.name().equalsIgnoreCase(name)).findFirst();
 
         return optionalElement;
@@ -780,7 +1409,7 @@ public abstract class AnimaMundi {
      * @return A readable only version of the local environment elements.
      */
     public ReadOnlyArray<EnvironmentElement> getLocalEnvironmentElements() {
-        return envElements.readOnly();
+        return envElements != null ? envElements.readOnly() : NO_ENV_ELEMENTS.readOnly();
     }
 
     /**
@@ -791,7 +1420,7 @@ public abstract class AnimaMundi {
      * @return     The local render state of the anima-mundi.
      */
     public RenderState getLocalRenderState(RenderState.Type type) {
-        return renderStates.get(type);
+        return renderStates != null ? renderStates.get(type) : null;
     }
 
     /**
@@ -801,7 +1430,7 @@ public abstract class AnimaMundi {
      */
     public void setRenderStates(RenderState... states) {
         for (RenderState state : states) {
-            renderStates.put(state.type(), state);
+            localRenderStates().put(state.type(), state);
         }
 
         dirty(DirtyType.RENDER_STATE);
@@ -815,45 +1444,71 @@ public abstract class AnimaMundi {
      * @return      The previously render state applied to the anima-mundi, or null if none.
      */
     public RenderState setRenderState(RenderState state) {
-        var previous = renderStates.put(state.type(), state);
+        var previous = localRenderStates().put(state.type(), state);
         dirty(DirtyType.RENDER_STATE);
         return previous;
     }
 
     /**
-     * Collects the {@link RenderState} defined in the scenegraph to the given
-     * table, to be later applied to the <code>AnimaMundi</code>.
+     * Return the render states to be applied locally to the <code>AnimaMundi</code>,
+     * allocating them the first time a state is set.
      * 
-     * @param states The table to contain the render states (not null).
-     * 
-     * @see #applyState(Map)
+     * @return The local render states, indexed by type (not null).
      */
-    protected void collectState(Map<RenderState.Type, Stack<RenderState>> states) {
-        Validator.nonNull(states, "The map to store render states can't be null!");
-        for (var entry : renderStates.entrySet()) {
-            var stack = states.getOrDefault(entry.getKey(), new Stack<RenderState>());
-            stack.push(entry.getValue());
-            states.put(entry.getKey(), stack);
+    private Map<RenderState.Type, RenderState> localRenderStates() {
+        if (renderStates == null) {
+            this.renderStates = new EnumMap<>(Type.class);
         }
+        return renderStates;
     }
 
     /**
-     * Applies all previously collected {@link RenderState} in the scenegraph inside
-     * the given table to the <code>AnimaMundi</code>.
+     * Return the {@link RenderState} corresponding to the provided {@link Type} effectively
+     * applied to the <code>AnimaMundi</code>, either defined locally or inherited from its
+     * ancestors during the last geometric state update.
      * 
-     * @param states The table which contains the render states (not null).
+     * @param type The type of render state to retrieve (not null).
+     * @return     The applied render state, or null if none.
      * 
-     * @see #collectState(Map)
+     * @see #getLocalRenderState(Type)
      */
-    protected void applyState(Map<RenderState.Type, Stack<RenderState>> states) {
-        Validator.nonNull(states, "The map to apply render states can't be null!");
-        for (var entry : states.entrySet()) {
-            var stack = entry.getValue();
-            if (stack != null) {
-                renderStates.put(entry.getKey(), stack.peek());
-            }
+    public RenderState getRenderState(RenderState.Type type) {
+        return resolvedStates.get(type);
+    }
+
+    /**
+     * Return the {@link ResolvedRenderStates} of the <code>AnimaMundi</code>,
+     * containing the {@link RenderState} effectively applied to it during the last
+     * geometric state update.
+     * 
+     * @return The resolved render states (not null).
+     */
+    public ResolvedRenderStates getResolvedRenderStates() {
+        return resolvedStates;
+    }
+
+    /**
+     * Resolves the {@link RenderState} effectively applied to the
+     * <code>AnimaMundi</code> from the ones of its parent, and removes the
+     * {@link DirtyType#RENDER_STATE} mark.
+     * <p>
+     * Only the anima-mundi is resolved, its descendants being resolved again by
+     * an iterative traversal when the method returns true.
+     * 
+     * @return Whether the resolved render states have changed.
+     */
+    protected boolean resolveRenderStates() {
+        var inherited = parent != null ? parent.resolvedStates : ResolvedRenderStates.EMPTY;
+        var local = renderStates != null ? renderStates : Collections.<Type, RenderState>emptyMap();
+        var resolved = inherited.resolve(local, resolvedStates);
+        clearDirty(DirtyType.RENDER_STATE);
+
+        if (resolved == resolvedStates) {
+            return false;
         }
-        dirtyMarks.remove(DirtyType.RENDER_STATE);
+
+        this.resolvedStates = resolved;
+        return true;
     }
 
     /**
@@ -868,8 +1523,60 @@ public abstract class AnimaMundi {
         visitor.visit(this);
     }
 
+    /**
+     * Traverse the <code>AnimaMundi</code> and its descendants with the given
+     * {@link PruningVisitor} and {@link VisitType}, using the
+     * {@link SceneTraversal} of the calling thread. The visitor can skip the
+     * descendants of a visited anima-mundi.
+     * 
+     * @param visitor The pruning visitor (not null).
+     * @param type    The type of visit to execute, it can't be a parallel one (not null).
+     */
+    public void traverse(PruningVisitor visitor, VisitType type) {
+        SceneTraversal.local().traverse(this, visitor, type);
+    }
+
     @Override
     public String toString() {
         return "[" + getClass().getSimpleName() + " {name= " + name + "} ]";
     }
+
+    /**
+     * <code>Attachments</code> gathers the bookkeeping of the features an anima-mundi
+     * rarely uses, so that the ones using neither a {@link TransformStore}, a
+     * {@link BoundingVolumeHierarchy} nor any {@link Controller} only pay for a
+     * single null reference.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class Attachments {
+
+        /**
+         * The transform store in which the anima-mundi transforms are computed, or
+         * null if it updates its transforms by itself.
+         */
+        private TransformStore transformStore = null;
+        /**
+         * The index of the anima-mundi in its transform store, or -1 if none.
+         */
+        private int storeIndex = -1;
+        /**
+         * The bounding volume hierarchy indexing the anima-mundi, or null if none.
+         */
+        private BoundingVolumeHierarchy bvh = null;
+        /**
+         * The controllers attached to the anima-mundi in their attachment order, or
+         * null if none has been added yet.
+         */
+        private Array<Controller> controllers = null;
+        /**
+         * The number of controllers attached in the subtree of the anima-mundi.
+         */
+        private int subtreeControllers = 0;
+        /**
+         * The version of the controllers in the subtree of the anima-mundi, which
+         * is incremented each time one is added or removed.
+         */
+        private int controllersVersion = 0;
+    }
 }
@@ -0,0 +1,254 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.renderer.logic.RenderLogic;
+
+/**
+ * <code>BatchedPhysicaMundi</code> is a {@link PhysicaMundi} whose {@link Mesh} has been merged from several static
+ * pieces sharing the same {@link Material}, with their transforms baked into the vertex data. It is usually created by
+ * the {@link StaticBatcher} to replace hundreds of small physica-mundis by a single one, which costs only one binding of
+ * the material.
+ * <p>
+ * The indices of each piece are stored contiguously in the merged mesh, and the batch keeps a table of the sub-range
+ * used by each of them along with its bounds, so that the pieces can still be hidden or culled individually. Each frame,
+ * the visible pieces are gathered into draw ranges, where adjacent pieces are merged into a single range, which are then
+ * drawn with {@link RenderLogic#render(Mesh, Material, int[])}.
+ *
+ * @author GnosticOccultist
+ *
+ * @see StaticBatcher
+ */
+public class BatchedPhysicaMundi extends PhysicaMundi {
+
+    /**
+     * The number of integers describing a draw range: the first index, the number of
+     * indices, the minimum and maximum vertex index.
+     */
+    public static final int RANGE_SIZE = 4;
+
+    /**
+     * The names of the pieces, as the name of their original physica-mundi.
+     */
+    private final String[] names;
+    /**
+     * The sub-range of each piece, stored as {@link #RANGE_SIZE} integers.
+     */
+    private final int[] pieces;
+    /**
+     * The bounds of each piece in model space.
+     */
+    private final BoundingBox[] modelBounds;
+    /**
+     * The bounds of each piece in world space.
+     */
+    private final BoundingBox[] worldBounds;
+    /**
+     * Whether each piece is hidden.
+     */
+    private final boolean[] hidden;
+    /**
+     * The ranges being gathered for the current frame.
+     */
+    private int[] scratchRanges;
+    /**
+     * The draw ranges of the visible pieces, which is never modified once published
+     * so that it can be used by another thread.
+     */
+    private int[] drawRanges;
+
+    /**
+     * Instantiates a new <code>BatchedPhysicaMundi</code> with the merged
+     * {@link Mesh} and the table of its pieces.
+     *
+     * @param name        The name of the batch (not null).
+     * @param mesh        The merged mesh with an index buffer (not null).
+     * @param names       The name of each piece (not null).
+     * @param pieces      The sub-range of each piece, stored as {@link #RANGE_SIZE}
+     *                    integers in the index order (not null).
+     * @param modelBounds The bounds of each piece in the model space of the mesh
+     *                    (not null).
+     */
+    BatchedPhysicaMundi(String name, Mesh mesh, String[] names, int[] pieces, BoundingBox[] modelBounds) {
+        super(name, mesh);
+        Validator.check(mesh.hasIndices(), "The merged mesh must have an index buffer!");
+        Validator.check(pieces.length == names.length * RANGE_SIZE && modelBounds.length == names.length,
+                "The table of the pieces is inconsistent!");
+
+        this.names = names;
+        this.pieces = pieces;
+        this.modelBounds = modelBounds;
+        this.worldBounds = new BoundingBox[names.length];
+        for (int i = 0; i < names.length; i++) {
+            worldBounds[i] = new BoundingBox();
+        }
+        this.hidden = new boolean[names.length];
+        this.scratchRanges = new int[pieces.length];
+        this.drawRanges = mergeRanges(pieces, names.length);
+    }
+
+    /**
+     * Update the world bounds of the <code>BatchedPhysicaMundi</code>, as well as
+     * the world bounds of each of its pieces.
+     */
+    @Override
+    protected void updateWorldBound() {
+        super.updateWorldBound();
+
+        for (int i = 0; i < modelBounds.length; i++) {
+            modelBounds[i].transform(worldTransform, worldBounds[i]);
+        }
+    }
+
+    /**
+     * Culls the pieces of the <code>BatchedPhysicaMundi</code> against the provided
+     * {@link Frustum}, and gathers the visible ones into the draw ranges. The batch
+     * itself should have been tested against the frustum first.
+     *
+     * @param frustum   The frustum of the camera (not null).
+     * @param planeMask The mask of planes still intersecting the batch bounds.
+     * @return          Whether at least one piece is visible.
+     *
+     * @see #getDrawRanges()
+     */
+    public boolean cull(Frustum frustum, int planeMask) {
+        Validator.nonNull(frustum, "The frustum can't be null!");
+        if (planeMask == Frustum.OUTSIDE) {
+            publish(0);
+            return false;
+        }
+
+        var length = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (hidden[i] || (planeMask != Frustum.INSIDE
+                    && frustum.intersects(worldBounds[i], planeMask) == Frustum.OUTSIDE)) {
+                continue;
+            }
+
+            var offset = i * RANGE_SIZE;
+            var previous = length - RANGE_SIZE;
+            // Extends the previous range if the piece follows it in the index buffer.
+            if (length > 0 && scratchRanges[previous] + scratchRanges[previous + 1] == pieces[offset]) {
+                scratchRanges[previous + 1] += pieces[offset + 1];
+                scratchRanges[previous + 2] = Math.min(scratchRanges[previous + 2], pieces[offset + 2]);
+                scratchRanges[previous + 3] = Math.max(scratchRanges[previous + 3], pieces[offset + 3]);
+            } else {
+                System.arraycopy(pieces, offset, scratchRanges, length, RANGE_SIZE);
+                length += RANGE_SIZE;
+            }
+        }
+
+        publish(length);
+        return length > 0;
+    }
+
+    /**
+     * Publishes the gathered ranges of the given length, only allocating a new array
+     * if they are different from the current draw ranges.
+     */
+    private void publish(int length) {
+        if (!Arrays.equals(drawRanges, 0, drawRanges.length, scratchRanges, 0, length)) {
+            this.drawRanges = Arrays.copyOf(scratchRanges, length);
+        }
+    }
+
+    private static int[] mergeRanges(int[] pieces, int count) {
+        if (count == 0) {
+            return new int[0];
+        }
+
+        var last = (count - 1) * RANGE_SIZE;
+        var minVertex = Integer.MAX_VALUE;
+        var maxVertex = 0;
+        for (int i = 0; i < count; i++) {
+            minVertex = Math.min(minVertex, pieces[i * RANGE_SIZE + 2]);
+            maxVertex = Math.max(maxVertex, pieces[i * RANGE_SIZE + 3]);
+        }
+        return new int[] { pieces[0], pieces[last] + pieces[last + 1] - pieces[0], minVertex, maxVertex };
+    }
+
+    /**
+     * Return the draw ranges of the visible pieces of the
+     * <code>BatchedPhysicaMundi</code>, as computed by the last culling. Each range
+     * is stored as {@link #RANGE_SIZE} integers: the first index, the number of
+     * indices, the minimum and maximum vertex index.
+     * <p>
+     * The returned array mustn't be modified, and is replaced by a new one when the
+     * visible pieces change.
+     *
+     * @return The draw ranges of the visible pieces (not null).
+     */
+    public int[] getDrawRanges() {
+        return drawRanges;
+    }
+
+    /**
+     * Return the number of pieces merged in the <code>BatchedPhysicaMundi</code>.
+     *
+     * @return The number of pieces (&ge;0).
+     */
+    public int getPieceCount() {
+        return names.length;
+    }
+
+    /**
+     * Return the name of the piece at the given index, which is the name of the
+     * original physica-mundi.
+     *
+     * @param index The index of the piece (&ge;0, &lt;number of pieces).
+     * @return      The name of the piece.
+     */
+    public String getPieceName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Return the index of the first piece with the provided name.
+     *
+     * @param name The name of the piece to find.
+     * @return     The index of the piece, or -1 if none is matching.
+     */
+    public int indexOfPiece(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null && names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the bounds in world space of the piece at the given index, computed
+     * during the last geometric state update.
+     *
+     * @param index The index of the piece (&ge;0, &lt;number of pieces).
+     * @return      The world bounding box of the piece (not null).
+     */
+    public BoundingBox getPieceBoundingBox(int index) {
+        return worldBounds[index];
+    }
+
+    /**
+     * Return whether the piece at the given index is hidden.
+     *
+     * @param index The index of the piece (&ge;0, &lt;number of pieces).
+     * @return      Whether the piece is hidden.
+     */
+    public boolean isPieceHidden(int index) {
+        return hidden[index];
+    }
+
+    /**
+     * Sets whether the piece at the given index should be hidden, which takes effect
+     * on the next culling of the <code>BatchedPhysicaMundi</code>.
+     *
+     * @param index  The index of the piece (&ge;0, &lt;number of pieces).
+     * @param hidden Whether the piece is hidden.
+     */
+    public void setPieceHidden(int index, boolean hidden) {
+        this.hidden[index] = hidden;
+    }
+}
@@ -0,0 +1,864 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.collections.array.Array;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.BoundingSphere;
+import fr.mercury.nucleus.math.objects.Frustum;
+import fr.mercury.nucleus.math.objects.Ray;
+import fr.mercury.nucleus.scenegraph.visitor.DirtyType;
+import fr.mercury.nucleus.scenegraph.visitor.SceneTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.VisitType;
+import fr.mercury.nucleus.scenegraph.visitor.Visitor;
+
+/**
+ * <code>BoundingVolumeHierarchy</code> is a spatial index of the {@link PhysicaMundi} contained in a hierarchy of
+ * {@link AnimaMundi}, implemented as a dynamic tree of axis-aligned bounding boxes.
+ * <p>
+ * Each physica-mundi is stored in a leaf of the tree with an enlarged (fat) box, so that small movements don't require
+ * to modify the tree. The leaves are inserted using the surface area heuristic and the tree is kept balanced with
+ * rotations, so that the frustum, box, sphere and ray queries run in logarithmic time instead of visiting the whole
+ * scene-graph.
+ * <p>
+ * The hierarchy is kept in sync with the scene-graph: a physica-mundi is inserted or moved in the tree when its world
+ * bounds are updated after a {@link DirtyType#TRANSFORM} change, and removed when it is detached from the indexed
+ * hierarchy. The physica-mundis with infinite bounds are kept aside and returned by every query.
+ * <p>
+ * The structure isn't thread-safe, and must be queried after the geometric state of the hierarchy has been updated.
+ *
+ * @author GnosticOccultist
+ */
+public final class BoundingVolumeHierarchy {
+
+    /**
+     * The index of a null node.
+     */
+    private static final int NULL = -1;
+    /**
+     * The proxy of a physica-mundi with infinite bounds, stored outside of the tree.
+     */
+    static final int UNBOUNDED = -2;
+    /**
+     * The number of float components used to store a box.
+     */
+    private static final int STRIDE = 6;
+    /**
+     * The fraction of the largest extent of a box used to enlarge its leaf.
+     */
+    private static final float FAT_MARGIN = 0.1F;
+
+    /**
+     * The root of the indexed hierarchy.
+     */
+    private final NucleusMundi root;
+    /**
+     * The boxes of each node packed as [minX, minY, minZ, maxX, maxY, maxZ].
+     */
+    private float[] boxes;
+    /**
+     * The parent of each node, or the next free node for a free one.
+     */
+    private int[] parents;
+    /**
+     * The first child of each node, or NULL for a leaf.
+     */
+    private int[] firstChildren;
+    /**
+     * The second child of each node, or NULL for a leaf.
+     */
+    private int[] secondChildren;
+    /**
+     * The height of each node, 0 for a leaf and -1 for a free node.
+     */
+    private int[] heights;
+    /**
+     * The physica-mundi stored by each leaf.
+     */
+    private PhysicaMundi[] items;
+    /**
+     * The index of the root node.
+     */
+    private int rootNode = NULL;
+    /**
+     * The index of the first free node.
+     */
+    private int freeList = NULL;
+    /**
+     * The number of allocated nodes.
+     */
+    private int nodeCount = 0;
+    /**
+     * The number of indexed physica-mundis.
+     */
+    private int size = 0;
+    /**
+     * The physica-mundis with infinite bounds.
+     */
+    private final Array<PhysicaMundi> unbounded = Array.ofType(PhysicaMundi.class);
+    /**
+     * The stack of nodes to visit during a query.
+     */
+    private int[] stack = new int[64];
+    /**
+     * The frustum planes mask of each node in the stack during a frustum query.
+     */
+    private int[] masks = new int[64];
+    /**
+     * The box used to test a node against a frustum.
+     */
+    private final BoundingBox nodeBox = new BoundingBox();
+    /**
+     * The visitor registering the anima-mundis attached to the hierarchy.
+     */
+    private final Visitor registrar = this::register;
+    /**
+     * The visitor releasing the anima-mundis detached from the hierarchy.
+     */
+    private final Visitor releaser = this::release;
+
+    /**
+     * Instantiates a new <code>BoundingVolumeHierarchy</code> indexing the
+     * {@link PhysicaMundi} of the provided hierarchy.
+     * <p>
+     * The physica-mundis whose world bounds are up-to-date are directly inserted,
+     * the others are inserted during the next geometric state update. The index is
+     * used by the hierarchy until {@link #dispose()} is called.
+     *
+     * @param root The root of the hierarchy to index (not null).
+     *
+     * @throws IllegalStateException Thrown if the root already belongs to a hierarchy.
+     */
+    public BoundingVolumeHierarchy(NucleusMundi root) {
+        Validator.nonNull(root, "The root nucleus-mundi can't be null!");
+        if (root.getBVH() != null) {
+            throw new IllegalStateException(root + " already belongs to a bounding volume hierarchy!");
+        }
+
+        this.root = root;
+        allocate(16);
+        attach(root);
+    }
+
+    /**
+     * Return all the {@link PhysicaMundi} which are visible inside the provided
+     * {@link Frustum}.
+     *
+     * @param frustum The frustum to query (not null).
+     * @param store   The array to store the result, or null to create a new one.
+     * @return        The array containing the visible physica-mundis.
+     */
+    public Array<PhysicaMundi> query(Frustum frustum, Array<PhysicaMundi> store) {
+        Validator.nonNull(frustum, "The frustum to query can't be null!");
+        var result = prepare(store);
+
+        if (rootNode == NULL) {
+            return result;
+        }
+
+        var top = push(rootNode, Frustum.ALL_PLANES, 0);
+        while (top > 0) {
+            top--;
+            var node = stack[top];
+            var mask = masks[top];
+
+            if (mask != Frustum.INSIDE) {
+                var offset = node * STRIDE;
+                nodeBox.setMinMax(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3],
+                        boxes[offset + 4], boxes[offset + 5]);
+                mask = frustum.intersects(nodeBox, mask);
+                if (mask == Frustum.OUTSIDE) {
+                    continue;
+                }
+            }
+
+            if (isLeaf(node)) {
+                // The leaf box is enlarged, so test the actual bounds.
+                var physica = items[node];
+                if (mask == Frustum.INSIDE || frustum.intersects(physica.worldBoundingBox, mask) != Frustum.OUTSIDE) {
+                    result.add(physica);
+                }
+            } else {
+                top = push(firstChildren[node], mask, top);
+                top = push(secondChildren[node], mask, top);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return all the {@link PhysicaMundi} whose world bounds intersect the
+     * provided {@link BoundingBox}.
+     *
+     * @param box   The box to query (not null).
+     * @param store The array to store the result, or null to create a new one.
+     * @return      The array containing the intersecting physica-mundis.
+     */
+    public Array<PhysicaMundi> query(BoundingBox box, Array<PhysicaMundi> store) {
+        Validator.nonNull(box, "The box to query can't be null!");
+        var result = prepare(store);
+        if (box.isEmpty() || rootNode == NULL) {
+            return result;
+        }
+
+        var c = box.getCenter();
+        var e = box.getExtents();
+        var minX = c.x() - e.x();
+        var minY = c.y() - e.y();
+        var minZ = c.z() - e.z();
+        var maxX = c.x() + e.x();
+        var maxY = c.y() + e.y();
+        var maxZ = c.z() + e.z();
+
+        var top = push(rootNode, 0, 0);
+        while (top > 0) {
+            var node = stack[--top];
+            var offset = node * STRIDE;
+            if (boxes[offset] > maxX || boxes[offset + 1] > maxY || boxes[offset + 2] > maxZ
+                    || boxes[offset + 3] < minX || boxes[offset + 4] < minY || boxes[offset + 5] < minZ) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                var physica = items[node];
+                if (physica.worldBoundingBox.intersects(box)) {
+                    result.add(physica);
+                }
+            } else {
+                top = push(firstChildren[node], 0, top);
+                top = push(secondChildren[node], 0, top);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return all the {@link PhysicaMundi} whose world bounding box intersects the
+     * provided {@link BoundingSphere}.
+     *
+     * @param sphere The sphere to query (not null).
+     * @param store  The array to store the result, or null to create a new one.
+     * @return       The array containing the intersecting physica-mundis.
+     */
+    public Array<PhysicaMundi> query(BoundingSphere sphere, Array<PhysicaMundi> store) {
+        Validator.nonNull(sphere, "The sphere to query can't be null!");
+        var result = prepare(store);
+        if (sphere.isEmpty() || rootNode == NULL) {
+            return result;
+        }
+
+        var c = sphere.getCenter();
+        var radiusSq = sphere.getRadius() * sphere.getRadius();
+
+        var top = push(rootNode, 0, 0);
+        while (top > 0) {
+            var node = stack[--top];
+            var offset = node * STRIDE;
+            if (distanceSquared(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3],
+                    boxes[offset + 4], boxes[offset + 5], c.x(), c.y(), c.z()) > radiusSq) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                var physica = items[node];
+                var b = physica.worldBoundingBox;
+                var bc = b.getCenter();
+                var be = b.getExtents();
+                if (distanceSquared(bc.x() - be.x(), bc.y() - be.y(), bc.z() - be.z(), bc.x() + be.x(),
+                        bc.y() + be.y(), bc.z() + be.z(), c.x(), c.y(), c.z()) <= radiusSq) {
+                    result.add(physica);
+                }
+            } else {
+                top = push(firstChildren[node], 0, top);
+                top = push(secondChildren[node], 0, top);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return all the {@link PhysicaMundi} whose world bounding box is hit by the
+     * provided {@link Ray} within the given distance.
+     *
+     * @param ray         The ray to query (not null).
+     * @param maxDistance The maximum distance along the ray (&ge;0).
+     * @param store       The array to store the result, or null to create a new one.
+     * @return            The array containing the hit physica-mundis, in no
+     *                    particular order.
+     */
+    public Array<PhysicaMundi> query(Ray ray, float maxDistance, Array<PhysicaMundi> store) {
+        Validator.nonNull(ray, "The ray to query can't be null!");
+        Validator.nonNegative(maxDistance, "The maximum distance can't be negative!");
+        var result = prepare(store);
+
+        if (rootNode == NULL) {
+            return result;
+        }
+
+        var top = push(rootNode, 0, 0);
+        while (top > 0) {
+            var node = stack[--top];
+            var offset = node * STRIDE;
+            if (ray.distance(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3],
+                    boxes[offset + 4], boxes[offset + 5]) > maxDistance) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                var physica = items[node];
+                if (ray.distance(physica.worldBoundingBox) <= maxDistance) {
+                    result.add(physica);
+                }
+            } else {
+                top = push(firstChildren[node], 0, top);
+                top = push(secondChildren[node], 0, top);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the closest intersection between the provided {@link Ray} and the
+     * triangles of the indexed {@link PhysicaMundi}, by visiting the nodes from
+     * the nearest to the farthest and skipping the ones behind the current hit.
+     *
+     * @param ray The ray to cast (not null).
+     * @param hit The hit to update with a closer intersection (not null).
+     * @return    Whether a closer intersection has been found.
+     */
+    boolean raycast(Ray ray, RayHit hit) {
+        var found = false;
+        for (int i = 0; i < unbounded.size(); i++) {
+            found |= unbounded.get(i).raycast(ray, hit);
+        }
+
+        if (rootNode == NULL) {
+            return found;
+        }
+
+        // The entry distance of each node is stored in place of the planes mask.
+        var top = push(rootNode, Float.floatToRawIntBits(0), 0);
+        while (top > 0) {
+            var node = stack[--top];
+            if (Float.intBitsToFloat(masks[top]) >= hit.getDistance()) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                found |= items[node].raycast(ray, hit);
+                continue;
+            }
+
+            var first = firstChildren[node];
+            var second = secondChildren[node];
+            var firstDistance = distance(ray, first);
+            var secondDistance = distance(ray, second);
+
+            // Push the farthest child first, so the nearest one is visited first.
+            if (firstDistance > secondDistance) {
+                var tmp = first;
+                first = second;
+                second = tmp;
+                var tmpDistance = firstDistance;
+                firstDistance = secondDistance;
+                secondDistance = tmpDistance;
+            }
+
+            if (secondDistance < hit.getDistance()) {
+                top = push(second, Float.floatToRawIntBits(secondDistance), top);
+            }
+            if (firstDistance < hit.getDistance()) {
+                top = push(first, Float.floatToRawIntBits(firstDistance), top);
+            }
+        }
+
+        return found;
+    }
+
+    private float distance(Ray ray, int node) {
+        var offset = node * STRIDE;
+        return ray.distance(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3], boxes[offset + 4],
+                boxes[offset + 5]);
+    }
+
+    /**
+     * Prepares the array to store the result of a query, by adding the
+     * {@link PhysicaMundi} with infinite bounds which are always part of the
+     * result.
+     */
+    private Array<PhysicaMundi> prepare(Array<PhysicaMundi> store) {
+        var result = store == null ? Array.ofType(PhysicaMundi.class) : store;
+        for (int i = 0; i < unbounded.size(); i++) {
+            result.add(unbounded.get(i));
+        }
+        return result;
+    }
+
+    private int push(int node, int mask, int top) {
+        if (top == stack.length) {
+            this.stack = Arrays.copyOf(stack, top * 2);
+            this.masks = Arrays.copyOf(masks, top * 2);
+        }
+
+        stack[top] = node;
+        masks[top] = mask;
+        return top + 1;
+    }
+
+    /**
+     * Updates the leaf of the provided {@link PhysicaMundi} with its new world
+     * bounds, by inserting it if needed and moving it only if the bounds left its
+     * enlarged box. It is called once its world bounds have been updated.
+     *
+     * @param physica The physica-mundi to update (not null).
+     */
+    void update(PhysicaMundi physica) {
+        var box = physica.worldBoundingBox;
+        if (box.isEmpty()) {
+            remove(physica);
+            return;
+        }
+
+        if (box.isInfinite()) {
+            if (physica.bvhProxy != UNBOUNDED) {
+                remove(physica);
+                unbounded.add(physica);
+                physica.bvhProxy = UNBOUNDED;
+                size++;
+            }
+            return;
+        }
+
+        if (physica.bvhProxy == UNBOUNDED) {
+            remove(physica);
+        }
+
+        var c = box.getCenter();
+        var e = box.getExtents();
+        var leaf = physica.bvhProxy;
+
+        if (leaf >= 0) {
+            var offset = leaf * STRIDE;
+            if (boxes[offset] <= c.x() - e.x() && boxes[offset + 1] <= c.y() - e.y()
+                    && boxes[offset + 2] <= c.z() - e.z() && boxes[offset + 3] >= c.x() + e.x()
+                    && boxes[offset + 4] >= c.y() + e.y() && boxes[offset + 5] >= c.z() + e.z()) {
+                // Still enclosed by the enlarged box, nothing to do.
+                return;
+            }
+
+            removeLeaf(leaf);
+        } else {
+            leaf = allocateNode();
+            items[leaf] = physica;
+            physica.bvhProxy = leaf;
+            size++;
+        }
+
+        var margin = FAT_MARGIN * Math.max(e.x(), Math.max(e.y(), e.z()));
+        var offset = leaf * STRIDE;
+        boxes[offset] = c.x() - e.x() - margin;
+        boxes[offset + 1] = c.y() - e.y() - margin;
+        boxes[offset + 2] = c.z() - e.z() - margin;
+        boxes[offset + 3] = c.x() + e.x() + margin;
+        boxes[offset + 4] = c.y() + e.y() + margin;
+        boxes[offset + 5] = c.z() + e.z() + margin;
+
+        insertLeaf(leaf);
+    }
+
+    /**
+     * Removes the provided {@link PhysicaMundi} from the
+     * <code>BoundingVolumeHierarchy</code>, if it was indexed.
+     *
+     * @param physica The physica-mundi to remove (not null).
+     */
+    void remove(PhysicaMundi physica) {
+        var leaf = physica.bvhProxy;
+        if (leaf >= 0) {
+            removeLeaf(leaf);
+            freeNode(leaf);
+            size--;
+        } else if (leaf == UNBOUNDED) {
+            unbounded.remove(physica);
+            size--;
+        }
+
+        physica.bvhProxy = NULL;
+    }
+
+    /**
+     * Registers the provided {@link AnimaMundi} and its descendants, because it has
+     * been attached to the indexed hierarchy.
+     *
+     * @param anima The anima-mundi to register (not null).
+     */
+    void attach(AnimaMundi anima) {
+        SceneTraversal.local().traverse(anima, registrar, VisitType.PRE_ORDER);
+    }
+
+    private void register(AnimaMundi anima) {
+        anima.setBVH(this);
+
+        // Otherwise, it will be inserted once its world bounds are updated.
+        if (anima instanceof PhysicaMundi && !anima.isDirty(DirtyType.TRANSFORM)
+                && !anima.isDirty(DirtyType.BOUNDS)) {
+            update((PhysicaMundi) anima);
+        }
+    }
+
+    /**
+     * Releases the provided {@link AnimaMundi} and its descendants from the
+     * <code>BoundingVolumeHierarchy</code>, because it has been detached from the
+     * indexed hierarchy.
+     * <p>
+     * If the anima-mundi is the root of the hierarchy, it is disposed instead.
+     *
+     * @param anima The anima-mundi to release (not null).
+     */
+    void detach(AnimaMundi anima) {
+        if (anima == root) {
+            dispose();
+            return;
+        }
+
+        SceneTraversal.local().traverse(anima, releaser, VisitType.PRE_ORDER);
+    }
+
+    private void release(AnimaMundi anima) {
+        if (anima instanceof PhysicaMundi) {
+            remove((PhysicaMundi) anima);
+        }
+
+        anima.setBVH(null);
+    }
+
+    /**
+     * Disposes the <code>BoundingVolumeHierarchy</code>, by releasing every
+     * {@link AnimaMundi} of the indexed hierarchy.
+     */
+    public void dispose() {
+        SceneTraversal.local().traverse(root, releaser, VisitType.PRE_ORDER);
+    }
+
+    private void insertLeaf(int leaf) {
+        if (rootNode == NULL) {
+            this.rootNode = leaf;
+            parents[leaf] = NULL;
+            return;
+        }
+
+        // Find the best sibling for the leaf, using the surface area heuristic.
+        var index = rootNode;
+        while (!isLeaf(index)) {
+            var first = firstChildren[index];
+            var second = secondChildren[index];
+
+            var area = area(index);
+            var combinedArea = combinedArea(index, leaf);
+
+            // Cost of creating a new parent for this node and the new leaf.
+            var cost = 2.0F * combinedArea;
+            // Minimum cost of pushing the leaf further down the tree.
+            var inheritanceCost = 2.0F * (combinedArea - area);
+
+            var firstCost = combinedArea(first, leaf) + inheritanceCost;
+            if (!isLeaf(first)) {
+                firstCost -= area(first);
+            }
+            var secondCost = combinedArea(second, leaf) + inheritanceCost;
+            if (!isLeaf(second)) {
+                secondCost -= area(second);
+            }
+
+            if (cost < firstCost && cost < secondCost) {
+                break;
+            }
+
+            index = firstCost < secondCost ? first : second;
+        }
+
+        var sibling = index;
+        var oldParent = parents[sibling];
+        var newParent = allocateNode();
+        parents[newParent] = oldParent;
+        heights[newParent] = heights[sibling] + 1;
+        union(sibling, leaf, newParent);
+
+        if (oldParent != NULL) {
+            if (firstChildren[oldParent] == sibling) {
+                firstChildren[oldParent] = newParent;
+            } else {
+                secondChildren[oldParent] = newParent;
+            }
+        } else {
+            this.rootNode = newParent;
+        }
+
+        firstChildren[newParent] = sibling;
+        secondChildren[newParent] = leaf;
+        parents[sibling] = newParent;
+        parents[leaf] = newParent;
+
+        refit(parents[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == rootNode) {
+            this.rootNode = NULL;
+            return;
+        }
+
+        var parent = parents[leaf];
+        var grandParent = parents[parent];
+        var sibling = firstChildren[parent] == leaf ? secondChildren[parent] : firstChildren[parent];
+
+        if (grandParent != NULL) {
+            // Replace the parent by the sibling.
+            if (firstChildren[grandParent] == parent) {
+                firstChildren[grandParent] = sibling;
+            } else {
+                secondChildren[grandParent] = sibling;
+            }
+            parents[sibling] = grandParent;
+            freeNode(parent);
+
+            refit(grandParent);
+        } else {
+            this.rootNode = sibling;
+            parents[sibling] = NULL;
+            freeNode(parent);
+        }
+
+        parents[leaf] = NULL;
+    }
+
+    /**
+     * Walks up the tree from the provided node, balancing each ancestor and
+     * recomputing its height and box.
+     */
+    private void refit(int index) {
+        while (index != NULL) {
+            index = balance(index);
+
+            var first = firstChildren[index];
+            var second = secondChildren[index];
+            heights[index] = 1 + Math.max(heights[first], heights[second]);
+            union(first, second, index);
+
+            index = parents[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the provided node is imbalanced, and
+     * return the index of the node which replaced it.
+     */
+    private int balance(int a) {
+        if (isLeaf(a) || heights[a] < 2) {
+            return a;
+        }
+
+        var b = firstChildren[a];
+        var c = secondChildren[a];
+        var balance = heights[c] - heights[b];
+
+        // Rotate C up.
+        if (balance > 1) {
+            var f = firstChildren[c];
+            var g = secondChildren[c];
+
+            firstChildren[c] = a;
+            parents[c] = parents[a];
+            parents[a] = c;
+            replaceChild(parents[c], a, c);
+
+            if (heights[f] > heights[g]) {
+                secondChildren[c] = f;
+                secondChildren[a] = g;
+                parents[g] = a;
+                union(b, g, a);
+                union(a, f, c);
+                heights[a] = 1 + Math.max(heights[b], heights[g]);
+                heights[c] = 1 + Math.max(heights[a], heights[f]);
+            } else {
+                secondChildren[c] = g;
+                secondChildren[a] = f;
+                parents[f] = a;
+                union(b, f, a);
+                union(a, g, c);
+                heights[a] = 1 + Math.max(heights[b], heights[f]);
+                heights[c] = 1 + Math.max(heights[a], heights[g]);
+            }
+
+            return c;
+        }
+
+        // Rotate B up.
+        if (balance < -1) {
+            var d = firstChildren[b];
+            var e = secondChildren[b];
+
+            firstChildren[b] = a;
+            parents[b] = parents[a];
+            parents[a] = b;
+            replaceChild(parents[b], a, b);
+
+            if (heights[d] > heights[e]) {
+                secondChildren[b] = d;
+                firstChildren[a] = e;
+                parents[e] = a;
+                union(c, e, a);
+                union(a, d, b);
+                heights[a] = 1 + Math.max(heights[c], heights[e]);
+                heights[b] = 1 + Math.max(heights[a], heights[d]);
+            } else {
+                secondChildren[b] = e;
+                firstChildren[a] = d;
+                parents[d] = a;
+                union(c, d, a);
+                union(a, e, b);
+                heights[a] = 1 + Math.max(heights[c], heights[d]);
+                heights[b] = 1 + Math.max(heights[a], heights[e]);
+            }
+
+            return b;
+        }
+
+        return a;
+    }
+
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NULL) {
+            this.rootNode = newChild;
+        } else if (firstChildren[parent] == oldChild) {
+            firstChildren[parent] = newChild;
+        } else {
+            secondChildren[parent] = newChild;
+        }
+    }
+
+    private boolean isLeaf(int node) {
+        return firstChildren[node] == NULL;
+    }
+
+    private float area(int node) {
+        var o = node * STRIDE;
+        return surfaceArea(boxes[o + 3] - boxes[o], boxes[o + 4] - boxes[o + 1], boxes[o + 5] - boxes[o + 2]);
+    }
+
+    private float combinedArea(int first, int second) {
+        var o1 = first * STRIDE;
+        var o2 = second * STRIDE;
+        var dx = Math.max(boxes[o1 + 3], boxes[o2 + 3]) - Math.min(boxes[o1], boxes[o2]);
+        var dy = Math.max(boxes[o1 + 4], boxes[o2 + 4]) - Math.min(boxes[o1 + 1], boxes[o2 + 1]);
+        var dz = Math.max(boxes[o1 + 5], boxes[o2 + 5]) - Math.min(boxes[o1 + 2], boxes[o2 + 2]);
+        return surfaceArea(dx, dy, dz);
+    }
+
+    private static float surfaceArea(float dx, float dy, float dz) {
+        return 2.0F * (dx * dy + dy * dz + dz * dx);
+    }
+
+    private void union(int first, int second, int store) {
+        var o1 = first * STRIDE;
+        var o2 = second * STRIDE;
+        var os = store * STRIDE;
+        for (int i = 0; i < 3; i++) {
+            boxes[os + i] = Math.min(boxes[o1 + i], boxes[o2 + i]);
+            boxes[os + i + 3] = Math.max(boxes[o1 + i + 3], boxes[o2 + i + 3]);
+        }
+    }
+
+    private static float distanceSquared(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+            float x, float y, float z) {
+        var dx = Math.max(0, Math.max(minX - x, x - maxX));
+        var dy = Math.max(0, Math.max(minY - y, y - maxY));
+        var dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL) {
+            allocate(parents.length * 2);
+        }
+
+        var node = freeList;
+        this.freeList = parents[node];
+        parents[node] = NULL;
+        firstChildren[node] = NULL;
+        secondChildren[node] = NULL;
+        heights[node] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parents[node] = freeList;
+        heights[node] = -1;
+        items[node] = null;
+        this.freeList = node;
+        nodeCount--;
+    }
+
+    /**
+     * Grows the node arrays to the provided capacity, and links the new nodes into
+     * the free list.
+     */
+    private void allocate(int capacity) {
+        var previous = parents != null ? parents.length : 0;
+
+        this.boxes = previous == 0 ? new float[capacity * STRIDE] : Arrays.copyOf(boxes, capacity * STRIDE);
+        this.parents = previous == 0 ? new int[capacity] : Arrays.copyOf(parents, capacity);
+        this.firstChildren = previous == 0 ? new int[capacity] : Arrays.copyOf(firstChildren, capacity);
+        this.secondChildren = previous == 0 ? new int[capacity] : Arrays.copyOf(secondChildren, capacity);
+        this.heights = previous == 0 ? new int[capacity] : Arrays.copyOf(heights, capacity);
+        this.items = previous == 0 ? new PhysicaMundi[capacity] : Arrays.copyOf(items, capacity);
+
+        for (int i = previous; i < capacity; i++) {
+            parents[i] = i + 1 < capacity ? i + 1 : freeList;
+            heights[i] = -1;
+        }
+        this.freeList = previous;
+    }
+
+    /**
+     * Return the root {@link NucleusMundi} of the hierarchy indexed by the
+     * <code>BoundingVolumeHierarchy</code>.
+     *
+     * @return The root of the indexed hierarchy.
+     */
+    public NucleusMundi getRoot() {
+        return root;
+    }
+
+    /**
+     * Return the number of {@link PhysicaMundi} indexed by the
+     * <code>BoundingVolumeHierarchy</code>.
+     *
+     * @return The number of indexed physica-mundis.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the height of the tree of the <code>BoundingVolumeHierarchy</code>,
+     * which is logarithmic in the number of indexed physica-mundis.
+     *
+     * @return The height of the tree, or -1 if it is empty.
+     */
+    public int getHeight() {
+        return rootNode == NULL ? -1 : heights[rootNode];
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[root= " + root + ", size= " + size + ", nodes= " + nodeCount
+                + ", height= " + getHeight() + "]";
+    }
+}
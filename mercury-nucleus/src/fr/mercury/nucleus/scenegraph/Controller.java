@@ -0,0 +1,197 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>Controller</code> is an abstraction layer for the logic attached to an {@link AnimaMundi}, which is updated
+ * each frame by the {@link ControllerSystem} before the geometric state of the scene.
+ * <p>
+ * A controller declares the {@link ControllerAccess} it reads and writes on its anima-mundi, and mustn't access any
+ * other data nor any other anima-mundi during its update. The controllers only writing the local transform are
+ * updated in parallel, the others being updated on the thread owning the scene. When several controllers attached
+ * to the same anima-mundi conflict, they are updated in their attachment order.
+ * <p>
+ * The controllers of the same class are updated together by a single invocation of
+ * {@link #update(Controller[], int, int, ReadableTimer)}, which an implementation can override with a loop over
+ * its own type to avoid a virtual call per controller.
+ *
+ * @author GnosticOccultist
+ */
+public abstract class Controller {
+
+    /**
+     * The data of the anima-mundi read by the controller.
+     */
+    private final Set<ControllerAccess> readSet;
+    /**
+     * The data of the anima-mundi written by the controller.
+     */
+    private final Set<ControllerAccess> writeSet;
+    /**
+     * The anima-mundi the controller is attached to, or null if none.
+     */
+    AnimaMundi anima = null;
+    /**
+     * Whether the controller has modified the local transform of its anima-mundi
+     * since the last update.
+     */
+    boolean modified = false;
+    /**
+     * Whether the controller is updated.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Instantiates a new <code>Controller</code> reading and writing the provided
+     * {@link ControllerAccess} of its anima-mundi.
+     *
+     * @param readSet  The data read by the controller (not null).
+     * @param writeSet The data written by the controller (not null).
+     */
+    protected Controller(Set<ControllerAccess> readSet, Set<ControllerAccess> writeSet) {
+        Validator.nonNull(readSet, "The read set can't be null!");
+        Validator.nonNull(writeSet, "The write set can't be null!");
+        this.readSet = Collections.unmodifiableSet(copy(readSet));
+        this.writeSet = Collections.unmodifiableSet(copy(writeSet));
+    }
+
+    private static EnumSet<ControllerAccess> copy(Set<ControllerAccess> set) {
+        return set.isEmpty() ? EnumSet.noneOf(ControllerAccess.class) : EnumSet.copyOf(set);
+    }
+
+    /**
+     * Updates the <code>Controller</code>, by modifying the data of its
+     * anima-mundi declared in its write set.
+     *
+     * @param timer The timer used by the application (not null).
+     */
+    protected abstract void update(ReadableTimer timer);
+
+    /**
+     * Updates the enabled controllers of the given range, which are all instances of
+     * the same class as this <code>Controller</code>. It is invoked on the first
+     * controller of the range, and invokes {@link #update(ReadableTimer)} on each
+     * of them by default.
+     *
+     * @param batch The controllers of the same class to update (not null).
+     * @param from  The index of the first controller to update, inclusive (&ge;0).
+     * @param to    The index of the last controller to update, exclusive (&ge;from).
+     * @param timer The timer used by the application (not null).
+     */
+    protected void update(Controller[] batch, int from, int to, ReadableTimer timer) {
+        for (int i = from; i < to; i++) {
+            var controller = batch[i];
+            if (controller.enabled) {
+                controller.update(timer);
+            }
+        }
+    }
+
+    /**
+     * Return the local {@link Transform} of the anima-mundi controlled by the
+     * <code>Controller</code>, to modify it during the update. The transform is
+     * marked as changed once all the controllers have been updated, so it must
+     * only be invoked by a controller writing {@link ControllerAccess#LOCAL_TRANSFORM}.
+     *
+     * @return The modifiable local transform of the controlled anima-mundi (not null).
+     */
+    protected final Transform localTransform() {
+        this.modified = true;
+        return anima.localTransform;
+    }
+
+    /**
+     * Return the {@link AnimaMundi} controlled by the <code>Controller</code>.
+     *
+     * @return The controlled anima-mundi, or null if the controller isn't attached.
+     */
+    public AnimaMundi getAnimaMundi() {
+        return anima;
+    }
+
+    /**
+     * Return the data of the anima-mundi read by the <code>Controller</code>.
+     *
+     * @return A read-only set of the read data (not null).
+     */
+    public Set<ControllerAccess> getReadSet() {
+        return readSet;
+    }
+
+    /**
+     * Return the data of the anima-mundi written by the <code>Controller</code>.
+     *
+     * @return A read-only set of the written data (not null).
+     */
+    public Set<ControllerAccess> getWriteSet() {
+        return writeSet;
+    }
+
+    /**
+     * Return whether the <code>Controller</code> can be updated in parallel with
+     * the others, meaning it only writes data which is marked as changed once all
+     * the controllers have been updated.
+     *
+     * @return Whether the controller can be updated in parallel.
+     */
+    public boolean isParallel() {
+        for (var access : writeSet) {
+            if (!access.isParallelWritable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return whether the <code>Controller</code> conflicts with the provided one
+     * attached to the same anima-mundi, meaning one of them writes data accessed by
+     * the other.
+     *
+     * @param other The other controller to check (not null).
+     * @return      Whether the controllers must be updated one after the other.
+     */
+    public boolean conflicts(Controller other) {
+        Validator.nonNull(other, "The other controller can't be null!");
+        for (var access : writeSet) {
+            if (other.readSet.contains(access) || other.writeSet.contains(access)) {
+                return true;
+            }
+        }
+        for (var access : other.writeSet) {
+            if (readSet.contains(access)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return whether the <code>Controller</code> is updated.
+     *
+     * @return Whether the controller is enabled (default&rarr;true).
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the <code>Controller</code> is updated.
+     *
+     * @param enabled Whether the controller is enabled (default&rarr;true).
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[anima= " + anima + ", enabled= " + enabled + "]";
+    }
+}
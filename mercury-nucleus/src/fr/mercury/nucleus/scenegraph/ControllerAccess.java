@@ -0,0 +1,40 @@
+package fr.mercury.nucleus.scenegraph;
+
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
+
+/**
+ * <code>ControllerAccess</code> enumerates the data of an {@link AnimaMundi} that a {@link Controller} can read or
+ * write. The read and write sets of the controllers attached to the same anima-mundi define the order in which
+ * they are updated by the {@link ControllerSystem}.
+ *
+ * @author GnosticOccultist
+ */
+public enum ControllerAccess {
+
+    /**
+     * The local {@link Transform} of the anima-mundi. It is the only data which can
+     * be written by controllers updated in parallel, since the transform is marked
+     * as changed once all the controllers have been updated.
+     */
+    LOCAL_TRANSFORM,
+    /**
+     * The local {@link RenderState} of the anima-mundi.
+     */
+    RENDER_STATE,
+    /**
+     * The local {@link EnvironmentElement} of the anima-mundi.
+     */
+    ENVIRONMENT;
+
+    /**
+     * Return whether the <code>ControllerAccess</code> can be written by a
+     * {@link Controller} updated in parallel with the others.
+     *
+     * @return Whether the data can be written in parallel.
+     */
+    public boolean isParallelWritable() {
+        return this == LOCAL_TRANSFORM;
+    }
+}
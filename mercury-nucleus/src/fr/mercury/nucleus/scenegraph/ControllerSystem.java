@@ -0,0 +1,374 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.scenegraph.visitor.VisitResult;
+import fr.mercury.nucleus.scenegraph.visitor.VisitType;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>ControllerSystem</code> updates the {@link Controller} attached to a hierarchy of {@link AnimaMundi}, before
+ * its geometric state is updated.
+ * <p>
+ * The controllers are gathered into arrays of the same class, which are only rebuilt when a controller is added to
+ * or removed from the hierarchy. Each array is split into chunks updated in parallel by a {@link ForkJoinPool}, each
+ * chunk being updated by a single invocation on its first controller.
+ * <p>
+ * The controllers attached to the same anima-mundi which conflict are placed into successive phases, according to
+ * their attachment order, so the result doesn't depend on the scheduling. In each phase, the controllers writing
+ * more than the local transform are updated after the parallel ones, on the calling thread, in the traversal order
+ * of the hierarchy. The changed local transforms are marked once all the phases are completed.
+ *
+ * @author GnosticOccultist
+ */
+public final class ControllerSystem {
+
+    /**
+     * The default number of controllers updated by a single task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * The pool updating the controllers in parallel.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The number of controllers updated by a single task.
+     */
+    private final int chunkSize;
+    /**
+     * Whether the controllers are updated in parallel.
+     */
+    private boolean parallel = true;
+    /**
+     * The root of the hierarchy whose controllers are gathered, or null if none.
+     */
+    private AnimaMundi root = null;
+    /**
+     * The controllers version of the root when they were gathered.
+     */
+    private int version = 0;
+    /**
+     * The phases of controllers, updated one after the other.
+     */
+    private final List<Phase> phases = new ArrayList<>();
+    /**
+     * All the gathered controllers.
+     */
+    private Controller[] controllers = new Controller[16];
+    /**
+     * The number of gathered controllers.
+     */
+    private int size = 0;
+    /**
+     * The anima-mundis whose local transform was modified by a controller.
+     */
+    private final Set<AnimaMundi> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * The phase of each controller of the visited anima-mundi.
+     */
+    private int[] controllerPhases = new int[4];
+
+    /**
+     * Instantiates a new <code>ControllerSystem</code> with the
+     * {@link #DEFAULT_CHUNK_SIZE}, using the common {@link ForkJoinPool}.
+     */
+    public ControllerSystem() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instantiates a new <code>ControllerSystem</code> with the provided
+     * {@link ForkJoinPool} and chunk size.
+     *
+     * @param pool      The pool updating the controllers in parallel (not null).
+     * @param chunkSize The number of controllers updated by a single task (&gt;0).
+     */
+    public ControllerSystem(ForkJoinPool pool, int chunkSize) {
+        Validator.nonNull(pool, "The fork/join pool can't be null!");
+        Validator.positive(chunkSize, "The chunk size must be strictly positive!");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Updates the {@link Controller} attached to the provided {@link AnimaMundi}
+     * and its descendants, and marks the modified local transforms as changed. It
+     * must be invoked by the thread owning the scene, before updating its geometric
+     * state.
+     * <p>
+     * The controllers mustn't be added nor removed during the update.
+     *
+     * @param root  The root of the hierarchy to update (not null).
+     * @param timer The timer used by the application (not null).
+     */
+    public void update(AnimaMundi root, ReadableTimer timer) {
+        Validator.nonNull(root, "The root anima-mundi can't be null!");
+        Validator.nonNull(timer, "The timer can't be null!");
+
+        if (root != this.root || root.getControllersVersion() != version) {
+            gather(root);
+        }
+
+        for (var phase : phases) {
+            if (parallel && phase.parallelCount > chunkSize) {
+                pool.invoke(new ChunkTask(phase, 0, phase.chunkCount, timer));
+            } else {
+                for (int i = 0; i < phase.chunkCount; i++) {
+                    phase.update(i, timer);
+                }
+            }
+
+            for (int i = 0; i < phase.serialCount; i++) {
+                var controller = phase.serial[i];
+                if (controller.isEnabled()) {
+                    controller.update(timer);
+                }
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            var controller = controllers[i];
+            if (controller.modified) {
+                controller.modified = false;
+                changed.add(controller.anima);
+            }
+        }
+
+        try {
+            AnimaMundi.dirtyLocalTransforms(changed);
+        } finally {
+            changed.clear();
+        }
+    }
+
+    /**
+     * Gathers the {@link Controller} attached to the provided {@link AnimaMundi}
+     * and its descendants into phases, skipping the subtrees without any.
+     */
+    private void gather(AnimaMundi root) {
+        var builders = new ArrayList<Map<Class<?>, List<Controller>>>();
+        var serials = new ArrayList<List<Controller>>();
+        Arrays.fill(controllers, 0, size, null);
+        this.size = 0;
+
+        root.traverse((anima, depth) -> {
+            if (anima.getSubtreeControllers() == 0) {
+                return VisitResult.SKIP_CHILDREN;
+            }
+
+            var attached = anima.getAttachedControllers();
+            var count = attached != null ? attached.size() : 0;
+            if (controllerPhases.length < count) {
+                controllerPhases = new int[count];
+            }
+
+            for (int i = 0; i < count; i++) {
+                var controller = attached.get(i);
+                // A controller is updated after the ones attached before it which conflict.
+                var index = 0;
+                for (int j = 0; j < i; j++) {
+                    if (controller.conflicts(attached.get(j))) {
+                        index = Math.max(index, controllerPhases[j] + 1);
+                    }
+                }
+                controllerPhases[i] = index;
+
+                while (builders.size() <= index) {
+                    builders.add(new LinkedHashMap<>());
+                    serials.add(new ArrayList<>());
+                }
+                if (controller.isParallel()) {
+                    builders.get(index).computeIfAbsent(controller.getClass(), k -> new ArrayList<>()).add(controller);
+                } else {
+                    serials.get(index).add(controller);
+                }
+
+                if (size == controllers.length) {
+                    controllers = Arrays.copyOf(controllers, size * 2);
+                }
+                controllers[size++] = controller;
+            }
+
+            return VisitResult.CONTINUE;
+        }, VisitType.PRE_ORDER);
+
+        phases.clear();
+        for (int i = 0; i < builders.size(); i++) {
+            phases.add(new Phase(builders.get(i).values(), serials.get(i), chunkSize));
+        }
+
+        this.root = root;
+        this.version = root.getControllersVersion();
+    }
+
+    /**
+     * Return whether the <code>ControllerSystem</code> updates the controllers in
+     * parallel.
+     *
+     * @return Whether the controllers are updated in parallel (default&rarr;true).
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether the <code>ControllerSystem</code> updates the controllers in
+     * parallel, or only on the calling thread.
+     *
+     * @param parallel Whether the controllers are updated in parallel (default&rarr;true).
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Return the number of {@link Controller} gathered during the last update of the
+     * <code>ControllerSystem</code>.
+     *
+     * @return The number of controllers (&ge;0).
+     */
+    public int getControllerCount() {
+        return size;
+    }
+
+    /**
+     * Return the number of phases of the <code>ControllerSystem</code>, which are
+     * updated one after the other.
+     *
+     * @return The number of phases (&ge;0).
+     */
+    public int getPhaseCount() {
+        return phases.size();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[controllers= " + size + ", phases= " + phases.size() + ", parallel= "
+                + parallel + "]";
+    }
+
+    /**
+     * <code>Phase</code> contains controllers which can be updated independently,
+     * split into chunks of controllers of the same class.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class Phase {
+
+        /**
+         * The controllers of each class.
+         */
+        private final Controller[][] batches;
+        /**
+         * The batch, first and last index of each chunk.
+         */
+        private final int[] chunks;
+        /**
+         * The number of chunks.
+         */
+        private final int chunkCount;
+        /**
+         * The number of controllers updated in parallel.
+         */
+        private final int parallelCount;
+        /**
+         * The controllers updated on the calling thread, in traversal order.
+         */
+        private final Controller[] serial;
+        /**
+         * The number of controllers updated on the calling thread.
+         */
+        private final int serialCount;
+
+        private Phase(Iterable<List<Controller>> classes, List<Controller> serial, int chunkSize) {
+            var batches = new ArrayList<Controller[]>();
+            var count = 0;
+            var chunkCount = 0;
+            for (var controllers : classes) {
+                batches.add(controllers.toArray(new Controller[controllers.size()]));
+                count += controllers.size();
+                chunkCount += (controllers.size() + chunkSize - 1) / chunkSize;
+            }
+
+            this.batches = batches.toArray(new Controller[batches.size()][]);
+            this.chunks = new int[chunkCount * 3];
+            var chunk = 0;
+            for (int i = 0; i < this.batches.length; i++) {
+                var length = this.batches[i].length;
+                for (int from = 0; from < length; from += chunkSize) {
+                    chunks[chunk++] = i;
+                    chunks[chunk++] = from;
+                    chunks[chunk++] = Math.min(from + chunkSize, length);
+                }
+            }
+
+            this.chunkCount = chunkCount;
+            this.parallelCount = count;
+            this.serial = serial.toArray(new Controller[serial.size()]);
+            this.serialCount = this.serial.length;
+        }
+
+        private void update(int chunk, ReadableTimer timer) {
+            var batch = batches[chunks[chunk * 3]];
+            var from = chunks[chunk * 3 + 1];
+            batch[from].update(batch, from, chunks[chunk * 3 + 2], timer);
+        }
+    }
+
+    /**
+     * <code>ChunkTask</code> updates a range of chunks of a {@link Phase}, by
+     * splitting it in halves until a single chunk remains.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The phase to update.
+         */
+        private final Phase phase;
+        /**
+         * The first chunk to update, inclusive.
+         */
+        private final int from;
+        /**
+         * The last chunk to update, exclusive.
+         */
+        private final int to;
+        /**
+         * The timer used by the application.
+         */
+        private final ReadableTimer timer;
+
+        private ChunkTask(Phase phase, int from, int to, ReadableTimer timer) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+            this.timer = timer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                phase.update(from, timer);
+                return;
+            }
+
+            var middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(phase, from, middle, timer), new ChunkTask(phase, middle, to, timer));
+        }
+    }
+}
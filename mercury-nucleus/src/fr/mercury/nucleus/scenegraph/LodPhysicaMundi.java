@@ -0,0 +1,257 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.application.MercurySettings;
+import fr.mercury.nucleus.renderer.Camera;
+
+/**
+ * <code>LodPhysicaMundi</code> is a {@link PhysicaMundi} described with an ordered chain of {@link Mesh}, from the most
+ * detailed one to the coarsest one. Each frame, the level of detail to render is selected from the projected size of
+ * its world bounds on the screen of the {@link Camera}.
+ * <p>
+ * Each level, except the coarsest, is associated with the minimum screen size for which it is used, as a fraction of
+ * the viewport height. To avoid popping when the size stays close to a threshold, an hysteresis factor requires the
+ * size to go past the threshold by a margin before switching to another level.
+ * <p>
+ * The world bounds and the picking are always computed with the most detailed mesh, while {@link #getMesh()} returns
+ * the currently selected level.
+ *
+ * @author GnosticOccultist
+ *
+ * @see MercurySettings#getLodBias()
+ */
+public class LodPhysicaMundi extends PhysicaMundi {
+
+    /**
+     * The default hysteresis factor (default &rarr; 0.1).
+     */
+    public static final float DEFAULT_HYSTERESIS = 0.1F;
+
+    /**
+     * The meshes of each level, from the most detailed one.
+     */
+    private Mesh[] levels = new Mesh[0];
+    /**
+     * The minimum screen size of each level, except the coarsest one.
+     */
+    private float[] screenSizes = new float[0];
+    /**
+     * The hysteresis factor applied to the screen size thresholds.
+     */
+    private float hysteresis = DEFAULT_HYSTERESIS;
+    /**
+     * The currently selected level.
+     */
+    private int level = 0;
+
+    /**
+     * Instantiates a new <code>LodPhysicaMundi</code> with no {@link Mesh} so no
+     * rendering will occur.
+     */
+    public LodPhysicaMundi() {
+        super();
+    }
+
+    /**
+     * Instantiates a new <code>LodPhysicaMundi</code> with the given name and the
+     * provided levels of detail.
+     *
+     * @param name        The name of the physica-mundi (not null).
+     * @param levels      The meshes of each level, from the most detailed one (not
+     *                    null, not empty).
+     * @param screenSizes The minimum screen size of each level except the coarsest
+     *                    one, in decreasing order (not null).
+     *
+     * @see #setLevels(Mesh[], float[])
+     */
+    public LodPhysicaMundi(String name, Mesh[] levels, float[] screenSizes) {
+        super(name);
+        setLevels(levels, screenSizes);
+    }
+
+    /**
+     * Sets the levels of detail of the <code>LodPhysicaMundi</code>. The level at
+     * index <code>i</code> is used while the projected size is greater or equal to
+     * <code>screenSizes[i]</code>, and the last level is used otherwise.
+     * <p>
+     * The most detailed level is selected until the next frame is rendered.
+     *
+     * @param levels      The meshes of each level, from the most detailed one (not
+     *                    null, not empty).
+     * @param screenSizes The minimum screen size of each level except the coarsest
+     *                    one, as a fraction of the viewport height in decreasing
+     *                    order (not null, length equal to the number of levels minus
+     *                    one).
+     */
+    public void setLevels(Mesh[] levels, float[] screenSizes) {
+        Validator.nonNull(levels, "The levels of detail can't be null!");
+        Validator.nonNull(screenSizes, "The screen sizes can't be null!");
+        Validator.check(levels.length > 0, "The levels of detail can't be empty!");
+        Validator.check(screenSizes.length == levels.length - 1,
+                "The number of screen sizes must be equal to the number of levels minus one!");
+        for (var mesh : levels) {
+            Validator.nonNull(mesh, "The mesh of a level can't be null!");
+        }
+        for (int i = 0; i < screenSizes.length; i++) {
+            Validator.check(screenSizes[i] > 0 && (i == 0 || screenSizes[i] < screenSizes[i - 1]),
+                    "The screen sizes must be strictly positive and in decreasing order!");
+        }
+
+        // The bounds are computed from the most detailed mesh.
+        super.setMesh(levels[0]);
+
+        this.levels = Arrays.copyOf(levels, levels.length);
+        this.screenSizes = Arrays.copyOf(screenSizes, screenSizes.length);
+        this.level = 0;
+    }
+
+    /**
+     * Sets the {@link Mesh} used by the <code>LodPhysicaMundi</code>, replacing
+     * the levels of detail with a single one.
+     *
+     * @param mesh The mesh to be rendered (not null).
+     */
+    @Override
+    public void setMesh(Mesh mesh) {
+        setLevels(new Mesh[] { mesh }, new float[0]);
+    }
+
+    /**
+     * Return the {@link Mesh} of the level of detail currently selected for the
+     * <code>LodPhysicaMundi</code>.
+     *
+     * @return The mesh of the selected level, or null if none.
+     */
+    @Override
+    public Mesh getMesh() {
+        return levels.length > 0 ? levels[level] : super.getMesh();
+    }
+
+    /**
+     * Selects the level of detail of the <code>LodPhysicaMundi</code> from the
+     * projected size of its world bounds on the screen of the provided
+     * {@link Camera}, multiplied by the given bias.
+     *
+     * @param camera The camera rendering the physica-mundi (not null).
+     * @param bias   The bias applied to the projected size, greater values keeping
+     *               the detailed levels at greater distances (&gt;0).
+     * @return       The index of the selected level (&ge;0).
+     *
+     * @see Camera#getProjectedSize(fr.mercury.nucleus.math.readable.ReadableVector3f, float)
+     */
+    public int selectLevel(Camera camera, float bias) {
+        Validator.nonNull(camera, "The camera can't be null!");
+        if (levels.length <= 1) {
+            return level;
+        }
+
+        var sphere = getWorldBoundingSphere();
+        var size = camera.getProjectedSize(sphere.getCenter(), sphere.getRadius()) * bias;
+        return selectLevel(size);
+    }
+
+    /**
+     * Selects the level of detail of the <code>LodPhysicaMundi</code> from the
+     * provided screen size, while applying the hysteresis from the currently
+     * selected level.
+     *
+     * @param size The projected size of the physica-mundi (&ge;0).
+     * @return     The index of the selected level (&ge;0).
+     */
+    public int selectLevel(float size) {
+        var result = level;
+        // Use a more detailed level only once the size is clearly above its threshold.
+        while (result > 0 && size >= screenSizes[result - 1] * (1.0F + hysteresis)) {
+            result--;
+        }
+        // Use a coarser level only once the size is clearly under the current threshold.
+        while (result < screenSizes.length && size < screenSizes[result] * (1.0F - hysteresis)) {
+            result++;
+        }
+
+        this.level = result;
+        return result;
+    }
+
+    /**
+     * Return the index of the level of detail currently selected for the
+     * <code>LodPhysicaMundi</code>, 0 being the most detailed one.
+     *
+     * @return The index of the selected level (&ge;0).
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Return the number of triangles saved by the level of detail currently
+     * selected for the <code>LodPhysicaMundi</code>, compared to its most detailed
+     * level.
+     *
+     * @return The number of triangles saved by the selected level (&ge;0).
+     */
+    public int getTrianglesSaved() {
+        if (level == 0) {
+            return 0;
+        }
+
+        return levels[0].getTriangleCount() - levels[level].getTriangleCount();
+    }
+
+    /**
+     * Return the {@link Mesh} of the level of detail at the given index.
+     *
+     * @param index The index of the level, 0 being the most detailed one (&ge;0,
+     *              &lt;number of levels).
+     * @return      The mesh of the level.
+     */
+    public Mesh getLevel(int index) {
+        return levels[index];
+    }
+
+    /**
+     * Return the minimum screen size for which the level of detail at the given
+     * index is used, as a fraction of the viewport height.
+     *
+     * @param index The index of the level, 0 being the most detailed one (&ge;0,
+     *              &lt;number of levels - 1).
+     * @return      The minimum screen size of the level (&gt;0).
+     */
+    public float getScreenSize(int index) {
+        return screenSizes[index];
+    }
+
+    /**
+     * Return the number of levels of detail of the <code>LodPhysicaMundi</code>.
+     *
+     * @return The number of levels (&ge;0).
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Return the hysteresis factor of the <code>LodPhysicaMundi</code>, applied to
+     * the screen size thresholds to switch between levels.
+     *
+     * @return The hysteresis factor (&ge;0, &lt;1).
+     */
+    public float getHysteresis() {
+        return hysteresis;
+    }
+
+    /**
+     * Sets the hysteresis factor of the <code>LodPhysicaMundi</code>. A level is
+     * only left when the screen size is greater than its threshold multiplied by
+     * <code>1 + hysteresis</code>, or lower than it multiplied by
+     * <code>1 - hysteresis</code>.
+     *
+     * @param hysteresis The hysteresis factor (&ge;0, &lt;1, default&rarr;0.1).
+     */
+    public void setHysteresis(float hysteresis) {
+        Validator.check(hysteresis >= 0 && hysteresis < 1, "The hysteresis must be between 0 and 1!");
+        this.hysteresis = hysteresis;
+    }
+}
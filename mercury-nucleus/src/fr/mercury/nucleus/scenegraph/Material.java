@@ -1,6 +1,7 @@
 package fr.mercury.nucleus.scenegraph;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,11 +15,16 @@ import fr.mercury.nucleus.renderer.opengl.shader.ShaderSource;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexAttribute;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexBuffer;
 import fr.mercury.nucleus.scenegraph.MaterialVariable.ValueType;
-import fr.mercury.nucleus.texture.Texture;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
 import fr.mercury.nucleus.utils.MercuryException;
 
 public class Material implements Comparable<Material> {
 
+    /**
+     * The define enabling the per-instance model matrix in the shaders.
+     */
+    public static final String INSTANCING_DEFINE = "INSTANCING";
+
     /**
      * The name of the material, used for debugging.
      */
@@ -43,6 +49,30 @@ public class Material implements Comparable<Material> {
      * The store for already loaded shaders.
      */
     private final Map<String, ShaderProgram> shaders = new HashMap<String, ShaderProgram>();
+    /**
+     * The names of the prefab uniforms variables, lazily computed.
+     */
+    private List<String> prefabVariables = null;
+    /**
+     * The environment slot of each prefab uniforms variable, lazily computed.
+     */
+    private int[] prefabSlots = null;
+    /**
+     * The binding plans compiled for each shader program, lazily computed.
+     */
+    private final Map<ShaderProgram, MaterialBindingPlan> bindingPlans = new HashMap<>(2);
+    /**
+     * The attribute receiving the per-instance model matrix, lazily computed.
+     */
+    private VertexAttribute instanceAttribute = null;
+    /**
+     * Whether the material renders instances, lazily computed.
+     */
+    private Boolean instancing = null;
+    /**
+     * The path of the asset the material was loaded from, or null.
+     */
+    private String assetPath = null;
 
     /**
      * Instantiates a new empty <code>Material</code>.
@@ -66,38 +96,61 @@ public class Material implements Comparable<Material> {
         this.description = description;
     }
 
+    /**
+     * Applies the uniforms of the variables of the <code>Material</code> to the
+     * provided {@link ShaderProgram} and binds its textures, using the
+     * {@link #getBindingPlan(ShaderProgram) binding plan} compiled for the program.
+     * 
+     * @param program The shader program to setup the data for (not null).
+     */
     public void setupData(ShaderProgram program) {
-        variables.forEach(data -> {
-            var value = data.value;
-            if (value == null) {
-                return;
-            }
-            
-            program.register(value);
+        getBindingPlan(program).bind(ResolvedEnvironment.EMPTY);
+    }
 
-            if (value instanceof Texture) {
-                var texture = (Texture) value;
-                texture.upload();
-                texture.bindToUnit(0);
-            }
-        });
+    /**
+     * Return the {@link MaterialBindingPlan} of the <code>Material</code> compiled
+     * for the provided {@link ShaderProgram}. The plan is compiled once and reused
+     * until a variable or a shader source is added or changed.
+     * 
+     * @param program The shader program to get the binding plan for (not null).
+     * @return        The binding plan for the program (not null).
+     */
+    public MaterialBindingPlan getBindingPlan(ShaderProgram program) {
+        Validator.nonNull(program, "The shader program can't be null!");
+
+        var plan = bindingPlans.get(program);
+        if (plan == null) {
+            plan = new MaterialBindingPlan(program, variables, getPrefabSlots());
+            bindingPlans.put(program, plan);
+        }
+        return plan;
     }
-    
+
     public <D> Material addVariable(String name, D value) {
         this.variables.add(new MaterialVariable(name, value));
+        invalidateVariables();
         return this;
     }
 
     public <D> Material addVariable(String name, D value, ValueType type) {
         this.variables.add(new MaterialVariable(name, value, type));
+        invalidateVariables();
         return this;
     }
 
     public Material setVariable(String name, Object value) {
         this.variables.stream().filter(d -> name.equals(d.name)).forEach(d -> d.value = value);
+        // The binding plans reference the values.
+        this.bindingPlans.clear();
         return this;
     }
 
+    private void invalidateVariables() {
+        this.prefabVariables = null;
+        this.prefabSlots = null;
+        this.bindingPlans.clear();
+    }
+
     /**
      * Prepare and binds the {@link VertexAttribute} of the <code>Material</code> to
      * the {@link VertexBuffer} defined in the {@link Mesh} of the provided
@@ -108,8 +161,18 @@ public class Material implements Comparable<Material> {
      * @param physica The physica-mundi to bind attributes to.
      */
     public void bindAttributes(PhysicaMundi physica) {
-        var mesh = physica.getMesh();
+        bindAttributes(physica.getMesh());
+    }
 
+    /**
+     * Prepare and binds the {@link VertexAttribute} of the <code>Material</code> to
+     * the {@link VertexBuffer} defined in the provided {@link Mesh}.
+     * <p>
+     * The method will only setup the attributes if one of the VBO is dirty.
+     * 
+     * @param mesh The mesh to bind attributes to.
+     */
+    public void bindAttributes(Mesh mesh) {
         // If one of the buffer is dirty re-bind all the attributes.
         if (mesh.isDirty()) {
 
@@ -118,12 +181,11 @@ public class Material implements Comparable<Material> {
 
             for (var attrib : attributes) {
 
-                var type = attrib.getBufferType();
-                var key = (type != null && !type.isEmpty()) ? type : attrib.getName();
+                var key = attrib.getBufferKey();
                 var buffer = mesh.getBuffer(key);
 
                 if (buffer == null) {
-                    throw new MercuryException("No VertexBuffer setup in " + physica + " for attribute '" + key + "'!");
+                    throw new MercuryException("No VertexBuffer setup in " + mesh + " for attribute '" + key + "'!");
                 }
 
                 attrib.bindAttribute(buffer);
@@ -148,6 +210,17 @@ public class Material implements Comparable<Material> {
         return shader;
     }
 
+    /**
+     * Return the first {@link ShaderProgram} already computed by the
+     * <code>Material</code>, without creating it from the sources, for example to
+     * sort the materials by shader.
+     *
+     * @return The first computed shader program, or null if none.
+     */
+    public ShaderProgram findFirstShader() {
+        return shaders.isEmpty() ? null : shaders.values().iterator().next();
+    }
+
     public ShaderProgram getShader(String name) {
         var shader = shaders.get(name);
         if (shader == null && sources.containsKey(name)) {
@@ -163,6 +236,14 @@ public class Material implements Comparable<Material> {
         return sources.get(name);
     }
 
+    /**
+     * Return the names of the variables of the <code>Material</code> whose
+     * uniforms are matrices computed by the renderer. Note that a new list is
+     * computed at each call, prefer the {@link MaterialBindingPlan#getMatrixTypes()
+     * matrix types} of the binding plan when rendering.
+     * 
+     * @return A list of the matrix variables names (not null).
+     */
     public List<String> getMatrixVariables() {
         return variables.stream()
                 .filter(v -> ValueType.RENDERER_MATRIX.equals(v.getValueType()))
@@ -170,11 +251,114 @@ public class Material implements Comparable<Material> {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Return the names of the variables of the <code>Material</code> whose
+     * uniforms are provided by a prefab structure, such as an
+     * {@link EnvironmentElement}. The list is computed once until a variable is
+     * added.
+     * 
+     * @return A read-only list of the prefab variables names (not null).
+     */
     public List<String> getPrefabVariables() {
-        return variables.stream()
-                .filter(v -> ValueType.PREFAB_UNIFORMS.equals(v.getValueType()))
-                .map(MaterialVariable::getName)
-                .collect(Collectors.toList());
+        var result = prefabVariables;
+        if (result == null) {
+            result = Collections.unmodifiableList(variables.stream()
+                    .filter(v -> ValueType.PREFAB_UNIFORMS.equals(v.getValueType()))
+                    .map(MaterialVariable::getName)
+                    .collect(Collectors.toList()));
+            this.prefabVariables = result;
+        }
+        return result;
+    }
+
+    /**
+     * Return the {@link ResolvedEnvironment} slot of each prefab variable of the
+     * <code>Material</code>, in the same order as {@link #getPrefabVariables()}, so
+     * that the matching {@link EnvironmentElement} can be retrieved without any
+     * search. The array mustn't be modified.
+     * 
+     * @return The environment slots of the prefab variables (not null).
+     */
+    public int[] getPrefabSlots() {
+        var result = prefabSlots;
+        if (result == null) {
+            var names = getPrefabVariables();
+            result = new int[names.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ResolvedEnvironment.slotOf(names.get(i));
+            }
+            this.prefabSlots = result;
+        }
+        return result;
+    }
+
+    /**
+     * Return whether the <code>Material</code> renders its meshes with instancing,
+     * meaning its shader is compiled with the {@link #INSTANCING_DEFINE} and it
+     * declares an {@link #getInstanceAttribute() instance attribute}. The result is
+     * computed once until an attribute or a source is added.
+     * <p>
+     * The world matrices of the renderables using such a material are gathered by
+     * the renderer into the instance attribute, so that consecutive ones sharing the
+     * same mesh are drawn with a single call.
+     * 
+     * @return Whether the material uses instancing.
+     */
+    public boolean isInstancing() {
+        var result = instancing;
+        if (result == null) {
+            result = getInstanceAttribute() != null && hasDefine(INSTANCING_DEFINE);
+            this.instancing = result;
+        }
+        return result;
+    }
+
+    /**
+     * Return the {@link VertexAttribute} of the <code>Material</code> receiving the
+     * per-instance model matrix, which is the first attribute advancing per
+     * instance and spanning over 4 locations.
+     * 
+     * @return The instance attribute, or null if none.
+     */
+    public VertexAttribute getInstanceAttribute() {
+        var result = instanceAttribute;
+        if (result == null) {
+            for (var attribute : attributes) {
+                if (attribute.getDivisor() > 0 && attribute.getSpan() == 4) {
+                    result = attribute;
+                    break;
+                }
+            }
+            this.instanceAttribute = result;
+        }
+        return result;
+    }
+
+    private boolean hasDefine(String define) {
+        // Copies of the material only share the shaders, so check them as well.
+        for (var shader : shaders.values()) {
+            if (shader.hasDefine(define)) {
+                return true;
+            }
+        }
+        for (var list : sources.values()) {
+            for (var source : list) {
+                if (source.hasDefine(define)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return a read-only view of the variables of the <code>Material</code>, in the
+     * order they were added.
+     * 
+     * @return The variables of the material (not null).
+     */
+    public List<MaterialVariable> getVariables() {
+        return Collections.unmodifiableList(variables);
     }
 
     public List<VertexAttribute> getAttributes() {
@@ -184,6 +368,8 @@ public class Material implements Comparable<Material> {
     public void addAttribute(VertexAttribute attribute) {
         Validator.nonNull(attribute, "The vertex attribute can't be null!");
         this.attributes.add(attribute);
+        this.instanceAttribute = null;
+        this.instancing = null;
     }
 
     public void addShaderSource(String name, ShaderSource source) {
@@ -193,9 +379,12 @@ public class Material implements Comparable<Material> {
             sources.put(name, list);
         }
         list.add(source);
+        this.instancing = null;
+        this.bindingPlans.clear();
     }
 
     public void cleanup() {
+        bindingPlans.clear();
         shaders.values().forEach(ShaderProgram::cleanup);
         variables.stream()
                 .map(MaterialVariable::value)
@@ -208,6 +397,7 @@ public class Material implements Comparable<Material> {
         var copy = new Material(name, description);
         copy.shaders.putAll(shaders);
         copy.attributes.addAll(attributes);
+        copy.assetPath = assetPath;
 
         return copy;
     }
@@ -219,10 +409,70 @@ public class Material implements Comparable<Material> {
         return copy;
     }
 
+    /**
+     * Return whether the <code>Material</code> renders exactly like the provided
+     * one, meaning they are using the same shaders, attributes and variables
+     * values, so that meshes using either of them can be merged and rendered with
+     * only one of them. It is usually the case of copies of the same template
+     * sharing the same textures.
+     *
+     * @param other The other material to compare with (not null).
+     * @return      Whether the materials can be used interchangeably.
+     */
+    public boolean isBatchCompatible(Material other) {
+        Validator.nonNull(other, "The material to compare with can't be null!");
+        if (other == this) {
+            return true;
+        }
+
+        if (shaders.size() != other.shaders.size() || !sources.equals(other.sources)
+                || !attributes.equals(other.attributes) || variables.size() != other.variables.size()) {
+            return false;
+        }
+
+        // Compare the shader instances, since their identifier isn't assigned before the upload.
+        for (var entry : shaders.entrySet()) {
+            if (other.shaders.get(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < variables.size(); i++) {
+            var variable = variables.get(i);
+            var otherVariable = other.variables.get(i);
+            if (!variable.name.equals(otherVariable.name) || variable.value != otherVariable.value
+                    || variable.valueType != otherVariable.valueType) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public String getName() {
         return name;
     }
 
+    /**
+     * Return the path of the asset the <code>Material</code> was loaded from, or
+     * the one of its template for a copy. Along with the name of the material, it
+     * allows to reference it instead of describing its shaders.
+     * 
+     * @return The path of the asset, or null if the material wasn't loaded from an
+     *         asset.
+     */
+    public String getAssetPath() {
+        return assetPath;
+    }
+
+    /**
+     * Sets the path of the asset the <code>Material</code> was loaded from.
+     * 
+     * @param assetPath The path of the asset, or null.
+     */
+    public void setAssetPath(String assetPath) {
+        this.assetPath = assetPath;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
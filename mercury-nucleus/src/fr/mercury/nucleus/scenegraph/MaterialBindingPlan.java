@@ -0,0 +1,256 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.renderer.AbstractRenderer.MatrixType;
+import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.Uniform.UniformType;
+import fr.mercury.nucleus.renderer.opengl.shader.uniform.UniformField;
+import fr.mercury.nucleus.scenegraph.MaterialVariable.ValueType;
+import fr.mercury.nucleus.texture.Texture;
+import fr.mercury.nucleus.utils.OpenGLCall;
+
+/**
+ * <code>MaterialBindingPlan</code> is the precompiled binding of a {@link Material} to a {@link ShaderProgram}. It
+ * resolves once what the material requests from the renderer for each draw: the {@link MatrixType} to pass, the
+ * {@link ResolvedEnvironment} slots of the prefab variables, the {@link UniformField} getters of the variables values
+ * and the texture unit of each {@link Texture}.
+ * <p>
+ * Binding the plan is then a loop over these arrays, without any search, stream or reflective lookup. The plan is
+ * immutable and cached by the material until one of its variables or shader sources changes, see
+ * {@link Material#getBindingPlan(ShaderProgram)}.
+ *
+ * @author GnosticOccultist
+ */
+public final class MaterialBindingPlan {
+
+    /**
+     * The name of the prefab variable requesting the location of the camera.
+     */
+    public static final String CAMERA_POSITION = "cameraPos";
+
+    /**
+     * The shader program the plan is compiled for.
+     */
+    private final ShaderProgram program;
+    /**
+     * The types of the matrices requested by the material, in declaration order.
+     */
+    private final MatrixType[] matrixTypes;
+    /**
+     * The environment slot of each prefab variable.
+     */
+    private final int[] prefabSlots;
+    /**
+     * Whether the material requests the location of the camera.
+     */
+    private final boolean cameraPosition;
+    /**
+     * The owner of each uniform getter.
+     */
+    private final Object[] owners;
+    /**
+     * The uniform getters, annotated with {@link UniformField}.
+     */
+    private final Method[] getters;
+    /**
+     * The name of the uniform of each getter.
+     */
+    private final String[] names;
+    /**
+     * The type of the uniform of each getter.
+     */
+    private final UniformType[] types;
+    /**
+     * The textures, each one bound to the unit matching its index.
+     */
+    private final Texture[] textures;
+    /**
+     * The name of the sampler uniform of each texture.
+     */
+    private final String[] samplers;
+
+    /**
+     * Instantiates a new <code>MaterialBindingPlan</code> compiling the provided
+     * variables of a {@link Material} for the given {@link ShaderProgram}.
+     *
+     * @param program     The shader program to compile the plan for (not null).
+     * @param variables   The variables of the material (not null).
+     * @param prefabSlots The environment slots of the prefab variables (not null).
+     */
+    MaterialBindingPlan(ShaderProgram program, List<MaterialVariable> variables, int[] prefabSlots) {
+        Validator.nonNull(program, "The shader program can't be null!");
+        Validator.nonNull(variables, "The material variables can't be null!");
+        Validator.nonNull(prefabSlots, "The prefab slots can't be null!");
+
+        this.program = program;
+        this.prefabSlots = prefabSlots;
+
+        var matrices = new ArrayList<MatrixType>(MatrixType.values().length);
+        for (var type : MatrixType.values()) {
+            for (var variable : variables) {
+                if (variable.valueType == ValueType.RENDERER_MATRIX && type.getUniformName().equals(variable.name)) {
+                    matrices.add(type);
+                    break;
+                }
+            }
+        }
+        this.matrixTypes = matrices.toArray(new MatrixType[matrices.size()]);
+
+        var camera = false;
+        var owners = new ArrayList<Object>();
+        var getters = new ArrayList<Method>();
+        var textures = new ArrayList<Texture>();
+        var samplers = new ArrayList<String>();
+        for (var variable : variables) {
+            if (variable.valueType == ValueType.PREFAB_UNIFORMS && CAMERA_POSITION.equals(variable.name)) {
+                camera = true;
+            }
+
+            var value = variable.value;
+            if (value == null) {
+                continue;
+            }
+
+            for (var getter : uniformGetters(value.getClass())) {
+                owners.add(value);
+                getters.add(getter);
+            }
+
+            if (value instanceof Texture) {
+                textures.add((Texture) value);
+                samplers.add(variable.name);
+            }
+        }
+        this.cameraPosition = camera;
+
+        this.owners = owners.toArray();
+        this.getters = getters.toArray(new Method[getters.size()]);
+        this.names = new String[this.getters.length];
+        this.types = new UniformType[this.getters.length];
+        for (int i = 0; i < this.getters.length; i++) {
+            var annotation = this.getters[i].getAnnotation(UniformField.class);
+            names[i] = annotation.name();
+            types[i] = annotation.type();
+        }
+
+        this.textures = textures.toArray(new Texture[textures.size()]);
+        this.samplers = samplers.toArray(new String[samplers.size()]);
+    }
+
+    /**
+     * Binds the <code>MaterialBindingPlan</code> by applying the uniforms of the
+     * provided environment elements and of the material variables to the
+     * {@link ShaderProgram}, and by binding each {@link Texture} to its unit.
+     *
+     * @param environment The resolved environment elements to apply (not null).
+     */
+    @OpenGLCall
+    public void bind(ResolvedEnvironment environment) {
+        // Look for the environment elements requested by the prefab variables.
+        for (int i = 0; i < prefabSlots.length; i++) {
+            var property = environment.get(prefabSlots[i]);
+            if (property != null) {
+                property.uniforms(program);
+            }
+        }
+
+        for (int i = 0; i < getters.length; i++) {
+            try {
+                program.addUniform(names[i], types[i], getters[i].invoke(owners[i]));
+            } catch (IllegalAccessException | InvocationTargetException ex) {
+                throw new RuntimeException("Error occured during registering of uniforms for: " + owners[i], ex);
+            }
+        }
+
+        for (int i = 0; i < textures.length; i++) {
+            var texture = textures[i];
+            texture.upload();
+            texture.bindToUnit(i);
+            // The value is unchanged after the first draw, so the uniform isn't uploaded again.
+            program.addUniform(samplers[i], UniformType.INTEGER, i);
+        }
+    }
+
+    /**
+     * Return the {@link ShaderProgram} the <code>MaterialBindingPlan</code> is
+     * compiled for.
+     *
+     * @return The shader program of the plan (not null).
+     */
+    public ShaderProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Return the types of the matrices requested by the material, in the order
+     * they are declared in {@link MatrixType}. The array mustn't be modified.
+     *
+     * @return The requested matrix types (not null).
+     */
+    public MatrixType[] getMatrixTypes() {
+        return matrixTypes;
+    }
+
+    /**
+     * Return the {@link ResolvedEnvironment} slot of each prefab variable of the
+     * material. The array mustn't be modified.
+     *
+     * @return The environment slots of the prefab variables (not null).
+     */
+    public int[] getPrefabSlots() {
+        return prefabSlots;
+    }
+
+    /**
+     * Return whether the material requests the location of the camera, with the
+     * {@link #CAMERA_POSITION} prefab variable.
+     *
+     * @return Whether the camera location is needed.
+     */
+    public boolean needsCameraPosition() {
+        return cameraPosition;
+    }
+
+    /**
+     * Return the number of textures bound by the <code>MaterialBindingPlan</code>,
+     * which is also the number of texture units used.
+     *
+     * @return The number of textures (&ge;0).
+     */
+    public int getTextureCount() {
+        return textures.length;
+    }
+
+    /**
+     * Return the public getters annotated with {@link UniformField} and without any
+     * parameters of the provided class, as registered by
+     * {@link ShaderProgram#register(Object)}.
+     */
+    private static List<Method> uniformGetters(Class<?> clazz) {
+        var result = new ArrayList<Method>(0);
+        for (var method : clazz.getMethods()) {
+            if (!Modifier.isPublic(method.getModifiers()) || !method.isAnnotationPresent(UniformField.class)) {
+                continue;
+            }
+            if (method.getParameterTypes().length != 0) {
+                continue;
+            }
+
+            result.add(method);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[program= " + program + ", matrices= " + matrixTypes.length
+                + ", prefabs= " + prefabSlots.length + ", uniforms= " + getters.length + ", textures= "
+                + textures.length + "]";
+    }
+}
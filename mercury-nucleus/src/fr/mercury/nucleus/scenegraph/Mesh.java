@@ -1,13 +1,18 @@
 package fr.mercury.nucleus.scenegraph;
 
 import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.lwjgl.opengl.GL11;
 
 import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.BoundingSphere;
 import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.renderer.opengl.vertex.VertexArray;
@@ -52,6 +57,22 @@ public class Mesh {
      * The count of vertices in the mesh.
      */
     private int vertexCount = -1;
+    /**
+     * The bounding box enclosing the vertices in model space.
+     */
+    private final BoundingBox boundingBox = new BoundingBox();
+    /**
+     * The bounding sphere enclosing the vertices in model space.
+     */
+    private final BoundingSphere boundingSphere = new BoundingSphere();
+    /**
+     * The triangles of the mesh used for ray queries, lazily created.
+     */
+    private TriangleHierarchy triangleHierarchy = null;
+    /**
+     * Whether the triangles are split into a hierarchy to accelerate ray queries.
+     */
+    private boolean pickingHierarchy = true;
 
     /**
      * Instantiates a new <code>Mesh</code> with no {@link VertexBuffer} set. The
@@ -66,6 +87,8 @@ public class Mesh {
     public Mesh() {
         this.vao = new VertexArray();
         this.buffers = new HashMap<>();
+        // Without any position buffer, the bounds are infinite.
+        updateBounds();
     }
 
     /**
@@ -167,6 +190,13 @@ public class Mesh {
         if (updateCount) {
             updateVertexCount();
         }
+
+        if (type == VertexBufferType.POSITION) {
+            updateBounds();
+        }
+        if (type == VertexBufferType.POSITION || type == VertexBufferType.INDEX) {
+            this.triangleHierarchy = null;
+        }
     }
 
     /**
@@ -225,6 +255,10 @@ public class Mesh {
 
         if (type == VertexBufferType.POSITION) {
             updateVertexCount();
+            updateBounds();
+        }
+        if (type == VertexBufferType.POSITION || type == VertexBufferType.INDEX) {
+            this.triangleHierarchy = null;
         }
     }
 
@@ -257,6 +291,10 @@ public class Mesh {
 
         if (type == VertexBufferType.POSITION) {
             updateVertexCount();
+            updateBounds();
+        }
+        if (type == VertexBufferType.POSITION || type == VertexBufferType.INDEX) {
+            this.triangleHierarchy = null;
         }
     }
 
@@ -313,6 +351,16 @@ public class Mesh {
         return buffers.containsKey(key);
     }
 
+    /**
+     * Return the keys of the {@link VertexBuffer} setup for the <code>Mesh</code>,
+     * either the name of their {@link VertexBufferType} or a custom key.
+     * 
+     * @return A read-only set of the vertex buffers keys (not null).
+     */
+    public Set<String> getBufferKeys() {
+        return Collections.unmodifiableSet(buffers.keySet());
+    }
+
     /**
      * Return the {@link VertexBuffer} from the {@link VertexBufferType type}, or
      * null if it isn't present.
@@ -375,6 +423,127 @@ public class Mesh {
         }
     }
 
+    /**
+     * Return the {@link BoundingBox} enclosing the vertices of the <code>Mesh</code>
+     * in model space. The bounds are computed from the {@link VertexBufferType#POSITION}
+     * buffer as soon as it is set up, so reading them never modifies the mesh and it can
+     * be safely shared by hierarchies updated concurrently.
+     * <p>
+     * If the mesh has no float position buffer, the box is infinite so the mesh is never
+     * considered outside of a volume.
+     * 
+     * @return The model bounding box of the mesh (not null).
+     * 
+     * @see #updateBounds()
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    /**
+     * Return the {@link BoundingSphere} enclosing the vertices of the <code>Mesh</code>
+     * in model space. The bounds are computed from the {@link VertexBufferType#POSITION}
+     * buffer as soon as it is set up, so reading them never modifies the mesh and it can
+     * be safely shared by hierarchies updated concurrently.
+     * <p>
+     * If the mesh has no float position buffer, the sphere is infinite so the mesh is
+     * never considered outside of a volume.
+     * 
+     * @return The model bounding sphere of the mesh (not null).
+     * 
+     * @see #updateBounds()
+     */
+    public BoundingSphere getBoundingSphere() {
+        return boundingSphere;
+    }
+
+    /**
+     * Forces the computation of the model bounds of the <code>Mesh</code> from its
+     * {@link VertexBufferType#POSITION} buffer. This should be called manually if the
+     * content of the position buffer has been modified in place, without using one of the
+     * <code>setupBuffer</code> methods, but never while a hierarchy using the mesh is being updated.
+     * <p>
+     * Note that the {@link PhysicaMundi} using this mesh won't update its world bounds until
+     * its transform has been marked as dirty.
+     * <p>
+     * The triangles used for ray queries are discarded as well, and will be read again from the
+     * buffers on the next query.
+     */
+    public void updateBounds() {
+        var buffer = getBuffer(VertexBufferType.POSITION);
+        var data = buffer != null ? buffer.getData() : null;
+        if (data instanceof FloatBuffer) {
+            var positions = (FloatBuffer) data;
+            boundingBox.compute(positions);
+            boundingSphere.compute(positions, boundingBox);
+        } else {
+            // Unable to determine the bounds, so consider it as always visible.
+            boundingBox.setInfinite();
+            boundingSphere.setInfinite();
+        }
+
+        this.triangleHierarchy = null;
+    }
+
+    /**
+     * Return the {@link TriangleHierarchy} of the <code>Mesh</code> used for ray
+     * queries, which is lazily built from its position and index buffers.
+     *
+     * @return The triangles of the mesh (not null).
+     */
+    TriangleHierarchy getTriangleHierarchy() {
+        var result = triangleHierarchy;
+        if (result == null) {
+            result = new TriangleHierarchy(this, pickingHierarchy);
+            this.triangleHierarchy = result;
+        }
+        return result;
+    }
+
+    /**
+     * Return whether the triangles of the <code>Mesh</code> are split into a
+     * hierarchy of bounding boxes to accelerate the ray queries.
+     *
+     * @return Whether the mesh uses a picking hierarchy (default&rarr;true).
+     *
+     * @see #setPickingHierarchy(boolean)
+     */
+    public boolean isPickingHierarchy() {
+        return pickingHierarchy;
+    }
+
+    /**
+     * Sets whether the triangles of the <code>Mesh</code> should be split into a
+     * hierarchy of bounding boxes to accelerate the ray queries, which is built
+     * on the first query and kept until the positions or indices are changed.
+     * <p>
+     * Disabling it saves the build time and memory of the hierarchy for meshes with
+     * only a few triangles or rarely queried, each triangle being tested instead.
+     *
+     * @param pickingHierarchy Whether the mesh uses a picking hierarchy (default&rarr;true).
+     */
+    public void setPickingHierarchy(boolean pickingHierarchy) {
+        if (this.pickingHierarchy != pickingHierarchy) {
+            this.pickingHierarchy = pickingHierarchy;
+            this.triangleHierarchy = null;
+        }
+    }
+
+    /**
+     * Return the positions in model space of the vertices of each triangle of the
+     * <code>Mesh</code>, assembled according to its {@link Mode}. Each triangle is
+     * packed as [x0, y0, z0, x1, y1, z1, x2, y2, z2], and meshes which aren't made
+     * of triangles return an empty array.
+     * <p>
+     * The array is created from the position and index buffers at each call, so it
+     * should be kept by the caller.
+     *
+     * @return A new array containing the vertices of the triangles (not null).
+     */
+    public float[] getTriangleVertices() {
+        return TriangleHierarchy.unpack(this);
+    }
+
     public int getVertexCount() {
         return vertexCount;
     }
@@ -384,6 +553,30 @@ public class Mesh {
         return result;
     }
 
+    /**
+     * Return the number of triangles drawn for the <code>Mesh</code>, according to
+     * its {@link Mode} and including all its instances. Meshes which aren't made of
+     * triangles return 0.
+     * 
+     * @return The number of triangles drawn for the mesh (&ge;0).
+     */
+    public int getTriangleCount() {
+        var count = hasIndices() ? getElementCount() : getVertexCount();
+        switch (mode) {
+        case TRIANGLES:
+            count = count / 3;
+            break;
+        case TRIANGLE_STRIP:
+        case TRIANGLE_FAN:
+            count = Math.max(count - 2, 0);
+            break;
+        default:
+            return 0;
+        }
+
+        return count * instanceCount;
+    }
+
     /**
      * Return the {@link Mode} of the primitive to render with the vertices.
      * 
@@ -402,6 +595,7 @@ public class Mesh {
         Validator.nonNull(mode, "The primitive mode cannot be null!");
 
         this.mode = mode;
+        this.triangleHierarchy = null;
     }
 
     /**
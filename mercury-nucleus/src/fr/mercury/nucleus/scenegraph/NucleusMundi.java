@@ -6,11 +6,16 @@ import fr.alchemy.utilities.ReadOnlyException;
 import fr.alchemy.utilities.Validator;
 import fr.alchemy.utilities.collections.array.Array;
 import fr.alchemy.utilities.collections.array.ReadOnlyArray;
+import fr.mercury.nucleus.application.service.SceneUpdateService;
+import fr.mercury.nucleus.math.objects.Ray;
 import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.renderer.queue.RenderLayer;
 import fr.mercury.nucleus.scenegraph.visitor.DirtyType;
+import fr.mercury.nucleus.scenegraph.visitor.ParallelTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.SceneTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.VisitResult;
 import fr.mercury.nucleus.scenegraph.visitor.VisitType;
 import fr.mercury.nucleus.scenegraph.visitor.Visitor;
-import fr.mercury.nucleus.utils.ReadableTimer;
 
 /**
  * <code>NucleusMundi</code> represents a node ('<i>nucleus</i>') constituting a manifestation of the {@link AnimaMundi}.
@@ -18,6 +23,13 @@ import fr.mercury.nucleus.utils.ReadableTimer;
  * <p>
  * The node is mainly used for translating/rotating/scaling a group of children easily all at once, or for very fast culling of
  * the entire node.
+ * <p>
+ * A scene-graph isn't thread-safe: the hierarchy extending from a root node is confined to a single thread at a
+ * time, which is the only one allowed to modify, update or extract it. Other threads must record their changes into
+ * a {@link SceneMutationQueue}. However, several root nodes can be updated concurrently by different threads, for
+ * example with a {@link SceneUpdateService}, as long as they don't share any anima-mundi. Their update only reads the
+ * meshes, materials and render states they may share, for example the model bounds of a {@link Mesh} which are
+ * computed when its buffers are set up, so these mustn't be modified until the update is done.
  * 
  * @author GnosticOccultist
  */
@@ -71,8 +83,32 @@ public class NucleusMundi extends AnimaMundi implements Iterable<AnimaMundi> {
                 child.getParent().detach(child);
             }
 
+            var childStore = child.getTransformStore();
+            if (childStore != null) {
+                childStore.release(child);
+            }
+            var childBVH = child.getBVH();
+            if (childBVH != null) {
+                childBVH.detach(child);
+            }
+
             child.setParent(this);
             children.add(child);
+
+            var store = getTransformStore();
+            if (store != null) {
+                store.invalidate();
+            }
+            var bvh = getBVH();
+            if (bvh != null) {
+                bvh.attach(child);
+            }
+
+            // The world transform, render states and environment of the child depend on its
+            // new parent, and the bounds of this nucleus must now enclose the child.
+            child.dirty(DirtyType.TRANSFORM);
+            child.dirty(DirtyType.RENDER_STATE);
+            child.dirty(DirtyType.ENVIRONMENT);
         }
     }
 
@@ -84,7 +120,7 @@ public class NucleusMundi extends AnimaMundi implements Iterable<AnimaMundi> {
      */
     public void detachAll(AnimaMundi... children) {
         for (AnimaMundi child : children) {
-            attach(child);
+            detach(child);
         }
     }
 
@@ -99,31 +135,54 @@ public class NucleusMundi extends AnimaMundi implements Iterable<AnimaMundi> {
         if (child.getParent() == this) {
             children.remove(child);
             child.setParent(null);
+
+            var store = getTransformStore();
+            if (store != null) {
+                store.release(child);
+            }
+            var bvh = getBVH();
+            if (bvh != null) {
+                bvh.detach(child);
+            }
+
+            // The child is now orphan, and the bounds of this nucleus no longer enclose it.
+            child.dirty(DirtyType.TRANSFORM);
+            child.dirty(DirtyType.RENDER_STATE);
+            child.dirty(DirtyType.ENVIRONMENT);
+            dirty(DirtyType.BOUNDS);
         }
     }
 
+    /**
+     * Update the world bounds of the <code>NucleusMundi</code> by merging the world
+     * bounds of each of its children, which should already be updated.
+     */
     @Override
-    protected void updateChildren(ReadableTimer timer) {
-        super.updateChildren(timer);
+    protected void updateWorldBound() {
+        worldBoundingBox.setEmpty();
+        worldBoundingSphere.setEmpty();
 
-        // Propagate the geometric state update to its children, because they might
-        // have been added after the node update and removing of its dirty flags.
         for (int i = 0; i < size(); i++) {
             var child = children.get(i);
-            if (child != null) {
-                child.updateGeometricState(timer);
-            }
+            worldBoundingBox.merge(child.worldBoundingBox);
+            worldBoundingSphere.merge(child.worldBoundingSphere);
         }
     }
 
+    /**
+     * Computes the mask of the {@link RenderLayer} used in the subtree of the
+     * <code>NucleusMundi</code>, by combining its resolved layer with the masks of
+     * its children.
+     *
+     * @return The mask of the layers used in the subtree.
+     */
     @Override
-    protected void propagateDown(DirtyType type) {
-        super.propagateDown(type);
-
+    protected long computeLayerMask() {
+        var mask = super.computeLayerMask();
         for (int i = 0; i < size(); i++) {
-            var child = children.get(i);
-            child.propagateDown(type);
+            mask |= children.get(i).layerMask;
         }
+        return mask;
     }
 
     /**
@@ -139,6 +198,78 @@ public class NucleusMundi extends AnimaMundi implements Iterable<AnimaMundi> {
         return children.readOnly();
     }
 
+    /**
+     * Return the child {@link AnimaMundi} at the provided index in the
+     * <code>NucleusMundi</code>, without allocating a read-only view of the
+     * children.
+     * 
+     * @param index The index of the child (&ge;0, &lt;{@link #size()}).
+     * @return      The child at the index.
+     */
+    public AnimaMundi getChild(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * Casts the provided {@link Ray} into the <code>NucleusMundi</code> hierarchy,
+     * and finds the closest triangle of a {@link PhysicaMundi} it intersects.
+     * 
+     * @param ray   The ray to cast in world space (not null).
+     * @param store The hit to store the closest intersection (not null).
+     * @return      Whether an intersection has been found.
+     * 
+     * @see #raycast(Ray, float, RayHit)
+     */
+    public boolean raycast(Ray ray, RayHit store) {
+        return raycast(ray, Float.POSITIVE_INFINITY, store);
+    }
+
+    /**
+     * Casts the provided {@link Ray} into the <code>NucleusMundi</code> hierarchy,
+     * and finds the closest triangle of a {@link PhysicaMundi} it intersects within
+     * the given distance.
+     * <p>
+     * If the nucleus-mundi is the root of a {@link BoundingVolumeHierarchy}, its
+     * nodes are visited from the nearest to the farthest, otherwise the hierarchy
+     * is traversed by skipping the subtrees whose world bounds are behind the
+     * current intersection. The triangles of each remaining physica-mundi are then
+     * tested in model space, using the picking hierarchy of its {@link Mesh} if
+     * enabled.
+     * <p>
+     * The geometric state of the hierarchy must be up-to-date before casting a ray.
+     * 
+     * @param ray         The ray to cast in world space (not null).
+     * @param maxDistance The maximum distance along the ray (&ge;0).
+     * @param store       The hit to store the closest intersection (not null).
+     * @return            Whether an intersection has been found.
+     * 
+     * @throws IllegalStateException Thrown if the world bounds of an anima-mundi are dirty.
+     */
+    public boolean raycast(Ray ray, float maxDistance, RayHit store) {
+        Validator.nonNull(ray, "The ray to cast can't be null!");
+        Validator.nonNegative(maxDistance, "The maximum distance can't be negative!");
+        Validator.nonNull(store, "The ray hit can't be null!");
+
+        store.reset(maxDistance);
+        var bvh = getBVH();
+        if (bvh != null && bvh.getRoot() == this) {
+            return bvh.raycast(ray, store);
+        }
+
+        SceneTraversal.local().traverse(this, (anima, depth) -> {
+            if (ray.distance(anima.getWorldBoundingBox()) >= store.getDistance()) {
+                return VisitResult.SKIP_CHILDREN;
+            }
+
+            if (anima instanceof PhysicaMundi) {
+                ((PhysicaMundi) anima).raycast(ray, store);
+            }
+            return VisitResult.CONTINUE;
+        }, VisitType.PRE_ORDER);
+
+        return store.hasHit();
+    }
+
     /**
      * Return the number of {@link AnimaMundi} contained in the
      * <code>NucleusMundi</code>.
@@ -171,24 +302,19 @@ public class NucleusMundi extends AnimaMundi implements Iterable<AnimaMundi> {
      * If the type corresponds to {@link VisitType#PRE_ORDER}, it will first visit
      * the node and then its children otherwise, if the type equals to
      * {@link VisitType#POST_ORDER}, it will first visit each children and then the
-     * node itself.
+     * node itself. If the type equals to {@link VisitType#DEPTH_LAYER}, it will
+     * visit each depth level of the hierarchy before the next one, and if it equals
+     * to {@link VisitType#PARALLEL_PRE_ORDER}, the visit is delegated to the
+     * default {@link ParallelTraversal}.
+     * <p>
+     * The visit is performed iteratively by the {@link SceneTraversal} of the
+     * calling thread.
      */
     @Override
     public void visit(Visitor visitor, VisitType type) {
         Validator.nonNull(type);
         Validator.nonNull(visitor);
 
-        if (type.equals(VisitType.PRE_ORDER)) {
-            visitor.visit(this);
-        }
-
-        for (int i = 0; i < size(); i++) {
-            AnimaMundi child = children.get(i);
-            child.visit(visitor, type);
-        }
-
-        if (type.equals(VisitType.POST_ORDER)) {
-            visitor.visit(this);
-        }
+        SceneTraversal.local().traverse(this, visitor, type);
     }
 }
@@ -1,7 +1,10 @@
 package fr.mercury.nucleus.scenegraph;
 
 import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.MercuryMath;
+import fr.mercury.nucleus.math.objects.Ray;
 import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.scenegraph.visitor.DirtyType;
 
 /**
  * <code>PhysicaMundi</code> represents a physical object constituting a manifestation of the {@link AnimaMundi}.
@@ -20,6 +23,11 @@ public class PhysicaMundi extends AnimaMundi {
      * The material of the physica-mundi used for rendering.
      */
     private Material material;
+    /**
+     * The leaf of the physica-mundi in its bounding volume hierarchy, or -1 if not
+     * indexed.
+     */
+    transient int bvhProxy = -1;
 
     /**
      * Instantiates a new <code>PhysicaMundi</code> with no {@link Mesh} so no
@@ -29,6 +37,16 @@ public class PhysicaMundi extends AnimaMundi {
         super();
     }
 
+    /**
+     * Instantiates a new <code>PhysicaMundi</code> with the given name and no
+     * {@link Mesh} so no rendering will occur.
+     * 
+     * @param name The name of the physica-mundi (not null).
+     */
+    public PhysicaMundi(String name) {
+        super(name);
+    }
+
     /**
      * Instantiates a new <code>PhysicaMundi</code> by setting its {@link Mesh} to
      * the provided one.
@@ -69,6 +87,96 @@ public class PhysicaMundi extends AnimaMundi {
     public void setMesh(Mesh mesh) {
         Validator.nonNull(mesh, "The mesh cannot be null!");
         this.mesh = mesh;
+
+        // The world bounds needs to be computed from the new mesh.
+        dirty(DirtyType.BOUNDS);
+    }
+
+    /**
+     * Update the world bounds of the <code>PhysicaMundi</code> by transforming the
+     * model bounds of its {@link Mesh} with its world {@link Transform}. If no mesh
+     * is set, the bounds are empty.
+     * <p>
+     * The new bounds are then refitted in the {@link BoundingVolumeHierarchy}
+     * indexing the physica-mundi, if any.
+     */
+    @Override
+    protected void updateWorldBound() {
+        if (mesh == null) {
+            super.updateWorldBound();
+        } else {
+            mesh.getBoundingBox().transform(worldTransform, worldBoundingBox);
+            mesh.getBoundingSphere().transform(worldTransform, worldBoundingSphere);
+        }
+
+        var bvh = getBVH();
+        if (bvh != null) {
+            bvh.update(this);
+        }
+    }
+
+    /**
+     * Intersects the provided {@link Ray} with the triangles of the {@link Mesh} of
+     * the <code>PhysicaMundi</code>, and stores the intersection in the
+     * {@link RayHit} if it is closer than its current one.
+     * <p>
+     * The ray is first tested against the world bounds, then transformed into model
+     * space to be tested against the triangles, so that they don't need to be
+     * transformed.
+     *
+     * @param ray The ray to cast in world space (not null).
+     * @param hit The hit to update with a closer intersection (not null).
+     * @return    Whether a closer intersection has been found.
+     */
+    boolean raycast(Ray ray, RayHit hit) {
+        if (mesh == null || ray.distance(getWorldBoundingBox()) >= hit.getDistance()) {
+            return false;
+        }
+
+        var triangles = mesh.getTriangleHierarchy();
+        if (triangles.size() == 0) {
+            return false;
+        }
+
+        // The world transform maps a model point v to v * L + T, using row-vector convention.
+        var m = worldTransform.asModelMatrix(MercuryMath.getMatrix4f());
+        // The columns of L^-1 are the cross products of the rows of L, divided by its determinant.
+        var c0x = m.m11() * m.m22() - m.m12() * m.m21();
+        var c0y = m.m12() * m.m20() - m.m10() * m.m22();
+        var c0z = m.m10() * m.m21() - m.m11() * m.m20();
+        var c1x = m.m21() * m.m02() - m.m22() * m.m01();
+        var c1y = m.m22() * m.m00() - m.m20() * m.m02();
+        var c1z = m.m20() * m.m01() - m.m21() * m.m00();
+        var c2x = m.m01() * m.m12() - m.m02() * m.m11();
+        var c2y = m.m02() * m.m10() - m.m00() * m.m12();
+        var c2z = m.m00() * m.m11() - m.m01() * m.m10();
+
+        var det = m.m00() * c0x + m.m01() * c0y + m.m02() * c0z;
+        if (det == 0) {
+            // The mesh is flattened, it can't be hit.
+            return false;
+        }
+        var invDet = 1.0F / det;
+
+        var origin = ray.getOrigin();
+        var direction = ray.getDirection();
+        var wx = origin.x() - m.m30();
+        var wy = origin.y() - m.m31();
+        var wz = origin.z() - m.m32();
+
+        // The direction isn't normalized in model space, so the distances are still the world ones.
+        var hasHit = triangles.intersect(
+                (wx * c0x + wy * c0y + wz * c0z) * invDet,
+                (wx * c1x + wy * c1y + wz * c1z) * invDet,
+                (wx * c2x + wy * c2y + wz * c2z) * invDet,
+                (direction.x() * c0x + direction.y() * c0y + direction.z() * c0z) * invDet,
+                (direction.x() * c1x + direction.y() * c1y + direction.z() * c1z) * invDet,
+                (direction.x() * c2x + direction.y() * c2y + direction.z() * c2z) * invDet, hit);
+
+        if (hasHit) {
+            hit.setPhysica(this, ray);
+        }
+        return hasHit;
     }
 
     /**
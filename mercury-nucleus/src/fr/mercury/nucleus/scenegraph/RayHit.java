@@ -0,0 +1,178 @@
+package fr.mercury.nucleus.scenegraph;
+
+import fr.mercury.nucleus.math.objects.Ray;
+import fr.mercury.nucleus.math.objects.Vector3f;
+import fr.mercury.nucleus.math.readable.ReadableVector3f;
+
+/**
+ * <code>RayHit</code> describes the closest intersection found between a {@link Ray} and the triangles of the
+ * {@link PhysicaMundi} in a scenegraph structure.
+ * <p>
+ * The hit point can be computed from the triangle with its barycentric coordinates, so that
+ * <code>point = w * v0 + u * v1 + v * v2</code> with <code>w = 1 - u - v</code>.
+ *
+ * @author GnosticOccultist
+ *
+ * @see NucleusMundi#raycast(Ray, float, RayHit)
+ */
+public final class RayHit {
+
+    /**
+     * The physica-mundi which has been hit, or null if none.
+     */
+    private PhysicaMundi physica = null;
+    /**
+     * The index of the triangle which has been hit in the mesh.
+     */
+    private int triangle = -1;
+    /**
+     * The distance of the hit along the ray in world space.
+     */
+    private float distance = Float.POSITIVE_INFINITY;
+    /**
+     * The barycentric coordinate of the hit relative to the second vertex.
+     */
+    private float u = 0;
+    /**
+     * The barycentric coordinate of the hit relative to the third vertex.
+     */
+    private float v = 0;
+    /**
+     * The hit point in world space.
+     */
+    private final Vector3f point = new Vector3f();
+
+    /**
+     * Resets the <code>RayHit</code> so that it describes no intersection.
+     *
+     * @param maxDistance The maximum distance along the ray for an intersection
+     *                    to be considered (&gt;0).
+     * @return            The ray hit for chaining purposes.
+     */
+    RayHit reset(float maxDistance) {
+        this.physica = null;
+        this.triangle = -1;
+        this.distance = maxDistance;
+        this.u = 0;
+        this.v = 0;
+        this.point.set(0, 0, 0);
+        return this;
+    }
+
+    /**
+     * Sets the triangle of the <code>RayHit</code> if it is closer than the
+     * current one.
+     *
+     * @param triangle The index of the triangle in the mesh.
+     * @param distance The distance of the hit along the ray.
+     * @param u        The barycentric coordinate relative to the second vertex.
+     * @param v        The barycentric coordinate relative to the third vertex.
+     * @return         Whether the hit is closer and has been stored.
+     */
+    boolean offer(int triangle, float distance, float u, float v) {
+        if (distance >= this.distance) {
+            return false;
+        }
+
+        this.triangle = triangle;
+        this.distance = distance;
+        this.u = u;
+        this.v = v;
+        return true;
+    }
+
+    /**
+     * Sets the {@link PhysicaMundi} hit after a closer triangle has been stored,
+     * and computes the hit point along the provided ray.
+     *
+     * @param physica The physica-mundi which has been hit.
+     * @param ray     The ray used for the query.
+     */
+    void setPhysica(PhysicaMundi physica, Ray ray) {
+        this.physica = physica;
+        ray.getPoint(distance, point);
+    }
+
+    /**
+     * Return whether the <code>RayHit</code> describes an intersection.
+     *
+     * @return Whether a physica-mundi has been hit.
+     */
+    public boolean hasHit() {
+        return physica != null;
+    }
+
+    /**
+     * Return the {@link PhysicaMundi} which has been hit by the ray.
+     *
+     * @return The physica-mundi hit, or null if none.
+     */
+    public PhysicaMundi getPhysica() {
+        return physica;
+    }
+
+    /**
+     * Return the index of the triangle which has been hit in the {@link Mesh} of
+     * the {@link PhysicaMundi}. For strips and fans, it is the index of the
+     * primitive assembled from the vertices.
+     *
+     * @return The index of the triangle, or -1 if none.
+     */
+    public int getTriangle() {
+        return triangle;
+    }
+
+    /**
+     * Return the distance of the hit from the origin of the ray, in world space.
+     *
+     * @return The distance of the hit, or the maximum distance of the query if none.
+     */
+    public float getDistance() {
+        return distance;
+    }
+
+    /**
+     * Return the barycentric coordinate of the hit relative to the second vertex
+     * of the triangle.
+     *
+     * @return The barycentric coordinate U (&ge;0, &le;1).
+     */
+    public float getU() {
+        return u;
+    }
+
+    /**
+     * Return the barycentric coordinate of the hit relative to the third vertex of
+     * the triangle.
+     *
+     * @return The barycentric coordinate V (&ge;0, &le;1).
+     */
+    public float getV() {
+        return v;
+    }
+
+    /**
+     * Return the barycentric coordinate of the hit relative to the first vertex of
+     * the triangle.
+     *
+     * @return The barycentric coordinate W, equal to <code>1 - u - v</code>.
+     */
+    public float getW() {
+        return 1.0F - u - v;
+    }
+
+    /**
+     * Return the readable-only hit point in world space.
+     *
+     * @return The hit point.
+     */
+    public ReadableVector3f getPoint() {
+        return point;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ physica= " + physica + ", triangle= " + triangle + ", distance= "
+                + distance + ", u= " + u + ", v= " + v + " ]";
+    }
+}
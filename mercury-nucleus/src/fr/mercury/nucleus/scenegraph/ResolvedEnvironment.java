@@ -0,0 +1,179 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.collections.array.Array;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentElement;
+import fr.mercury.nucleus.scenegraph.environment.EnvironmentMode;
+
+/**
+ * <code>ResolvedEnvironment</code> is an immutable table of the {@link EnvironmentElement} effectively applied to an
+ * {@link AnimaMundi}, once the elements defined locally have been combined with the ones inherited from its ancestors
+ * according to its {@link EnvironmentMode}.
+ * <p>
+ * Each element name, compared without case, is associated to a global slot with {@link #slotOf(String)}, so that an
+ * element is retrieved with an array lookup. As for the {@link ResolvedRenderStates}, an anima-mundi which doesn't
+ * define any element shares the table of its parent, and resolving the same elements again returns the previous table,
+ * which allows to stop the propagation to the descendants.
+ *
+ * @author GnosticOccultist
+ */
+public final class ResolvedEnvironment {
+
+    /**
+     * The resolved environment table without any element.
+     */
+    public static final ResolvedEnvironment EMPTY = new ResolvedEnvironment(new EnvironmentElement[0]);
+
+    /**
+     * The slot associated to each element name, either as provided or in lower case.
+     */
+    private static final Map<String, Integer> SLOTS = new ConcurrentHashMap<>();
+    /**
+     * The number of registered slots.
+     */
+    private static int slotCount = 0;
+
+    /**
+     * The resolved elements indexed by slot, a null value meaning no element is
+     * applied.
+     */
+    private final EnvironmentElement[] elements;
+
+    /**
+     * Instantiates a new <code>ResolvedEnvironment</code> with the provided
+     * elements, which mustn't be modified afterwards.
+     *
+     * @param elements The resolved elements indexed by slot.
+     */
+    private ResolvedEnvironment(EnvironmentElement[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Return the slot associated to the provided {@link EnvironmentElement} name,
+     * ignoring its case. A new slot is registered the first time a name is
+     * encountered.
+     *
+     * @param name The name of the environment element (not null).
+     * @return     The slot of the name (&ge;0).
+     */
+    public static int slotOf(String name) {
+        var slot = SLOTS.get(name);
+        return slot != null ? slot : register(name);
+    }
+
+    private static synchronized int register(String name) {
+        Validator.nonNull(name, "The environment element name can't be null!");
+        var key = name.toLowerCase(Locale.ROOT);
+        var slot = SLOTS.get(key);
+        if (slot == null) {
+            slot = slotCount++;
+            SLOTS.put(key, slot);
+        }
+
+        // Register the provided name as well, so the next lookups don't need to convert it.
+        SLOTS.put(name, slot);
+        return slot;
+    }
+
+    /**
+     * Resolves the table of a child inheriting from this
+     * <code>ResolvedEnvironment</code>, by combining the inherited elements with
+     * the provided local ones according to the {@link EnvironmentMode}.
+     * <p>
+     * If several local elements have the same name, the first one is used. If the
+     * result is identical to the previous table of the child or to this table, the
+     * existing instance is returned instead of a new one.
+     *
+     * @param local    The environment elements defined locally by the child (not null).
+     * @param mode     The environment mode of the child (not null).
+     * @param previous The previously resolved table of the child, or null if none.
+     * @return         The resolved table for the child.
+     */
+    public ResolvedEnvironment resolve(Array<EnvironmentElement> local, EnvironmentMode mode,
+            ResolvedEnvironment previous) {
+        Validator.nonNull(local, "The local environment elements can't be null!");
+        Validator.nonNull(mode, "The environment mode can't be null!");
+
+        if (local.isEmpty()) {
+            return mode == EnvironmentMode.LOCAL_ONLY ? EMPTY : this;
+        }
+
+        var length = mode == EnvironmentMode.LOCAL_ONLY ? 0 : elements.length;
+        for (int i = 0; i < local.size(); i++) {
+            length = Math.max(length, slotOf(local.get(i).name()) + 1);
+        }
+
+        var result = new EnvironmentElement[length];
+        if (mode != EnvironmentMode.LOCAL_ONLY) {
+            System.arraycopy(elements, 0, result, 0, elements.length);
+        }
+
+        // Iterate in reverse order, so the first local element with a name is kept.
+        for (int i = local.size() - 1; i >= 0; i--) {
+            var element = local.get(i);
+            var slot = slotOf(element.name());
+            if (mode != EnvironmentMode.ANCESTOR_PRIORITY || slot >= elements.length || elements[slot] == null) {
+                result[slot] = element;
+            }
+        }
+
+        if (matches(result)) {
+            return this;
+        }
+        if (previous != null && previous.matches(result)) {
+            return previous;
+        }
+
+        return new ResolvedEnvironment(result);
+    }
+
+    /**
+     * Return whether the <code>ResolvedEnvironment</code> contains the same
+     * elements than the provided array, ignoring the trailing empty slots.
+     */
+    private boolean matches(EnvironmentElement[] other) {
+        var length = Math.max(elements.length, other.length);
+        for (int i = 0; i < length; i++) {
+            var element = i < elements.length ? elements[i] : null;
+            var otherElement = i < other.length ? other[i] : null;
+            if (element != otherElement) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the resolved {@link EnvironmentElement} in the given slot.
+     *
+     * @param slot The slot of the element name (&ge;0).
+     * @return     The resolved environment element, or null if none is applied.
+     *
+     * @see #slotOf(String)
+     */
+    public EnvironmentElement get(int slot) {
+        return slot < elements.length ? elements[slot] : null;
+    }
+
+    /**
+     * Return the resolved {@link EnvironmentElement} matching the provided name,
+     * ignoring its case.
+     *
+     * @param name The name of the environment element (not null).
+     * @return     The resolved environment element, or null if none is applied.
+     */
+    public EnvironmentElement get(String name) {
+        return get(slotOf(name));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + Arrays.toString(elements);
+    }
+}
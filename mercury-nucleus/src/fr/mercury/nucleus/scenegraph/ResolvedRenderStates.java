@@ -0,0 +1,109 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState.Type;
+
+/**
+ * <code>ResolvedRenderStates</code> is an immutable table of the {@link RenderState} effectively applied to an
+ * {@link AnimaMundi}, once the states defined locally have been combined with the ones inherited from its ancestors.
+ * <p>
+ * The table of an anima-mundi is resolved from the table of its parent in a constant time for each {@link Type}, and the
+ * instances are shared as much as possible: an anima-mundi which doesn't override any state uses the same table as its parent,
+ * and resolving the same states again returns the previous table, which allows to stop the propagation to the descendants.
+ *
+ * @author GnosticOccultist
+ */
+public final class ResolvedRenderStates {
+
+    /**
+     * The types of render state, cached to avoid array copies.
+     */
+    private static final Type[] TYPES = Type.values();
+    /**
+     * The resolved render states table without any state.
+     */
+    public static final ResolvedRenderStates EMPTY = new ResolvedRenderStates(new RenderState[TYPES.length]);
+
+    /**
+     * The resolved render states indexed by type ordinal, a null value meaning no
+     * state is applied.
+     */
+    private final RenderState[] states;
+
+    /**
+     * Instantiates a new <code>ResolvedRenderStates</code> with the provided
+     * states, which mustn't be modified afterwards.
+     *
+     * @param states The resolved states indexed by type ordinal.
+     */
+    private ResolvedRenderStates(RenderState[] states) {
+        this.states = states;
+    }
+
+    /**
+     * Resolves the table of a child inheriting from this
+     * <code>ResolvedRenderStates</code>, by overriding the inherited states with
+     * the provided local ones.
+     * <p>
+     * If the result is identical to the previous table of the child or to this
+     * table, the existing instance is returned instead of a new one.
+     *
+     * @param local    The render states defined locally by the child (not null).
+     * @param previous The previously resolved table of the child, or null if none.
+     * @return         The resolved table for the child.
+     */
+    public ResolvedRenderStates resolve(Map<Type, RenderState> local, ResolvedRenderStates previous) {
+        Validator.nonNull(local, "The local render states can't be null!");
+
+        if (local.isEmpty()) {
+            return this;
+        }
+
+        var samePrevious = previous != null;
+        var sameInherited = true;
+        for (var i = 0; i < TYPES.length; i++) {
+            var state = resolved(local, i);
+            samePrevious &= previous != null && previous.states[i] == state;
+            sameInherited &= states[i] == state;
+        }
+
+        if (sameInherited) {
+            return this;
+        }
+        if (samePrevious) {
+            return previous;
+        }
+
+        var result = new RenderState[TYPES.length];
+        for (var i = 0; i < TYPES.length; i++) {
+            result[i] = resolved(local, i);
+        }
+
+        return new ResolvedRenderStates(result);
+    }
+
+    private RenderState resolved(Map<Type, RenderState> local, int ordinal) {
+        var state = local.get(TYPES[ordinal]);
+        return state != null ? state : states[ordinal];
+    }
+
+    /**
+     * Return the resolved {@link RenderState} of the given {@link Type}.
+     *
+     * @param type The type of render state to return (not null).
+     * @return     The resolved render state, or null if none is applied.
+     */
+    public RenderState get(Type type) {
+        Validator.nonNull(type, "The render state type can't be null!");
+        return states[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + Arrays.toString(states);
+    }
+}
@@ -0,0 +1,388 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Quaternion;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.math.readable.ReadableQuaternion;
+import fr.mercury.nucleus.math.readable.ReadableTransform;
+
+/**
+ * <code>SceneMutationQueue</code> records structural and transform mutations of the scene-graph from any
+ * {@link Thread}, to apply them later in a single batch on the thread owning the scene.
+ * <p>
+ * Recording a mutation never blocks: each one is pushed onto a lock-free stack with a single compare-and-set, and
+ * the values are copied at record time so the caller can reuse its objects. The batch is applied in recording order
+ * by {@link #apply()}, which the <code>MercuryApplication</code> invokes once per frame before updating the
+ * geometric state of the scene.
+ * <p>
+ * The dirty marks are coalesced across the batch: an <code>AnimaMundi</code> whose transform is changed several
+ * times is only marked once, and the marks aren't propagated again down the subtree of an anima-mundi whose
+ * ancestor was also changed.
+ *
+ * @author GnosticOccultist
+ */
+public final class SceneMutationQueue {
+
+    /**
+     * The last recorded mutation, linked to the previous ones, or null if empty.
+     */
+    private final AtomicReference<Mutation> head = new AtomicReference<>();
+    /**
+     * The mutations being applied, in recording order.
+     */
+    private final List<Mutation> batch = new ArrayList<>();
+    /**
+     * The anima-mundis whose local transform changed during the batch.
+     */
+    private final Set<AnimaMundi> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Records the attachment of the provided {@link AnimaMundi} to the given
+     * {@link NucleusMundi}. It can be invoked from any thread.
+     *
+     * @param parent The nucleus-mundi to attach to (not null).
+     * @param child  The anima-mundi to attach (not null).
+     * @return       The queue for chaining purposes.
+     *
+     * @see NucleusMundi#attach(AnimaMundi)
+     */
+    public SceneMutationQueue attach(NucleusMundi parent, AnimaMundi child) {
+        Validator.nonNull(parent, "The parent to attach to can't be null!");
+        Validator.nonNull(child, "The child to attach can't be null!");
+        return push(new Mutation(MutationType.ATTACH, child, parent));
+    }
+
+    /**
+     * Records the detachment of the provided {@link AnimaMundi} from the parent it
+     * has when the mutation is applied. It can be invoked from any thread.
+     *
+     * @param child The anima-mundi to detach (not null).
+     * @return      The queue for chaining purposes.
+     *
+     * @see NucleusMundi#detach(AnimaMundi)
+     */
+    public SceneMutationQueue detach(AnimaMundi child) {
+        Validator.nonNull(child, "The child to detach can't be null!");
+        return push(new Mutation(MutationType.DETACH, child, null));
+    }
+
+    /**
+     * Records the change of the local {@link Transform} of the provided
+     * {@link AnimaMundi}. The transform is copied, so it can be reused by the
+     * caller. It can be invoked from any thread.
+     *
+     * @param anima     The anima-mundi to change (not null).
+     * @param transform The local transform to apply (not null).
+     * @return          The queue for chaining purposes.
+     *
+     * @see AnimaMundi#setTransform(ReadableTransform)
+     */
+    public SceneMutationQueue setTransform(AnimaMundi anima, ReadableTransform transform) {
+        Validator.nonNull(anima, "The anima-mundi to change can't be null!");
+        Validator.nonNull(transform, "The transform can't be null!");
+        var mutation = new Mutation(MutationType.TRANSFORM, anima, null);
+        mutation.transform = new Transform().set(transform);
+        return push(mutation);
+    }
+
+    /**
+     * Records the change of the local translation of the provided
+     * {@link AnimaMundi}. It can be invoked from any thread.
+     *
+     * @param anima The anima-mundi to change (not null).
+     * @param x     The X-axis component of the translation.
+     * @param y     The Y-axis component of the translation.
+     * @param z     The Z-axis component of the translation.
+     * @return      The queue for chaining purposes.
+     *
+     * @see AnimaMundi#setTranslation(float, float, float)
+     */
+    public SceneMutationQueue setTranslation(AnimaMundi anima, float x, float y, float z) {
+        return push(vector(MutationType.TRANSLATION, anima, x, y, z));
+    }
+
+    /**
+     * Records a translation of the provided {@link AnimaMundi} in its local
+     * coordinate space, which is added to the translation it has when the mutation
+     * is applied. It can be invoked from any thread.
+     *
+     * @param anima The anima-mundi to change (not null).
+     * @param x     The X-axis component of the translation.
+     * @param y     The Y-axis component of the translation.
+     * @param z     The Z-axis component of the translation.
+     * @return      The queue for chaining purposes.
+     *
+     * @see AnimaMundi#translate(float, float, float)
+     */
+    public SceneMutationQueue translate(AnimaMundi anima, float x, float y, float z) {
+        return push(vector(MutationType.TRANSLATE, anima, x, y, z));
+    }
+
+    /**
+     * Records the change of the local rotation of the provided {@link AnimaMundi}.
+     * The rotation is copied, so it can be reused by the caller. It can be invoked
+     * from any thread.
+     *
+     * @param anima    The anima-mundi to change (not null).
+     * @param rotation The rotation to apply (not null).
+     * @return         The queue for chaining purposes.
+     *
+     * @see AnimaMundi#setRotation(ReadableQuaternion)
+     */
+    public SceneMutationQueue setRotation(AnimaMundi anima, ReadableQuaternion rotation) {
+        Validator.nonNull(anima, "The anima-mundi to change can't be null!");
+        Validator.nonNull(rotation, "The rotation can't be null!");
+        var mutation = new Mutation(MutationType.ROTATION, anima, null);
+        mutation.rotation = new Quaternion(rotation.x(), rotation.y(), rotation.z(), rotation.w());
+        return push(mutation);
+    }
+
+    /**
+     * Records the change of the local scale of the provided {@link AnimaMundi}. It
+     * can be invoked from any thread.
+     *
+     * @param anima The anima-mundi to change (not null).
+     * @param x     The X-axis component of the scale (&gt;0).
+     * @param y     The Y-axis component of the scale (&gt;0).
+     * @param z     The Z-axis component of the scale (&gt;0).
+     * @return      The queue for chaining purposes.
+     *
+     * @see AnimaMundi#setScale(float, float, float)
+     */
+    public SceneMutationQueue setScale(AnimaMundi anima, float x, float y, float z) {
+        return push(vector(MutationType.SCALE, anima, x, y, z));
+    }
+
+    private Mutation vector(MutationType type, AnimaMundi anima, float x, float y, float z) {
+        Validator.nonNull(anima, "The anima-mundi to change can't be null!");
+        var mutation = new Mutation(type, anima, null);
+        mutation.x = x;
+        mutation.y = y;
+        mutation.z = z;
+        return mutation;
+    }
+
+    private SceneMutationQueue push(Mutation mutation) {
+        Mutation last;
+        do {
+            last = head.get();
+            mutation.previous = last;
+        } while (!head.compareAndSet(last, mutation));
+
+        return this;
+    }
+
+    /**
+     * Puts back the mutations of the batch starting at the provided index, beneath
+     * the ones recorded meanwhile so they keep their recording order.
+     *
+     * @param from The index of the first mutation of the batch to put back (&ge;0).
+     */
+    private void requeue(int from) {
+        if (from >= batch.size()) {
+            return;
+        }
+
+        // Relink the remaining mutations, the oldest one at the bottom.
+        Mutation newest = null;
+        for (int i = from; i < batch.size(); i++) {
+            var mutation = batch.get(i);
+            mutation.previous = newest;
+            newest = mutation;
+        }
+
+        while (true) {
+            var last = head.get();
+            if (last == null) {
+                if (head.compareAndSet(null, newest)) {
+                    return;
+                }
+                continue;
+            }
+
+            // The recording threads only link their own mutation, so the bottom one can be safely relinked.
+            var bottom = last;
+            while (bottom.previous != null) {
+                bottom = bottom.previous;
+            }
+            bottom.previous = newest;
+            return;
+        }
+    }
+
+    /**
+     * Return whether the <code>SceneMutationQueue</code> contains mutations to
+     * apply. It can be invoked from any thread.
+     *
+     * @return Whether mutations have been recorded since the last application.
+     */
+    public boolean isEmpty() {
+        return head.get() == null;
+    }
+
+    /**
+     * Applies all the mutations recorded in the <code>SceneMutationQueue</code> in
+     * their recording order, and marks once each changed subtree as dirty.
+     * <p>
+     * It must be invoked by the thread owning the scene-graph, while it isn't
+     * being updated or extracted. The mutations recorded meanwhile by other threads
+     * are applied during the next invocation.
+     * <p>
+     * If a mutation fails, the transforms changed before it are still marked as
+     * dirty, the mutations following it are put back in the queue to be applied by
+     * the next invocation, and the exception is rethrown.
+     *
+     * @return The number of applied mutations (&ge;0).
+     */
+    public int apply() {
+        // Take the whole stack at once, and reverse it to restore the recording order.
+        for (var mutation = head.getAndSet(null); mutation != null; mutation = mutation.previous) {
+            batch.add(mutation);
+        }
+        Collections.reverse(batch);
+
+        var applied = 0;
+        try {
+            for (; applied < batch.size(); applied++) {
+                apply(batch.get(applied));
+            }
+
+            return batch.size();
+        } catch (RuntimeException ex) {
+            // Only the failing mutation is dropped, the following ones are applied next time.
+            requeue(applied + 1);
+            throw ex;
+        } finally {
+            // Mark the transforms already written, even if a mutation failed.
+            AnimaMundi.dirtyLocalTransforms(changed);
+            batch.clear();
+            changed.clear();
+        }
+    }
+
+    private void apply(Mutation mutation) {
+        var anima = mutation.target;
+        switch (mutation.type) {
+        case ATTACH:
+            mutation.parent.attach(anima);
+            break;
+        case DETACH:
+            if (anima.getParent() != null) {
+                anima.getParent().detach(anima);
+            }
+            break;
+        case TRANSFORM:
+            anima.localTransform.set(mutation.transform);
+            changed.add(anima);
+            break;
+        case TRANSLATION:
+            anima.localTransform.setTranslation(mutation.x, mutation.y, mutation.z);
+            changed.add(anima);
+            break;
+        case TRANSLATE:
+            anima.localTransform.translate(mutation.x, mutation.y, mutation.z);
+            changed.add(anima);
+            break;
+        case ROTATION:
+            anima.localTransform.setRotation(mutation.rotation);
+            changed.add(anima);
+            break;
+        case SCALE:
+            anima.localTransform.setScale(mutation.x, mutation.y, mutation.z);
+            changed.add(anima);
+            break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[empty= " + isEmpty() + "]";
+    }
+
+    /**
+     * <code>Mutation</code> is a recorded change of the scene-graph, linked to
+     * the mutation recorded before it.
+     *
+     * @author GnosticOccultist
+     */
+    private static final class Mutation {
+
+        /**
+         * The type of mutation.
+         */
+        private final MutationType type;
+        /**
+         * The anima-mundi to change.
+         */
+        private final AnimaMundi target;
+        /**
+         * The nucleus-mundi to attach to, or null.
+         */
+        private final NucleusMundi parent;
+        /**
+         * The transform to apply, or null.
+         */
+        private Transform transform;
+        /**
+         * The rotation to apply, or null.
+         */
+        private Quaternion rotation;
+        /**
+         * The components of the vector to apply.
+         */
+        private float x, y, z;
+        /**
+         * The mutation recorded before this one, or null.
+         */
+        private Mutation previous;
+
+        private Mutation(MutationType type, AnimaMundi target, NucleusMundi parent) {
+            this.type = type;
+            this.target = target;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * <code>MutationType</code> enumerates the mutations which can be recorded.
+     *
+     * @author GnosticOccultist
+     */
+    private enum MutationType {
+        /**
+         * Attaches the anima-mundi to a nucleus-mundi.
+         */
+        ATTACH,
+        /**
+         * Detaches the anima-mundi from its parent.
+         */
+        DETACH,
+        /**
+         * Sets the local transform of the anima-mundi.
+         */
+        TRANSFORM,
+        /**
+         * Sets the local translation of the anima-mundi.
+         */
+        TRANSLATION,
+        /**
+         * Translates the anima-mundi in its local space.
+         */
+        TRANSLATE,
+        /**
+         * Sets the local rotation of the anima-mundi.
+         */
+        ROTATION,
+        /**
+         * Sets the local scale of the anima-mundi.
+         */
+        SCALE;
+    }
+}
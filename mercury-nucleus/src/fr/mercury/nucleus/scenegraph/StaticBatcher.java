@@ -0,0 +1,498 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import fr.alchemy.utilities.Validator;
+import fr.alchemy.utilities.logging.FactoryLogger;
+import fr.alchemy.utilities.logging.Logger;
+import fr.mercury.nucleus.math.objects.BoundingBox;
+import fr.mercury.nucleus.math.objects.Matrix4f;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.renderer.logic.state.RenderState;
+import fr.mercury.nucleus.renderer.logic.state.RenderState.Type;
+import fr.mercury.nucleus.renderer.opengl.GLBuffer.Usage;
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+import fr.mercury.nucleus.renderer.queue.BucketType;
+import fr.mercury.nucleus.renderer.queue.RenderLayer;
+import fr.mercury.nucleus.scenegraph.visitor.VisitType;
+import fr.mercury.nucleus.utils.data.BufferUtils;
+
+/**
+ * <code>StaticBatcher</code> merges the static {@link PhysicaMundi} of a subtree which are rendered the same way into a
+ * few {@link BatchedPhysicaMundi}, to reduce the number of draw calls and material bindings. It is particularly useful
+ * for imported scenes made of hundreds of small meshes sharing the same textures.
+ * <p>
+ * Two physica-mundis are merged when their {@link Material} are {@link Material#isBatchCompatible(Material) compatible},
+ * when they use the same render states, bucket and render layer, and when their {@link Mesh} have the same vertex
+ * buffers. Their transform relative to the batched root is baked into the positions, normals and tangents, so the
+ * subtree must be static: the merged pieces are detached from the scene-graph and replaced by the batches, which are
+ * attached to the root and still follow its transform.
+ * <p>
+ * A physica-mundi is left untouched if it is a subclass of <code>PhysicaMundi</code>, if its mesh isn't made of
+ * triangles, is instanced or uses non-float vertex data, or if it or one of its ancestors under the root defines
+ * environment elements.
+ *
+ * @author GnosticOccultist
+ */
+public final class StaticBatcher {
+
+    /**
+     * The logger of the scene-graph.
+     */
+    private static final Logger logger = FactoryLogger.getLogger("mercury.scenegraph");
+
+    /**
+     * The default maximum number of vertices in a batch (default &rarr; 1048576).
+     */
+    public static final int DEFAULT_MAX_VERTICES = 1 << 20;
+
+    /**
+     * The maximum number of vertices in a batch.
+     */
+    private int maxVertices = DEFAULT_MAX_VERTICES;
+    /**
+     * The minimum number of pieces to create a batch.
+     */
+    private int minPieces = 2;
+
+    /**
+     * Merges the compatible static {@link PhysicaMundi} of the subtree of the
+     * provided {@link NucleusMundi} into {@link BatchedPhysicaMundi}, which are
+     * attached to it. The merged physica-mundis are detached from their parent,
+     * while the nucleus-mundis of the subtree are kept.
+     *
+     * @param root The root of the static subtree to batch (not null).
+     * @return     The created batches (not null).
+     */
+    public List<BatchedPhysicaMundi> batch(NucleusMundi root) {
+        Validator.nonNull(root, "The root of the subtree to batch can't be null!");
+
+        var candidates = new ArrayList<PhysicaMundi>();
+        root.visit(anima -> {
+            if (anima.getClass() == PhysicaMundi.class) {
+                candidates.add((PhysicaMundi) anima);
+            }
+        }, VisitType.PRE_ORDER);
+
+        var groups = new ArrayList<Group>();
+        for (var physica : candidates) {
+            var piece = Piece.of(physica, root);
+            if (piece == null) {
+                continue;
+            }
+
+            var group = findGroup(groups, piece);
+            if (group == null) {
+                group = new Group(piece);
+                groups.add(group);
+            }
+            group.add(piece);
+        }
+
+        var result = new ArrayList<BatchedPhysicaMundi>();
+        var merged = 0;
+        for (var group : groups) {
+            if (group.pieces.size() < minPieces) {
+                continue;
+            }
+
+            var batch = group.build(root.getName() + "-batch-" + result.size());
+            for (var piece : group.pieces) {
+                piece.physica.getParent().detach(piece.physica);
+            }
+
+            // Only override the queuing when it differs from the inherited one.
+            if (!group.bucket.equals(root.getBucket())) {
+                batch.setBucket(group.bucket);
+            }
+            if (!group.layer.equals(root.getRenderLayer())) {
+                batch.setRenderLayer(group.layer);
+            }
+
+            root.attach(batch);
+            result.add(batch);
+            merged += group.pieces.size();
+        }
+
+        logger.info("Batched " + merged + " physica-mundis of " + root + " into " + result.size() + " batches.");
+        return result;
+    }
+
+    private Group findGroup(List<Group> groups, Piece piece) {
+        for (var group : groups) {
+            if (group.vertexCount + piece.vertexCount <= maxVertices && group.accepts(piece)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the maximum number of vertices in a {@link BatchedPhysicaMundi}, a new
+     * batch being created once it is reached.
+     *
+     * @return The maximum number of vertices in a batch (&gt;0).
+     */
+    public int getMaxVertices() {
+        return maxVertices;
+    }
+
+    /**
+     * Sets the maximum number of vertices in a {@link BatchedPhysicaMundi}, a new
+     * batch being created once it is reached. Smaller batches can be culled more
+     * precisely, but require more draw calls.
+     *
+     * @param maxVertices The maximum number of vertices in a batch (&gt;0,
+     *                    default&rarr;{@value #DEFAULT_MAX_VERTICES}).
+     * @return            The batcher for chaining purposes.
+     */
+    public StaticBatcher setMaxVertices(int maxVertices) {
+        Validator.positive(maxVertices, "The maximum number of vertices must be strictly positive!");
+        this.maxVertices = maxVertices;
+        return this;
+    }
+
+    /**
+     * Return the minimum number of compatible {@link PhysicaMundi} required to
+     * create a {@link BatchedPhysicaMundi}.
+     *
+     * @return The minimum number of pieces in a batch (&gt;0).
+     */
+    public int getMinPieces() {
+        return minPieces;
+    }
+
+    /**
+     * Sets the minimum number of compatible {@link PhysicaMundi} required to
+     * create a {@link BatchedPhysicaMundi}, the others being left untouched.
+     *
+     * @param minPieces The minimum number of pieces in a batch (&gt;0,
+     *                  default&rarr;2).
+     * @return          The batcher for chaining purposes.
+     */
+    public StaticBatcher setMinPieces(int minPieces) {
+        Validator.positive(minPieces, "The minimum number of pieces must be strictly positive!");
+        this.minPieces = minPieces;
+        return this;
+    }
+
+    /**
+     * <code>Piece</code> is a physica-mundi to merge, with the state resolved
+     * relatively to the batched root.
+     */
+    private static final class Piece {
+
+        /**
+         * The physica-mundi to merge.
+         */
+        private final PhysicaMundi physica;
+        /**
+         * The transform of the physica-mundi relative to the root.
+         */
+        private final Matrix4f matrix;
+        /**
+         * The render states defined under the root.
+         */
+        private final EnumMap<Type, RenderState> states;
+        /**
+         * The size of each vertex buffer, sorted by key.
+         */
+        private final Map<String, Integer> layout;
+        /**
+         * The number of vertices of the mesh.
+         */
+        private final int vertexCount;
+
+        private Piece(PhysicaMundi physica, Matrix4f matrix, EnumMap<Type, RenderState> states,
+                Map<String, Integer> layout, int vertexCount) {
+            this.physica = physica;
+            this.matrix = matrix;
+            this.states = states;
+            this.layout = layout;
+            this.vertexCount = vertexCount;
+        }
+
+        /**
+         * Return the piece for the provided physica-mundi, or null if it can't be
+         * merged.
+         */
+        private static Piece of(PhysicaMundi physica, NucleusMundi root) {
+            var mesh = physica.getMesh();
+            if (mesh == null || physica.getMaterial() == null || mesh.getMode() != Mesh.Mode.TRIANGLES
+                    || mesh.isInstanced() || !mesh.hasBuffer(VertexBufferType.POSITION)) {
+                return null;
+            }
+            // Instancing materials are already drawn with one call per mesh by the renderer.
+            if (physica.getMaterial().isInstancing()) {
+                return null;
+            }
+
+            var vertexCount = mesh.getVertexCount();
+            if (vertexCount <= 0) {
+                return null;
+            }
+
+            var layout = new TreeMap<String, Integer>();
+            for (var key : mesh.getBufferKeys()) {
+                var buffer = mesh.getBuffer(key);
+                if (buffer.isIndexBuffer()) {
+                    continue;
+                }
+
+                // Only tightly packed float data can be transformed and concatenated.
+                if (!(buffer.getData() instanceof FloatBuffer) || buffer.getStride() != 0 || buffer.getOffset() != 0
+                        || buffer.getData().limit() < vertexCount * buffer.getSize()) {
+                    return null;
+                }
+                layout.put(key, buffer.getSize());
+            }
+
+            var transform = new Transform().set(physica.getLocalTransform());
+            var states = new EnumMap<Type, RenderState>(Type.class);
+            for (AnimaMundi anima = physica; anima != root; anima = anima.getParent()) {
+                if (!anima.getLocalEnvironmentElements().isEmpty()) {
+                    return null;
+                }
+                // The states defined the closest to the physica-mundi have the priority.
+                if (anima.renderStates != null) {
+                    for (var entry : anima.renderStates.entrySet()) {
+                        states.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                }
+                if (anima != physica) {
+                    // The ancestor is the outer transform, composed with the transform accumulated below it.
+                    var outer = new Transform().set(anima.getLocalTransform());
+                    transform = outer.worldTransform(transform, new Transform());
+                }
+            }
+
+            return new Piece(physica, transform.asModelMatrix(new Matrix4f()), states, layout, vertexCount);
+        }
+    }
+
+    /**
+     * <code>Group</code> is a set of compatible pieces to merge into a single
+     * batch.
+     */
+    private static final class Group {
+
+        /**
+         * The pieces of the group.
+         */
+        private final List<Piece> pieces = new ArrayList<>();
+        /**
+         * The material used to render the batch.
+         */
+        private final Material material;
+        /**
+         * The render states of the batch.
+         */
+        private final EnumMap<Type, RenderState> states;
+        /**
+         * The vertex buffers layout of the batch.
+         */
+        private final Map<String, Integer> layout;
+        /**
+         * The bucket of the batch.
+         */
+        private final BucketType bucket;
+        /**
+         * The render layer of the batch.
+         */
+        private final RenderLayer layer;
+        /**
+         * The number of vertices of the batch.
+         */
+        private int vertexCount = 0;
+        /**
+         * The number of indices of the batch.
+         */
+        private int indexCount = 0;
+
+        private Group(Piece piece) {
+            this.material = piece.physica.getMaterial();
+            this.states = piece.states;
+            this.layout = piece.layout;
+            this.bucket = piece.physica.getBucket();
+            this.layer = piece.physica.getRenderLayer();
+        }
+
+        private boolean accepts(Piece piece) {
+            var physica = piece.physica;
+            return states.equals(piece.states) && layout.equals(piece.layout) && bucket.equals(physica.getBucket())
+                    && layer.equals(physica.getRenderLayer()) && material.isBatchCompatible(physica.getMaterial());
+        }
+
+        private void add(Piece piece) {
+            var mesh = piece.physica.getMesh();
+            pieces.add(piece);
+            vertexCount += piece.vertexCount;
+            indexCount += mesh.hasIndices() ? mesh.getElementCount() : piece.vertexCount;
+        }
+
+        /**
+         * Merges the pieces of the group into a new batch.
+         */
+        private BatchedPhysicaMundi build(String name) {
+            var vertices = new TreeMap<String, float[]>();
+            for (var entry : layout.entrySet()) {
+                vertices.put(entry.getKey(), new float[vertexCount * entry.getValue()]);
+            }
+            var indices = new int[indexCount];
+
+            var count = pieces.size();
+            var names = new String[count];
+            var ranges = new int[count * BatchedPhysicaMundi.RANGE_SIZE];
+            var bounds = new BoundingBox[count];
+
+            var baseVertex = 0;
+            var baseIndex = 0;
+            for (int i = 0; i < count; i++) {
+                var piece = pieces.get(i);
+                var mesh = piece.physica.getMesh();
+                var m = piece.matrix;
+
+                // The normals are transformed with the inverse transpose of the linear part, which
+                // rows are the cross products of the rows of the matrix, divided by its determinant.
+                var n0x = m.m11() * m.m22() - m.m12() * m.m21();
+                var n0y = m.m12() * m.m20() - m.m10() * m.m22();
+                var n0z = m.m10() * m.m21() - m.m11() * m.m20();
+                var n1x = m.m21() * m.m02() - m.m22() * m.m01();
+                var n1y = m.m22() * m.m00() - m.m20() * m.m02();
+                var n1z = m.m20() * m.m01() - m.m21() * m.m00();
+                var n2x = m.m01() * m.m12() - m.m02() * m.m11();
+                var n2y = m.m02() * m.m10() - m.m00() * m.m12();
+                var n2z = m.m00() * m.m11() - m.m01() * m.m10();
+                var det = m.m00() * n0x + m.m01() * n0y + m.m02() * n0z;
+
+                var minX = Float.POSITIVE_INFINITY;
+                var minY = Float.POSITIVE_INFINITY;
+                var minZ = Float.POSITIVE_INFINITY;
+                var maxX = Float.NEGATIVE_INFINITY;
+                var maxY = Float.NEGATIVE_INFINITY;
+                var maxZ = Float.NEGATIVE_INFINITY;
+
+                for (var entry : vertices.entrySet()) {
+                    var key = entry.getKey();
+                    var source = (FloatBuffer) mesh.getBuffer(key).getData();
+                    var target = entry.getValue();
+                    var size = layout.get(key);
+                    var offset = baseVertex * size;
+
+                    if (key.equals(VertexBufferType.POSITION.toString())) {
+                        for (int v = 0; v < piece.vertexCount; v++) {
+                            var x = source.get(v * 3);
+                            var y = source.get(v * 3 + 1);
+                            var z = source.get(v * 3 + 2);
+                            var tx = x * m.m00() + y * m.m10() + z * m.m20() + m.m30();
+                            var ty = x * m.m01() + y * m.m11() + z * m.m21() + m.m31();
+                            var tz = x * m.m02() + y * m.m12() + z * m.m22() + m.m32();
+                            target[offset + v * 3] = tx;
+                            target[offset + v * 3 + 1] = ty;
+                            target[offset + v * 3 + 2] = tz;
+
+                            minX = Math.min(minX, tx);
+                            minY = Math.min(minY, ty);
+                            minZ = Math.min(minZ, tz);
+                            maxX = Math.max(maxX, tx);
+                            maxY = Math.max(maxY, ty);
+                            maxZ = Math.max(maxZ, tz);
+                        }
+                    } else if (size == 3 && key.equals(VertexBufferType.NORMAL.toString())) {
+                        // Keep the normals facing outward for a mirroring transform.
+                        var sign = det < 0 ? -1.0F : 1.0F;
+                        for (int v = 0; v < piece.vertexCount; v++) {
+                            var x = source.get(v * 3);
+                            var y = source.get(v * 3 + 1);
+                            var z = source.get(v * 3 + 2);
+                            storeDirection(target, offset + v * 3, (x * n0x + y * n1x + z * n2x) * sign,
+                                    (x * n0y + y * n1y + z * n2y) * sign, (x * n0z + y * n1z + z * n2z) * sign);
+                        }
+                    } else if (size == 3 && (key.equals(VertexBufferType.TANGENT.toString())
+                            || key.equals(VertexBufferType.BITANGENT.toString()))) {
+                        for (int v = 0; v < piece.vertexCount; v++) {
+                            var x = source.get(v * 3);
+                            var y = source.get(v * 3 + 1);
+                            var z = source.get(v * 3 + 2);
+                            storeDirection(target, offset + v * 3, x * m.m00() + y * m.m10() + z * m.m20(),
+                                    x * m.m01() + y * m.m11() + z * m.m21(), x * m.m02() + y * m.m12() + z * m.m22());
+                        }
+                    } else {
+                        for (int j = 0; j < piece.vertexCount * size; j++) {
+                            target[offset + j] = source.get(j);
+                        }
+                    }
+                }
+
+                var pieceIndices = TriangleHierarchy.readIndices(mesh, piece.vertexCount);
+                var length = pieceIndices.length - pieceIndices.length % 3;
+                for (int j = 0; j < length; j += 3) {
+                    indices[baseIndex + j] = pieceIndices[j] + baseVertex;
+                    // A mirroring transform reverses the winding of the triangles.
+                    if (det < 0) {
+                        indices[baseIndex + j + 1] = pieceIndices[j + 2] + baseVertex;
+                        indices[baseIndex + j + 2] = pieceIndices[j + 1] + baseVertex;
+                    } else {
+                        indices[baseIndex + j + 1] = pieceIndices[j + 1] + baseVertex;
+                        indices[baseIndex + j + 2] = pieceIndices[j + 2] + baseVertex;
+                    }
+                }
+
+                names[i] = piece.physica.getName();
+                var range = i * BatchedPhysicaMundi.RANGE_SIZE;
+                ranges[range] = baseIndex;
+                ranges[range + 1] = length;
+                ranges[range + 2] = baseVertex;
+                ranges[range + 3] = baseVertex + piece.vertexCount - 1;
+                bounds[i] = new BoundingBox().setMinMax(minX, minY, minZ, maxX, maxY, maxZ);
+
+                baseVertex += piece.vertexCount;
+                baseIndex += length;
+            }
+
+            var mesh = new Mesh();
+            // The position buffer is setup first, as it determines the vertex count.
+            var positionKey = VertexBufferType.POSITION.toString();
+            setupBuffer(mesh, positionKey, layout.get(positionKey), vertices.get(positionKey));
+            for (var entry : vertices.entrySet()) {
+                if (!entry.getKey().equals(positionKey)) {
+                    setupBuffer(mesh, entry.getKey(), layout.get(entry.getKey()), entry.getValue());
+                }
+            }
+
+            var indexBuffer = BufferUtils.createIndicesBuffer(Math.max(baseIndex, 1), Math.max(vertexCount - 1, 1));
+            BufferUtils.put(indexBuffer, IntBuffer.wrap(indices, 0, baseIndex));
+            mesh.setupIndexBuffer(indexBuffer.flip());
+
+            var batch = new BatchedPhysicaMundi(name, mesh, names, ranges, bounds);
+            batch.setMaterial(material);
+            batch.setRenderStates(states.values().toArray(new RenderState[states.size()]));
+            return batch;
+        }
+
+        private static void storeDirection(float[] target, int offset, float x, float y, float z) {
+            var length = (float) Math.sqrt(x * x + y * y + z * z);
+            var invLength = length > 0 ? 1.0F / length : 0.0F;
+            target[offset] = x * invLength;
+            target[offset + 1] = y * invLength;
+            target[offset + 2] = z * invLength;
+        }
+
+        private static void setupBuffer(Mesh mesh, String key, int size, float[] data) {
+            var buffer = BufferUtils.createFloatBuffer(data.length).put(data).flip();
+            for (var type : VertexBufferType.values()) {
+                if (type.toString().equals(key)) {
+                    mesh.setupBuffer(type, Usage.STATIC_DRAW, buffer);
+                    return;
+                }
+            }
+            mesh.setupBuffer(key, size, Usage.STATIC_DRAW, buffer);
+        }
+    }
+}
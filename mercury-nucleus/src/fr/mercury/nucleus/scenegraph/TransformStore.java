@@ -0,0 +1,499 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.objects.Transform;
+import fr.mercury.nucleus.scenegraph.visitor.DirtyType;
+import fr.mercury.nucleus.scenegraph.visitor.SceneTraversal;
+import fr.mercury.nucleus.scenegraph.visitor.VisitType;
+import fr.mercury.nucleus.scenegraph.visitor.Visitor;
+
+/**
+ * <code>TransformStore</code> is an optional dense storage of the transforms of a hierarchy of {@link AnimaMundi},
+ * using a structure-of-arrays layout instead of the {@link Transform} objects owned by each anima-mundi.
+ * <p>
+ * The local and world transforms are packed as affine transformations (9 components for the matrix combining the rotation
+ * and the scale, 3 for the translation) in primitive float arrays, indexed by anima-mundi. The anima-mundis are ordered
+ * level by level from the root, so that a parent is always stored before its children, allowing the world transforms to be
+ * computed one level at a time, in parallel chunks for the large levels.
+ * <p>
+ * The {@link AnimaMundi} setters are still used to modify a transform, they only mark the anima-mundi as changed in the
+ * store, which will pull the new local transform during the next {@link #update()}. Once computed, the world transform is
+ * written back to the anima-mundi so it can still be accessed with {@link AnimaMundi#getWorldTransform()}.
+ * <p>
+ * Only the changed anima-mundis and their descendants are recomputed: since the level ordering keeps the children of
+ * consecutive anima-mundis contiguous, the dirty part of each level is a single index range, and the clean levels are
+ * skipped entirely.
+ * <p>
+ * Attaching or detaching an anima-mundi in the hierarchy invalidates the ordering of the store, which is rebuilt during
+ * the next update.
+ *
+ * @author GnosticOccultist
+ */
+public final class TransformStore {
+
+    /**
+     * The number of float components used to store an affine transformation.
+     */
+    private static final int STRIDE = 12;
+    /**
+     * The number of anima-mundis processed by a single task, levels smaller than
+     * this value are processed on the calling thread.
+     */
+    private static final int CHUNK_SIZE = 1024;
+    /**
+     * The visitor releasing the anima-mundis detached from the stored hierarchy.
+     */
+    private static final Visitor RELEASER = anima -> anima.setTransformStore(null, -1);
+
+    /**
+     * The root of the hierarchy stored.
+     */
+    private final AnimaMundi root;
+    /**
+     * The stored anima-mundis ordered level by level.
+     */
+    private AnimaMundi[] nodes = new AnimaMundi[0];
+    /**
+     * The index of the parent of each anima-mundi in the store, or -1 for the root.
+     */
+    private int[] parents = new int[0];
+    /**
+     * The index of the first child of each anima-mundi, its children being stored
+     * up to the first child of the next one. The last value is the number of stored
+     * anima-mundis.
+     */
+    private int[] firstChildren = new int[0];
+    /**
+     * The index of the first anima-mundi of each level, the last value being the
+     * number of stored anima-mundis.
+     */
+    private int[] levels = new int[0];
+    /**
+     * The index of the first changed anima-mundi of each level since the last
+     * update, or the end of the level if none.
+     */
+    private int[] changedStarts = new int[0];
+    /**
+     * The index following the last changed anima-mundi of each level since the last
+     * update, or the start of the level if none.
+     */
+    private int[] changedEnds = new int[0];
+    /**
+     * The packed local transforms.
+     */
+    private float[] local = new float[0];
+    /**
+     * The packed world transforms.
+     */
+    private float[] world = new float[0];
+    /**
+     * Whether the local transform of an anima-mundi has changed since the last
+     * update.
+     */
+    private boolean[] changed = new boolean[0];
+    /**
+     * Whether the world transform of an anima-mundi has been recomputed during the
+     * current update.
+     */
+    private boolean[] updated = new boolean[0];
+    /**
+     * The packed world transform of the parent of the root, when it is attached to
+     * a hierarchy outside of the store.
+     */
+    private final float[] rootParent = new float[STRIDE];
+    /**
+     * The number of stored anima-mundis.
+     */
+    private int size = 0;
+    /**
+     * Whether a local transform has changed since the last update.
+     */
+    private boolean pending = false;
+    /**
+     * Whether the hierarchy has changed and the store needs to be rebuilt.
+     */
+    private boolean invalid = true;
+    /**
+     * Whether the store has been disposed, and is no longer used by the hierarchy.
+     */
+    private boolean disposed = false;
+    /**
+     * Whether to compute the large levels in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Instantiates a new <code>TransformStore</code> for the provided root
+     * {@link AnimaMundi} and its descendants.
+     * <p>
+     * The store is used by the hierarchy as soon as it is instantiated, until
+     * {@link #dispose()} is called.
+     *
+     * @param root The root of the hierarchy to store (not null).
+     *
+     * @throws IllegalStateException Thrown if the root already belongs to a store.
+     */
+    public TransformStore(AnimaMundi root) {
+        Validator.nonNull(root, "The root anima-mundi can't be null!");
+        if (root.getTransformStore() != null) {
+            throw new IllegalStateException(root + " already belongs to a transform store!");
+        }
+
+        this.root = root;
+        rebuild();
+    }
+
+    /**
+     * Updates the world transforms of the stored hierarchy, by pulling the changed
+     * local transforms and recomputing the world transform of the changed
+     * anima-mundis and their descendants.
+     * <p>
+     * Each updated world transform is written back to its anima-mundi, the
+     * {@link DirtyType#TRANSFORM} marks being removed when the anima-mundis are
+     * reached by the geometric state update. The method returns immediately if
+     * nothing has changed since the last update, so it can be called for each
+     * dirty subtree of the hierarchy, or if the store has been disposed.
+     */
+    public void update() {
+        if (disposed) {
+            return;
+        } else if (invalid) {
+            rebuild();
+        } else if (!pending && !root.isDirty(DirtyType.TRANSFORM)) {
+            return;
+        }
+
+        this.pending = false;
+
+        // The range of the previous level which has been visited, its updated children are in the next one.
+        var parentStart = 0;
+        var parentEnd = 0;
+        for (int l = 0; l < levels.length - 1; l++) {
+            var start = changedStarts[l];
+            var end = changedEnds[l];
+            changedStarts[l] = levels[l + 1];
+            changedEnds[l] = levels[l];
+
+            // The children of the visited range are contiguous, and the root may be dirtied from outside.
+            var rootDirty = l == 0 && root.isDirty(DirtyType.TRANSFORM);
+            var childStart = rootDirty ? 0 : firstChildren[parentStart];
+            var childEnd = rootDirty ? 1 : firstChildren[parentEnd];
+            if (childStart < childEnd && start < end) {
+                start = Math.min(start, childStart);
+                end = Math.max(end, childEnd);
+            } else if (childStart < childEnd) {
+                start = childStart;
+                end = childEnd;
+            }
+
+            var count = end - start;
+            if (count <= 0) {
+                // Neither changed nor below an updated anima-mundi, the level is clean.
+                parentStart = parentEnd = 0;
+                continue;
+            }
+
+            var first = start;
+            var last = end;
+            var visitedStart = parentStart;
+            var visitedEnd = parentEnd;
+            if (!parallel || count <= CHUNK_SIZE) {
+                updateRange(first, last, visitedStart, visitedEnd);
+            } else {
+                // Parents are all computed at this point, so each chunk of the level is independent.
+                var chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                IntStream.range(0, chunks).parallel().forEach(c -> {
+                    var from = first + c * CHUNK_SIZE;
+                    updateRange(from, Math.min(from + CHUNK_SIZE, last), visitedStart, visitedEnd);
+                });
+            }
+
+            parentStart = start;
+            parentEnd = end;
+        }
+    }
+
+    /**
+     * Updates the world transforms of the anima-mundis stored between the provided
+     * indices, which must belong to the same level.
+     *
+     * @param start        The index of the first anima-mundi (inclusive).
+     * @param end          The index of the last anima-mundi (exclusive).
+     * @param visitedStart The index of the first visited anima-mundi of the previous level (inclusive).
+     * @param visitedEnd   The index of the last visited anima-mundi of the previous level (exclusive).
+     */
+    private void updateRange(int start, int end, int visitedStart, int visitedEnd) {
+        for (int i = start; i < end; i++) {
+            var anima = nodes[i];
+            var parent = parents[i];
+
+            // A parent outside of the visited range hasn't been updated, whatever its previous state.
+            var dirty = changed[i] || (parent >= 0 ? parent >= visitedStart && parent < visitedEnd && updated[parent]
+                    : anima.isDirty(DirtyType.TRANSFORM));
+            updated[i] = dirty;
+
+            if (dirty) {
+                if (changed[i]) {
+                    anima.localTransform.toAffine(local, i * STRIDE);
+                    changed[i] = false;
+                }
+
+                if (parent >= 0) {
+                    compose(world, parent * STRIDE, local, i * STRIDE, world, i * STRIDE);
+                } else if (anima.parent != null) {
+                    // The root of the store is attached to a hierarchy outside of it.
+                    anima.parent.worldTransform.toAffine(rootParent, 0);
+                    compose(rootParent, 0, local, i * STRIDE, world, i * STRIDE);
+                } else {
+                    System.arraycopy(local, i * STRIDE, world, i * STRIDE, STRIDE);
+                }
+
+                anima.worldTransform.setAffine(world, i * STRIDE);
+            }
+        }
+    }
+
+    /**
+     * Composes the parent affine transformation with the child one and store the
+     * result in the given array. It uses the same convention as
+     * {@link Transform#worldTransform(fr.mercury.nucleus.math.readable.ReadableTransform, Transform)}.
+     */
+    private static void compose(float[] p, int po, float[] c, int co, float[] store, int so) {
+        var p00 = p[po];
+        var p01 = p[po + 1];
+        var p02 = p[po + 2];
+        var p10 = p[po + 3];
+        var p11 = p[po + 4];
+        var p12 = p[po + 5];
+        var p20 = p[po + 6];
+        var p21 = p[po + 7];
+        var p22 = p[po + 8];
+
+        var c00 = c[co];
+        var c01 = c[co + 1];
+        var c02 = c[co + 2];
+        var c10 = c[co + 3];
+        var c11 = c[co + 4];
+        var c12 = c[co + 5];
+        var c20 = c[co + 6];
+        var c21 = c[co + 7];
+        var c22 = c[co + 8];
+        var tx = c[co + 9];
+        var ty = c[co + 10];
+        var tz = c[co + 11];
+
+        store[so] = p00 * c00 + p01 * c10 + p02 * c20;
+        store[so + 1] = p00 * c01 + p01 * c11 + p02 * c21;
+        store[so + 2] = p00 * c02 + p01 * c12 + p02 * c22;
+        store[so + 3] = p10 * c00 + p11 * c10 + p12 * c20;
+        store[so + 4] = p10 * c01 + p11 * c11 + p12 * c21;
+        store[so + 5] = p10 * c02 + p11 * c12 + p12 * c22;
+        store[so + 6] = p20 * c00 + p21 * c10 + p22 * c20;
+        store[so + 7] = p20 * c01 + p21 * c11 + p22 * c21;
+        store[so + 8] = p20 * c02 + p21 * c12 + p22 * c22;
+
+        store[so + 9] = p00 * tx + p01 * ty + p02 * tz + p[po + 9];
+        store[so + 10] = p10 * tx + p11 * ty + p12 * tz + p[po + 10];
+        store[so + 11] = p20 * tx + p21 * ty + p22 * tz + p[po + 11];
+    }
+
+    /**
+     * Rebuilds the <code>TransformStore</code> by ordering the hierarchy level by
+     * level from the root. Every stored anima-mundi is marked as changed, so their
+     * transforms are entirely recomputed during the next update.
+     */
+    private void rebuild() {
+        // Release the previously stored anima-mundis, some may have been detached.
+        for (int i = 0; i < size; i++) {
+            nodes[i].setTransformStore(null, -1);
+        }
+
+        var ordered = new ArrayDeque<AnimaMundi>();
+        var parentIndices = new ArrayDeque<Integer>();
+        var levelStarts = new int[8];
+        var levelCount = 0;
+
+        var count = 0;
+        var enqueued = 1;
+        var buffer = new AnimaMundi[Math.max(16, size)];
+        var parentBuffer = new int[buffer.length];
+        var childBuffer = new int[buffer.length + 1];
+
+        ordered.add(root);
+        parentIndices.add(-1);
+        var levelEnd = 1;
+        levelStarts[levelCount++] = 0;
+
+        while (!ordered.isEmpty()) {
+            var anima = ordered.poll();
+            var parentIndex = parentIndices.poll();
+
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count * 2);
+                parentBuffer = Arrays.copyOf(parentBuffer, count * 2);
+                childBuffer = Arrays.copyOf(childBuffer, count * 2 + 1);
+            }
+
+            anima.setTransformStore(this, count);
+            buffer[count] = anima;
+            parentBuffer[count] = parentIndex;
+            childBuffer[count] = enqueued;
+
+            if (anima instanceof NucleusMundi) {
+                for (var child : (NucleusMundi) anima) {
+                    ordered.add(child);
+                    parentIndices.add(count);
+                    enqueued++;
+                }
+            }
+
+            count++;
+
+            // Every anima-mundi of the current level has been stored.
+            if (count == levelEnd && !ordered.isEmpty()) {
+                if (levelCount == levelStarts.length) {
+                    levelStarts = Arrays.copyOf(levelStarts, levelCount * 2);
+                }
+                levelStarts[levelCount++] = count;
+                levelEnd = count + ordered.size();
+            }
+        }
+
+        this.size = count;
+        this.nodes = buffer;
+        this.parents = parentBuffer;
+        this.firstChildren = childBuffer;
+        this.firstChildren[count] = count;
+        this.levels = Arrays.copyOf(levelStarts, levelCount + 1);
+        this.levels[levelCount] = count;
+        // Every level is entirely changed.
+        this.changedStarts = Arrays.copyOf(levelStarts, levelCount);
+        this.changedEnds = Arrays.copyOfRange(levels, 1, levelCount + 1);
+
+        if (local.length < count * STRIDE) {
+            this.local = new float[buffer.length * STRIDE];
+            this.world = new float[buffer.length * STRIDE];
+        }
+        if (changed.length < count) {
+            this.changed = new boolean[buffer.length];
+            this.updated = new boolean[buffer.length];
+        }
+        Arrays.fill(changed, 0, count, true);
+
+        this.invalid = false;
+    }
+
+    /**
+     * Marks the local transform of the stored {@link AnimaMundi} at the provided
+     * index as changed.
+     *
+     * @param index The index of the anima-mundi in the store.
+     */
+    void markChanged(int index) {
+        changed[index] = true;
+        pending = true;
+
+        var level = Arrays.binarySearch(levels, 0, levels.length - 1, index);
+        if (level < 0) {
+            // The index is inside of a level, not at its start.
+            level = -level - 2;
+        }
+        changedStarts[level] = Math.min(changedStarts[level], index);
+        changedEnds[level] = Math.max(changedEnds[level], index + 1);
+    }
+
+    /**
+     * Releases the provided {@link AnimaMundi} and its descendants from the
+     * <code>TransformStore</code>, because it has been detached from the stored
+     * hierarchy. The store will be rebuilt during the next update.
+     * <p>
+     * If the anima-mundi is the root of the store, the store is disposed instead.
+     *
+     * @param anima The anima-mundi to release (not null).
+     */
+    void release(AnimaMundi anima) {
+        if (anima == root) {
+            dispose();
+            return;
+        }
+
+        SceneTraversal.local().traverse(anima, RELEASER, VisitType.PRE_ORDER);
+
+        invalidate();
+    }
+
+    /**
+     * Invalidates the <code>TransformStore</code>, because the stored hierarchy has
+     * changed. The store will be rebuilt during the next update.
+     */
+    void invalidate() {
+        this.invalid = true;
+    }
+
+    /**
+     * Disposes the <code>TransformStore</code>, the stored anima-mundis will update
+     * their transforms by themselves again. The store can't be used afterwards, any
+     * further update does nothing.
+     */
+    public void dispose() {
+        for (int i = 0; i < size; i++) {
+            nodes[i].setTransformStore(null, -1);
+        }
+        // Marks the whole hierarchy, so the world transforms are computed by the anima-mundis.
+        root.dirty(DirtyType.TRANSFORM);
+
+        this.nodes = new AnimaMundi[0];
+        this.size = 0;
+        this.disposed = true;
+    }
+
+    /**
+     * Return the root {@link AnimaMundi} of the hierarchy stored in the
+     * <code>TransformStore</code>.
+     *
+     * @return The root anima-mundi of the store.
+     */
+    public AnimaMundi getRoot() {
+        return root;
+    }
+
+    /**
+     * Return the number of {@link AnimaMundi} stored in the
+     * <code>TransformStore</code>.
+     *
+     * @return The number of stored anima-mundis.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the <code>TransformStore</code> computes the large levels of
+     * the hierarchy in parallel.
+     *
+     * @return Whether the store uses parallel computations (default&rarr;true).
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether the <code>TransformStore</code> should compute the large levels
+     * of the hierarchy in parallel.
+     *
+     * @param parallel Whether the store uses parallel computations (default&rarr;true).
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[root= " + root + ", size= " + size + ", levels= "
+                + Math.max(0, levels.length - 1) + "]";
+    }
+}
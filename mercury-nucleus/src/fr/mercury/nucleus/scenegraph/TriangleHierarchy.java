@@ -0,0 +1,506 @@
+package fr.mercury.nucleus.scenegraph;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import fr.mercury.nucleus.renderer.opengl.vertex.VertexBufferType;
+
+/**
+ * <code>TriangleHierarchy</code> stores the triangles of a {@link Mesh} in model space to test them against a ray,
+ * using a static bounding volume hierarchy built with a median split of their centroids.
+ * <p>
+ * The triangles are read from the {@link VertexBufferType#POSITION} and {@link VertexBufferType#INDEX} buffers of the
+ * mesh, and assembled according to its {@link Mesh.Mode}. The modes which aren't made of triangles don't have any
+ * triangle to intersect.
+ * <p>
+ * The hierarchy is immutable once built, so it can be queried from multiple threads. It is lazily created by the mesh
+ * and discarded when its positions, indices or mode are changed.
+ *
+ * @author GnosticOccultist
+ *
+ * @see Mesh#setPickingHierarchy(boolean)
+ */
+final class TriangleHierarchy {
+
+    /**
+     * The maximum number of triangles in a leaf of the hierarchy.
+     */
+    private static final int LEAF_SIZE = 4;
+    /**
+     * The determinant under which a triangle is considered parallel to the ray.
+     */
+    private static final float EPSILON = 1E-12F;
+
+    /**
+     * The positions of the vertices packed as [x, y, z].
+     */
+    private final float[] positions;
+    /**
+     * The three vertex indices of each triangle.
+     */
+    private final int[] triangles;
+    /**
+     * The number of triangles.
+     */
+    private final int count;
+    /**
+     * The triangles ordered so that each leaf references a contiguous range.
+     */
+    private final int[] order;
+    /**
+     * The boxes of each node packed as [minX, minY, minZ, maxX, maxY, maxZ].
+     */
+    private final float[] bounds;
+    /**
+     * The first triangle of a leaf, or the second child of an inner node whose
+     * first child directly follows it.
+     */
+    private final int[] nodeData;
+    /**
+     * The number of triangles of a leaf, or 0 for an inner node.
+     */
+    private final int[] nodeCounts;
+    /**
+     * The number of nodes.
+     */
+    private int nodeCount = 0;
+    /**
+     * The maximum depth of the nodes.
+     */
+    private int depth = 0;
+
+    /**
+     * Instantiates a new <code>TriangleHierarchy</code> with the triangles of
+     * the provided {@link Mesh}.
+     *
+     * @param mesh  The mesh to read the triangles from (not null).
+     * @param split Whether to split the triangles into a hierarchy, or store them
+     *              in a single leaf to be tested one by one.
+     */
+    TriangleHierarchy(Mesh mesh, boolean split) {
+        this.positions = readPositions(mesh);
+
+        var vertexCount = positions.length / 3;
+        var indices = readIndices(mesh, vertexCount);
+        this.triangles = assemble(mesh.getMode(), indices, vertexCount);
+        this.count = triangles.length / 3;
+
+        this.order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+
+        // A split node has at least 2 triangles in each leaf, so there is at most a node per triangle.
+        var capacity = Math.max(1, split ? count + 1 : 1);
+        this.bounds = new float[capacity * 6];
+        this.nodeData = new int[capacity];
+        this.nodeCounts = new int[capacity];
+
+        if (count > 0) {
+            var centroids = split ? computeCentroids() : null;
+            build(0, count, 0, split, centroids);
+        }
+    }
+
+    /**
+     * Finds the closest triangle intersected by the provided ray in model space,
+     * and stores it in the {@link RayHit} if it is closer than its current
+     * distance. The triangles are considered two-sided.
+     * <p>
+     * The direction doesn't need to be normalized, the distance of the hit is
+     * expressed as a multiple of its length.
+     *
+     * @param ox  The X-axis coordinate of the ray origin.
+     * @param oy  The Y-axis coordinate of the ray origin.
+     * @param oz  The Z-axis coordinate of the ray origin.
+     * @param dx  The X-axis component of the ray direction.
+     * @param dy  The Y-axis component of the ray direction.
+     * @param dz  The Z-axis component of the ray direction.
+     * @param hit The hit to update with a closer intersection (not null).
+     * @return    Whether a closer intersection has been found.
+     */
+    boolean intersect(float ox, float oy, float oz, float dx, float dy, float dz, RayHit hit) {
+        if (count == 0) {
+            return false;
+        }
+
+        var invX = 1.0F / dx;
+        var invY = 1.0F / dy;
+        var invZ = 1.0F / dz;
+
+        var found = false;
+        var stack = new int[depth + 2];
+        var top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            var node = stack[--top];
+            if (distance(node, ox, oy, oz, invX, invY, invZ) >= hit.getDistance()) {
+                continue;
+            }
+
+            var size = nodeCounts[node];
+            if (size > 0) {
+                var start = nodeData[node];
+                for (int i = start; i < start + size; i++) {
+                    found |= intersect(order[i], ox, oy, oz, dx, dy, dz, hit);
+                }
+                continue;
+            }
+
+            var first = node + 1;
+            var second = nodeData[node];
+            // Visit the nearest child first, to skip the farthest one more often.
+            if (distance(first, ox, oy, oz, invX, invY, invZ) > distance(second, ox, oy, oz, invX, invY, invZ)) {
+                stack[top++] = first;
+                stack[top++] = second;
+            } else {
+                stack[top++] = second;
+                stack[top++] = first;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Intersects the provided triangle with the ray using the Moller-Trumbore
+     * algorithm.
+     */
+    private boolean intersect(int triangle, float ox, float oy, float oz, float dx, float dy, float dz, RayHit hit) {
+        var i0 = triangles[triangle * 3] * 3;
+        var i1 = triangles[triangle * 3 + 1] * 3;
+        var i2 = triangles[triangle * 3 + 2] * 3;
+
+        var v0x = positions[i0];
+        var v0y = positions[i0 + 1];
+        var v0z = positions[i0 + 2];
+
+        var e1x = positions[i1] - v0x;
+        var e1y = positions[i1 + 1] - v0y;
+        var e1z = positions[i1 + 2] - v0z;
+        var e2x = positions[i2] - v0x;
+        var e2y = positions[i2 + 1] - v0y;
+        var e2z = positions[i2 + 2] - v0z;
+
+        // P = D x E2
+        var px = dy * e2z - dz * e2y;
+        var py = dz * e2x - dx * e2z;
+        var pz = dx * e2y - dy * e2x;
+
+        var det = e1x * px + e1y * py + e1z * pz;
+        if (det > -EPSILON && det < EPSILON) {
+            // The ray is parallel to the triangle.
+            return false;
+        }
+
+        var invDet = 1.0F / det;
+        var sx = ox - v0x;
+        var sy = oy - v0y;
+        var sz = oz - v0z;
+
+        var u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0 || u > 1) {
+            return false;
+        }
+
+        // Q = S x E1
+        var qx = sy * e1z - sz * e1y;
+        var qy = sz * e1x - sx * e1z;
+        var qz = sx * e1y - sy * e1x;
+
+        var v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v < 0 || u + v > 1) {
+            return false;
+        }
+
+        var t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        return t >= 0 && hit.offer(triangle, t, u, v);
+    }
+
+    /**
+     * Return the entry distance of the ray into the box of the provided node, or
+     * {@link Float#POSITIVE_INFINITY} if it misses it.
+     */
+    private float distance(int node, float ox, float oy, float oz, float invX, float invY, float invZ) {
+        var offset = node * 6;
+
+        var t1 = (bounds[offset] - ox) * invX;
+        var t2 = (bounds[offset + 3] - ox) * invX;
+        var tMin = Math.min(t1, t2);
+        var tMax = Math.max(t1, t2);
+
+        t1 = (bounds[offset + 1] - oy) * invY;
+        t2 = (bounds[offset + 4] - oy) * invY;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+
+        t1 = (bounds[offset + 2] - oz) * invZ;
+        t2 = (bounds[offset + 5] - oz) * invZ;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+
+        if (tMax < 0 || !(tMin <= tMax)) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return Math.max(tMin, 0);
+    }
+
+    /**
+     * Builds the node enclosing the provided range of ordered triangles, and
+     * splits it into two children at the median of the centroids along its
+     * longest axis.
+     */
+    private int build(int start, int end, int level, boolean split, float[] centroids) {
+        var node = nodeCount++;
+        this.depth = Math.max(depth, level);
+        computeBounds(node, start, end);
+
+        var size = end - start;
+        if (!split || size <= LEAF_SIZE) {
+            nodeData[node] = start;
+            nodeCounts[node] = size;
+            return node;
+        }
+
+        var axis = longestAxis(start, end, centroids);
+        var middle = (start + end) >>> 1;
+        select(start, end - 1, middle, axis, centroids);
+
+        nodeCounts[node] = 0;
+        // The first child is always allocated right after its parent.
+        build(start, middle, level + 1, split, centroids);
+        nodeData[node] = build(middle, end, level + 1, split, centroids);
+        return node;
+    }
+
+    private void computeBounds(int node, int start, int end) {
+        var minX = Float.POSITIVE_INFINITY;
+        var minY = Float.POSITIVE_INFINITY;
+        var minZ = Float.POSITIVE_INFINITY;
+        var maxX = Float.NEGATIVE_INFINITY;
+        var maxY = Float.NEGATIVE_INFINITY;
+        var maxZ = Float.NEGATIVE_INFINITY;
+
+        for (int i = start; i < end; i++) {
+            var triangle = order[i] * 3;
+            for (int j = 0; j < 3; j++) {
+                var vertex = triangles[triangle + j] * 3;
+                minX = Math.min(minX, positions[vertex]);
+                minY = Math.min(minY, positions[vertex + 1]);
+                minZ = Math.min(minZ, positions[vertex + 2]);
+                maxX = Math.max(maxX, positions[vertex]);
+                maxY = Math.max(maxY, positions[vertex + 1]);
+                maxZ = Math.max(maxZ, positions[vertex + 2]);
+            }
+        }
+
+        var offset = node * 6;
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = minZ;
+        bounds[offset + 3] = maxX;
+        bounds[offset + 4] = maxY;
+        bounds[offset + 5] = maxZ;
+    }
+
+    private int longestAxis(int start, int end, float[] centroids) {
+        var min = new float[] { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY };
+        var max = new float[] { Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY };
+        for (int i = start; i < end; i++) {
+            var centroid = order[i] * 3;
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], centroids[centroid + axis]);
+                max[axis] = Math.max(max[axis], centroids[centroid + axis]);
+            }
+        }
+
+        var result = 0;
+        for (int axis = 1; axis < 3; axis++) {
+            if (max[axis] - min[axis] > max[result] - min[result]) {
+                result = axis;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Partially sorts the ordered triangles between the provided bounds
+     * (inclusive), so that the one at the given index has its centroid at the
+     * median along the axis.
+     */
+    private void select(int low, int high, int index, int axis, float[] centroids) {
+        while (high > low) {
+            var pivot = centroids[order[(low + high) >>> 1] * 3 + axis];
+            var i = low;
+            var j = high;
+            while (i <= j) {
+                while (centroids[order[i] * 3 + axis] < pivot) {
+                    i++;
+                }
+                while (centroids[order[j] * 3 + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    var tmp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+
+            if (index <= j) {
+                high = j;
+            } else if (index >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private float[] computeCentroids() {
+        var centroids = new float[count * 3];
+        for (int i = 0; i < count; i++) {
+            var i0 = triangles[i * 3] * 3;
+            var i1 = triangles[i * 3 + 1] * 3;
+            var i2 = triangles[i * 3 + 2] * 3;
+            // The sum is enough to compare the centroids.
+            for (int axis = 0; axis < 3; axis++) {
+                centroids[i * 3 + axis] = positions[i0 + axis] + positions[i1 + axis] + positions[i2 + axis];
+            }
+        }
+        return centroids;
+    }
+
+    /**
+     * Return the number of triangles stored in the <code>TriangleHierarchy</code>.
+     *
+     * @return The number of triangles (&ge;0).
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Return the positions of the three vertices of each triangle of the provided
+     * {@link Mesh}, packed as [x0, y0, z0, x1, y1, z1, x2, y2, z2].
+     */
+    static float[] unpack(Mesh mesh) {
+        var positions = readPositions(mesh);
+        var vertexCount = positions.length / 3;
+        var triangles = assemble(mesh.getMode(), readIndices(mesh, vertexCount), vertexCount);
+
+        var result = new float[triangles.length * 3];
+        for (int i = 0; i < triangles.length; i++) {
+            var vertex = triangles[i] * 3;
+            result[i * 3] = positions[vertex];
+            result[i * 3 + 1] = positions[vertex + 1];
+            result[i * 3 + 2] = positions[vertex + 2];
+        }
+        return result;
+    }
+
+    private static float[] readPositions(Mesh mesh) {
+        var buffer = mesh.getBuffer(VertexBufferType.POSITION);
+        var data = buffer != null ? buffer.getData() : null;
+        if (!(data instanceof FloatBuffer)) {
+            return new float[0];
+        }
+
+        var positions = (FloatBuffer) data;
+        var result = new float[positions.limit() - positions.limit() % 3];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = positions.get(i);
+        }
+        return result;
+    }
+
+    static int[] readIndices(Mesh mesh, int vertexCount) {
+        var buffer = mesh.getBuffer(VertexBufferType.INDEX);
+        Buffer data = buffer != null ? buffer.getData() : null;
+        if (data == null) {
+            // Non-indexed mesh, the vertices are used in order.
+            var result = new int[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                result[i] = i;
+            }
+            return result;
+        }
+
+        var result = new int[data.limit()];
+        for (int i = 0; i < result.length; i++) {
+            if (data instanceof IntBuffer) {
+                result[i] = ((IntBuffer) data).get(i);
+            } else if (data instanceof ShortBuffer) {
+                result[i] = ((ShortBuffer) data).get(i) & 0xFFFF;
+            } else if (data instanceof ByteBuffer) {
+                result[i] = ((ByteBuffer) data).get(i) & 0xFF;
+            } else {
+                throw new UnsupportedOperationException("Unsupported index buffer " + data.getClass().getSimpleName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Assembles the triangles described by the provided indices and primitive
+     * {@link Mesh.Mode}. A triangle referencing an invalid vertex is kept degenerate,
+     * so that it can't be hit but the index of the others is preserved.
+     */
+    private static int[] assemble(Mesh.Mode mode, int[] indices, int vertexCount) {
+        if (vertexCount == 0) {
+            return new int[0];
+        }
+
+        int count;
+        switch (mode) {
+        case TRIANGLES:
+            count = indices.length / 3;
+            break;
+        case TRIANGLE_STRIP:
+        case TRIANGLE_FAN:
+            count = Math.max(0, indices.length - 2);
+            break;
+        default:
+            return new int[0];
+        }
+
+        var result = new int[count * 3];
+        for (int i = 0; i < count; i++) {
+            int a, b, c;
+            if (mode == Mesh.Mode.TRIANGLES) {
+                a = indices[i * 3];
+                b = indices[i * 3 + 1];
+                c = indices[i * 3 + 2];
+            } else if (mode == Mesh.Mode.TRIANGLE_STRIP) {
+                a = indices[i];
+                b = indices[i + 1];
+                c = indices[i + 2];
+            } else {
+                a = indices[0];
+                b = indices[i + 1];
+                c = indices[i + 2];
+            }
+
+            if (a < 0 || b < 0 || c < 0 || a >= vertexCount || b >= vertexCount || c >= vertexCount) {
+                a = b = c = 0;
+            }
+
+            result[i * 3] = a;
+            result[i * 3 + 1] = b;
+            result[i * 3 + 2] = c;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[triangles= " + count + ", nodes= " + nodeCount + ", depth= " + depth
+                + "]";
+    }
+}
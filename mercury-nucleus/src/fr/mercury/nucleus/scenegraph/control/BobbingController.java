@@ -0,0 +1,108 @@
+package fr.mercury.nucleus.scenegraph.control;
+
+import java.util.EnumSet;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.math.MercuryMath;
+import fr.mercury.nucleus.scenegraph.Controller;
+import fr.mercury.nucleus.scenegraph.ControllerAccess;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>BobbingController</code> is an implementation of {@link Controller} which moves its anima-mundi up and down
+ * along its local Y-axis, following a sine wave around the translation it has when the controller starts.
+ * <p>
+ * Only the offset between two updates is applied, so the translation of the anima-mundi can still be modified by
+ * other means while it is bobbing.
+ *
+ * @author GnosticOccultist
+ */
+public class BobbingController extends Controller {
+
+    /**
+     * The angle of a full oscillation in radians.
+     */
+    private static final float TWO_PI = (float) (2.0 * Math.PI);
+
+    /**
+     * The maximum offset along the Y-axis.
+     */
+    private final float amplitude;
+    /**
+     * The number of oscillations per second.
+     */
+    private final float frequency;
+    /**
+     * The elapsed time in seconds since the controller started.
+     */
+    private float time;
+    /**
+     * The offset applied during the last update.
+     */
+    private float offset = 0.0F;
+
+    /**
+     * Instantiates a new <code>BobbingController</code> with the provided amplitude
+     * and frequency.
+     *
+     * @param amplitude The maximum offset along the Y-axis (&ge;0).
+     * @param frequency The number of oscillations per second (&ge;0).
+     * @param phase     The initial phase of the oscillation in seconds, to avoid
+     *                  bobbing several anima-mundis in unison.
+     */
+    public BobbingController(float amplitude, float frequency, float phase) {
+        super(EnumSet.noneOf(ControllerAccess.class), EnumSet.of(ControllerAccess.LOCAL_TRANSFORM));
+        Validator.nonNegative(amplitude, "The amplitude can't be negative!");
+        Validator.nonNegative(frequency, "The frequency can't be negative!");
+        this.amplitude = amplitude;
+        this.frequency = frequency;
+        this.time = phase;
+    }
+
+    @Override
+    protected void update(ReadableTimer timer) {
+        bob(timer.getTimePerFrame());
+    }
+
+    @Override
+    protected void update(Controller[] batch, int from, int to, ReadableTimer timer) {
+        var tpf = timer.getTimePerFrame();
+        for (int i = from; i < to; i++) {
+            var controller = (BobbingController) batch[i];
+            if (controller.isEnabled()) {
+                controller.bob(tpf);
+            }
+        }
+    }
+
+    private void bob(float tpf) {
+        time += tpf;
+        var next = offset(time);
+        localTransform().translate(0.0F, next - offset, 0.0F);
+        offset = next;
+    }
+
+    private float offset(float time) {
+        return amplitude * MercuryMath.sin(TWO_PI * frequency * time);
+    }
+
+    /**
+     * Return the maximum offset of the <code>BobbingController</code> along the
+     * Y-axis.
+     *
+     * @return The amplitude of the bobbing (&ge;0).
+     */
+    public float getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * Return the number of oscillations per second of the
+     * <code>BobbingController</code>.
+     *
+     * @return The frequency of the bobbing (&ge;0).
+     */
+    public float getFrequency() {
+        return frequency;
+    }
+}
@@ -0,0 +1,86 @@
+package fr.mercury.nucleus.scenegraph.control;
+
+import java.util.EnumSet;
+
+import fr.mercury.nucleus.scenegraph.Controller;
+import fr.mercury.nucleus.scenegraph.ControllerAccess;
+import fr.mercury.nucleus.utils.ReadableTimer;
+
+/**
+ * <code>RotationController</code> is an implementation of {@link Controller} which continuously rotates its
+ * anima-mundi around its local axes, at a constant angular speed.
+ *
+ * @author GnosticOccultist
+ */
+public class RotationController extends Controller {
+
+    /**
+     * The angular speed around the X-axis in radians per second.
+     */
+    private float speedX;
+    /**
+     * The angular speed around the Y-axis in radians per second.
+     */
+    private float speedY;
+    /**
+     * The angular speed around the Z-axis in radians per second.
+     */
+    private float speedZ;
+
+    /**
+     * Instantiates a new <code>RotationController</code> with the provided angular
+     * speeds around each local axis.
+     *
+     * @param speedX The angular speed around the X-axis in radians per second.
+     * @param speedY The angular speed around the Y-axis in radians per second.
+     * @param speedZ The angular speed around the Z-axis in radians per second.
+     */
+    public RotationController(float speedX, float speedY, float speedZ) {
+        super(EnumSet.of(ControllerAccess.LOCAL_TRANSFORM), EnumSet.of(ControllerAccess.LOCAL_TRANSFORM));
+        setSpeed(speedX, speedY, speedZ);
+    }
+
+    @Override
+    protected void update(ReadableTimer timer) {
+        rotate(timer.getTimePerFrame());
+    }
+
+    @Override
+    protected void update(Controller[] batch, int from, int to, ReadableTimer timer) {
+        var tpf = timer.getTimePerFrame();
+        for (int i = from; i < to; i++) {
+            var controller = (RotationController) batch[i];
+            if (controller.isEnabled()) {
+                controller.rotate(tpf);
+            }
+        }
+    }
+
+    private void rotate(float tpf) {
+        localTransform().rotate(speedX * tpf, speedY * tpf, speedZ * tpf);
+    }
+
+    /**
+     * Sets the angular speeds of the <code>RotationController</code> around each
+     * local axis.
+     *
+     * @param speedX The angular speed around the X-axis in radians per second.
+     * @param speedY The angular speed around the Y-axis in radians per second.
+     * @param speedZ The angular speed around the Z-axis in radians per second.
+     */
+    public void setSpeed(float speedX, float speedY, float speedZ) {
+        this.speedX = speedX;
+        this.speedY = speedY;
+        this.speedZ = speedZ;
+    }
+
+    /**
+     * Return the angular speed of the <code>RotationController</code> around the
+     * local Y-axis.
+     *
+     * @return The angular speed around the Y-axis in radians per second.
+     */
+    public float getSpeedY() {
+        return speedY;
+    }
+}
@@ -55,7 +55,7 @@ public class DirectionalLight extends Light {
 	 */
 	public void setDirection(Vector3f direction) {
 		Validator.nonNull(direction);
-		direction.set(direction);
+		this.direction.set(direction);
 	}
 
     @Override
@@ -13,8 +13,19 @@ public enum DirtyType {
      * Flag to notify the {@link AnimaMundi} about a dirty transform.
      */
     TRANSFORM,
+    /**
+     * Flag to notify the {@link AnimaMundi} about dirty world bounds, because the
+     * transform or the bounds of one of its descendants have changed.
+     */
+    BOUNDS,
     /**
      * Flag to notify the {@link AnimaMundi} about some dirty render states.
      */
-    RENDER_STATE;
+    RENDER_STATE,
+    /**
+     * Flag to notify the {@link AnimaMundi} about dirty environment elements,
+     * because one of its local elements or its environment mode has changed, or it
+     * has been attached to another parent.
+     */
+    ENVIRONMENT;
 }
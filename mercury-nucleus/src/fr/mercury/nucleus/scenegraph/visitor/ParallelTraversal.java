@@ -0,0 +1,258 @@
+package fr.mercury.nucleus.scenegraph.visitor;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+
+/**
+ * <code>ParallelTraversal</code> visits a scenegraph structure with a {@link ParallelVisitor}, by splitting it into
+ * tasks executed by a {@link ForkJoinPool}.
+ * <p>
+ * A subtree is visited by its own task only if it contains at least a threshold number of anima-mundis, and the
+ * smaller children of a {@link NucleusMundi} are grouped into contiguous ranges of similar size, so that a wide
+ * scene with many small children is split as well as a deep one. A subtree below the threshold is visited
+ * sequentially by the task which reached it.
+ *
+ * @author GnosticOccultist
+ *
+ * @see VisitType#PARALLEL_PRE_ORDER
+ */
+public final class ParallelTraversal {
+
+    /**
+     * The default minimum number of anima-mundis for a subtree to be visited by its own task.
+     */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    /**
+     * The parallel traversal used by {@link VisitType#PARALLEL_PRE_ORDER}.
+     */
+    private static volatile ParallelTraversal defaultTraversal = new ParallelTraversal(DEFAULT_THRESHOLD,
+            ForkJoinPool.commonPool());
+
+    /**
+     * The minimum number of anima-mundis for a subtree to be visited by its own task.
+     */
+    private final int threshold;
+    /**
+     * The pool executing the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Instantiates a new <code>ParallelTraversal</code> with the provided
+     * threshold, using the common {@link ForkJoinPool}.
+     *
+     * @param threshold The minimum number of anima-mundis for a subtree to be
+     *                  visited by its own task (&gt;0).
+     */
+    public ParallelTraversal(int threshold) {
+        this(threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiates a new <code>ParallelTraversal</code> with the provided
+     * threshold and {@link ForkJoinPool}.
+     *
+     * @param threshold The minimum number of anima-mundis for a subtree to be
+     *                  visited by its own task (&gt;0).
+     * @param pool      The pool executing the tasks (not null).
+     */
+    public ParallelTraversal(int threshold, ForkJoinPool pool) {
+        Validator.positive(threshold, "The subtree size threshold must be strictly positive!");
+        Validator.nonNull(pool, "The fork/join pool can't be null!");
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Visits the provided {@link AnimaMundi} and its descendants with the given
+     * {@link ParallelVisitor}, and return the merged result of the accumulators.
+     * <p>
+     * The method blocks until the whole hierarchy has been visited, and the
+     * scenegraph structure mustn't be modified meanwhile.
+     *
+     * @param anima   The anima-mundi to start the visit from (not null).
+     * @param visitor The thread-safe visitor to use (not null).
+     * @return        The merged accumulator of all the tasks.
+     */
+    public <A> A visit(AnimaMundi anima, ParallelVisitor<A> visitor) {
+        Validator.nonNull(anima, "The anima-mundi to visit can't be null!");
+        Validator.nonNull(visitor, "The parallel visitor can't be null!");
+
+        var task = new VisitTask<>(visitor, anima, null, 0, 0);
+        if (anima.getSubtreeSize() < threshold) {
+            // Not worth to involve the pool.
+            return task.compute();
+        }
+
+        return pool.invoke(task);
+    }
+
+    /**
+     * Return the minimum number of anima-mundis for a subtree to be visited by its
+     * own task.
+     *
+     * @return The subtree size threshold (&gt;0).
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Return the <code>ParallelTraversal</code> used when visiting with
+     * {@link VisitType#PARALLEL_PRE_ORDER}.
+     *
+     * @return The default parallel traversal.
+     */
+    public static ParallelTraversal getDefault() {
+        return defaultTraversal;
+    }
+
+    /**
+     * Sets the <code>ParallelTraversal</code> to use when visiting with
+     * {@link VisitType#PARALLEL_PRE_ORDER}, for example to change the subtree size
+     * threshold.
+     *
+     * @param traversal The default parallel traversal (not null).
+     */
+    public static void setDefault(ParallelTraversal traversal) {
+        Validator.nonNull(traversal, "The default parallel traversal can't be null!");
+        defaultTraversal = traversal;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[threshold= " + threshold + ", parallelism= " + pool.getParallelism()
+                + "]";
+    }
+
+    /**
+     * <code>VisitTask</code> visits either a subtree or a range of children of a
+     * {@link NucleusMundi}, and forks new tasks for the large subtrees it
+     * encounters.
+     *
+     * @param <A> The type of accumulator used by the visitor.
+     */
+    private final class VisitTask<A> extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The visitor to use.
+         */
+        private final ParallelVisitor<A> visitor;
+        /**
+         * The root of the subtree to visit, or null to visit a range of children.
+         */
+        private final AnimaMundi anima;
+        /**
+         * The parent of the range of children to visit.
+         */
+        private final NucleusMundi parent;
+        /**
+         * The index of the first child to visit (inclusive).
+         */
+        private final int from;
+        /**
+         * The index of the last child to visit (exclusive).
+         */
+        private final int to;
+
+        VisitTask(ParallelVisitor<A> visitor, AnimaMundi anima, NucleusMundi parent, int from, int to) {
+            this.visitor = visitor;
+            this.anima = anima;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            var local = visitor.newAccumulator();
+            var forks = new ArrayList<VisitTask<A>>();
+            // Adapts the visitor to visit the small subtrees iteratively on this thread.
+            PruningVisitor sequential = (child, depth) -> {
+                visitor.visit(child, local);
+                return VisitResult.CONTINUE;
+            };
+
+            if (anima != null) {
+                visitor.visit(anima, local);
+                if (anima instanceof NucleusMundi) {
+                    var nucleus = (NucleusMundi) anima;
+                    split(nucleus, 0, nucleus.size(), sequential, forks);
+                }
+            } else {
+                // The range has been grouped to be visited by this task only.
+                for (int i = from; i < to; i++) {
+                    visitSequential(parent.getChild(i), sequential);
+                }
+            }
+
+            var accumulator = local;
+
+            for (int i = 0; i < forks.size(); i++) {
+                accumulator = visitor.merge(accumulator, forks.get(i).join());
+            }
+
+            return accumulator;
+        }
+
+        /**
+         * Splits the children of the provided {@link NucleusMundi} into forked
+         * tasks, and visits sequentially the ones which aren't worth a task.
+         */
+        private void split(NucleusMundi nucleus, int start, int end, PruningVisitor sequential,
+                ArrayList<VisitTask<A>> forks) {
+            var rangeStart = start;
+            var rangeSize = 0;
+
+            for (int i = start; i < end; i++) {
+                var child = nucleus.getChild(i);
+                var size = child.getSubtreeSize();
+
+                if (size >= threshold) {
+                    // Visit the pending small children, before forking the large one.
+                    for (int j = rangeStart; j < i; j++) {
+                        visitSequential(nucleus.getChild(j), sequential);
+                    }
+
+                    var task = new VisitTask<>(visitor, child, null, 0, 0);
+                    task.fork();
+                    forks.add(task);
+
+                    rangeStart = i + 1;
+                    rangeSize = 0;
+                    continue;
+                }
+
+                rangeSize += size;
+                if (rangeSize >= threshold) {
+                    var task = new VisitTask<>(visitor, null, nucleus, rangeStart, i + 1);
+                    task.fork();
+                    forks.add(task);
+
+                    rangeStart = i + 1;
+                    rangeSize = 0;
+                }
+            }
+
+            for (int j = rangeStart; j < end; j++) {
+                visitSequential(nucleus.getChild(j), sequential);
+            }
+        }
+
+        /**
+         * Visits the provided {@link AnimaMundi} and its descendants in pre-order on
+         * the calling thread, with its iterative {@link SceneTraversal}.
+         */
+        private void visitSequential(AnimaMundi anima, PruningVisitor sequential) {
+            SceneTraversal.local().traverse(anima, sequential, VisitType.PRE_ORDER);
+        }
+    }
+}
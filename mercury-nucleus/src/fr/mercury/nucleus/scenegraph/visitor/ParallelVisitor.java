@@ -0,0 +1,73 @@
+package fr.mercury.nucleus.scenegraph.visitor;
+
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+
+/**
+ * <code>ParallelVisitor</code> is an interface to visit the scenegraph structure from multiple threads, using a
+ * {@link ParallelTraversal}. The anima-mundis are visited in pre-order within a branch, but independent branches
+ * are visited concurrently, so the implementation must be thread-safe and mustn't modify the scenegraph structure.
+ * <p>
+ * Each task of the traversal accumulates its results into its own accumulator, created with {@link #newAccumulator()},
+ * which are then merged together into a single result, in no particular order.
+ *
+ * @param <A> The type of accumulator used by the visitor.
+ *
+ * @author GnosticOccultist
+ */
+public interface ParallelVisitor<A> {
+
+    /**
+     * Return a new empty accumulator to be used by a single task of the
+     * traversal.
+     *
+     * @return A new accumulator, can be null if the visitor doesn't accumulate
+     *         anything.
+     */
+    A newAccumulator();
+
+    /**
+     * Visit the specified {@link AnimaMundi}, and accumulate its result into the
+     * provided accumulator, which is only accessed by the calling thread.
+     *
+     * @param anima       The anima-mundi to visit.
+     * @param accumulator The accumulator of the current task.
+     */
+    void visit(AnimaMundi anima, A accumulator);
+
+    /**
+     * Merge the two provided accumulators into a single one, which can be one of
+     * them.
+     *
+     * @param first  The first accumulator to merge.
+     * @param second The second accumulator to merge.
+     * @return       The merged accumulator.
+     */
+    A merge(A first, A second);
+
+    /**
+     * Return a <code>ParallelVisitor</code> visiting with the provided thread-safe
+     * {@link Visitor}, without accumulating any result.
+     *
+     * @param visitor The thread-safe visitor to use (not null).
+     * @return        A parallel visitor delegating to the visitor.
+     */
+    static ParallelVisitor<Void> of(Visitor visitor) {
+        return new ParallelVisitor<Void>() {
+
+            @Override
+            public Void newAccumulator() {
+                return null;
+            }
+
+            @Override
+            public void visit(AnimaMundi anima, Void accumulator) {
+                visitor.visit(anima);
+            }
+
+            @Override
+            public Void merge(Void first, Void second) {
+                return null;
+            }
+        };
+    }
+}
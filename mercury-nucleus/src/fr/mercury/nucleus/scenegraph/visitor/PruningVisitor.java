@@ -0,0 +1,29 @@
+package fr.mercury.nucleus.scenegraph.visitor;
+
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+
+/**
+ * <code>PruningVisitor</code> is a functional interface to traverse the scenegraph structure, which can prune
+ * the traversal by returning a {@link VisitResult} for each visited {@link AnimaMundi}. 
+ * <br>
+ * The traversal is performed using a {@link SceneTraversal} by calling {@link AnimaMundi#traverse(PruningVisitor, VisitType)}.
+ * 
+ * @author GnosticOccultist
+ */
+@FunctionalInterface
+public interface PruningVisitor {
+
+    /**
+     * Visit the specified {@link AnimaMundi} at the given depth, relative to the
+     * anima-mundi the traversal started from.
+     * <p>
+     * During a {@link VisitType#PRE_ORDER} traversal, the last anima-mundi visited at
+     * the previous depth is always the parent of the visited one, which allows to
+     * inherit a value from the parent by storing it by depth.
+     * 
+     * @param anima The anima-mundi to visit.
+     * @param depth The depth of the anima-mundi in the traversal (&ge;0).
+     * @return      Whether to continue the traversal with the children of the anima-mundi.
+     */
+    VisitResult visit(AnimaMundi anima, int depth);
+}
@@ -0,0 +1,291 @@
+package fr.mercury.nucleus.scenegraph.visitor;
+
+import java.util.Arrays;
+
+import fr.alchemy.utilities.Validator;
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+import fr.mercury.nucleus.scenegraph.NucleusMundi;
+
+/**
+ * <code>SceneTraversal</code> is the iterative traversal engine of the scenegraph structure, using an explicit stack
+ * (or queue) instead of recursive calls, so that deep hierarchies can't overflow the call stack.
+ * <p>
+ * The traversal supports all the {@link VisitType}, and allows a {@link PruningVisitor} to skip the descendants of
+ * a visited {@link AnimaMundi}. The stack is reused between traversals and only grows when needed, so a traversal
+ * doesn't allocate any memory once warmed up.
+ * <p>
+ * An instance isn't thread-safe, each thread should use its own {@link #local() instance}. A traversal started
+ * during another one from the same instance, for example from a visitor, is performed with a nested instance, which
+ * is kept for the next nested traversals.
+ *
+ * @author GnosticOccultist
+ */
+public final class SceneTraversal {
+
+    /**
+     * The traversal instance of each thread.
+     */
+    private static final ThreadLocal<SceneTraversal> LOCAL = ThreadLocal.withInitial(SceneTraversal::new);
+
+    /**
+     * The stack or queue of anima-mundis to visit.
+     */
+    private AnimaMundi[] nodes = new AnimaMundi[32];
+    /**
+     * The depth of each anima-mundi in the stack, or its next child to visit for a
+     * post-order traversal.
+     */
+    private int[] values = new int[32];
+    /**
+     * The number of entries in the stack or queue.
+     */
+    private int size = 0;
+    /**
+     * Whether a traversal is currently performed with the instance.
+     */
+    private boolean busy = false;
+    /**
+     * The instance performing the traversals started during a traversal of this
+     * one, lazily created.
+     */
+    private SceneTraversal nested = null;
+    /**
+     * The visitor currently used by a non-pruning traversal.
+     */
+    private Visitor visitor = null;
+    /**
+     * The adapter of the current non-pruning visitor, which never prunes the
+     * traversal.
+     */
+    private final PruningVisitor adapter = (anima, depth) -> {
+        visitor.visit(anima);
+        return VisitResult.CONTINUE;
+    };
+
+    /**
+     * Return the <code>SceneTraversal</code> instance of the calling thread.
+     *
+     * @return The traversal instance of the thread.
+     */
+    public static SceneTraversal local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Traverses the provided {@link AnimaMundi} and its descendants in the given
+     * {@link VisitType} order with the {@link Visitor}.
+     * <p>
+     * A {@link VisitType#PARALLEL_PRE_ORDER} traversal is delegated to the default
+     * {@link ParallelTraversal}.
+     *
+     * @param root    The anima-mundi to start the traversal from (not null).
+     * @param visitor The visitor to use (not null).
+     * @param type    The order of the traversal (not null).
+     */
+    public void traverse(AnimaMundi root, Visitor visitor, VisitType type) {
+        Validator.nonNull(visitor, "The visitor can't be null!");
+        Validator.nonNull(type, "The visit type can't be null!");
+
+        if (type == VisitType.PARALLEL_PRE_ORDER) {
+            ParallelTraversal.getDefault().visit(root, ParallelVisitor.of(visitor));
+            return;
+        }
+
+        if (busy) {
+            nested().traverse(root, visitor, type);
+            return;
+        }
+
+        this.visitor = visitor;
+        try {
+            traverse(root, adapter, type);
+        } finally {
+            this.visitor = null;
+        }
+    }
+
+    /**
+     * Traverses the provided {@link AnimaMundi} and its descendants in the given
+     * {@link VisitType} order with the {@link PruningVisitor}.
+     *
+     * @param root    The anima-mundi to start the traversal from (not null).
+     * @param visitor The pruning visitor to use (not null).
+     * @param type    The order of the traversal, it can't be
+     *                {@link VisitType#PARALLEL_PRE_ORDER} (not null).
+     *
+     * @throws IllegalArgumentException Thrown if the type is a parallel traversal.
+     */
+    public void traverse(AnimaMundi root, PruningVisitor visitor, VisitType type) {
+        Validator.nonNull(root, "The anima-mundi to traverse can't be null!");
+        Validator.nonNull(visitor, "The visitor can't be null!");
+        Validator.nonNull(type, "The visit type can't be null!");
+
+        if (busy) {
+            nested().traverse(root, visitor, type);
+            return;
+        }
+
+        this.busy = true;
+        try {
+            switch (type) {
+            case PRE_ORDER:
+                preOrder(root, visitor);
+                break;
+            case POST_ORDER:
+                postOrder(root, visitor);
+                break;
+            case DEPTH_LAYER:
+                depthLayer(root, visitor);
+                break;
+            default:
+                throw new IllegalArgumentException("The visit type " + type + " isn't supported by a pruning visitor!");
+            }
+        } finally {
+            // Release the remaining references in case the visitor has thrown an exception.
+            Arrays.fill(nodes, 0, size, null);
+            this.size = 0;
+            this.busy = false;
+        }
+    }
+
+    /**
+     * Traverses the provided {@link AnimaMundi} and its descendants, by entering
+     * each anima-mundi with the {@link PruningVisitor} before its children and
+     * exiting it with the {@link Visitor} after them.
+     * <p>
+     * An anima-mundi entered with {@link VisitResult#CONTINUE} has its children
+     * entered, while one entered with {@link VisitResult#SKIP_CHILDREN} is exited
+     * right away. An entered anima-mundi is always exited, which allows to update
+     * a subtree lazily with a single iterative traversal.
+     *
+     * @param root  The anima-mundi to start the traversal from (not null).
+     * @param enter The visitor entering each anima-mundi, before its children (not null).
+     * @param exit  The visitor exiting each entered anima-mundi, after its children (not null).
+     */
+    public void traverse(AnimaMundi root, PruningVisitor enter, Visitor exit) {
+        Validator.nonNull(root, "The anima-mundi to traverse can't be null!");
+        Validator.nonNull(enter, "The entering visitor can't be null!");
+        Validator.nonNull(exit, "The exiting visitor can't be null!");
+
+        if (busy) {
+            nested().traverse(root, enter, exit);
+            return;
+        }
+
+        this.busy = true;
+        try {
+            enter(root, enter);
+
+            while (size > 0) {
+                var top = size - 1;
+                var anima = nodes[top];
+
+                if (anima instanceof NucleusMundi && values[top] < ((NucleusMundi) anima).size()) {
+                    enter(((NucleusMundi) anima).getChild(values[top]++), enter);
+                } else {
+                    nodes[top] = null;
+                    size--;
+                    exit.visit(anima);
+                }
+            }
+        } finally {
+            // Release the remaining references in case a visitor has thrown an exception.
+            Arrays.fill(nodes, 0, size, null);
+            this.size = 0;
+            this.busy = false;
+        }
+    }
+
+    private void enter(AnimaMundi anima, PruningVisitor enter) {
+        // The depth is given by the position in the stack, and the value is the
+        // index of the next child to enter.
+        switch (enter.visit(anima, size)) {
+        case CONTINUE:
+            push(anima, 0);
+            break;
+        case SKIP_CHILDREN:
+            push(anima, Integer.MAX_VALUE);
+            break;
+        }
+    }
+
+    private void preOrder(AnimaMundi root, PruningVisitor visitor) {
+        push(root, 0);
+
+        while (size > 0) {
+            size--;
+            var anima = nodes[size];
+            var depth = values[size];
+            nodes[size] = null;
+
+            if (visitor.visit(anima, depth) == VisitResult.CONTINUE && anima instanceof NucleusMundi) {
+                var nucleus = (NucleusMundi) anima;
+                // Push in reverse order, so the first child is visited first.
+                for (int i = nucleus.size() - 1; i >= 0; i--) {
+                    push(nucleus.getChild(i), depth + 1);
+                }
+            }
+        }
+    }
+
+    private void postOrder(AnimaMundi root, PruningVisitor visitor) {
+        // The depth is given by the position in the stack, and the value is the
+        // index of the next child to visit.
+        push(root, 0);
+
+        while (size > 0) {
+            var top = size - 1;
+            var anima = nodes[top];
+
+            if (anima instanceof NucleusMundi && values[top] < ((NucleusMundi) anima).size()) {
+                var child = ((NucleusMundi) anima).getChild(values[top]++);
+                push(child, 0);
+            } else {
+                nodes[top] = null;
+                size--;
+                visitor.visit(anima, top);
+            }
+        }
+    }
+
+    private void depthLayer(AnimaMundi root, PruningVisitor visitor) {
+        // The entries are used as a queue, only reset once the traversal is done.
+        push(root, 0);
+
+        for (int head = 0; head < size; head++) {
+            var anima = nodes[head];
+            var depth = values[head];
+            nodes[head] = null;
+
+            if (visitor.visit(anima, depth) == VisitResult.CONTINUE && anima instanceof NucleusMundi) {
+                var nucleus = (NucleusMundi) anima;
+                for (int i = 0; i < nucleus.size(); i++) {
+                    push(nucleus.getChild(i), depth + 1);
+                }
+            }
+        }
+    }
+
+    private SceneTraversal nested() {
+        if (nested == null) {
+            this.nested = new SceneTraversal();
+        }
+        return nested;
+    }
+
+    private void push(AnimaMundi anima, int value) {
+        if (size == nodes.length) {
+            this.nodes = Arrays.copyOf(nodes, size * 2);
+            this.values = Arrays.copyOf(values, size * 2);
+        }
+
+        nodes[size] = anima;
+        values[size] = value;
+        size++;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[capacity= " + nodes.length + ", busy= " + busy + "]";
+    }
+}
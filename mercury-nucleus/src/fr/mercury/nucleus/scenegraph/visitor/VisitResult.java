@@ -0,0 +1,22 @@
+package fr.mercury.nucleus.scenegraph.visitor;
+
+import fr.mercury.nucleus.scenegraph.AnimaMundi;
+
+/**
+ * <code>VisitResult</code> is an enumeration of the possible results of a visit by a {@link PruningVisitor}, 
+ * allowing to prune the traversal of the scenegraph.
+ * 
+ * @author GnosticOccultist
+ */
+public enum VisitResult {
+    /**
+     * The traversal continues with the children of the visited {@link AnimaMundi}.
+     */
+    CONTINUE,
+    /**
+     * The children of the visited {@link AnimaMundi} and their descendants are skipped by the 
+     * traversal. It has no effect for a {@link VisitType#POST_ORDER} visit, since the children 
+     * have already been visited.
+     */
+    SKIP_CHILDREN;
+}
@@ -16,6 +16,11 @@ package fr.mercury.nucleus.scenegraph.visitor;
  * If you want more info, go check: <a>https://en.wikipedia.org/wiki/Breadth-first_search</a>.</li>
  * <p>
  * <pre> {@link #DEPTH_LAYER} </pre>
+ * <p>
+ * <li>By using a parallel DFS, the independent branches of the tree are visited concurrently by a {@link ParallelTraversal}, 
+ * so the visitor must be thread-safe.</li>
+ * <p>
+ * <pre> {@link #PARALLEL_PRE_ORDER} </pre>
  * 
  * @author GnosticOccultist
  */
@@ -34,5 +39,11 @@ public enum VisitType {
      * The visit applies to all the <code>AnimaMundi</code> present at the same depth, before moving to the next depth 
      * level (BFS).
      */
-    DEPTH_LAYER;
+    DEPTH_LAYER,
+    /**
+     * The visit applies to all the <code>AnimaMundi</code> within a same branch, similar to {@link VisitType#PRE_ORDER}, 
+     * but the large branches are visited concurrently using the {@link ParallelTraversal#getDefault() default} parallel 
+     * traversal (parallel DFS). The order between branches isn't defined and the visitor must be thread-safe.
+     */
+    PARALLEL_PRE_ORDER;
 }
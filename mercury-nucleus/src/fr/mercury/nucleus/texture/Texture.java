@@ -8,7 +8,6 @@ import org.lwjgl.opengl.EXTTextureFilterAnisotropic;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL11C;
 import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL30;
 import org.lwjgl.opengl.GL30C;
 import org.lwjgl.opengl.GL32;
@@ -17,9 +16,11 @@ import org.lwjgl.system.MemoryUtil;
 import fr.alchemy.utilities.Validator;
 import fr.mercury.nucleus.math.objects.Color;
 import fr.mercury.nucleus.renderer.opengl.GLObject;
+import fr.mercury.nucleus.renderer.opengl.GLStateTracker;
 import fr.mercury.nucleus.renderer.opengl.shader.ShaderProgram;
 import fr.mercury.nucleus.texture.TextureState.MagFilter;
 import fr.mercury.nucleus.texture.TextureState.MinFilter;
+import fr.mercury.nucleus.texture.TextureState.WrapCoordinate;
 import fr.mercury.nucleus.texture.TextureState.WrapMode;
 import fr.mercury.nucleus.utils.GLException;
 import fr.mercury.nucleus.utils.OpenGLCall;
@@ -47,6 +48,10 @@ public abstract class Texture extends GLObject {
      * The state with changes to apply.
      */
     protected TextureState toApply;
+    /**
+     * The path of the asset the texture was loaded from, or null.
+     */
+    protected String assetPath = null;
 
     /**
      * Determines if the provided ID correspond to an OpenGL <code>Texture</code>.
@@ -73,7 +78,7 @@ public abstract class Texture extends GLObject {
      */
     public static void unbind(TextureType type) {
         Validator.nonNull(type, "The texture type can't be null!");
-        GL15.glBindTexture(Texture.getOpenGLType(type), 0);
+        GLStateTracker.bindTexture(Texture.getOpenGLType(type), 0);
     }
 
     /**
@@ -86,8 +91,8 @@ public abstract class Texture extends GLObject {
     }
 
     /**
-     * Binds the <code>Texture</code> to the OpenGL context, allowing it to be used
-     * or updated.
+     * Binds the <code>Texture</code> to the active unit of the OpenGL context,
+     * allowing it to be used or updated.
      * <p>
      * Note that there is only one bound buffer per OpenGL {@link TextureType}.
      */
@@ -97,7 +102,7 @@ public abstract class Texture extends GLObject {
             throw new GLException("The " + getClass().getSimpleName() + " isn't created yet!");
         }
 
-        GL11.glBindTexture(getOpenGLType(), getID());
+        GLStateTracker.bindTexture(getOpenGLType(), getID());
     }
 
     @Override
@@ -120,8 +125,12 @@ public abstract class Texture extends GLObject {
      */
     @OpenGLCall
     public void bindToUnit(int unit) {
-        bind();
-        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+        if (getID() == INVALID_ID) {
+            throw new GLException("The " + getClass().getSimpleName() + " isn't created yet!");
+        }
+
+        // Activate the unit before binding, the call is skipped if already bound to it.
+        GLStateTracker.bindTexture(unit, getOpenGLType(), getID());
     }
 
     /**
@@ -134,7 +143,7 @@ public abstract class Texture extends GLObject {
      */
     @OpenGLCall
     public void unbind() {
-        GL11.glBindTexture(getOpenGLType(), 0);
+        GLStateTracker.bindTexture(getOpenGLType(), 0);
     }
 
     /**
@@ -366,6 +375,63 @@ public abstract class Texture extends GLObject {
         this.image.setNeedUpdate(true);
     }
 
+    /**
+     * Return the {@link MinFilter} requested for the <code>Texture</code>.
+     * 
+     * @return The minification filter, or null if it was never set.
+     */
+    public MinFilter getMinFilter() {
+        return toApply.minFilter;
+    }
+
+    /**
+     * Return the {@link MagFilter} requested for the <code>Texture</code>.
+     * 
+     * @return The magnification filter, or null if it was never set.
+     */
+    public MagFilter getMagFilter() {
+        return toApply.magFilter;
+    }
+
+    /**
+     * Return the {@link WrapMode} requested for the given {@link WrapCoordinate} of
+     * the <code>Texture</code>.
+     * 
+     * @param coordinate The wrapping coordinate (not null).
+     * @return           The wrap mode, or null if it was never set.
+     */
+    public WrapMode getWrapMode(WrapCoordinate coordinate) {
+        Validator.nonNull(coordinate, "The wrap coordinate can't be null!");
+        switch (coordinate) {
+        case S:
+            return toApply.sWrap;
+        case T:
+            return toApply.tWrap;
+        default:
+            return toApply.rWrap;
+        }
+    }
+
+    /**
+     * Return the path of the asset the <code>Texture</code> was loaded from, which
+     * allows to reference it instead of copying its image.
+     * 
+     * @return The path of the asset, or null if the texture wasn't loaded from an
+     *         asset.
+     */
+    public String getAssetPath() {
+        return assetPath;
+    }
+
+    /**
+     * Sets the path of the asset the <code>Texture</code> was loaded from.
+     * 
+     * @param assetPath The path of the asset, or null.
+     */
+    public void setAssetPath(String assetPath) {
+        this.assetPath = assetPath;
+    }
+
     /**
      * Sets the current {@link TextureState} and the one to be applied to the
      * <code>Texture</code>. This method should only be used for copying purposes.
@@ -417,13 +483,16 @@ public abstract class Texture extends GLObject {
     @Override
     @OpenGLCall
     protected Consumer<Integer> deleteAction() {
-        return GL11::glDeleteTextures;
+        return id -> onDestroy(id).run();
     }
 
     @Override
     @OpenGLCall
     public Runnable onDestroy(int id) {
-        return () -> GL11.glDeleteTextures(id);
+        return () -> {
+            GLStateTracker.forgetTexture(id);
+            GL11.glDeleteTextures(id);
+        };
     }
 
     /**
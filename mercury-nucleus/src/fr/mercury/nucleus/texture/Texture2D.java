@@ -30,6 +30,7 @@ public class Texture2D extends Texture {
         var copy = new Texture2D();
         copy.setTextureState(currentState, toApply);
         copy.setImage(image);
+        copy.setAssetPath(assetPath);
 
         return copy;
     }
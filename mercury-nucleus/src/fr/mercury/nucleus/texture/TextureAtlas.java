@@ -131,6 +131,7 @@ public class TextureAtlas extends Texture {
         var copy = new TextureAtlas(numCols, numRows, index);
         copy.setTextureState(currentState, toApply);
         copy.setImage(image);
+        copy.setAssetPath(assetPath);
 
         return copy;
     }
@@ -19,4 +19,15 @@ public class MercuryException extends RuntimeException {
 	public MercuryException(String message) {
 		super(message);
 	}
+
+	/**
+	 * Instantiates a new <code>MercuryException</code> with the
+	 * specified message to be thrown and its cause.
+	 * 
+	 * @param message The message to be thrown.
+	 * @param cause   The cause of the exception.
+	 */
+	public MercuryException(String message, Throwable cause) {
+		super(message, cause);
+	}
 }